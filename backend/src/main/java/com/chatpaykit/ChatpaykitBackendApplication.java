@@ -2,11 +2,13 @@ package com.chatpaykit;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 
 @EnableGlobalMethodSecurity(prePostEnabled = true)
 
 @SpringBootApplication
+@EnableScheduling
 public class ChatpaykitBackendApplication {
 
 	public static void main(String[] args) {
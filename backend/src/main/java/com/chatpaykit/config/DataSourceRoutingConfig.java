@@ -0,0 +1,244 @@
+package com.chatpaykit.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.chatpaykit.shard.ShardSchema;
+import com.chatpaykit.shard.TenantShardDirectory;
+import com.chatpaykit.shard.TenantShards;
+import com.chatpaykit.workload.WorkloadClass;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces Boot's single pool when shards, read replicas and/or workload pools are on:
+ *
+ *   LazyConnectionDataSourceProxy
+ *     -> ShardRoutingDataSource (tenant -> shard-N via tenant_shards) [shards.enabled]
+ *       shard-0 (home):
+ *       -> ReplicaRoutingDataSource (read-only + tenant -> replica-N)   [replicas.enabled]
+ *         -> WorkloadRoutingDataSource (critical / api / background)    [workloads.enabled]
+ *            or a single "primary" pool
+ *       shard-1..N: one pool each
+ *
+ * Every pool reports hikaricp.* metrics tagged with its pool name, so
+ * connection wait time (hikaricp.connections.acquire) is broken down by class.
+ */
+@Configuration
+@ConditionalOnExpression("${app.datasource.replicas.enabled:false} or ${app.datasource.workloads.enabled:false}"
+        + " or ${app.datasource.shards.enabled:false}")
+public class DataSourceRoutingConfig {
+
+    // Replay position equal to receive position means caught up, even if the primary is idle
+    private static final String POSTGRES_LAG_QUERY = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0)
+                   END""";
+
+    @Value("${app.datasource.workloads.enabled:false}")
+    private boolean workloadsEnabled;
+
+    @Value("${app.datasource.workloads.criticalPoolSize:5}")
+    private int criticalPoolSize;
+
+    @Value("${app.datasource.workloads.apiPoolSize:10}")
+    private int apiPoolSize;
+
+    @Value("${app.datasource.workloads.backgroundPoolSize:3}")
+    private int backgroundPoolSize;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int primaryPoolSize;
+
+    @Value("${app.datasource.replicas.urls:}")
+    private List<String> replicaUrls;
+
+    @Value("${app.datasource.replicas.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replicas.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replicas.lagQuery:}")
+    private String lagQuery;
+
+    @Value("${app.datasource.replicas.poolSize:10}")
+    private int replicaPoolSize;
+
+    @Value("${app.datasource.replicas.maxLagMs:2000}")
+    private long maxLagMs;
+
+    @Value("${app.datasource.replicas.stickyMs:5000}")
+    private long stickyMs;
+
+    @Value("${app.datasource.shards.urls:}")
+    private List<String> shardUrls;
+
+    @Value("${app.datasource.shards.username:${spring.datasource.username:}}")
+    private String shardUsername;
+
+    @Value("${app.datasource.shards.password:${spring.datasource.password:}}")
+    private String shardPassword;
+
+    @Value("${app.datasource.shards.poolSize:10}")
+    private int shardPoolSize;
+
+    @Value("${app.datasource.shards.directoryTtlMs:5000}")
+    private long directoryTtlMs;
+
+    @Value("${app.datasource.shards.directoryCacheSize:100000}")
+    private long directoryCacheSize;
+
+    // -------------------------
+    // Primary (one pool, or one per workload class)
+    // -------------------------
+    @Bean(destroyMethod = "close")
+    public DataSource primaryDataSource(DataSourceProperties props, MeterRegistry meterRegistry) {
+        if (!workloadsEnabled) {
+            return pool(props, "primary", primaryPoolSize, meterRegistry);
+        }
+        Map<WorkloadClass, DataSource> pools = new EnumMap<>(WorkloadClass.class);
+        pools.put(WorkloadClass.CRITICAL, pool(props, "critical", criticalPoolSize, meterRegistry));
+        pools.put(WorkloadClass.API, pool(props, "api", apiPoolSize, meterRegistry));
+        pools.put(WorkloadClass.BACKGROUND, pool(props, "background", backgroundPoolSize, meterRegistry));
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    // -------------------------
+    // Read replicas
+    // -------------------------
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            MeterRegistry meterRegistry
+    ) {
+        List<ReplicaRoutingDataSource.Target> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url == null || url.isBlank()) continue;
+            String name = "replica-" + (replicas.size() + 1);
+
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName(name);
+            ds.setJdbcUrl(url.trim());
+            ds.setUsername(replicaUsername);
+            ds.setPassword(replicaPassword);
+            ds.setReadOnly(true);
+            ds.setMaximumPoolSize(replicaPoolSize);
+            // Don't fail startup when a replica is down; lag checks keep it out of rotation
+            ds.setInitializationFailTimeout(-1);
+            ds.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+            replicas.add(new ReplicaRoutingDataSource.Target(name, ds, lagQueryFor(url)));
+        }
+
+        ReplicaRoutingDataSource routing =
+                new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagMs, stickyMs, meterRegistry);
+        routing.checkLag();
+        return routing;
+    }
+
+    // -------------------------
+    // Tenant shards
+    // -------------------------
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.shards.enabled", havingValue = "true")
+    public TenantShardDirectory tenantShardDirectory(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            MeterRegistry meterRegistry
+    ) {
+        return new TenantShardDirectory(primaryDataSource, TenantShards.HOME,
+                Duration.ofMillis(directoryTtlMs), directoryCacheSize, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.datasource.shards.enabled", havingValue = "true")
+    public ShardRoutingDataSource shardRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+            TenantShardDirectory tenantShardDirectory,
+            MeterRegistry meterRegistry
+    ) {
+        DataSource home = replicaRoutingDataSource.getIfAvailable();
+        List<ShardRoutingDataSource.Shard> shards = new ArrayList<>();
+        shards.add(new ShardRoutingDataSource.Shard(TenantShards.HOME, home != null ? home : primaryDataSource));
+
+        for (String url : shardUrls) {
+            if (url == null || url.isBlank()) continue;
+            String name = "shard-" + shards.size();
+
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName(name);
+            ds.setJdbcUrl(url.trim());
+            ds.setUsername(shardUsername);
+            ds.setPassword(shardPassword);
+            ds.setMaximumPoolSize(shardPoolSize);
+            ds.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+            shards.add(new ShardRoutingDataSource.Shard(name, ds));
+        }
+        return new ShardRoutingDataSource(shards, tenantShardDirectory, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.shards.enabled", havingValue = "true")
+    public ShardSchema shardSchema(TenantShards tenantShards) {
+        return new ShardSchema(tenantShards);
+    }
+
+    // Hands Hibernate's metadata to ShardSchema
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.shards.enabled", havingValue = "true")
+    public HibernatePropertiesCustomizer shardSchemaIntegrator(ShardSchema shardSchema) {
+        return props -> props.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(shardSchema));
+    }
+
+    // Connection is fetched on first statement, after the transaction's read-only flag is set
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+            ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource
+    ) {
+        DataSource target = shardRoutingDataSource.getIfAvailable();
+        if (target == null) target = replicaRoutingDataSource.getIfAvailable();
+        return new LazyConnectionDataSourceProxy(target != null ? target : primaryDataSource);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties props, String name, int size, MeterRegistry meterRegistry) {
+        HikariDataSource ds = props.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName(name);
+        ds.setMaximumPoolSize(size);
+        ds.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return ds;
+    }
+
+    private String lagQueryFor(String url) {
+        if (lagQuery != null && !lagQuery.isBlank()) return lagQuery;
+        return url.startsWith("jdbc:postgresql:") ? POSTGRES_LAG_QUERY : "SELECT 0";
+    }
+}
@@ -1,14 +1,124 @@
 package com.chatpaykit.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.ObservationExecChainHandler;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.micrometer.observation.ObservationRegistry;
+
 @Configuration
 public class HttpClientConfig {
 
+    @Value("${app.http.connectTimeoutMs:3000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.http.readTimeoutMs:10000}")
+    private long readTimeoutMs;
+
+    @Value("${app.http.http2:true}")
+    private boolean http2;
+
+    @Value("${app.http.poolSize:50}")
+    private int poolSize;
+
+    @Value("${app.http.keepAliveSeconds:60}")
+    private long keepAliveSeconds;
+
+    // -------------------------
+    // Shared async client (WhatsApp Graph API, connection prewarm)
+    // -------------------------
+    // Pool gauges: httpcomponents.httpclient.pool.* {httpclient=outbound-async}.
+    // Request timings: httpcomponents.httpclient.request (method/status/outcome/host).
+    @Bean(destroyMethod = "close")
+    public PoolingAsyncClientConnectionManager outboundAsyncConnectionManager(MeterRegistry meterRegistry) {
+        PoolingAsyncClientConnectionManager cm = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(poolSize)
+                .setMaxConnPerRoute(poolSize)
+                .setDefaultConnectionConfig(connectionConfig())
+                // HTTP/2 is negotiated over TLS (ALPN); plain http stays on HTTP/1.1
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(http2 ? HttpVersionPolicy.NEGOTIATE : HttpVersionPolicy.FORCE_HTTP_1)
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(cm, "outbound-async").bindTo(meterRegistry);
+        return cm;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient outboundHttpClient(PoolingAsyncClientConnectionManager outboundAsyncConnectionManager,
+                                                       ObservationRegistry observationRegistry) {
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(outboundAsyncConnectionManager)
+                .setDefaultRequestConfig(requestConfig())
+                .setKeepAliveStrategy((res, ctx) -> TimeValue.ofSeconds(keepAliveSeconds))
+                .evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds))
+                .disableRedirectHandling()
+                .addExecInterceptorLast("micrometer", new ObservationExecChainHandler(observationRegistry))
+                .build();
+        client.start();
+        return client;
+    }
+
+    // -------------------------
+    // Blocking client behind RestClient (Razorpay API)
+    // -------------------------
+    // RestClient.Builder comes from Boot so these calls are recorded as
+    // http.client.requests metrics (per host/status) out of the box.
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager outboundConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager cm = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(poolSize)
+                .setMaxConnPerRoute(poolSize)
+                .setDefaultConnectionConfig(connectionConfig())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(cm, "outbound").bindTo(meterRegistry);
+        return cm;
+    }
+
     @Bean
-    public RestClient restClient() {
-        return RestClient.builder().build();
+    public RestClient restClient(RestClient.Builder builder, PoolingHttpClientConnectionManager outboundConnectionManager) {
+        CloseableHttpClient client = HttpClients.custom()
+                .setConnectionManager(outboundConnectionManager)
+                .setDefaultRequestConfig(requestConfig())
+                .setKeepAliveStrategy((res, ctx) -> TimeValue.ofSeconds(keepAliveSeconds))
+                .evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds))
+                .disableRedirectHandling()
+                .build();
+
+        return builder
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(client))
+                .build();
+    }
+
+    private ConnectionConfig connectionConfig() {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build();
+    }
+
+    private RequestConfig requestConfig() {
+        return RequestConfig.custom()
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build();
     }
 }
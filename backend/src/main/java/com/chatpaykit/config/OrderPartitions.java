@@ -0,0 +1,224 @@
+package com.chatpaykit.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.chatpaykit.shard.TenantShards;
+import com.chatpaykit.workload.Workload;
+import com.chatpaykit.workload.WorkloadClass;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Postgres only: orders as monthly range partitions on created_at.
+ *
+ * Enabling converts an existing (plain) orders table in place without copying it:
+ *
+ *   1. online: unique (id, created_at) index built CONCURRENTLY, and a validated
+ *      CHECK (created_at < X), X = the first of a month at least a month out
+ *   2. one short transaction (lock_timeout): rename orders -> orders_legacy,
+ *      make the (id, created_at) index its primary key in place of (id),
+ *      create the partitioned orders with the same columns, primary key
+ *      (id, created_at) and the legacy table's index definitions, then attach
+ *      orders_legacy as the partition for everything before X. The CHECK proves
+ *      the bound and the existing indexes are adopted, so nothing is scanned
+ *      or rebuilt under the lock.
+ *
+ * Partitions from X on are one per month (orders_pYYYY_MM), created monthsAhead
+ * in advance at startup and by the nightly job. Indexes declared on orders
+ * (the JPA ones, tenant-first, and OrderSearchIndexes) exist on every partition.
+ * A failed step is logged and retried on the next start; nothing else waits on it.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // before OrderSearchIndexes, which then creates indexes on the parent
+@RequiredArgsConstructor
+public class OrderPartitions implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPartitions.class);
+
+    static final String LEGACY = "orders_legacy";
+    private static final String BOUND_CHECK = "orders_created_before_partitioning";
+    private static final String ID_CREATED_INDEX = "orders_id_created_at_key";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantShards tenantShards;
+
+    @Value("${app.orders.partitions.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.orders.partitions.monthsAhead:3}")
+    private int monthsAhead;
+
+    @Value("${app.orders.partitions.lockTimeoutMs:5000}")
+    private long lockTimeoutMs;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+        tenantShards.forEach(this::partition);
+    }
+
+    @Scheduled(cron = "${app.orders.partitions.cron:0 10 4 * * *}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void createAhead() {
+        if (!enabled) return;
+        tenantShards.forEach(this::partition);
+    }
+
+    private void partition(String shard) {
+        try {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equals(product)) {
+                log.warn("Orders partitioning needs PostgreSQL, shard={} is {}", shard, product);
+                return;
+            }
+            String kind = jdbcTemplate.queryForObject(
+                    "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('orders')", String.class);
+            if ("r".equals(kind)) convert(shard);
+            createPartitions(shard);
+        } catch (DataAccessException e) {
+            log.warn("Orders partitioning incomplete shard={}: {}", shard, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // -------------------------
+    // Plain table -> partitioned
+    // -------------------------
+    private void convert(String shard) {
+        YearMonth first = firstPartitionMonth(Instant.now());
+        String bound = literal(first);
+
+        jdbcTemplate.execute("CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS " + ID_CREATED_INDEX + " ON orders (id, created_at)");
+        jdbcTemplate.execute("ALTER TABLE orders DROP CONSTRAINT IF EXISTS " + BOUND_CHECK);
+        jdbcTemplate.execute("ALTER TABLE orders ADD CONSTRAINT " + BOUND_CHECK + " CHECK (created_at < '" + bound + "') NOT VALID");
+        jdbcTemplate.execute("ALTER TABLE orders VALIDATE CONSTRAINT " + BOUND_CHECK);
+
+        // Definitions to repeat on the parent (its primary key replaces both id keys)
+        List<String> indexes = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+                 WHERE i.indrelid = 'orders'::regclass
+                """, String.class);
+        List<String> definitions = jdbcTemplate.queryForList("""
+                SELECT pg_get_indexdef(i.indexrelid) FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+                 WHERE i.indrelid = 'orders'::regclass AND NOT i.indisprimary AND c.relname <> ?
+                """, String.class, ID_CREATED_INDEX);
+
+        String primaryKey = jdbcTemplate.queryForObject(
+                "SELECT conname FROM pg_constraint WHERE conrelid = 'orders'::regclass AND contype = 'p'", String.class);
+
+        List<String> swap = new ArrayList<>();
+        swap.add("SET LOCAL lock_timeout = " + lockTimeoutMs);
+        swap.add("LOCK TABLE orders IN ACCESS EXCLUSIVE MODE");
+        swap.add("ALTER TABLE orders RENAME TO " + LEGACY);
+        // Frees the names for the parent's indexes; Hibernate and OrderSearchIndexes look them up by name
+        for (String index : indexes) swap.add("ALTER INDEX " + index + " RENAME TO " + legacyName(index));
+        // The partition's key has to match the parent's (id, created_at): promote the index built above
+        swap.add("ALTER TABLE " + LEGACY + " DROP CONSTRAINT " + legacyName(primaryKey));
+        swap.add("ALTER TABLE " + LEGACY + " ADD CONSTRAINT " + LEGACY + "_pkey PRIMARY KEY USING INDEX " + legacyName(ID_CREATED_INDEX));
+        swap.add("CREATE TABLE orders (LIKE " + LEGACY + " INCLUDING DEFAULTS) PARTITION BY RANGE (created_at)");
+        swap.add("ALTER TABLE orders ADD PRIMARY KEY (id, created_at)");
+        swap.addAll(definitions);
+        swap.add("ALTER TABLE orders ATTACH PARTITION " + LEGACY + " FOR VALUES FROM (MINVALUE) TO ('" + bound + "')");
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) c -> {
+            inTransaction(c, swap);
+            return null;
+        });
+        log.info("Orders partitioned shard={} legacyBefore={}", shard, bound);
+    }
+
+    // -------------------------
+    // Monthly partitions
+    // -------------------------
+    private void createPartitions(String shard) {
+        // Upper bound of the newest partition; pg_get_expr renders it in the session zone, the cast reads it back the same way
+        Timestamp coveredTo = jdbcTemplate.queryForObject("""
+                SELECT max((regexp_match(pg_get_expr(c.relpartbound, c.oid), 'TO \\(''([^'']+)''\\)'))[1]::timestamptz)
+                  FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                 WHERE i.inhparent = 'orders'::regclass
+                """, Timestamp.class);
+
+        List<YearMonth> months = monthsToCreate(coveredTo == null ? null : coveredTo.toInstant(), Instant.now(), monthsAhead);
+        if (months.isEmpty()) return;
+
+        List<String> ddl = new ArrayList<>();
+        ddl.add("SET LOCAL lock_timeout = " + lockTimeoutMs);
+        for (YearMonth m : months) {
+            ddl.add("CREATE TABLE IF NOT EXISTS " + partitionName(m) + " PARTITION OF orders"
+                    + " FOR VALUES FROM ('" + literal(m) + "') TO ('" + literal(m.plusMonths(1)) + "')");
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) c -> {
+            inTransaction(c, ddl);
+            return null;
+        });
+        log.info("Order partitions created shard={} from={} to={}", shard, months.get(0), months.get(months.size() - 1));
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+
+    // At least a month out, so the CHECK never rejects a live insert before the swap
+    static YearMonth firstPartitionMonth(Instant now) {
+        return YearMonth.from(now.plus(Duration.ofDays(2)).atOffset(ZoneOffset.UTC)).plusMonths(1);
+    }
+
+    // From the end of what's covered (or this month), through monthsAhead past this month
+    static List<YearMonth> monthsToCreate(Instant coveredTo, Instant now, int monthsAhead) {
+        YearMonth current = YearMonth.from(now.atOffset(ZoneOffset.UTC));
+        YearMonth m = coveredTo == null ? current : YearMonth.from(coveredTo.atOffset(ZoneOffset.UTC));
+        YearMonth last = current.plusMonths(monthsAhead);
+        List<YearMonth> months = new ArrayList<>();
+        for (; !m.isAfter(last); m = m.plusMonths(1)) months.add(m);
+        return months;
+    }
+
+    static String partitionName(YearMonth m) {
+        return "orders_p%04d_%02d".formatted(m.getYear(), m.getMonthValue());
+    }
+
+    private static String literal(YearMonth m) {
+        return m.atDay(1) + " 00:00:00+00";
+    }
+
+    private static String legacyName(String index) {
+        String name = index + "_legacy";
+        // Postgres identifiers are at most 63 bytes
+        return name.length() <= 63 ? name : name.substring(0, 56) + "_legacy";
+    }
+
+    private static void inTransaction(Connection c, List<String> statements) throws SQLException {
+        boolean autoCommit = c.getAutoCommit();
+        c.setAutoCommit(false);
+        try (Statement st = c.createStatement()) {
+            for (String sql : statements) st.execute(sql);
+            c.commit();
+        } catch (SQLException e) {
+            c.rollback();
+            throw e;
+        } finally {
+            c.setAutoCommit(autoCommit);
+        }
+    }
+}
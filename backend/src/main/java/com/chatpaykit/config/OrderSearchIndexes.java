@@ -0,0 +1,107 @@
+package com.chatpaykit.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.shard.TenantShards;
+import com.chatpaykit.workload.WorkloadClass;
+import com.chatpaykit.workload.WorkloadContext;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Search indexes that JPA @Index can't express, created after Hibernate's
+ * schema update:
+ *
+ *   Postgres  pg_trgm GIN on lower(customer_name) for "name contains", and
+ *             (tenant_id, customer_whatsapp_rev varchar_pattern_ops) so LIKE
+ *             'prefix%' uses the index under any collation. Built CONCURRENTLY.
+ *   Others    plain (tenant_id, customer_whatsapp_rev); name search falls back
+ *             to idx_orders_tenant_created plus a filter.
+ *
+ * Rows written before customer_whatsapp_rev existed are backfilled in batches
+ * in the background; until that finishes, phone search can miss them.
+ * Both happen on every shard. On a partitioned orders table the indexes are
+ * declared on the parent, which builds them on each partition.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSearchIndexes implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderSearchIndexes.class);
+
+    private static final List<String> POSTGRES = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_name_trgm"
+                    + " ON orders USING gin (lower(customer_name) gin_trgm_ops)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_tenant_whatsapp_rev"
+                    + " ON orders (tenant_id, customer_whatsapp_rev varchar_pattern_ops)"
+    );
+
+    private static final List<String> PORTABLE = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_orders_tenant_whatsapp_rev ON orders (tenant_id, customer_whatsapp_rev)"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantShards tenantShards;
+
+    @Value("${app.search.indexes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.backfillBatchSize:5000}")
+    private int backfillBatchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+
+        tenantShards.forEach(shard -> {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            boolean postgres = "PostgreSQL".equals(product);
+            // No CONCURRENTLY on a partitioned table (OrderPartitions): an index missing there blocks writes while it builds
+            boolean partitioned = postgres && "p".equals(jdbcTemplate.queryForObject(
+                    "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('orders')", String.class));
+            for (String ddl : postgres ? POSTGRES : PORTABLE) {
+                try {
+                    jdbcTemplate.execute(partitioned ? ddl.replace(" CONCURRENTLY", "") : ddl);
+                } catch (DataAccessException e) {
+                    // e.g. no permission for CREATE EXTENSION: search still works, just slower
+                    log.warn("Order search index not created on {}: {} ({})", shard, ddl, e.getMostSpecificCause().getMessage());
+                }
+            }
+        });
+
+        Thread.ofVirtual().name("order-search-backfill").start(() -> tenantShards.forEach(this::backfillReversedWhatsapp));
+    }
+
+    void backfillReversedWhatsapp(String shard) {
+        boolean entered = WorkloadContext.enter(WorkloadClass.BACKGROUND);
+        try {
+            long total = 0;
+            while (true) {
+                List<Object[]> batch = jdbcTemplate.query(
+                        "SELECT id, customer_whatsapp FROM orders WHERE customer_whatsapp_rev IS NULL LIMIT ?",
+                        (rs, i) -> new Object[]{Order.reverse(rs.getString(2)), rs.getObject(1)},
+                        backfillBatchSize);
+                if (batch.isEmpty()) break;
+                jdbcTemplate.batchUpdate("UPDATE orders SET customer_whatsapp_rev = ? WHERE id = ?", batch);
+                total += batch.size();
+            }
+            if (total > 0) log.info("Backfilled customer_whatsapp_rev shard={} rows={}", shard, total);
+        } catch (DataAccessException e) {
+            log.warn("customer_whatsapp_rev backfill stopped shard={}: {}", shard, e.getMostSpecificCause().getMessage());
+        } finally {
+            if (entered) WorkloadContext.exit();
+        }
+    }
+}
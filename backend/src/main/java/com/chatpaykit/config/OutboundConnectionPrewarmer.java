@@ -0,0 +1,68 @@
+package com.chatpaykit.config;
+
+import java.util.List;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Opens (and TLS-handshakes) connections to upstream APIs once the app is ready,
+ * so the first WhatsApp send after a cold start does not pay the setup cost.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboundConnectionPrewarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboundConnectionPrewarmer.class);
+
+    private final CloseableHttpAsyncClient outboundHttpClient;
+
+    @Value("${app.http.prewarm.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.http.prewarm.urls:https://graph.facebook.com}")
+    private List<String> urls;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        if (!enabled) return;
+
+        for (String url : urls) {
+            SimpleHttpRequest req = SimpleRequestBuilder.head(url.trim())
+                    .setRequestConfig(RequestConfig.custom().setResponseTimeout(Timeout.ofSeconds(5)).build())
+                    .build();
+
+            // Fire and forget: response status does not matter, only the open (pooled) connection
+            outboundHttpClient.execute(req, new FutureCallback<>() {
+                @Override
+                public void completed(SimpleHttpResponse res) {
+                    log.info("Connection prewarmed url={} status={} version={}",
+                            url, res.getCode(), res.getVersion());
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    log.warn("Connection prewarm failed url={} msg={}", url, ex.getMessage());
+                }
+
+                @Override
+                public void cancelled() {
+                    log.warn("Connection prewarm cancelled url={}", url);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.chatpaykit.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.chatpaykit.security.TenantContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Sends read-only transactions to a replica, everything else to the primary.
+ *
+ * A replica is used only while its last lag check succeeded and reported no
+ * more than maxLagMs. A tenant that wrote in the last stickyMs reads from the
+ * primary, so it sees its own changes (keep stickyMs above maxLagMs). Reads
+ * without a tenant (webhooks, schedulers) always stay on the primary.
+ *
+ * The primary may itself be a WorkloadRoutingDataSource. Must sit behind a
+ * LazyConnectionDataSourceProxy: the read-only flag is only known once the
+ * transaction has started.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public static final String PRIMARY = "primary";
+
+    public record Target(String name, DataSource dataSource, String lagQuery) {}
+
+    private static final class Replica {
+        final Target target;
+        volatile boolean healthy;
+        volatile long lagMs = -1;
+
+        Replica(Target target) {
+            this.target = target;
+        }
+    }
+
+    private final List<Replica> replicas;
+    private final long maxLagMs;
+    private final long stickyMs;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<UUID, Long> lastWriteAt = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Target> replicas,
+                                    long maxLagMs, long stickyMs, MeterRegistry meterRegistry) {
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagMs = maxLagMs;
+        this.stickyMs = stickyMs;
+        this.meterRegistry = meterRegistry;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica r : this.replicas) {
+            targets.put(r.target.name(), r.target.dataSource());
+            meterRegistry.gauge("app.datasource.replica.lag.ms",
+                    Tags.of("replica", r.target.name()), r, x -> x.lagMs);
+            meterRegistry.gauge("app.datasource.replica.healthy",
+                    Tags.of("replica", r.target.name()), r, x -> x.healthy ? 1 : 0);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // -------------------------
+    // Routing
+    // -------------------------
+    @Override
+    protected Object determineCurrentLookupKey() {
+        UUID tenantId = TenantContext.get();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (tenantId != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                markWrite(tenantId);
+            }
+            return route(PRIMARY, "write");
+        }
+        if (tenantId == null) return route(PRIMARY, "system");
+        if (isSticky(tenantId)) return route(PRIMARY, "sticky");
+
+        Replica r = pickReplica();
+        if (r == null) return route(PRIMARY, "fallback");
+        return route(r.target.name(), "read");
+    }
+
+    // Also called for changes made outside the tenant's own requests (webhooks)
+    public void markWrite(UUID tenantId) {
+        lastWriteAt.put(tenantId, System.currentTimeMillis());
+    }
+
+    private boolean isSticky(UUID tenantId) {
+        Long at = lastWriteAt.get(tenantId);
+        if (at == null) return false;
+        if (System.currentTimeMillis() - at < stickyMs) return true;
+        lastWriteAt.remove(tenantId, at);
+        return false;
+    }
+
+    private Replica pickReplica() {
+        int n = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(n, 1));
+        for (int i = 0; i < n; i++) {
+            Replica r = replicas.get((start + i) % n);
+            if (r.healthy) return r;
+        }
+        return null;
+    }
+
+    private String route(String target, String reason) {
+        meterRegistry.counter("app.datasource.route", "target", target, "reason", reason).increment();
+        return target;
+    }
+
+    // -------------------------
+    // Lag checks (scheduled by ReplicaRoutingMonitor)
+    // -------------------------
+    public void checkLag() {
+        for (Replica r : replicas) {
+            boolean was = r.healthy;
+            try (Connection c = r.target.dataSource().getConnection();
+                 Statement st = c.createStatement()) {
+                st.setQueryTimeout(2);
+                try (ResultSet rs = st.executeQuery(r.target.lagQuery())) {
+                    r.lagMs = rs.next() ? rs.getLong(1) : 0;
+                }
+                r.healthy = r.lagMs <= maxLagMs;
+            } catch (Exception e) {
+                r.lagMs = -1;
+                r.healthy = false;
+                if (was) log.warn("Replica lag check failed replica={} msg={}", r.target.name(), e.getMessage());
+            }
+            if (was != r.healthy) {
+                log.info("Replica {} replica={} lagMs={}", r.healthy ? "in service" : "out of service",
+                        r.target.name(), r.lagMs);
+            }
+        }
+        long cutoff = System.currentTimeMillis() - stickyMs;
+        lastWriteAt.values().removeIf(at -> at < cutoff);
+    }
+
+    @Override
+    public void close() throws Exception {
+        // Primary is its own bean and closed by the container
+        for (Replica r : replicas) {
+            if (r.target.dataSource() instanceof AutoCloseable c) c.close();
+        }
+    }
+}
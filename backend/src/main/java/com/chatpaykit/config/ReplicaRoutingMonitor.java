@@ -0,0 +1,31 @@
+package com.chatpaykit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.chatpaykit.event.OrderStatusChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReplicaRoutingMonitor {
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.lagCheckMs:1000}")
+    public void checkLag() {
+        replicaRoutingDataSource.checkLag();
+    }
+
+    // Webhook/sync changes have no tenant on the thread; keep the tenant's reads on the primary anyway
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent e) {
+        if (e.order().getTenantId() != null) {
+            replicaRoutingDataSource.markWrite(e.order().getTenantId());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.chatpaykit.config;
+
+import java.io.IOException;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Body bytes of /api responses as written by the app (http.response.body).
+ *
+ * Compression is Tomcat's (server.compression) and happens below the servlet
+ * layer, so this is the size before gzip; tomcat.global.sent is what went out
+ * on the wire. The SSE stream is left alone.
+ *
+ * Also holds back the converters' flush: Tomcat only knows the length of a
+ * body it still has whole in its buffer, and min-response-size can't apply to
+ * one that was already flushed out chunked (every such body gets gzipped).
+ */
+@Component
+public class ResponseBytesFilter extends OncePerRequestFilter {
+
+    private final DistributionSummary bodyBytes;
+
+    public ResponseBytesFilter(MeterRegistry meterRegistry) {
+        this.bodyBytes = DistributionSummary.builder("http.response.body")
+                .baseUnit("bytes")
+                .description("Response body size before compression")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.startsWith("/api/") || path.endsWith("/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CountingResponse counting = new CountingResponse(response);
+        try {
+            chain.doFilter(request, counting);
+        } finally {
+            if (!request.isAsyncStarted()) bodyBytes.record(counting.bytes);
+        }
+    }
+
+    // Counts what goes through getOutputStream (Jackson and the other converters write there)
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+
+        private long bytes;
+        private ServletOutputStream stream;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void flushBuffer() {
+            // the container flushes at the end of the request
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                ServletOutputStream out = super.getOutputStream();
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        bytes++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        bytes += len;
+                    }
+
+                    @Override
+                    public void flush() {
+                        // see flushBuffer
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        out.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return out.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        out.setWriteListener(listener);
+                    }
+                };
+            }
+            return stream;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.chatpaykit.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.chatpaykit.security.TenantContext;
+import com.chatpaykit.shard.ShardContext;
+import com.chatpaykit.shard.TenantShardDirectory;
+import com.chatpaykit.shard.TenantShardDirectory.Placement;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * One database per shard, picked per connection:
+ *
+ *   pinned shard (ShardContext)  ->  that shard
+ *   current tenant               ->  its shard from tenant_shards
+ *   neither                      ->  home (users, tenants, webhook markers for unknown orders)
+ *
+ * Home is the existing primary (with its replicas and workload pools); other
+ * shards are single pools. A connection stays on one shard for its whole
+ * transaction, so a transaction never spans shards.
+ *
+ * While a tenant is frozen for a move, read-write transactions for it fail
+ * fast with a transient error; read-only ones keep going to the old shard.
+ * Must sit behind a LazyConnectionDataSourceProxy, like the replica router.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public record Shard(String name, DataSource dataSource) {}
+
+    private final List<Shard> shards;
+    private final String home;
+    private final TenantShardDirectory directory;
+    private final MeterRegistry meterRegistry;
+
+    public ShardRoutingDataSource(List<Shard> shards, TenantShardDirectory directory, MeterRegistry meterRegistry) {
+        this.shards = List.copyOf(shards);
+        this.home = shards.get(0).name();
+        this.directory = directory;
+        this.meterRegistry = meterRegistry;
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (Shard s : this.shards) targets.put(s.name(), s.dataSource());
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0).dataSource());
+        // An unknown name in tenant_shards must fail, not quietly land on home
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public List<Shard> shards() {
+        return shards;
+    }
+
+    public String home() {
+        return home;
+    }
+
+    public DataSource shard(String name) {
+        for (Shard s : shards) {
+            if (s.name().equals(name)) return s.dataSource();
+        }
+        throw new IllegalArgumentException("Unknown shard: " + name);
+    }
+
+    // -------------------------
+    // Routing
+    // -------------------------
+    @Override
+    public Connection getConnection() throws SQLException {
+        refuseWritesWhileFrozen();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        refuseWritesWhileFrozen();
+        return super.getConnection(username, password);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String pinned = ShardContext.pinned();
+        if (pinned != null) return route(pinned);
+
+        UUID tenantId = TenantContext.get();
+        if (tenantId == null) return route(home);
+        return route(directory.placement(tenantId).shard());
+    }
+
+    private void refuseWritesWhileFrozen() throws SQLException {
+        UUID tenantId = TenantContext.get();
+        if (tenantId == null || ShardContext.pinned() != null) return;
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return;
+
+        Placement p = directory.placement(tenantId);
+        if (p.frozen()) {
+            meterRegistry.counter("app.datasource.shard.frozen.rejected").increment();
+            throw new SQLTransientConnectionException("Tenant " + tenantId + " is being moved off " + p.shard() + ", retry shortly");
+        }
+    }
+
+    private String route(String shard) {
+        meterRegistry.counter("app.datasource.shard.route", "shard", shard).increment();
+        return shard;
+    }
+
+    // Home is owned by its own bean
+    @Override
+    public void close() throws Exception {
+        for (Shard s : shards.subList(1, shards.size())) {
+            if (s.dataSource() instanceof AutoCloseable c) c.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.chatpaykit.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.chatpaykit.workload.WorkloadClass;
+import com.chatpaykit.workload.WorkloadContext;
+
+/**
+ * One primary pool per workload class, picked from the thread's @Workload.
+ * A burst of dashboard queries can exhaust the API pool but never takes
+ * connections from CRITICAL (webhooks, payment verification).
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final Map<WorkloadClass, DataSource> pools;
+
+    public WorkloadRoutingDataSource(Map<WorkloadClass, DataSource> pools) {
+        this.pools = Map.copyOf(pools);
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(WorkloadClass.API));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource ds : pools.values()) {
+            if (ds instanceof AutoCloseable c) c.close();
+        }
+    }
+}
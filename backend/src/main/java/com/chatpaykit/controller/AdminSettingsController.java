@@ -12,8 +12,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.chatpaykit.dto.TenantSettingsRequest;
 import com.chatpaykit.dto.TenantSettingsResponse;
+import com.chatpaykit.entity.TenantSettings;
 import com.chatpaykit.service.AppSettingsService;
 import com.chatpaykit.service.JwtService;
+import com.chatpaykit.service.TenantSecrets;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -24,6 +26,7 @@ import lombok.RequiredArgsConstructor;
 public class AdminSettingsController {
 
     private final AppSettingsService appSettingsService;
+    private final TenantSecrets tenantSecrets;
     private final JwtService jwtService;
 
     @GetMapping
@@ -33,7 +36,7 @@ public class AdminSettingsController {
 
         // ✅ IMPORTANT: first-time tenant may not have settings yet -> return empty, not 500
         return appSettingsService.getOrNull(tenantId)
-                .map(TenantSettingsResponse::from)
+                .map(s -> TenantSettingsResponse.from(s, tenantSecrets.decrypt(s)))
                 .orElseGet(TenantSettingsResponse::empty);
     }
 
@@ -44,7 +47,8 @@ public class AdminSettingsController {
             @Valid @RequestBody TenantSettingsRequest req
     ) {
         UUID tenantId = jwtService.extractTenantId(extractToken(authHeader));
-        return TenantSettingsResponse.from(appSettingsService.upsert(tenantId, req));
+        TenantSettings saved = appSettingsService.upsert(tenantId, req);
+        return TenantSettingsResponse.from(saved, tenantSecrets.decrypt(saved));
     }
 
     private String extractToken(String authHeader) {
@@ -0,0 +1,61 @@
+package com.chatpaykit.controller;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chatpaykit.dto.RevenueAnalyticsResponse;
+import com.chatpaykit.entity.RollupGranularity;
+import com.chatpaykit.service.JwtService;
+import com.chatpaykit.service.OrderRollupService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final OrderRollupService orderRollupService;
+    private final JwtService jwtService;
+
+    // -------------------------
+    // Revenue / conversion / refund rate per hour or day (reads rollups only)
+    // e.g. /api/analytics/revenue?from=2026-01-01&to=2026-03-31&granularity=DAY
+    // -------------------------
+    @GetMapping("/revenue")
+    public RevenueAnalyticsResponse revenue(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity
+    ) {
+        return orderRollupService.revenue(tenantIdFrom(authHeader), from, to, granularity);
+    }
+
+    // -------------------------
+    // Backfill rollups from orders (first deploy / drift repair)
+    // -------------------------
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> rebuild(@RequestHeader("Authorization") String authHeader) {
+        int rows = orderRollupService.rebuild(tenantIdFrom(authHeader));
+        return Map.of("rebuilt", true, "rows", rows);
+    }
+
+    private UUID tenantIdFrom(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new IllegalStateException("Missing or invalid Authorization header");
+        }
+        return jwtService.extractTenantId(authHeader.substring(7).trim());
+    }
+}
@@ -9,7 +9,9 @@ import org.springframework.web.bind.annotation.RestController;
 import com.chatpaykit.dto.AuthLoginRequest;
 import com.chatpaykit.dto.AuthResponse;
 import com.chatpaykit.dto.AuthSignupRequest;
+import com.chatpaykit.dto.RefreshRequest;
 import com.chatpaykit.service.AuthService;
+import com.chatpaykit.service.SessionService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -20,16 +22,28 @@ import lombok.RequiredArgsConstructor;
 public class AuthController {
 
     private final AuthService authService;
+    private final SessionService sessionService;
 
     @PostMapping("/signup")
     public ResponseEntity<AuthResponse> signup(@Valid @RequestBody AuthSignupRequest req) {
-        String token = authService.signup(req);
-        return ResponseEntity.ok(new AuthResponse(token));
+        return ResponseEntity.ok(AuthResponse.from(authService.signup(req)));
     }
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthLoginRequest req) {
-        String token = authService.login(req);
-        return ResponseEntity.ok(new AuthResponse(token));
+        return ResponseEntity.ok(AuthResponse.from(authService.login(req)));
+    }
+
+    // Rotates: the refresh token sent is spent, use the one returned
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest req) {
+        return ResponseEntity.ok(AuthResponse.from(sessionService.refresh(req.getRefreshToken())));
+    }
+
+    // Ends the session on every node within app.auth.revocation.syncMs
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshRequest req) {
+        sessionService.logout(req.getRefreshToken());
+        return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,46 @@
+package com.chatpaykit.controller;
+
+import java.util.UUID;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chatpaykit.dto.CustomerOrdersResponse;
+import com.chatpaykit.service.CustomerService;
+import com.chatpaykit.service.JwtService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/customers")
+@RequiredArgsConstructor
+public class CustomerController {
+
+    private final CustomerService customerService;
+    private final JwtService jwtService;
+
+    // -------------------------
+    // Order history + lifetime totals for one customer
+    // e.g. /api/customers/{id}/orders?page=0&size=20
+    // -------------------------
+    @GetMapping("/{id}/orders")
+    public CustomerOrdersResponse orders(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return customerService.orders(tenantIdFrom(authHeader), id, page, size);
+    }
+
+    private UUID tenantIdFrom(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new IllegalStateException("Missing or invalid Authorization header");
+        }
+        return jwtService.extractTenantId(authHeader.substring(7).trim());
+    }
+}
@@ -5,8 +5,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -22,9 +26,16 @@ import com.chatpaykit.dto.OrderStatusResponse;
 import com.chatpaykit.dto.VerifyPaymentRequest;
 import com.chatpaykit.entity.Order;
 import com.chatpaykit.service.AppSettingsService;
+import com.chatpaykit.service.IdempotencyService;
 import com.chatpaykit.service.JwtService;
+import com.chatpaykit.service.OrderReadCache;
 import com.chatpaykit.service.OrderService;
+import com.chatpaykit.util.ETags;
+import com.chatpaykit.workload.Workload;
+import com.chatpaykit.workload.WorkloadClass;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -33,9 +44,15 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class OrderController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final OrderService orderService;
+    private final OrderReadCache orderReadCache;
     private final AppSettingsService appSettingsService;
+    private final IdempotencyService idempotencyService;
     private final JwtService jwtService;
+    private final MeterRegistry meterRegistry;
 
     // -------------------------
     // Create (tenant-aware)
@@ -43,29 +60,41 @@ public class OrderController {
     @PostMapping
     public OrderResponse create(
             @RequestHeader("Authorization") String authHeader,
-            @Valid @RequestBody CreateOrderRequest req
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody CreateOrderRequest req,
+            HttpServletResponse response
     ) {
         UUID tenantId = tenantIdFrom(authHeader);
-        return OrderResponse.from(orderService.create(req, tenantId));
+        return once(tenantId, idempotencyKey, "create", req, response,
+                () -> OrderResponse.from(orderService.create(req, tenantId)));
     }
 
     // -------------------------
     // List (tenant-aware) ✅ FIXED
     // -------------------------
     @GetMapping
-    public List<OrderResponse> list(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<List<OrderResponse>> list(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         UUID tenantId = tenantIdFrom(authHeader);
 
-        return orderService.listByTenant(tenantId)
+        // Version before rows: a write in between leaves an older tag on newer data, never the reverse
+        var version = orderService.listVersion(tenantId);
+        String etag = ETags.list(tenantId, version.getOrderCount(), version.getLastUpdatedAt());
+        if (notModified("list", ifNoneMatch, etag)) return notModifiedResponse(etag);
+
+        return conditional(etag, orderService.listByTenant(tenantId)
                 .stream()
                 .map(OrderResponse::from)
-                .toList();
+                .toList());
     }
 
     // -------------------------
     // Verify (checkout signature)
     // -------------------------
     @PostMapping("/{id}/verify")
+    @Workload(WorkloadClass.CRITICAL)
     public OrderResponse verify(
             @RequestHeader("Authorization") String authHeader,
             @PathVariable UUID id,
@@ -81,14 +110,18 @@ public class OrderController {
     // Get single order (tenant-safe)
     // -------------------------
     @GetMapping("/{id}")
-    public OrderResponse get(
+    public ResponseEntity<OrderResponse> get(
             @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @PathVariable UUID id
     ) {
         UUID tenantId = tenantIdFrom(authHeader);
-        Order order = assertOrderBelongsToTenant(id, tenantId);
+        // 304 straight from the version (cache entry or a two-column read)
+        String current = ifNoneMatch == null ? null : versionForTenant(id, tenantId);
+        if (notModified("order", ifNoneMatch, current)) return notModifiedResponse(current);
 
-        return OrderResponse.from(order);
+        OrderResponse order = cachedForTenant(id, tenantId).order();
+        return conditional(ETags.order(order.getUpdatedAt()), order);
     }
 
     // -------------------------
@@ -97,26 +130,35 @@ public class OrderController {
     @PostMapping("/{id}/send-payment")
     public OrderResponse sendPayment(
             @RequestHeader("Authorization") String authHeader,
-            @PathVariable UUID id
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @PathVariable UUID id,
+            HttpServletResponse response
     ) {
         UUID tenantId = tenantIdFrom(authHeader);
-        assertOrderBelongsToTenant(id, tenantId);
-
-        return OrderResponse.from(orderService.sendPaymentRequest(id));
+        return once(tenantId, idempotencyKey, "send-payment:" + id, null, response, () -> {
+            assertOrderBelongsToTenant(id, tenantId);
+            return OrderResponse.from(orderService.sendPaymentRequest(id));
+        });
     }
 
     // -------------------------
     // Status API (tenant-safe)
     // -------------------------
     @GetMapping("/{id}/status")
-    public OrderStatusResponse status(
+    public ResponseEntity<OrderStatusResponse> status(
             @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @PathVariable UUID id
     ) {
         UUID tenantId = tenantIdFrom(authHeader);
-        Order order = assertOrderBelongsToTenant(id, tenantId);
-
-        return OrderStatusResponse.from(order);
+        // 304 straight from the version (cache entry or a two-column read)
+        String current = ifNoneMatch == null ? null : versionForTenant(id, tenantId);
+        if (notModified("status", ifNoneMatch, current)) return notModifiedResponse(current);
+
+        OrderReadCache.Entry entry = orderReadCache.status(id, tenantId);
+        assertTenant(entry.tenantId(), tenantId);
+        OrderStatusResponse status = entry.status();
+        return conditional(ETags.order(status.getUpdatedAt()), status);
     }
 
     // -------------------------
@@ -125,12 +167,15 @@ public class OrderController {
     @PostMapping("/{id}/retry")
     public OrderResponse retry(
             @RequestHeader("Authorization") String authHeader,
-            @PathVariable UUID id
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @PathVariable UUID id,
+            HttpServletResponse response
     ) {
         UUID tenantId = tenantIdFrom(authHeader);
-        assertOrderBelongsToTenant(id, tenantId);
-
-        return OrderResponse.from(orderService.retry(id));
+        return once(tenantId, idempotencyKey, "retry:" + id, null, response, () -> {
+            assertOrderBelongsToTenant(id, tenantId);
+            return OrderResponse.from(orderService.retry(id));
+        });
     }
 
     // -------------------------
@@ -139,12 +184,15 @@ public class OrderController {
     @PostMapping("/{id}/refund")
     public OrderResponse refund(
             @RequestHeader("Authorization") String authHeader,
-            @PathVariable UUID id
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @PathVariable UUID id,
+            HttpServletResponse response
     ) {
         UUID tenantId = tenantIdFrom(authHeader);
-        assertOrderBelongsToTenant(id, tenantId);
-
-        return OrderResponse.from(orderService.refund(id));
+        return once(tenantId, idempotencyKey, "refund:" + id, null, response, () -> {
+            assertOrderBelongsToTenant(id, tenantId);
+            return OrderResponse.from(orderService.refund(id));
+        });
     }
 
     // -------------------------
@@ -190,6 +238,16 @@ public class OrderController {
     // -----------------------------
     // Helpers
     // -----------------------------
+
+    // Mutations with an Idempotency-Key run once per tenant + key; replays get the stored response
+    private OrderResponse once(UUID tenantId, String idempotencyKey, String operation, Object request,
+                               HttpServletResponse response, Supplier<OrderResponse> action) {
+        var outcome = idempotencyService.execute(tenantId, idempotencyKey, operation, request,
+                OrderResponse.class, action);
+        if (outcome.replayed()) response.setHeader(IDEMPOTENT_REPLAYED, "true");
+        return outcome.value();
+    }
+
     private UUID tenantIdFrom(String authHeader) {
         String token = extractToken(authHeader);
         return jwtService.extractTenantId(token);
@@ -197,16 +255,68 @@ public class OrderController {
 
     private Order assertOrderBelongsToTenant(UUID orderId, UUID tenantId) {
         Order order = orderService.get(orderId);
+        assertTenant(order.getTenantId(), tenantId);
+        return order;
+    }
+
+    // -------------------------
+    // Conditional GET (ETag / If-None-Match -> 304)
+    // -------------------------
+
+    private String versionForTenant(UUID orderId, UUID tenantId) {
+        OrderReadCache.Version version = orderReadCache.version(orderId);
+        assertTenant(version.tenantId(), tenantId);
+        return ETags.order(version.updatedAt());
+    }
+
+    // Counts every conditional request as not_modified or modified
+    private boolean notModified(String endpoint, String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            count(endpoint, "unconditional");
+            return false;
+        }
+        boolean match = ETags.matches(ifNoneMatch, etag);
+        count(endpoint, match ? "not_modified" : "modified");
+        return match;
+    }
+
+    private void count(String endpoint, String result) {
+        meterRegistry.counter("http.conditional.requests", "endpoint", endpoint, "result", result).increment();
+    }
+
+    // no-cache: browsers keep the body but revalidate with If-None-Match every time
+    private static <T> ResponseEntity<T> conditional(String etag, T body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(body);
+    }
 
-        if (order.getTenantId() == null) {
+    private static <T> ResponseEntity<T> notModifiedResponse(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .build();
+    }
+
+    // GET /{id} is served from the read cache (/status uses orderReadCache.status)
+    private OrderReadCache.Entry cachedForTenant(UUID orderId, UUID tenantId) {
+        OrderReadCache.Entry entry = orderReadCache.get(orderId);
+        assertTenant(entry.tenantId(), tenantId);
+        return entry;
+    }
+
+    private void assertTenant(UUID orderTenantId, UUID tenantId) {
+        if (orderTenantId == null) {
             throw new ResponseStatusException(HttpStatus.CONFLICT,
                     "Order has no tenantId. Fix existing rows in DB.");
         }
-        if (!tenantId.equals(order.getTenantId())) {
+        if (!tenantId.equals(orderTenantId)) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
                     "You are not allowed to access this order.");
         }
-        return order;
     }
 
     private String extractToken(String authHeader) {
@@ -0,0 +1,55 @@
+package com.chatpaykit.controller;
+
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.chatpaykit.dto.OrderTimelineResponse;
+import com.chatpaykit.service.JwtService;
+import com.chatpaykit.service.OrderJournal;
+import com.chatpaykit.service.OrderReadCache;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+public class OrderEventController {
+
+    private final OrderJournal orderJournal;
+    private final OrderReadCache orderReadCache;
+    private final JwtService jwtService;
+
+    // -------------------------
+    // Status transition history, newest first
+    // e.g. /api/orders/{id}/events?page=0&size=20
+    // -------------------------
+    @GetMapping("/{id}/events")
+    public OrderTimelineResponse events(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        UUID tenantId = tenantIdFrom(authHeader);
+        // 404 / 403 like the other order reads (version is cached or a two-column read)
+        if (!tenantId.equals(orderReadCache.version(id).tenantId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You are not allowed to access this order.");
+        }
+        return orderJournal.timeline(tenantId, id, page, size);
+    }
+
+    private UUID tenantIdFrom(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new IllegalStateException("Missing or invalid Authorization header");
+        }
+        return jwtService.extractTenantId(authHeader.substring(7).trim());
+    }
+}
@@ -0,0 +1,45 @@
+package com.chatpaykit.controller;
+
+import java.util.UUID;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chatpaykit.dto.OrderSearchResponse;
+import com.chatpaykit.service.JwtService;
+import com.chatpaykit.service.OrderSearchService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/orders/search")
+@RequiredArgsConstructor
+public class OrderSearchController {
+
+    private final OrderSearchService orderSearchService;
+    private final JwtService jwtService;
+
+    // -------------------------
+    // Support lookup: name fragment, WhatsApp digits (suffix) or order_/pay_/rfnd_ id
+    // e.g. /api/orders/search?q=43210&page=0&size=20
+    // -------------------------
+    @GetMapping
+    public OrderSearchResponse search(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return orderSearchService.search(tenantIdFrom(authHeader), q, page, size);
+    }
+
+    private UUID tenantIdFrom(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new IllegalStateException("Missing or invalid Authorization header");
+        }
+        return jwtService.extractTenantId(authHeader.substring(7).trim());
+    }
+}
@@ -0,0 +1,49 @@
+package com.chatpaykit.controller;
+
+import java.util.UUID;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chatpaykit.dto.OrderStatsResponse;
+import com.chatpaykit.service.JwtService;
+import com.chatpaykit.service.OrderStatsService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/orders/stats")
+@RequiredArgsConstructor
+public class OrderStatsController {
+
+    private final OrderStatsService orderStatsService;
+    private final JwtService jwtService;
+
+    // -------------------------
+    // Dashboard summary (served from counters, no order scan)
+    // -------------------------
+    @GetMapping
+    public OrderStatsResponse get(@RequestHeader("Authorization") String authHeader) {
+        return orderStatsService.get(tenantIdFrom(authHeader));
+    }
+
+    // -------------------------
+    // Recount from orders (drift repair)
+    // -------------------------
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public OrderStatsResponse rebuild(@RequestHeader("Authorization") String authHeader) {
+        return orderStatsService.rebuild(tenantIdFrom(authHeader));
+    }
+
+    private UUID tenantIdFrom(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new IllegalStateException("Missing or invalid Authorization header");
+        }
+        return jwtService.extractTenantId(authHeader.substring(7).trim());
+    }
+}
@@ -0,0 +1,60 @@
+package com.chatpaykit.controller;
+
+import java.util.UUID;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.chatpaykit.dto.StreamTokenResponse;
+import com.chatpaykit.event.OrderStreamHub;
+import com.chatpaykit.security.TenantContext;
+import com.chatpaykit.service.JwtService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+public class OrderStreamController {
+
+    private final OrderStreamHub orderStreamHub;
+    private final JwtService jwtService;
+
+    // -------------------------
+    // Live status changes for the tenant (replaces /status + list polling)
+    //
+    // Browsers (EventSource): POST /stream/token, then GET /stream?token=...
+    // Other clients may send the access token as a Bearer header instead.
+    // A reconnect resumes after Last-Event-ID (header, or ?lastEventId= on a
+    // fresh EventSource opened with a new token).
+    // -------------------------
+    @PostMapping("/stream/token")
+    public StreamTokenResponse streamToken(@RequestHeader("Authorization") String authHeader) {
+        String token = jwtService.generateStreamToken(jwtService.parseClaims(extractToken(authHeader)));
+        return new StreamTokenResponse(token, jwtService.streamTtl().toSeconds());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam
+    ) {
+        // Set by JwtAuthFilter from either the Bearer header or the stream token
+        UUID tenantId = TenantContext.get();
+        if (tenantId == null) throw new IllegalStateException("Missing tenant");
+        return orderStreamHub.subscribe(tenantId, lastEventId != null ? lastEventId : lastEventIdParam);
+    }
+
+    private String extractToken(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new IllegalStateException("Missing or invalid Authorization header");
+        }
+        return authHeader.substring(7).trim();
+    }
+}
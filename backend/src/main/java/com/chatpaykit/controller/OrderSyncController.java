@@ -6,31 +6,43 @@ import java.util.List;
 import java.util.UUID;
 
 import org.json.JSONObject;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderEventSource;
 import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.event.OrderStatusChangedEvent;
 import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.service.OrderReadCache;
 import com.chatpaykit.service.RazorpayPaymentService;
+import com.chatpaykit.workload.Workload;
+import com.chatpaykit.workload.WorkloadClass;
 
 import lombok.RequiredArgsConstructor;
 
 @RestController
 @RequestMapping("/api/orders")
+@Workload(WorkloadClass.CRITICAL)
 @RequiredArgsConstructor
 public class OrderSyncController {
 
     private final OrderRepository orderRepository;
     private final RazorpayPaymentService razorpayPaymentService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderReadCache orderReadCache;
+    private final TransactionTemplate tx;
 
     @GetMapping("/{id}/sync")
     public ResponseEntity<?> sync(@PathVariable UUID id) {
 
-        Order order = orderRepository.findById(id).orElseThrow();
+        Order order = orderRepository.findOrder(id).orElseThrow();
+        OrderStatus before = order.getStatus();
 
         try {
 
@@ -53,7 +65,7 @@ public class OrderSyncController {
                     order.setStatus(OrderStatus.REFUND_PENDING);
                 }
 
-                orderRepository.save(order);
+                save(order, before, order.getRazorpayRefundId());
                 return ResponseEntity.ok(order);
             }
 
@@ -64,7 +76,7 @@ public class OrderSyncController {
                         razorpayPaymentService.fetchPayment(tenantId, order.getRazorpayPaymentId());
 
                 applyPaymentStatus(order, paymentJson);
-                orderRepository.save(order);
+                save(order, before, order.getRazorpayPaymentId());
                 return ResponseEntity.ok(order);
             }
 
@@ -92,7 +104,7 @@ public class OrderSyncController {
                         }
 
                         applyPaymentStatus(order, latest);
-                        orderRepository.save(order);
+                        save(order, before, order.getRazorpayPaymentId());
                     }
                 }
 
@@ -106,6 +118,18 @@ public class OrderSyncController {
         }
     }
 
+    // Order and its journal row (OrderJournal) commit together
+    private void save(Order order, OrderStatus before, String razorpayId) {
+        tx.executeWithoutResult(status -> {
+            orderRepository.save(order);
+            orderReadCache.evict(order.getId());
+            if (order.getStatus() != before) {
+                eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                        order, before, order.getStatus(), OrderEventSource.SYNC, razorpayId));
+            }
+        });
+    }
+
     private void applyPaymentStatus(Order order, JSONObject po) {
 
         String st = po.optString("status", "");
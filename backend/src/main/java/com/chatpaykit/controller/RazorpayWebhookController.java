@@ -1,11 +1,19 @@
 package com.chatpaykit.controller;
 
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
 
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -13,18 +21,28 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderEventSource;
 import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.entity.TenantSettings;
 import com.chatpaykit.entity.WebhookEvent;
+import com.chatpaykit.event.OrderStatusChangedEvent;
+import com.chatpaykit.logging.LogSampler;
 import com.chatpaykit.repository.OrderRepository;
 import com.chatpaykit.repository.WebhookEventRepository;
+import com.chatpaykit.security.TenantContext;
 import com.chatpaykit.service.AppSettingsService;
+import com.chatpaykit.service.OrderReadCache;
+import com.chatpaykit.service.TenantSecrets;
 import com.chatpaykit.service.WhatsappPaymentService;
-import com.chatpaykit.util.RazorpaySignatureUtil;
+import com.chatpaykit.shard.TenantShards;
+import com.chatpaykit.workload.Workload;
+import com.chatpaykit.workload.WorkloadClass;
 
 import lombok.RequiredArgsConstructor;
 
 @RestController
 @RequestMapping("/webhooks/razorpay")
+@Workload(WorkloadClass.CRITICAL)
 @RequiredArgsConstructor
 public class RazorpayWebhookController {
 
@@ -35,6 +53,15 @@ public class RazorpayWebhookController {
 
     private final WhatsappPaymentService whatsappPaymentService;
     private final AppSettingsService appSettingsService;
+    private final TenantSecrets tenantSecrets;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderReadCache orderReadCache;
+    private final LogSampler logSampler;
+    private final TransactionTemplate tx;
+    private final TenantShards tenantShards;
+
+    @Value("${app.orders.webhookLookbackDays:45}")
+    private long webhookLookbackDays;
 
     @PostMapping
     public ResponseEntity<?> handle(
@@ -59,10 +86,6 @@ public class RazorpayWebhookController {
                 eventId = "fallback|" + eventType + "|" + createdAt;
             }
 
-            if (webhookEventRepository.existsById(eventId)) {
-                return ResponseEntity.ok("Already processed");
-            }
-
             // Payment entity (capture/fail events)
             JSONObject paymentEntity = json.optJSONObject("payload")
                     .optJSONObject("payment")
@@ -85,127 +108,175 @@ public class RazorpayWebhookController {
                 razorpayPaymentId = refundEntity.optString("payment_id", "");
             }
 
-            // Resolve Order:
-            Order order = null;
-
-            if (!razorpayOrderId.isBlank()) {
-                order = orderRepository.findByRazorpayOrderId(razorpayOrderId).orElse(null);
-            }
-            // fallback by paymentId
-            if (order == null && !razorpayPaymentId.isBlank()) {
-                order = orderRepository.findByRazorpayPaymentId(razorpayPaymentId).orElse(null);
+            // Find the order (on whichever shard holds it); the rest runs as its tenant.
+            // Razorpay ids aren't the partition key, so recent partitions are tried first:
+            // webhooks normally follow the payment request by minutes or days
+            String rzpOrderId = razorpayOrderId;
+            String rzpPaymentId = razorpayPaymentId;
+            Timestamp recent = Timestamp.from(Instant.now().minus(Duration.ofDays(webhookLookbackDays)));
+            OrderRef ref = tenantShards.findFirst(jdbc -> findOrderRef(jdbc, rzpOrderId, rzpPaymentId, recent));
+            if (ref == null) {
+                ref = tenantShards.findFirst(jdbc -> findOrderRef(jdbc, rzpOrderId, rzpPaymentId, null));
             }
+            OrderRef found = ref;
+            Order order = found == null ? null
+                    : TenantContext.call(found.tenantId(), () -> orderRepository.findOrder(found.id()).orElse(null));
 
             // ✅ Multi-tenant: if we cannot resolve order → we cannot know which secret to verify with
             if (order == null) {
+                if (webhookEventRepository.existsById(eventId)) {
+                    return ResponseEntity.ok("Already processed");
+                }
                 webhookEventRepository.save(WebhookEvent.builder().eventId(eventId).processedAt(Instant.now()).build());
                 return ResponseEntity.ok("Order not found (ignored)");
             }
 
-            // ✅ Tenant-specific webhook secret
-            String webhookSecret;
-            try {
-                webhookSecret = appSettingsService.getOrThrow(order.getTenantId()).getRazorpayWebhookSecret();
-            } catch (Exception e) {
-                return ResponseEntity.badRequest().body("Webhook secret not configured for tenant. Save it in Settings.");
-            }
+            String processedId = eventId;
+            return TenantContext.call(order.getTenantId(), () -> process(
+                    order, payload, signature, eventType, processedId, rzpPaymentId, refundEntity));
 
-            if (webhookSecret == null || webhookSecret.isBlank()) {
-                return ResponseEntity.badRequest().body("Webhook secret missing for tenant. Save it in Settings.");
-            }
+        } catch (Exception e) {
+            log.error("Webhook handler error", e);
+            // Keep 200 to avoid retry storm
+            return ResponseEntity.ok("Webhook handler error (logged)");
+        }
+    }
 
-            // ✅ Verify signature AFTER resolving tenant
-            if (!RazorpaySignatureUtil.verify(payload, signature, webhookSecret)) {
-                return ResponseEntity.status(401).body("Invalid signature");
-            }
+    private record OrderRef(UUID tenantId, UUID id) {}
 
-            // Store paymentId always if present
-            if (!razorpayPaymentId.isBlank()
-                    && (order.getRazorpayPaymentId() == null || order.getRazorpayPaymentId().isBlank())) {
-                order.setRazorpayPaymentId(razorpayPaymentId);
-            }
+    // Plain JDBC: see TenantShards.findFirst. since = null searches all partitions
+    private static OrderRef findOrderRef(JdbcTemplate jdbc, String razorpayOrderId, String razorpayPaymentId,
+                                         Timestamp since) {
+        OrderRef ref = null;
+        if (!razorpayOrderId.isBlank()) {
+            ref = findOrderRefBy(jdbc, "razorpay_order_id", razorpayOrderId, since);
+        }
+        // fallback by paymentId
+        if (ref == null && !razorpayPaymentId.isBlank()) {
+            ref = findOrderRefBy(jdbc, "razorpay_payment_id", razorpayPaymentId, since);
+        }
+        return ref;
+    }
 
-            // Decide status transition
-            OrderStatus next;
+    private static OrderRef findOrderRefBy(JdbcTemplate jdbc, String column, String value, Timestamp since) {
+        String sql = "SELECT tenant_id, id FROM orders WHERE " + column + " = ?"
+                + (since == null ? "" : " AND created_at >= ?") + " LIMIT 1";
+        Object[] args = since == null ? new Object[]{value} : new Object[]{value, since};
+        List<OrderRef> found = jdbc.query(sql,
+                (rs, i) -> new OrderRef(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)), args);
+        return found.isEmpty() ? null : found.get(0);
+    }
 
-            if ("payment.captured".equalsIgnoreCase(eventType)) {
-                next = OrderStatus.PAID;
-            } else if ("payment.failed".equalsIgnoreCase(eventType)) {
-                next = OrderStatus.FAILED;
-            } else if ("payment.refunded".equalsIgnoreCase(eventType)) {
-                next = OrderStatus.REFUNDED;
-            } else {
-                webhookEventRepository.save(WebhookEvent.builder().eventId(eventId).processedAt(Instant.now()).build());
-                return ResponseEntity.ok("Event ignored: " + eventType);
-            }
+    // Runs as the order's tenant, so every read and write below lands on its shard
+    private ResponseEntity<?> process(Order order, String payload, String signature, String eventType,
+                                      String eventId, String razorpayPaymentId, JSONObject refundEntity) {
+        if (webhookEventRepository.existsById(eventId)) {
+            return ResponseEntity.ok("Already processed");
+        }
 
-            // Safe transitions (no downgrade)
-            OrderStatus current = order.getStatus();
-            if (current != null && !current.canTransitionTo(next)) {
-                log.warn("Blocked invalid transition orderId={} {} -> {} event={}",
-                        order.getId(), current, next, eventType);
+        // ✅ Tenant-specific webhook secret
+        TenantSettings settings;
+        try {
+            settings = appSettingsService.getOrThrow(order.getTenantId());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Webhook secret not configured for tenant. Save it in Settings.");
+        }
 
-                webhookEventRepository.save(WebhookEvent.builder().eventId(eventId).processedAt(Instant.now()).build());
-                return ResponseEntity.ok("Transition blocked (ignored)");
-            }
+        if (settings.getRazorpayWebhookSecret() == null || settings.getRazorpayWebhookSecret().isBlank()) {
+            return ResponseEntity.badRequest().body("Webhook secret missing for tenant. Save it in Settings.");
+        }
 
-            // Apply updates
-            order.setStatus(next);
+        // ✅ Verify signature AFTER resolving tenant (cached keyed HMAC, see TenantSecrets)
+        if (!tenantSecrets.verifyWebhook(settings, payload, signature)) {
+            return ResponseEntity.status(401).body("Invalid signature");
+        }
 
-            if (next == OrderStatus.PAID) {
-                if (order.getPaidAt() == null) order.setPaidAt(Instant.now());
-                order.setFailedAt(null);
-                order.setLastError(null);
+        // Store paymentId always if present
+        if (!razorpayPaymentId.isBlank()
+                && (order.getRazorpayPaymentId() == null || order.getRazorpayPaymentId().isBlank())) {
+            order.setRazorpayPaymentId(razorpayPaymentId);
+        }
 
-            } else if (next == OrderStatus.FAILED) {
-                if (order.getFailedAt() == null) order.setFailedAt(Instant.now());
+        // Decide status transition
+        OrderStatus next;
 
-            } else if (next == OrderStatus.REFUNDED) {
-                if (refundEntity != null) {
-                    String refundId = refundEntity.optString("id", "");
-                    if (!refundId.isBlank()) order.setRazorpayRefundId(refundId);
-                }
-                if (order.getRefundedAt() == null) order.setRefundedAt(Instant.now());
+        if ("payment.captured".equalsIgnoreCase(eventType)) {
+            next = OrderStatus.PAID;
+        } else if ("payment.failed".equalsIgnoreCase(eventType)) {
+            next = OrderStatus.FAILED;
+        } else if ("payment.refunded".equalsIgnoreCase(eventType)) {
+            next = OrderStatus.REFUNDED;
+        } else {
+            webhookEventRepository.save(WebhookEvent.builder().eventId(eventId).processedAt(Instant.now()).build());
+            return ResponseEntity.ok("Event ignored: " + eventType);
+        }
+
+        // Safe transitions (no downgrade)
+        OrderStatus current = order.getStatus();
+        if (current != null && !current.canTransitionTo(next)) {
+            logSampler.warn(log, "webhook.transition-blocked", "Blocked invalid transition orderId={} {} -> {} event={}",
+                    order.getId(), current, next, eventType);
+
+            webhookEventRepository.save(WebhookEvent.builder().eventId(eventId).processedAt(Instant.now()).build());
+            return ResponseEntity.ok("Transition blocked (ignored)");
+        }
+
+        // Apply updates
+        order.setStatus(next);
+
+        if (next == OrderStatus.PAID) {
+            if (order.getPaidAt() == null) order.setPaidAt(Instant.now());
+            order.setFailedAt(null);
+            order.setLastError(null);
+
+        } else if (next == OrderStatus.FAILED) {
+            if (order.getFailedAt() == null) order.setFailedAt(Instant.now());
+
+        } else if (next == OrderStatus.REFUNDED) {
+            if (refundEntity != null) {
+                String refundId = refundEntity.optString("id", "");
+                if (!refundId.isBlank()) order.setRazorpayRefundId(refundId);
             }
+            if (order.getRefundedAt() == null) order.setRefundedAt(Instant.now());
+        }
 
-            // WhatsApp auto message (only once)
-            sendWhatsappOnce(order, next);
+        // WhatsApp auto message (only once)
+        sendWhatsappOnce(order, next);
 
+        // Order, journal row (OrderJournal) and processed marker commit together
+        tx.executeWithoutResult(status -> {
             orderRepository.save(order);
+            orderReadCache.evict(order.getId());
             webhookEventRepository.save(WebhookEvent.builder().eventId(eventId).processedAt(Instant.now()).build());
 
-            return ResponseEntity.ok("Processed: " + eventType);
+            if (current != next) {
+                eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                        order, current, next, OrderEventSource.WEBHOOK, eventId));
+            }
+        });
 
-        } catch (Exception e) {
-            log.error("Webhook handler error", e);
-            // Keep 200 to avoid retry storm
-            return ResponseEntity.ok("Webhook handler error (logged)");
-        }
+        return ResponseEntity.ok("Processed: " + eventType);
     }
 
+    // Sends are async: the webhook response does not wait on Graph API latency.
+    // *MsgSentAt marks the message as dispatched, so a redelivered webhook does not
+    // send it again; whether it arrived is only in whatsapp_deliveries.
     private void sendWhatsappOnce(Order order, OrderStatus next) {
-        try {
-            if (next == OrderStatus.PAID && order.getPaidMsgSentAt() == null) {
-                whatsappPaymentService.sendPaymentSuccess(order);
-                order.setPaidMsgSentAt(Instant.now());
-                return;
-            }
+        if (next == OrderStatus.PAID && order.getPaidMsgSentAt() == null) {
+            whatsappPaymentService.sendPaymentSuccessAsync(order);
+            order.setPaidMsgSentAt(Instant.now());
+            return;
+        }
 
-            if (next == OrderStatus.FAILED && order.getFailedMsgSentAt() == null) {
-                whatsappPaymentService.sendPaymentFailed(order);
-                order.setFailedMsgSentAt(Instant.now());
-                return;
-            }
+        if (next == OrderStatus.FAILED && order.getFailedMsgSentAt() == null) {
+            whatsappPaymentService.sendPaymentFailedAsync(order);
+            order.setFailedMsgSentAt(Instant.now());
+            return;
+        }
 
-            if (next == OrderStatus.REFUNDED && order.getRefundedMsgSentAt() == null) {
-                whatsappPaymentService.sendRefunded(order);
-                order.setRefundedMsgSentAt(Instant.now());
-                return;
-            }
-        } catch (Exception ex) {
-            log.warn("WhatsApp send failed orderId={} next={} msg={}",
-                    order.getId(), next, ex.getMessage());
-            order.setLastError("WhatsApp send failed: " + ex.getMessage());
+        if (next == OrderStatus.REFUNDED && order.getRefundedMsgSentAt() == null) {
+            whatsappPaymentService.sendRefundedAsync(order);
+            order.setRefundedMsgSentAt(Instant.now());
         }
     }
 }
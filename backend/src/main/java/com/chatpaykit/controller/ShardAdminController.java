@@ -0,0 +1,81 @@
+package com.chatpaykit.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chatpaykit.dto.TenantMoveResponse;
+import com.chatpaykit.dto.TenantShardResponse;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.shard.TenantShardDirectory;
+import com.chatpaykit.shard.TenantShardMover;
+import com.chatpaykit.workload.Workload;
+import com.chatpaykit.workload.WorkloadClass;
+
+/**
+ * Operator endpoints for tenant shards (not tenant-facing: X-Admin-Key = app.admin.key).
+ *
+ *   curl -H 'X-Admin-Key: ...' localhost:8080/internal/shards/tenants/{id}
+ *   curl -X POST -H 'X-Admin-Key: ...' 'localhost:8080/internal/shards/tenants/{id}/move?to=shard-2'
+ *
+ * A move answers when it is done (see TenantShardMover for the steps).
+ */
+@RestController
+@RequestMapping("/internal/shards")
+@Workload(WorkloadClass.BACKGROUND)
+@ConditionalOnProperty(name = "app.datasource.shards.enabled", havingValue = "true")
+public class ShardAdminController {
+
+    private final TenantShardDirectory directory;
+    private final TenantShardMover mover;
+    private final byte[] adminKey;
+
+    public ShardAdminController(TenantShardDirectory directory, TenantShardMover mover,
+                                @Value("${app.admin.key:}") String adminKey) {
+        this.directory = directory;
+        this.mover = mover;
+        this.adminKey = adminKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @GetMapping("/tenants/{tenantId}")
+    public TenantShardResponse placement(
+            @RequestHeader(value = "X-Admin-Key", required = false) String key,
+            @PathVariable UUID tenantId
+    ) {
+        checkAdminKey(key);
+        TenantShardDirectory.Placement p = directory.fresh(tenantId);
+        return TenantShardResponse.builder()
+                .tenantId(tenantId)
+                .shard(p.shard())
+                .state(p.state())
+                .build();
+    }
+
+    @PostMapping("/tenants/{tenantId}/move")
+    public TenantMoveResponse move(
+            @RequestHeader(value = "X-Admin-Key", required = false) String key,
+            @PathVariable UUID tenantId,
+            @RequestParam String to
+    ) {
+        checkAdminKey(key);
+        return mover.move(tenantId, to);
+    }
+
+    private void checkAdminKey(String key) {
+        if (adminKey.length == 0 || key == null
+                || !MessageDigest.isEqual(adminKey, key.getBytes(StandardCharsets.UTF_8))) {
+            throw new ApiException(HttpStatus.FORBIDDEN, "Invalid admin key");
+        }
+    }
+}
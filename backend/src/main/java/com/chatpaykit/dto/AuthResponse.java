@@ -1,10 +1,18 @@
 package com.chatpaykit.dto;
 
+import com.chatpaykit.service.SessionService;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 @Getter
 @AllArgsConstructor
 public class AuthResponse {
-    private String token;
+    private String token;         // access token
+    private String refreshToken;
+    private long expiresIn;       // seconds until token expires
+
+    public static AuthResponse from(SessionService.Tokens t) {
+        return new AuthResponse(t.accessToken(), t.refreshToken(), t.expiresIn());
+    }
 }
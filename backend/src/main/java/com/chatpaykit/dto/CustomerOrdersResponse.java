@@ -0,0 +1,32 @@
+package com.chatpaykit.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class CustomerOrdersResponse {
+
+    private UUID customerId;
+    private String name;
+    private String whatsapp;
+    private Instant customerSince;
+
+    // Over all of the customer's orders, not just this page
+    private long orderCount;
+    private long paidOrderCount;
+    private long lifetimePaidPaise;
+    private long refundedPaise;
+    private Instant firstOrderAt;
+    private Instant lastOrderAt;
+
+    // Newest first; no total count, use hasNext to page
+    private List<OrderResponse> items;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
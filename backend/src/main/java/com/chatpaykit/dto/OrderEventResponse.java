@@ -0,0 +1,31 @@
+package com.chatpaykit.dto;
+
+import java.time.Instant;
+
+import com.chatpaykit.entity.OrderEvent;
+import com.chatpaykit.entity.OrderEventSource;
+import com.chatpaykit.entity.OrderStatus;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class OrderEventResponse {
+
+    private OrderStatus from;
+    private OrderStatus to;
+    private OrderEventSource source;
+    private String eventId;
+    private Instant occurredAt;
+
+    public static OrderEventResponse from(OrderEvent e) {
+        return OrderEventResponse.builder()
+                .from(e.getFromStatus())
+                .to(e.getToStatus())
+                .source(e.getSource())
+                .eventId(e.getEventId())
+                .occurredAt(e.getOccurredAt())
+                .build();
+    }
+}
@@ -6,14 +6,18 @@ import java.util.UUID;
 import com.chatpaykit.entity.Order;
 import com.chatpaykit.entity.OrderStatus;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @Builder
+@NoArgsConstructor @AllArgsConstructor
 public class OrderResponse {
     private UUID id;
 
+    private UUID customerId;
     private String customerName;
     private String customerWhatsapp;
 
@@ -47,6 +51,7 @@ public class OrderResponse {
     public static OrderResponse from(Order o) {
         return OrderResponse.builder()
                 .id(o.getId())
+                .customerId(o.getCustomerId())
                 .customerName(o.getCustomerName())
                 .customerWhatsapp(o.getCustomerWhatsapp())
                 .amountPaise(o.getAmountPaise())
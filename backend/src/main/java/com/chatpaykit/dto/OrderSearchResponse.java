@@ -0,0 +1,22 @@
+package com.chatpaykit.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class OrderSearchResponse {
+
+    public enum MatchedBy { RAZORPAY_ORDER_ID, RAZORPAY_PAYMENT_ID, RAZORPAY_REFUND_ID, WHATSAPP, NAME }
+
+    private String query;
+    private MatchedBy matchedBy;
+
+    // Newest first; no total count (would scan every match), use hasNext to page
+    private List<OrderResponse> items;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
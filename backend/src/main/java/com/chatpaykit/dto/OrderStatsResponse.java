@@ -0,0 +1,31 @@
+package com.chatpaykit.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.chatpaykit.entity.OrderStatus;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class OrderStatsResponse {
+
+    private long totalOrders;
+
+    // Orders currently in each status
+    private Map<OrderStatus, Long> countByStatus;
+    private Map<OrderStatus, Long> amountPaiseByStatus;
+
+    // Orders that became PAID today (gross, refunds not subtracted)
+    private LocalDate day;
+    private long paidTodayCount;
+    private long paidTodayAmountPaise;
+
+    private long refundedCount;
+    private long refundedAmountPaise;
+
+    private Instant asOf;
+}
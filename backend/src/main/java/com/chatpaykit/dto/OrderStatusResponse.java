@@ -8,9 +8,11 @@ import com.chatpaykit.entity.OrderStatus;
 
 import lombok.Builder;
 import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
 
 @Getter
 @Builder
+@Jacksonized
 public class OrderStatusResponse {
 
     private UUID id;
@@ -0,0 +1,20 @@
+package com.chatpaykit.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class OrderTimelineResponse {
+
+    private UUID orderId;
+
+    // Newest first; older transitions may have been compacted away (app.orderEvents)
+    private List<OrderEventResponse> items;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
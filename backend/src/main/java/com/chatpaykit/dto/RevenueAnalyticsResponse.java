@@ -0,0 +1,28 @@
+package com.chatpaykit.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.chatpaykit.entity.RollupGranularity;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class RevenueAnalyticsResponse {
+
+    private RollupGranularity granularity;
+    private String zone;
+
+    // Inclusive day range in the reporting zone
+    private LocalDate from;
+    private LocalDate to;
+
+    // Only buckets that have orders
+    private List<RevenueBucket> buckets;
+    private RevenueBucket totals;
+
+    private Instant asOf;
+}
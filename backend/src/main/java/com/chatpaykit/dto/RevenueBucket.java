@@ -0,0 +1,36 @@
+package com.chatpaykit.dto;
+
+import java.time.Instant;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * One hour/day of orders, grouped by the time they were created. Status moves
+ * (e.g. a refund weeks later) update the bucket the order was created in.
+ */
+@Getter
+@Builder
+public class RevenueBucket {
+
+    private Instant bucketStart;
+
+    private long orders;
+
+    // Orders that left CREATED (payment request sent, failed or expired)
+    private long attempted;
+
+    // Orders that were paid at some point (PAID, REFUND_PENDING, REFUNDED)
+    private long paid;
+    private long refunded;
+
+    private long grossRevenuePaise;
+    private long refundedPaise;
+    private long netRevenuePaise;
+
+    // paid / attempted
+    private double conversionRate;
+
+    // refunded / paid
+    private double refundRate;
+}
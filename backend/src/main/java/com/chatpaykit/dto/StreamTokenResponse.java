@@ -0,0 +1,11 @@
+package com.chatpaykit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StreamTokenResponse {
+    private String token;         // pass as ?token= to GET /api/orders/stream
+    private long expiresIn;       // seconds until it can no longer open the stream
+}
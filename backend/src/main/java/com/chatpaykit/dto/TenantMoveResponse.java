@@ -0,0 +1,25 @@
+package com.chatpaykit.dto;
+
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class TenantMoveResponse {
+
+    private UUID tenantId;
+    private String from;
+    private String to;
+
+    // Rows per table: bulk copy while live, re-copy while frozen, deleted from the old shard afterwards
+    private Map<String, Long> copied;
+    private Map<String, Long> recopied;
+    private Map<String, Long> removed;
+
+    // How long the tenant's writes were refused
+    private long frozenMs;
+    private long tookMs;
+}
@@ -1,6 +1,7 @@
 package com.chatpaykit.dto;
 
 import com.chatpaykit.entity.TenantSettings;
+import com.chatpaykit.service.TenantSecrets;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -15,12 +16,13 @@ public class TenantSettingsResponse {
     private String whatsappAccessToken;
     private String whatsappPhoneNumberId;
 
-    public static TenantSettingsResponse from(TenantSettings s) {
+    // Secret columns are stored encrypted; the caller passes them decrypted
+    public static TenantSettingsResponse from(TenantSettings s, TenantSecrets.Plain secrets) {
         return new TenantSettingsResponse(
                 s.getRazorpayKeyId(),
-                s.getRazorpayKeySecret(),
-                s.getRazorpayWebhookSecret(),
-                s.getWhatsappAccessToken(),
+                secrets.razorpayKeySecret(),
+                secrets.razorpayWebhookSecret(),
+                secrets.whatsappAccessToken(),
                 s.getWhatsappPhoneNumberId()
         );
     }
@@ -0,0 +1,17 @@
+package com.chatpaykit.dto;
+
+import java.util.UUID;
+
+import com.chatpaykit.entity.TenantShard;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class TenantShardResponse {
+
+    private UUID tenantId;
+    private String shard;
+    private TenantShard.State state;
+}
@@ -0,0 +1,76 @@
+package com.chatpaykit.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One per WhatsApp number within a tenant. Orders point at it through
+ * Order.customerId and keep their own name/number copy as it was at order time.
+ */
+@Entity
+@Table(name = "customers", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_customers_tenant_whatsapp", columnNames = {"tenant_id", "whatsapp"})
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class Customer {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID tenantId;
+
+    // Digits only (see normalizeWhatsapp), e.g. "919876543210"
+    @Column(nullable = false, length = 20)
+    private String whatsapp;
+
+    // Name from the most recent order
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    void onCreate() {
+        Instant now = Instant.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        this.updatedAt = Instant.now();
+    }
+
+    // "+91 98765-43210" and "919876543210" are the same customer
+    public static String normalizeWhatsapp(String raw) {
+        if (raw == null) return null;
+        StringBuilder sb = new StringBuilder(raw.length());
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') sb.append(c);
+        }
+        return sb.toString();
+    }
+}
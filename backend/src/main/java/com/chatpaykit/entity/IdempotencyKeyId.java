@@ -0,0 +1,23 @@
+package com.chatpaykit.entity;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Data
+@NoArgsConstructor @AllArgsConstructor
+public class IdempotencyKeyId implements Serializable {
+
+    @Column(nullable = false)
+    private UUID tenantId;
+
+    // Client supplied Idempotency-Key header
+    @Column(nullable = false, length = 255)
+    private String idempotencyKey;
+}
@@ -0,0 +1,67 @@
+package com.chatpaykit.entity;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One Idempotency-Key per tenant. While the first request runs, responseBody is
+ * null and lockedUntil bounds how long duplicates wait. After that it holds the
+ * JSON response that replays return.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class IdempotencyRecord implements Persistable<IdempotencyKeyId> {
+
+    @EmbeddedId
+    private IdempotencyKeyId id;
+
+    // SHA-256 of operation + request body; a different request under the same key is rejected
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    private Instant lockedUntil;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    // Assigned id: insert straight away, a duplicate key fails on the primary key
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private boolean fresh = true;
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.fresh = false;
+    }
+}
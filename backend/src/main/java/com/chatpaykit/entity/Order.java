@@ -3,12 +3,15 @@ package com.chatpaykit.entity;
 import java.time.Instant;
 import java.util.UUID;
 
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.PartitionKey;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
@@ -19,26 +22,41 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_tenant_created", columnList = "tenant_id, created_at"),
+        @Index(name = "idx_orders_tenant_updated", columnList = "tenant_id, updated_at"),
+        @Index(name = "idx_orders_customer_created", columnList = "customer_id, created_at"),
+        @Index(name = "idx_orders_rzp_order", columnList = "razorpay_order_id"),
+        @Index(name = "idx_orders_rzp_payment", columnList = "razorpay_payment_id"),
+        @Index(name = "idx_orders_rzp_refund", columnList = "razorpay_refund_id")
+})
+@DynamicUpdate // UPDATE only the changed columns (status flips shouldn't rewrite lastError etc.)
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
 @Builder
 public class Order {
 
     @Id
-    @GeneratedValue
+    @OrderIdGenerator.TimeOrdered // UUIDv7 from createdAt: id lookups can prune partitions
     private UUID id;
 
     // ✅ NEW: Multi-tenant support
     @Column(nullable = false)
     private UUID tenantId;
 
+    // Customer row for customerWhatsapp (null until CustomerBackfill reaches older orders)
+    private UUID customerId;
+
     @Column(nullable = false)
     private String customerName;
 
     @Column(nullable = false, length = 20)
     private String customerWhatsapp;
 
+    // customerWhatsapp reversed: "ends with 3210" becomes an indexed prefix match (OrderSearchIndexes)
+    @Column(length = 20)
+    private String customerWhatsappRev;
+
     @Column(nullable = false)
     private Long amountPaise;
 
@@ -73,6 +91,8 @@ public class Order {
     @Column(length = 1000)
     private String lastError;
 
+    // Partition column (OrderPartitions): entity UPDATE/DELETE add "and created_at=?" so Postgres prunes
+    @PartitionKey
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -82,22 +102,29 @@ public class Order {
     @Column(length = 64)
     private String whatsappPaymentReferenceId;
 
+    // When the WhatsApp message was dispatched (send-once guard); outcome: whatsapp_deliveries
     private Instant paidMsgSentAt;
     private Instant failedMsgSentAt;
     private Instant refundedMsgSentAt;
 
     @PrePersist
     void onCreate() {
-        Instant now = Instant.now();
-        this.createdAt = now;
-        this.updatedAt = now;
+        // OrderIdGenerator runs first and stamps createdAt into the id
+        if (this.createdAt == null) this.createdAt = Instant.now();
+        this.updatedAt = this.createdAt;
         if (this.status == null) this.status = OrderStatus.CREATED;
         if (this.currency == null) this.currency = "INR";
         if (this.attemptCount == null) this.attemptCount = 0;
+        this.customerWhatsappRev = reverse(customerWhatsapp);
     }
 
     @PreUpdate
     void onUpdate() {
         this.updatedAt = Instant.now();
+        this.customerWhatsappRev = reverse(customerWhatsapp);
+    }
+
+    public static String reverse(String s) {
+        return s == null ? null : new StringBuilder(s).reverse().toString();
     }
 }
@@ -0,0 +1,67 @@
+package com.chatpaykit.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * One order status transition (order_events). Append-only: rows are inserted
+ * in the transaction that changed the order and only ever removed by
+ * OrderJournal's retention.
+ */
+@Entity
+@Table(name = "order_events", indexes = {
+        @Index(name = "idx_order_events_order", columnList = "order_id, occurred_at, id"),
+        @Index(name = "idx_order_events_occurred", columnList = "occurred_at")
+})
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class OrderEvent {
+
+    // Pooled sequence: ids come 50 at a time, so inserts batch without a round trip each
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_events_seq")
+    @SequenceGenerator(name = "order_events_seq", sequenceName = "order_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private UUID tenantId;
+
+    @Column(nullable = false, updatable = false)
+    private UUID orderId;
+
+    // null for creation
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, updatable = false)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20, updatable = false)
+    private OrderStatus toStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20, updatable = false)
+    private OrderEventSource source;
+
+    // Razorpay webhook event id, or the payment/refund id a sync read; null otherwise
+    @Column(length = 128, updatable = false)
+    private String eventId;
+
+    @Column(nullable = false, updatable = false)
+    private Instant occurredAt;
+}
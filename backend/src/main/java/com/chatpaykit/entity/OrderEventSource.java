@@ -0,0 +1,12 @@
+package com.chatpaykit.entity;
+
+// What applied an order transition (order_events.source)
+public enum OrderEventSource {
+    CREATE,
+    SEND_PAYMENT,
+    VERIFY,
+    RETRY,
+    REFUND,
+    WEBHOOK,
+    SYNC
+}
@@ -0,0 +1,62 @@
+package com.chatpaykit.entity;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import org.hibernate.annotations.IdGeneratorType;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import com.chatpaykit.util.UuidV7;
+
+/**
+ * Order ids are UUIDv7 stamped with the order's createdAt. Hibernate generates
+ * the id before @PrePersist runs, so createdAt is set here and Order.onCreate
+ * keeps it. With orders partitioned by created_at (OrderPartitions), a lookup
+ * by id can then add a createdAt range and Postgres reads one partition
+ * instead of probing every partition's key.
+ *
+ * Ids minted before this generator are random (v4); for those the range is
+ * open and the lookup checks every partition, as before.
+ */
+public class OrderIdGenerator implements BeforeExecutionGenerator {
+
+    @IdGeneratorType(OrderIdGenerator.class)
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.FIELD, ElementType.METHOD})
+    public @interface TimeOrdered {}
+
+    // Any window inside a month prunes the same; the slack only guards against clock trims
+    private static final Duration SLACK = Duration.ofDays(1);
+
+    private static final Instant OPEN_FROM = Instant.EPOCH;
+    private static final Instant OPEN_TO = Instant.parse("9999-12-31T00:00:00Z");
+
+    public record CreatedAtRange(Instant from, Instant to) {}
+
+    public static CreatedAtRange createdAtRange(UUID orderId) {
+        Instant at = UuidV7.timestamp(orderId);
+        if (at == null) return new CreatedAtRange(OPEN_FROM, OPEN_TO);
+        return new CreatedAtRange(at.minus(SLACK), at.plus(SLACK));
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        if (!(owner instanceof Order o)) return UuidV7.at(Instant.now());
+        if (o.getCreatedAt() == null) o.setCreatedAt(Instant.now());
+        return UuidV7.at(o.getCreatedAt());
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,40 @@
+package com.chatpaykit.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One row per tenant, bumped by every order_rollups rebuild (see OrderRollupService)
+@Entity
+@Table(name = "order_rollup_generations")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class OrderRollupGeneration {
+
+    @Id
+    private UUID tenantId;
+
+    @Column(nullable = false)
+    private long generation;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.updatedAt = Instant.now();
+    }
+}
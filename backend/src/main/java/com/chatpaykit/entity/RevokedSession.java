@@ -0,0 +1,39 @@
+package com.chatpaykit.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A session (refresh token family) whose access tokens must stop working
+ * before they expire. Kept until the last access token it could have issued
+ * has expired; TokenDenyList mirrors the table in memory.
+ */
+@Entity
+@Table(name = "revoked_sessions", indexes = {
+        @Index(name = "idx_revoked_sessions_revoked", columnList = "revoked_at")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class RevokedSession {
+
+    @Id
+    private UUID sessionId;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,6 @@
+package com.chatpaykit.entity;
+
+public enum RollupGranularity {
+    HOUR,
+    DAY
+}
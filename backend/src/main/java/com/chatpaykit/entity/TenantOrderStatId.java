@@ -0,0 +1,23 @@
+package com.chatpaykit.entity;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Data
+@NoArgsConstructor @AllArgsConstructor
+public class TenantOrderStatId implements Serializable {
+
+    @Column(nullable = false)
+    private UUID tenantId;
+
+    // OrderStatus name, or "PAID_DAY:yyyy-MM-dd" for revenue per day
+    @Column(nullable = false, length = 40)
+    private String statKey;
+}
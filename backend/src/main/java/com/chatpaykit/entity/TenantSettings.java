@@ -28,18 +28,27 @@ public class TenantSettings {
     @Column(length = 200)
     private String razorpayKeyId;
 
-    @Column(length = 500)
+    // Secret columns hold ciphertext (SecretCipher) under dataKey, wrapped by master key keyId.
+    // Rows with no keyId predate encryption and are plaintext until TenantSecretRotation runs.
+    // Read them through TenantSecrets.
+    @Column(length = 1000)
     private String razorpayKeySecret;
 
-    @Column(length = 500)
+    @Column(length = 1000)
     private String whatsappAccessToken;
 
     @Column(length = 100)
     private String whatsappPhoneNumberId;
 
-    @Column(length = 500)
+    @Column(length = 1000)
     private String razorpayWebhookSecret;
 
+    @Column(length = 100)
+    private String dataKey;
+
+    @Column(length = 50)
+    private String keyId;
+
     @Column(nullable = false)
     private Instant updatedAt;
 
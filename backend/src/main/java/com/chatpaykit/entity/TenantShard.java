@@ -0,0 +1,47 @@
+package com.chatpaykit.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Shard directory row: which database holds a tenant's data. Tenants without a
+ * row live on the home shard (spring.datasource).
+ *
+ * Mapped for the schema only; TenantShardDirectory reads and writes it with
+ * plain JDBC on the home primary, since JPA itself runs on the routed DataSource.
+ */
+@Entity
+@Table(name = "tenant_shards")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class TenantShard {
+
+    public enum State { ACTIVE, FROZEN }
+
+    @Id
+    private UUID tenantId;
+
+    @Column(nullable = false, length = 64)
+    private String shard;
+
+    // FROZEN while a move copies the last changes: reads still work, read-write transactions are refused
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private State state;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
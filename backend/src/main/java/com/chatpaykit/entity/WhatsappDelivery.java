@@ -0,0 +1,58 @@
+package com.chatpaykit.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "whatsapp_deliveries", indexes = {
+        @Index(name = "idx_wa_delivery_order", columnList = "orderId, createdAt")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class WhatsappDelivery {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID tenantId;
+
+    @Column(nullable = false)
+    private UUID orderId;
+
+    // PAYMENT_REQUEST / PAYMENT_SUCCESS / PAYMENT_FAILED / REFUNDED
+    @Column(nullable = false, length = 30)
+    private String kind;
+
+    // wamid.* returned by Graph API (null on failure)
+    @Column(length = 128)
+    private String messageId;
+
+    private Integer httpStatus;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) createdAt = Instant.now();
+    }
+}
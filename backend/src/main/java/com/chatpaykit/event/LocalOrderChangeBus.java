@@ -0,0 +1,19 @@
+package com.chatpaykit.event;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@ConditionalOnProperty(name = "app.events.bus", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalOrderChangeBus implements OrderChangeBus {
+
+    private final OrderStreamHub orderStreamHub;
+
+    @Override
+    public void publish(OrderChange change) {
+        orderStreamHub.deliver(change);
+    }
+}
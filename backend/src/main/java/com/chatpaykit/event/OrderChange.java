@@ -0,0 +1,8 @@
+package com.chatpaykit.event;
+
+import java.util.UUID;
+
+import com.chatpaykit.dto.OrderStatusResponse;
+
+// What travels over the OrderChangeBus (and over NOTIFY between nodes)
+public record OrderChange(UUID tenantId, OrderStatusResponse status) {}
@@ -0,0 +1,11 @@
+package com.chatpaykit.event;
+
+/**
+ * Fans committed order changes out to every node's {@link OrderStreamHub}.
+ * Single node: {@link LocalOrderChangeBus}. Multi node: {@link PostgresOrderChangeBus}
+ * ({@code app.events.bus=postgres}).
+ */
+public interface OrderChangeBus {
+
+    void publish(OrderChange change);
+}
@@ -0,0 +1,31 @@
+package com.chatpaykit.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.chatpaykit.dto.OrderStatusResponse;
+
+import lombok.RequiredArgsConstructor;
+
+// Only committed state leaves the node; fallbackExecution covers callers without a transaction
+@Component
+@RequiredArgsConstructor
+public class OrderChangeRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderChangeRelay.class);
+
+    private final OrderChangeBus orderChangeBus;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent e) {
+        try {
+            orderChangeBus.publish(new OrderChange(e.order().getTenantId(), OrderStatusResponse.from(e.order())));
+        } catch (Exception ex) {
+            // Streams are best effort: clients resync via Last-Event-ID or a list fetch
+            log.warn("Order change publish failed orderId={} msg={}", e.order().getId(), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.chatpaykit.event;
+
+import java.time.Instant;
+
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderEventSource;
+import com.chatpaykit.entity.OrderStatus;
+
+/**
+ * Published (in-process) whenever an order changes status, including creation
+ * ({@code from == null}). Publish it inside the transaction that saves the
+ * order: OrderJournal writes the order_events row synchronously in that
+ * transaction. Listeners that need the final row state should use
+ * AFTER_COMMIT, since the order may still be modified later in the same
+ * transaction.
+ */
+public record OrderStatusChangedEvent(
+        Order order,
+        OrderStatus from,
+        OrderStatus to,
+        OrderEventSource source,
+        String eventId,
+        Instant occurredAt
+) {
+    public OrderStatusChangedEvent(Order order, OrderStatus from, OrderStatus to, OrderEventSource source, String eventId) {
+        this(order, from, to, source, eventId, Instant.now());
+    }
+}
@@ -0,0 +1,251 @@
+package com.chatpaykit.event;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.chatpaykit.dto.OrderStatusResponse;
+import com.chatpaykit.exception.ApiException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per-tenant SSE fan-out of order status changes.
+ *
+ * Every delivered change gets a per-tenant sequence number and is kept in a
+ * small replay ring, so a reconnecting client that sends Last-Event-ID
+ * receives what it missed. Sequences are node-local and restart whenever a
+ * tenant's stream is (re)created, so the SSE id is "<epoch>:<seq>" with a
+ * random epoch per stream: an id from another node, an earlier boot or an
+ * idled-out stream never matches. Such an id, or one too old or further
+ * behind than the connection buffer, gets a "resync" event and the client
+ * should refetch.
+ *
+ * Each connection has a bounded queue drained off the publishing thread (on a
+ * virtual thread, so a stalled client parks instead of holding a platform
+ * thread), so one slow client cannot hold up others. A connection whose queue
+ * overflows is closed and is expected to reconnect with Last-Event-ID.
+ */
+@Component
+public class OrderStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStreamHub.class);
+
+    private static final String EVENT_STATUS = "order-status";
+    private static final String EVENT_RESYNC = "resync";
+
+    @Value("${app.stream.replaySize:256}")
+    private int replaySize;
+
+    @Value("${app.stream.connectionBuffer:64}")
+    private int connectionBuffer;
+
+    @Value("${app.stream.maxConnectionsPerTenant:50}")
+    private int maxConnectionsPerTenant;
+
+    @Value("${app.stream.timeoutMs:1800000}")
+    private long timeoutMs;
+
+    private final Map<UUID, TenantStream> streams = new ConcurrentHashMap<>();
+    private final ExecutorService drainExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("order-stream-drain-", 0).factory());
+
+    private final Counter overflowCounter;
+
+    public OrderStreamHub(MeterRegistry meterRegistry) {
+        this.overflowCounter = meterRegistry.counter("app.orders.stream.overflow");
+        meterRegistry.gauge("app.orders.stream.connections", streams,
+                m -> m.values().stream().mapToInt(s -> s.connections.size()).sum());
+    }
+
+    // -------------------------
+    // Subscribe
+    // -------------------------
+    public SseEmitter subscribe(UUID tenantId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        EventId resumeFrom = EventId.parse(lastEventId);
+
+        while (true) {
+            TenantStream ts = streams.computeIfAbsent(tenantId, id -> new TenantStream());
+            if (ts.connections.size() >= maxConnectionsPerTenant) {
+                throw new ApiException(HttpStatus.TOO_MANY_REQUESTS, "Too many open order streams for tenant");
+            }
+
+            Connection conn = new Connection(ts, emitter);
+
+            // Register and replay under the tenant lock so no change is missed or duplicated
+            synchronized (ts) {
+                if (streams.get(tenantId) != ts) continue; // removed by idle cleanup meanwhile
+
+                ts.connections.add(conn);
+                ts.lastActivity = System.currentTimeMillis();
+
+                if (resumeFrom != null) {
+                    Entry oldest = ts.recent.peekFirst();
+                    long from = resumeFrom.seq();
+                    boolean gap = !ts.epoch.equals(resumeFrom.epoch()) // other node or earlier stream
+                            || from > ts.seq
+                            || (oldest != null ? oldest.seq() > from + 1 : from < ts.seq)
+                            // a replay the buffer can't hold would overflow it again on every reconnect
+                            || ts.seq - from > connectionBuffer;
+                    if (gap) {
+                        conn.offer(SseEmitter.event().id(ts.eventId(ts.seq)).name(EVENT_RESYNC).data("resync"));
+                    } else {
+                        for (Entry e : ts.recent) {
+                            if (e.seq() > from) conn.offer(e.toEvent(ts));
+                        }
+                    }
+                }
+            }
+
+            emitter.onCompletion(conn::close);
+            emitter.onTimeout(conn::close);
+            emitter.onError(ex -> conn.close());
+            return emitter;
+        }
+    }
+
+    // -------------------------
+    // Deliver (called by the OrderChangeBus on every node)
+    // -------------------------
+    public void deliver(OrderChange change) {
+        TenantStream ts = streams.get(change.tenantId());
+        if (ts == null) return; // nobody listening on this node
+
+        synchronized (ts) {
+            Entry e = new Entry(++ts.seq, change.status());
+            ts.recent.addLast(e);
+            while (ts.recent.size() > replaySize) ts.recent.pollFirst();
+            ts.lastActivity = System.currentTimeMillis();
+
+            for (Connection c : ts.connections) c.offer(e.toEvent(ts));
+        }
+    }
+
+    // -------------------------
+    // Heartbeat + idle cleanup
+    // -------------------------
+    @Scheduled(fixedDelayString = "${app.stream.heartbeatMs:15000}")
+    public void heartbeat() {
+        long idleCutoff = System.currentTimeMillis() - 10 * 60_000L;
+
+        streams.forEach((tenantId, ts) -> {
+            for (Connection c : ts.connections) c.offer(SseEmitter.event().comment("hb"));
+            synchronized (ts) {
+                if (ts.connections.isEmpty() && ts.lastActivity < idleCutoff) streams.remove(tenantId, ts);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        streams.values().forEach(ts -> ts.connections.forEach(Connection::close));
+        drainExecutor.shutdownNow();
+    }
+
+    // -------------------------
+    // Internals
+    // -------------------------
+    private static final class TenantStream {
+        final String epoch = Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36);
+        long seq;
+        long lastActivity = System.currentTimeMillis();
+        final ArrayDeque<Entry> recent = new ArrayDeque<>();
+        final Set<Connection> connections = new CopyOnWriteArraySet<>();
+
+        String eventId(long seq) {
+            return epoch + ":" + seq;
+        }
+    }
+
+    private record Entry(long seq, OrderStatusResponse status) {
+        SseEmitter.SseEventBuilder toEvent(TenantStream ts) {
+            return SseEmitter.event().id(ts.eventId(seq)).name(EVENT_STATUS).data(status);
+        }
+    }
+
+    // Last-Event-ID as sent back by the client; anything unparseable resyncs
+    private record EventId(String epoch, long seq) {
+        static EventId parse(String v) {
+            if (v == null || v.isBlank()) return null;
+            int colon = v.lastIndexOf(':');
+            try {
+                return new EventId(v.substring(0, Math.max(colon, 0)).trim(), Long.parseLong(v.substring(colon + 1).trim()));
+            } catch (NumberFormatException e) {
+                return new EventId("", -1);
+            }
+        }
+    }
+
+    private final class Connection {
+        private final TenantStream ts;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Connection(TenantStream ts, SseEmitter emitter) {
+            this.ts = ts;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(connectionBuffer);
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) return;
+            if (!queue.offer(event)) {
+                overflowCounter.increment();
+                log.debug("Order stream buffer full, closing connection");
+                close();
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                drainExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder e;
+                while (!closed && (e = queue.poll()) != null) {
+                    emitter.send(e);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                close(); // client went away
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!queue.isEmpty()) scheduleDrain();
+        }
+
+        void close() {
+            closed = true;
+            queue.clear();
+            ts.connections.remove(this);
+        }
+    }
+}
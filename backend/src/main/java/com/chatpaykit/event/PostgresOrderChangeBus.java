@@ -0,0 +1,116 @@
+package com.chatpaykit.event;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import com.chatpaykit.service.OrderReadCache;
+import com.chatpaykit.shard.TenantShards;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Multi-node bus: NOTIFY on publish, and a dedicated LISTEN connection per node
+ * that hands every notification (including our own) to the local hub.
+ */
+@Component
+@ConditionalOnProperty(name = "app.events.bus", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresOrderChangeBus implements OrderChangeBus {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresOrderChangeBus.class);
+
+    private static final String CHANNEL = "order_changes";
+
+    private final TenantShards tenantShards;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final OrderStreamHub orderStreamHub;
+    private final OrderReadCache orderReadCache;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    @Override
+    public void publish(OrderChange change) {
+        // Home is where every node LISTENs, whichever shard the change was written to.
+        // A connection of its own (autocommit): publish runs AFTER_COMMIT, where a
+        // JdbcTemplate would reuse the finished transaction's connection, and a
+        // NOTIFY there is only sent on a commit that never comes.
+        try (Connection conn = tenantShards.dataSource(TenantShards.HOME).getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT pg_notify(?, ?)")) {
+            conn.setAutoCommit(true);
+            ps.setString(1, CHANNEL);
+            ps.setString(2, objectMapper.writeValueAsString(change));
+            ps.execute();
+        } catch (Exception e) {
+            throw new IllegalStateException("NOTIFY failed: " + e.getMessage(), e);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listener = new Thread(this::listenLoop, "order-changes-listen");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener != null) listener.interrupt();
+    }
+
+    // Kept off the Hikari pool: LISTEN needs one long-lived session per node
+    private void listenLoop() {
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+
+                try (Statement st = conn.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                log.info("Listening for order changes on channel={}", CHANNEL);
+
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(10_000);
+                    if (notifications == null) continue;
+                    for (PGNotification n : notifications) {
+                        try {
+                            OrderChange change = objectMapper.readValue(n.getParameter(), OrderChange.class);
+                            // Status changed on some node: drop our cached copy too
+                            orderReadCache.evict(change.status().getId());
+                            orderStreamHub.deliver(change);
+                        } catch (Exception e) {
+                            log.warn("Bad order change notification msg={}", e.getMessage());
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) return;
+                log.warn("Order change listener failed, reconnecting msg={}", e.getMessage());
+                try {
+                    Thread.sleep(2_000);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -7,12 +7,14 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
 
 
 @RestControllerAdvice
@@ -25,14 +27,27 @@ public class GlobalExceptionHandler {
     // Custom ApiException (recommended)
     // -------------------------
     @ExceptionHandler(ApiException.class)
-    @ResponseStatus
-    public Map<String, Object> handleApi(ApiException ex) {
-        return Map.of(
+    public ResponseEntity<Map<String, Object>> handleApi(ApiException ex) {
+        return ResponseEntity.status(ex.getStatus()).body(Map.of(
                 "timestamp", Instant.now().toString(),
                 "status", ex.getStatus().value(),
                 "error", ex.getStatus().getReasonPhrase(),
                 "message", ex.getMessage()
-        );
+        ));
+    }
+
+    // -------------------------
+    // ResponseStatusException (403/409 from controllers)
+    // -------------------------
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, Object>> handleStatus(ResponseStatusException ex) {
+        HttpStatus status = HttpStatus.valueOf(ex.getStatusCode().value());
+        return ResponseEntity.status(status).body(Map.of(
+                "timestamp", Instant.now().toString(),
+                "status", status.value(),
+                "error", status.getReasonPhrase(),
+                "message", ex.getReason() != null ? ex.getReason() : status.getReasonPhrase()
+        ));
     }
 
     // -------------------------
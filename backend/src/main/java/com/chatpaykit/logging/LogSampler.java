@@ -0,0 +1,62 @@
+package com.chatpaykit.logging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate limit for per-request INFO/WARN lines on hot paths: at most perSecond
+ * lines per key, the rest are counted and reported on the next line that gets
+ * through. 0 disables sampling. Errors are never sampled: log them directly.
+ */
+@Component
+public class LogSampler {
+
+    private static final class Window {
+        final AtomicLong second = new AtomicLong();
+        final AtomicLong used = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+    }
+
+    private final long perSecond;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public LogSampler(@Value("${app.logging.sample.perSecond:0}") long perSecond) {
+        this.perSecond = perSecond;
+    }
+
+    public void info(Logger log, String key, String format, Object... args) {
+        if (!log.isInfoEnabled()) return;
+        long dropped = tryAcquire(key);
+        if (dropped < 0) return;
+        log.info(dropped == 0 ? format : format + " (+" + dropped + " similar dropped)", args);
+    }
+
+    public void warn(Logger log, String key, String format, Object... args) {
+        if (!log.isWarnEnabled()) return;
+        long dropped = tryAcquire(key);
+        if (dropped < 0) return;
+        log.warn(dropped == 0 ? format : format + " (+" + dropped + " similar dropped)", args);
+    }
+
+    // -1 when this line should be skipped, otherwise how many were skipped since the last one
+    public long tryAcquire(String key) {
+        if (perSecond <= 0) return 0;
+
+        Window w = windows.computeIfAbsent(key, k -> new Window());
+        long now = System.currentTimeMillis() / 1000;
+        long current = w.second.get();
+        if (now != current && w.second.compareAndSet(current, now)) {
+            w.used.set(0);
+        }
+        if (w.used.incrementAndGet() > perSecond) {
+            w.dropped.incrementAndGet();
+            return -1;
+        }
+        return w.dropped.getAndSet(0);
+    }
+}
@@ -0,0 +1,60 @@
+package com.chatpaykit.logging;
+
+import java.util.regex.Pattern;
+
+/**
+ * One place for masking customer PII before it leaves the process (logs,
+ * Razorpay notes). Call sites mask what they know is PII with {@link #phone};
+ * {@link #text} is the catch-all applied to every JSON log message in prod.
+ */
+public final class PiiMasker {
+
+    // What CreateOrderRequest accepts and how people type it:
+    //   +<10-15 digits>, groups may be split by single spaces, dots or hyphens (+91 98765 43210)
+    //   an Indian mobile with optional 91/0 prefix, same separators (098765-43210)
+    //   10-20 bare digits, except 10/13 digits starting with 1 (epoch seconds/millis; no
+    //   country code 1 number has that length)
+    // Standalone only, so ids (order_Abc123) are left alone. The last 4 digits are kept.
+    private static final String SEP = "[ .-]?";
+    private static final Pattern PHONE = Pattern.compile("(?<![\\w+.-])(?:"
+            + "\\+\\d(?:" + SEP + "\\d){5,10}" + SEP
+            + "|(?:(?:91|0)" + SEP + ")?[6-9](?:" + SEP + "\\d){5}" + SEP
+            + "|(?!1\\d{9}(?!\\d)|1\\d{12}(?!\\d))\\d{6,16}"
+            + ")(\\d{4})(?![\\w-]|\\.\\d)");
+    private static final Pattern EMAIL = Pattern.compile("\\b([A-Za-z0-9._%+-])[A-Za-z0-9._%+-]*@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})\\b");
+
+    private PiiMasker() {}
+
+    public static String phone(String s) {
+        if (s == null) return null;
+        if (s.length() <= 4) return "****";
+        return "****" + s.substring(s.length() - 4);
+    }
+
+    public static String text(String s) {
+        if (s == null || !mayContainPii(s)) return s;
+        String out = PHONE.matcher(s).replaceAll("****$1");
+        return EMAIL.matcher(out).replaceAll("$1***@$2");
+    }
+
+    // Runs on every log line: skip the regexes unless there is an '@' or 10+ digits
+    // in a row (a single separator between two digits does not break the row)
+    private static boolean mayContainPii(String s) {
+        int digits = 0;
+        boolean afterDigit = false;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '@') return true;
+            if (c >= '0' && c <= '9') {
+                if (++digits >= 10) return true;
+                afterDigit = true;
+            } else if (afterDigit && (c == ' ' || c == '.' || c == '-')) {
+                afterDigit = false;
+            } else {
+                digits = 0;
+                afterDigit = false;
+            }
+        }
+        return false;
+    }
+}
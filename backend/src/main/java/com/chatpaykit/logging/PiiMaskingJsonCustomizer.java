@@ -0,0 +1,18 @@
+package com.chatpaykit.logging;
+
+import org.springframework.boot.json.JsonWriter.Members;
+import org.springframework.boot.json.JsonWriter.ValueProcessor;
+import org.springframework.boot.logging.structured.StructuredLoggingJsonMembersCustomizer;
+
+/**
+ * Masks phone numbers and emails in the "message" of every structured log line,
+ * whatever logged it (our code, Hibernate, the Razorpay SDK).
+ * Enabled by logging.structured.json.customizer in application-prod.yml.
+ */
+public class PiiMaskingJsonCustomizer implements StructuredLoggingJsonMembersCustomizer<Object> {
+
+    @Override
+    public void customize(Members<Object> members) {
+        members.applyingValueProcessor(ValueProcessor.of(String.class, PiiMasker::text).whenHasPath("message"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.chatpaykit.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.chatpaykit.entity.ArchivedOrder;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.repository.OrderRepository.CustomerTotals;
+import com.chatpaykit.repository.OrderRepository.OrderVersion;
+import com.chatpaykit.repository.OrderRepository.RollupSource;
+import com.chatpaykit.repository.OrderRepository.StatusTotals;
+
+import jakarta.persistence.QueryHint;
+
+// Same projections as OrderRepository, so recounts can add both tables up
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, UUID> {
+
+    @Query("select a.tenantId as tenantId, a.updatedAt as updatedAt from ArchivedOrder a where a.id = :id")
+    Optional<OrderVersion> findVersionById(@Param("id") UUID id);
+
+    @Query("""
+            select a.status as status, count(a) as orderCount, coalesce(sum(a.amountPaise), 0) as amountPaise
+              from ArchivedOrder a
+             where a.tenantId = :tenantId
+             group by a.status
+            """)
+    List<StatusTotals> totalsByStatus(@Param("tenantId") UUID tenantId);
+
+    @Query("""
+            select count(a) as orderCount,
+                   coalesce(sum(case when a.status = :paid then 1 else 0 end), 0) as paidOrderCount,
+                   coalesce(sum(case when a.status = :paid then a.amountPaise else 0 end), 0) as paidPaise,
+                   coalesce(sum(case when a.status = :refunded then a.amountPaise else 0 end), 0) as refundedPaise,
+                   min(a.createdAt) as firstOrderAt,
+                   max(a.createdAt) as lastOrderAt
+              from ArchivedOrder a
+             where a.tenantId = :tenantId and a.customerId = :customerId
+            """)
+    CustomerTotals customerTotals(@Param("tenantId") UUID tenantId,
+                                  @Param("customerId") UUID customerId,
+                                  @Param("paid") OrderStatus paid,
+                                  @Param("refunded") OrderStatus refunded);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("""
+            select a.createdAt as createdAt, a.status as status, a.amountPaise as amountPaise
+              from ArchivedOrder a
+             where a.tenantId = :tenantId
+            """)
+    Stream<RollupSource> streamRollupSource(@Param("tenantId") UUID tenantId);
+}
@@ -0,0 +1,33 @@
+package com.chatpaykit.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.chatpaykit.entity.Customer;
+
+public interface CustomerRepository extends JpaRepository<Customer, UUID> {
+
+    Optional<Customer> findByTenantIdAndWhatsapp(UUID tenantId, String whatsapp);
+
+    Optional<Customer> findByIdAndTenantId(UUID id, UUID tenantId);
+
+    // Concurrent first orders for one number: the loser's insert is a no-op instead of
+    // a constraint violation that would mark the order transaction rollback-only
+    @Modifying
+    @Query(value = """
+            insert into customers (id, tenant_id, whatsapp, name, created_at, updated_at)
+            values (:id, :tenantId, :whatsapp, :name, :now, :now)
+            on conflict do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id,
+                       @Param("tenantId") UUID tenantId,
+                       @Param("whatsapp") String whatsapp,
+                       @Param("name") String name,
+                       @Param("now") Instant now);
+}
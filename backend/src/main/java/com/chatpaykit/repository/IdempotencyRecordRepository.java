@@ -0,0 +1,53 @@
+package com.chatpaykit.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.chatpaykit.entity.IdempotencyKeyId;
+import com.chatpaykit.entity.IdempotencyRecord;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyKeyId> {
+
+    // Takes over a key whose first request died without completing or releasing it
+    @Modifying
+    @Query("""
+            update IdempotencyRecord r
+               set r.requestHash = :requestHash,
+                   r.lockedUntil = :lockedUntil
+             where r.id = :id
+               and r.responseBody is null
+               and r.lockedUntil < :now
+            """)
+    int takeOver(@Param("id") IdempotencyKeyId id,
+                 @Param("requestHash") String requestHash,
+                 @Param("lockedUntil") Instant lockedUntil,
+                 @Param("now") Instant now);
+
+    @Modifying
+    @Query("""
+            update IdempotencyRecord r
+               set r.responseBody = :responseBody,
+                   r.lockedUntil = null,
+                   r.expiresAt = :expiresAt
+             where r.id = :id
+            """)
+    int complete(@Param("id") IdempotencyKeyId id,
+                 @Param("responseBody") String responseBody,
+                 @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.responseBody is null")
+    int release(@Param("id") IdempotencyKeyId id);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.expiresAt < :now")
+    int deleteIfExpired(@Param("id") IdempotencyKeyId id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,15 @@
+package com.chatpaykit.repository;
+
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.chatpaykit.entity.OrderEvent;
+
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    // idx_order_events_order
+    Slice<OrderEvent> findByTenantIdAndOrderId(UUID tenantId, UUID orderId, Pageable pageable);
+}
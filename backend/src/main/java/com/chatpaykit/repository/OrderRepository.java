@@ -1,14 +1,29 @@
 package com.chatpaykit.repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderIdGenerator;
+import com.chatpaykit.entity.OrderIdGenerator.CreatedAtRange;
 import com.chatpaykit.entity.OrderStatus;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     // ✅ NEW: SaaS tenant isolation
@@ -19,4 +34,165 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     Optional<Order> findByRazorpayOrderId(String razorpayOrderId);
     Optional<Order> findByRazorpayPaymentId(String razorpayPaymentId);
+
+    // -------------------------
+    // By id, with the createdAt range the id carries (partition pruning, see OrderIdGenerator)
+    // -------------------------
+    Optional<Order> findByIdAndCreatedAtBetween(UUID id, Instant from, Instant to);
+
+    default Optional<Order> findOrder(UUID id) {
+        CreatedAtRange r = OrderIdGenerator.createdAtRange(id);
+        return findByIdAndCreatedAtBetween(id, r.from(), r.to());
+    }
+
+    // -------------------------
+    // Versions for conditional GET (no entity is loaded)
+    // -------------------------
+    interface OrderVersion {
+        UUID getTenantId();
+        Instant getUpdatedAt();
+    }
+
+    @Query("""
+            select o.tenantId as tenantId, o.updatedAt as updatedAt
+              from Order o
+             where o.id = :id and o.createdAt between :from and :to
+            """)
+    Optional<OrderVersion> findVersionByIdAndCreatedAtBetween(@Param("id") UUID id,
+                                                              @Param("from") Instant from,
+                                                              @Param("to") Instant to);
+
+    default Optional<OrderVersion> findVersionById(UUID id) {
+        CreatedAtRange r = OrderIdGenerator.createdAtRange(id);
+        return findVersionByIdAndCreatedAtBetween(id, r.from(), r.to());
+    }
+
+    interface ListVersion {
+        long getOrderCount();
+        Instant getLastUpdatedAt();
+    }
+
+    // idx_orders_tenant_updated
+    @Query("select count(o) as orderCount, max(o.updatedAt) as lastUpdatedAt from Order o where o.tenantId = :tenantId")
+    ListVersion listVersion(@Param("tenantId") UUID tenantId);
+
+    // -------------------------
+    // Search (tenant-scoped, paged newest first; see OrderSearchService)
+    // -------------------------
+    Slice<Order> findByTenantIdAndRazorpayOrderId(UUID tenantId, String razorpayOrderId, Pageable pageable);
+
+    Slice<Order> findByTenantIdAndRazorpayPaymentId(UUID tenantId, String razorpayPaymentId, Pageable pageable);
+
+    Slice<Order> findByTenantIdAndRazorpayRefundId(UUID tenantId, String razorpayRefundId, Pageable pageable);
+
+    // Reversed-number prefix: "ends with 3210" is like '0123%' (index from OrderSearchIndexes)
+    @Query("""
+            select o from Order o
+             where o.tenantId = :tenantId
+               and o.customerWhatsappRev like :reversedPrefix
+            """)
+    Slice<Order> searchByWhatsappSuffix(@Param("tenantId") UUID tenantId,
+                                        @Param("reversedPrefix") String reversedPrefix,
+                                        Pageable pageable);
+
+    // Trigram index on lower(customer_name) on Postgres; tenant index + filter elsewhere
+    @Query("""
+            select o from Order o
+             where o.tenantId = :tenantId
+               and lower(o.customerName) like :pattern escape '!'
+            """)
+    Slice<Order> searchByName(@Param("tenantId") UUID tenantId,
+                              @Param("pattern") String pattern,
+                              Pageable pageable);
+
+    // -------------------------
+    // Customer history (idx_orders_customer_created)
+    // -------------------------
+    Slice<Order> findByTenantIdAndCustomerId(UUID tenantId, UUID customerId, Pageable pageable);
+
+    interface CustomerTotals {
+        long getOrderCount();
+        long getPaidOrderCount();
+        long getPaidPaise();
+        long getRefundedPaise();
+        Instant getFirstOrderAt();
+        Instant getLastOrderAt();
+    }
+
+    @Query("""
+            select count(o) as orderCount,
+                   coalesce(sum(case when o.status = :paid then 1 else 0 end), 0) as paidOrderCount,
+                   coalesce(sum(case when o.status = :paid then o.amountPaise else 0 end), 0) as paidPaise,
+                   coalesce(sum(case when o.status = :refunded then o.amountPaise else 0 end), 0) as refundedPaise,
+                   min(o.createdAt) as firstOrderAt,
+                   max(o.createdAt) as lastOrderAt
+              from Order o
+             where o.tenantId = :tenantId and o.customerId = :customerId
+            """)
+    CustomerTotals customerTotals(@Param("tenantId") UUID tenantId,
+                                  @Param("customerId") UUID customerId,
+                                  @Param("paid") OrderStatus paid,
+                                  @Param("refunded") OrderStatus refunded);
+
+    // -------------------------
+    // Aggregates (stats rebuild / drift repair)
+    // -------------------------
+    interface StatusTotals {
+        OrderStatus getStatus();
+        long getOrderCount();
+        long getAmountPaise();
+    }
+
+    @Query("""
+            select o.status as status, count(o) as orderCount, coalesce(sum(o.amountPaise), 0) as amountPaise
+              from Order o
+             where o.tenantId = :tenantId
+             group by o.status
+            """)
+    List<StatusTotals> totalsByStatus(@Param("tenantId") UUID tenantId);
+
+    @Query("""
+            select o.status as status, count(o) as orderCount, coalesce(sum(o.amountPaise), 0) as amountPaise
+              from Order o
+             where o.tenantId = :tenantId and o.paidAt >= :from and o.paidAt < :to
+             group by o.status
+            """)
+    List<StatusTotals> totalsPaidBetween(@Param("tenantId") UUID tenantId,
+                                         @Param("from") Instant from,
+                                         @Param("to") Instant to);
+
+    // -------------------------
+    // Rollup rebuild (streamed; caller holds a transaction)
+    // -------------------------
+    interface RollupSource {
+        Instant getCreatedAt();
+        OrderStatus getStatus();
+        Long getAmountPaise();
+    }
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("""
+            select o.createdAt as createdAt, o.status as status, o.amountPaise as amountPaise
+              from Order o
+             where o.tenantId = :tenantId
+            """)
+    Stream<RollupSource> streamRollupSource(@Param("tenantId") UUID tenantId);
+
+    // -------------------------
+    // Archive (OrderArchive): rows another node is archiving are skipped, not waited on
+    // -------------------------
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select o from Order o
+             where o.status in :statuses and o.createdAt < :before and o.updatedAt < :before
+            """)
+    List<Order> findArchivable(@Param("statuses") List<OrderStatus> statuses,
+                               @Param("before") Instant before,
+                               Limit limit);
+
+    // createdAt bound keeps the delete on the old partitions
+    @Modifying
+    @Query("delete from Order o where o.id in :ids and o.createdAt < :before")
+    int deleteArchived(@Param("ids") List<UUID> ids, @Param("before") Instant before);
 }
@@ -0,0 +1,32 @@
+package com.chatpaykit.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.chatpaykit.entity.OrderRollupGeneration;
+
+public interface OrderRollupGenerationRepository extends JpaRepository<OrderRollupGeneration, UUID> {
+
+    // Row lock, held until commit: orders a flush against a rebuild of the same tenant
+    @Query(value = """
+            SELECT generation FROM order_rollup_generations
+             WHERE tenant_id = :tenantId
+               FOR UPDATE
+            """, nativeQuery = true)
+    Optional<Long> lockGeneration(@Param("tenantId") UUID tenantId);
+
+    @Query("select g.generation from OrderRollupGeneration g where g.tenantId = :tenantId")
+    Optional<Long> findGeneration(@Param("tenantId") UUID tenantId);
+
+    @Modifying
+    @Query("update OrderRollupGeneration g set g.generation = :generation, g.updatedAt = :now where g.tenantId = :tenantId")
+    int setGeneration(@Param("tenantId") UUID tenantId,
+                      @Param("generation") long generation,
+                      @Param("now") Instant now);
+}
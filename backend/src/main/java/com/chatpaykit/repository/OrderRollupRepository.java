@@ -0,0 +1,51 @@
+package com.chatpaykit.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.chatpaykit.entity.OrderRollup;
+import com.chatpaykit.entity.OrderRollupId;
+import com.chatpaykit.entity.RollupGranularity;
+
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, OrderRollupId> {
+
+    @Query("""
+            select r from OrderRollup r
+             where r.id.tenantId = :tenantId
+               and r.id.granularity = :granularity
+               and r.id.bucketStart >= :from and r.id.bucketStart < :to
+             order by r.id.bucketStart
+            """)
+    List<OrderRollup> findRange(@Param("tenantId") UUID tenantId,
+                                @Param("granularity") RollupGranularity granularity,
+                                @Param("from") Instant from,
+                                @Param("to") Instant to);
+
+    // Additive so concurrent flushes from several nodes never overwrite each other
+    @Modifying
+    @Query("""
+            update OrderRollup r
+               set r.orderCount = r.orderCount + :countDelta,
+                   r.amountPaise = r.amountPaise + :amountDelta,
+                   r.updatedAt = :now
+             where r.id = :id
+            """)
+    int increment(@Param("id") OrderRollupId id,
+                  @Param("countDelta") long countDelta,
+                  @Param("amountDelta") long amountDelta,
+                  @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from OrderRollup r where r.id.tenantId = :tenantId")
+    void deleteByTenantId(@Param("tenantId") UUID tenantId);
+
+    @Modifying
+    @Query("delete from OrderRollup r where r.id.granularity = :granularity and r.id.bucketStart < :before")
+    int deleteOlderThan(@Param("granularity") RollupGranularity granularity, @Param("before") Instant before);
+}
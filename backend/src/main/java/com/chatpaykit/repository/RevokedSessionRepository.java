@@ -0,0 +1,23 @@
+package com.chatpaykit.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.chatpaykit.entity.RevokedSession;
+
+public interface RevokedSessionRepository extends JpaRepository<RevokedSession, UUID> {
+
+    // TokenDenyList sync: revoked since the last poll and still able to matter
+    @Query("select s from RevokedSession s where s.revokedAt >= :since and s.expiresAt > :now")
+    List<RevokedSession> findRevokedSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from RevokedSession s where s.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,45 @@
+package com.chatpaykit.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.chatpaykit.entity.TenantOrderStat;
+import com.chatpaykit.entity.TenantOrderStatId;
+
+public interface TenantOrderStatRepository extends JpaRepository<TenantOrderStat, TenantOrderStatId> {
+
+    List<TenantOrderStat> findByIdTenantId(UUID tenantId);
+
+    // Row lock, held until commit: orders a flush against a rebuild of the same tenant
+    @Query(value = """
+            SELECT order_count FROM tenant_order_stats
+             WHERE tenant_id = :tenantId AND stat_key = :statKey
+               FOR UPDATE
+            """, nativeQuery = true)
+    Optional<Long> lockCount(@Param("tenantId") UUID tenantId, @Param("statKey") String statKey);
+
+    // Additive so concurrent flushes from several nodes never overwrite each other
+    @Modifying
+    @Query("""
+            update TenantOrderStat s
+               set s.orderCount = s.orderCount + :countDelta,
+                   s.amountPaise = s.amountPaise + :amountDelta,
+                   s.updatedAt = :now
+             where s.id = :id
+            """)
+    int increment(@Param("id") TenantOrderStatId id,
+                  @Param("countDelta") long countDelta,
+                  @Param("amountDelta") long amountDelta,
+                  @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from TenantOrderStat s where s.id.tenantId = :tenantId")
+    void deleteByTenantId(@Param("tenantId") UUID tenantId);
+}
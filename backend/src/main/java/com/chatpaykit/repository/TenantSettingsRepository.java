@@ -1,10 +1,38 @@
 package com.chatpaykit.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.chatpaykit.entity.TenantSettings;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 public interface TenantSettingsRepository extends JpaRepository<TenantSettings, UUID> {
+
+    // Upsert and rotation both rewrite the secret columns; neither may overwrite the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from TenantSettings s where s.tenantId = :tenantId")
+    Optional<TenantSettings> findForUpdate(@Param("tenantId") UUID tenantId);
+
+    // Rotation (TenantSecretRotation): plaintext rows, and rows under a retired but still configured key.
+    // Rows an upsert holds are skipped, not waited on
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select s from TenantSettings s
+             where s.keyId is null or (s.keyId <> :activeKeyId and s.keyId in :knownKeyIds)
+            """)
+    List<TenantSettings> findToRotate(@Param("activeKeyId") String activeKeyId,
+                                      @Param("knownKeyIds") Collection<String> knownKeyIds,
+                                      Limit limit);
 }
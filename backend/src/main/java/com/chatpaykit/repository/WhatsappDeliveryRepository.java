@@ -0,0 +1,13 @@
+package com.chatpaykit.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.chatpaykit.entity.WhatsappDelivery;
+
+public interface WhatsappDeliveryRepository extends JpaRepository<WhatsappDelivery, UUID> {
+
+    List<WhatsappDelivery> findByOrderIdOrderByCreatedAtDesc(UUID orderId);
+}
@@ -2,6 +2,7 @@ package com.chatpaykit.security;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.UUID;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -23,7 +24,10 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/api/orders/stream";
+
     private final JwtService jwtService;
+    private final TokenDenyList tokenDenyList;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -39,15 +43,33 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
 
         String header = request.getHeader(HttpHeaders.AUTHORIZATION);
-        if (header == null || !header.startsWith("Bearer ")) {
+        String token = header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+
+        // EventSource can't set headers: the order stream takes a stream token in the URL instead
+        boolean fromQuery = false;
+        if (token == null && STREAM_PATH.equals(path) && "GET".equals(request.getMethod())) {
+            token = request.getParameter("token");
+            fromQuery = token != null;
+        }
+        if (token == null) {
             chain.doFilter(request, response);
             return;
         }
 
-        String token = header.substring(7).trim();
-
         try {
             Claims c = jwtService.parseClaims(token);
+
+            // Stream tokens open the stream and nothing else; access tokens never travel in URLs
+            if (JwtService.STREAM_SCOPE.equals(c.get("scope")) != fromQuery) {
+                throw new IllegalStateException("Wrong token type");
+            }
+
+            // Tokens without a session predate refresh tokens and can't be revoked
+            Object sid = c.get("sid");
+            if (sid == null || tokenDenyList.isRevoked(UUID.fromString(sid.toString()))) {
+                throw new IllegalStateException("Session revoked");
+            }
+
             String role = String.valueOf(c.get("role"));
             String userId = String.valueOf(c.get("userId"));
 
@@ -58,11 +80,18 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             );
 
             SecurityContextHolder.getContext().setAuthentication(auth);
+
+            Object tenantId = c.get("tenantId");
+            if (tenantId != null) TenantContext.set(UUID.fromString(tenantId.toString()));
         } catch (Exception e) {
             // invalid token → treat as unauthenticated
             SecurityContextHolder.clearContext();
         }
 
-        chain.doFilter(request, response);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
     }
 }
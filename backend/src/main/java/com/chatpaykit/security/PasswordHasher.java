@@ -0,0 +1,134 @@
+package com.chatpaykit.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.chatpaykit.exception.ApiException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * BCrypt on its own small pool instead of the request threads.
+ *
+ * A login storm or a credential-stuffing run only fills this pool (threads,
+ * default half the cores) and its queue (queueSize); callers beyond that get a
+ * 503 at once, and the remaining cores stay free for webhooks and the order API.
+ * A caller also gives up with 503 after timeoutMs.
+ *
+ * cost is the BCrypt work factor for new hashes. Hashes with another cost still
+ * verify; needsRehash tells the login path to re-hash them (see AuthService).
+ */
+@Component
+public class PasswordHasher {
+
+    private final BCryptPasswordEncoder encoder;
+    private final int cost;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Counter rejected;
+    private final Timer hashTimer;
+
+    public PasswordHasher(
+            MeterRegistry meterRegistry,
+            @Value("${app.auth.bcrypt.cost:10}") int cost,
+            @Value("${app.auth.bcrypt.threads:0}") int threads,
+            @Value("${app.auth.bcrypt.queueSize:64}") int queueSize,
+            @Value("${app.auth.bcrypt.timeoutMs:5000}") long timeoutMs
+    ) {
+        this.encoder = new BCryptPasswordEncoder(cost);
+        this.cost = cost;
+        this.timeoutMs = timeoutMs;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger n = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), r -> {
+                    Thread t = new Thread(r, "bcrypt-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.rejected = meterRegistry.counter("app.auth.bcrypt.rejected");
+        this.hashTimer = meterRegistry.timer("app.auth.bcrypt");
+        meterRegistry.gauge("app.auth.bcrypt.queued", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("app.auth.bcrypt.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    public boolean matches(String raw, String hash) {
+        return run(() -> encoder.matches(raw, hash));
+    }
+
+    public String encode(String raw) {
+        return run(() -> encoder.encode(raw));
+    }
+
+    // Stored with a different work factor than app.auth.bcrypt.cost (either way)
+    public boolean needsRehash(String hash) {
+        // $2a$10$...
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') return false;
+        try {
+            return Integer.parseInt(hash.substring(4, 6)) != cost;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Hashes raw in the background and hands the result to store (on the pool
+     * thread). Skipped when the pool is full: it is only an upgrade, and the
+     * next login tries again.
+     */
+    public void rehash(String raw, Consumer<String> store) {
+        try {
+            executor.execute(() -> store.accept(hashTimer.record(() -> encoder.encode(raw))));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+        }
+    }
+
+    private <T> T run(Callable<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.recordCallable(work));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw busy();
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static ApiException busy() {
+        return new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Too many sign-in attempts, try again shortly");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,141 @@
+package com.chatpaykit.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Envelope encryption for tenant secrets.
+ *
+ * Each tenant has its own data key; its secrets are AES-256-GCM under that key,
+ * bound to tenant and field (AAD) so a value can't be moved to another row or
+ * column. The data key is stored wrapped by a master key from app.secrets.keys
+ * ("id:base64", 32 bytes each). New data keys are wrapped with activeKeyId;
+ * rotating the master key only re-wraps data keys (TenantSecretRotation).
+ */
+@Component
+public class SecretCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final int KEY_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, SecretKey> masterKeys = new LinkedHashMap<>();
+    private final String activeKeyId;
+
+    public SecretCipher(@Value("${app.secrets.keys:}") List<String> keys,
+                        @Value("${app.secrets.activeKeyId:}") String activeKeyId) {
+        if (keys.stream().allMatch(String::isBlank)) {
+            throw new IllegalStateException("app.secrets.keys is not set (APP_SECRETS_KEYS)");
+        }
+        for (String entry : keys) {
+            if (entry.isBlank()) continue;
+            int colon = entry.indexOf(':');
+            if (colon < 1) throw new IllegalStateException("app.secrets.keys entries are id:base64");
+            byte[] key = Base64.getDecoder().decode(entry.substring(colon + 1).trim());
+            if (key.length != KEY_BYTES) {
+                throw new IllegalStateException("Master key " + entry.substring(0, colon) + " must be " + KEY_BYTES + " bytes");
+            }
+            masterKeys.put(entry.substring(0, colon).trim(), new SecretKeySpec(key, "AES"));
+        }
+        if (!masterKeys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("app.secrets.activeKeyId '" + activeKeyId + "' is not in app.secrets.keys");
+        }
+        this.activeKeyId = activeKeyId;
+    }
+
+    public String activeKeyId() {
+        return activeKeyId;
+    }
+
+    public Set<String> keyIds() {
+        return Collections.unmodifiableSet(masterKeys.keySet());
+    }
+
+    // -------------------------
+    // Data keys
+    // -------------------------
+    public byte[] newDataKey() {
+        byte[] key = new byte[KEY_BYTES];
+        random.nextBytes(key);
+        return key;
+    }
+
+    // Always under the active master key
+    public String wrap(byte[] dataKey, UUID tenantId) {
+        return encode(seal(masterKeys.get(activeKeyId), dataKey, aad(tenantId, "dataKey")));
+    }
+
+    public byte[] unwrap(String keyId, String wrapped, UUID tenantId) {
+        SecretKey master = masterKeys.get(keyId);
+        if (master == null) throw new IllegalStateException("Master key " + keyId + " is not configured");
+        return open(master, Base64.getDecoder().decode(wrapped), aad(tenantId, "dataKey"));
+    }
+
+    // -------------------------
+    // Values (null or blank is stored as null)
+    // -------------------------
+    public String encrypt(byte[] dataKey, String plaintext, UUID tenantId, String field) {
+        if (plaintext == null || plaintext.isBlank()) return null;
+        return encode(seal(new SecretKeySpec(dataKey, "AES"), plaintext.getBytes(StandardCharsets.UTF_8), aad(tenantId, field)));
+    }
+
+    public byte[] decrypt(byte[] dataKey, String ciphertext, UUID tenantId, String field) {
+        if (ciphertext == null) return null;
+        return open(new SecretKeySpec(dataKey, "AES"), Base64.getDecoder().decode(ciphertext), aad(tenantId, field));
+    }
+
+    // -------------------------
+    // AES-GCM: iv || ciphertext+tag
+    // -------------------------
+    private byte[] seal(SecretKey key, byte[] plaintext, byte[] aad) {
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(aad);
+            byte[] sealed = cipher.doFinal(plaintext);
+            return ByteBuffer.allocate(IV_BYTES + sealed.length).put(iv).put(sealed).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Secret encryption failed", e);
+        }
+    }
+
+    private static byte[] open(SecretKey key, byte[] sealed, byte[] aad) {
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, sealed, 0, IV_BYTES));
+            cipher.updateAAD(aad);
+            return cipher.doFinal(sealed, IV_BYTES, sealed.length - IV_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Secret decryption failed", e);
+        }
+    }
+
+    private static byte[] aad(UUID tenantId, String field) {
+        return (tenantId + ":" + field).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,50 @@
+package com.chatpaykit.security;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Tenant of the current request thread, set by JwtAuthFilter from the token.
+ * Null for public endpoints (webhooks, auth) and background jobs.
+ *
+ * With sharding on, this is also what picks the database (ShardRoutingDataSource),
+ * so work done for one tenant off the request thread runs inside {@link #call}.
+ */
+public final class TenantContext {
+
+    private static final ThreadLocal<UUID> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static UUID get() {
+        return CURRENT.get();
+    }
+
+    public static void set(UUID tenantId) {
+        CURRENT.set(tenantId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    // Runs with tenantId as the current tenant, then puts back whatever was set before
+    public static <T> T call(UUID tenantId, Supplier<T> body) {
+        UUID previous = CURRENT.get();
+        CURRENT.set(tenantId);
+        try {
+            return body.get();
+        } finally {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+
+    public static void run(UUID tenantId, Runnable body) {
+        call(tenantId, () -> {
+            body.run();
+            return null;
+        });
+    }
+}
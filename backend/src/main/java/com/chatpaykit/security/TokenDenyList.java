@@ -0,0 +1,76 @@
+package com.chatpaykit.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.chatpaykit.entity.RevokedSession;
+import com.chatpaykit.repository.RevokedSessionRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Revoked sessions, checked by JwtAuthFilter on every request: one hash lookup,
+ * no database.
+ *
+ * A revocation shows up here at once on the node that made it (SessionService)
+ * and within syncMs on the others, which poll revoked_sessions for rows newer
+ * than the last poll minus skewMs (clock skew and commit lag between nodes).
+ * Entries go away when the last access token of their session has expired, so
+ * the set stays as small as the revocations of one access token lifetime.
+ */
+@Component
+public class TokenDenyList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenDenyList.class);
+
+    private final RevokedSessionRepository repository;
+    private final Map<UUID, Instant> revoked = new ConcurrentHashMap<>();
+    private final Duration skew;
+    private volatile Instant syncedTo = Instant.EPOCH;
+
+    public TokenDenyList(
+            RevokedSessionRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${app.auth.revocation.skewMs:5000}") long skewMs
+    ) {
+        this.repository = repository;
+        this.skew = Duration.ofMillis(skewMs);
+        meterRegistry.gaugeMapSize("app.auth.revoked.sessions", List.of(), revoked);
+    }
+
+    public boolean isRevoked(UUID sessionId) {
+        return revoked.containsKey(sessionId);
+    }
+
+    // Until expiresAt, when no access token of the session is left
+    public void add(UUID sessionId, Instant expiresAt) {
+        revoked.merge(sessionId, expiresAt, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${app.auth.revocation.syncMs:5000}")
+    public void sync() {
+        Instant now = Instant.now();
+        try {
+            for (RevokedSession s : repository.findRevokedSince(syncedTo.minus(skew), now)) {
+                add(s.getSessionId(), s.getExpiresAt());
+            }
+            syncedTo = now;
+        } catch (RuntimeException e) {
+            // Next poll covers the gap: syncedTo stays where it was
+            log.warn("Revoked session sync failed: {}", e.getMessage());
+        }
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+    }
+}
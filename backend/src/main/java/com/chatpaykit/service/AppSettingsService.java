@@ -1,15 +1,24 @@
 package com.chatpaykit.service;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.chatpaykit.dto.TenantSettingsRequest;
 import com.chatpaykit.entity.TenantSettings;
 import com.chatpaykit.repository.TenantSettingsRepository;
+import com.chatpaykit.security.SecretCipher;
+import com.chatpaykit.util.SingleFlight;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -17,32 +26,80 @@ import lombok.RequiredArgsConstructor;
 public class AppSettingsService {
 
     private final TenantSettingsRepository tenantSettingsRepository;
+    private final MeterRegistry meterRegistry;
+    private final SecretCipher secretCipher;
+    private final TenantSecrets tenantSecrets;
+
+    // Settings are read on every payment call and webhook; concurrent loads for a tenant share one query
+    @Value("${app.singleflight.settings.resultTtlMs:1000}")
+    private long resultTtlMs;
+
+    private SingleFlight<UUID, Optional<TenantSettings>> loads;
+
+    @PostConstruct
+    void initSingleFlight() {
+        loads = new SingleFlight<>("tenant-settings", Duration.ofMillis(resultTtlMs), meterRegistry);
+    }
 
     // ✅ NEW: safe getter (no 500 on first-time tenant)
     @Transactional(readOnly = true)
     public Optional<TenantSettings> getOrNull(UUID tenantId) {
-        return tenantSettingsRepository.findById(tenantId);
+        return load(tenantId);
     }
 
     @Transactional(readOnly = true)
     public TenantSettings getOrThrow(UUID tenantId) {
-        return tenantSettingsRepository.findById(tenantId)
+        return load(tenantId)
                 .orElseThrow(() -> new IllegalStateException(
                         "Tenant settings not configured for tenantId=" + tenantId
                 ));
     }
 
+    // Secrets are encrypted under a fresh data key (SecretCipher); read them back through TenantSecrets
     @Transactional
     public TenantSettings upsert(UUID tenantId, TenantSettingsRequest req) {
-        TenantSettings s = tenantSettingsRepository.findById(tenantId)
+        TenantSettings s = tenantSettingsRepository.findForUpdate(tenantId)
                 .orElseGet(() -> TenantSettings.builder().tenantId(tenantId).build());
 
         s.setRazorpayKeyId(req.getRazorpayKeyId());
-        s.setRazorpayKeySecret(req.getRazorpayKeySecret());
-        s.setRazorpayWebhookSecret(req.getRazorpayWebhookSecret());
-        s.setWhatsappAccessToken(req.getWhatsappAccessToken());
         s.setWhatsappPhoneNumberId(req.getWhatsappPhoneNumberId());
 
-        return tenantSettingsRepository.save(s);
+        byte[] dataKey = secretCipher.newDataKey();
+        try {
+            s.setKeyId(secretCipher.activeKeyId());
+            s.setDataKey(secretCipher.wrap(dataKey, tenantId));
+            s.setRazorpayKeySecret(secretCipher.encrypt(dataKey, req.getRazorpayKeySecret(),
+                    tenantId, TenantSecrets.RAZORPAY_KEY_SECRET));
+            s.setRazorpayWebhookSecret(secretCipher.encrypt(dataKey, req.getRazorpayWebhookSecret(),
+                    tenantId, TenantSecrets.RAZORPAY_WEBHOOK_SECRET));
+            s.setWhatsappAccessToken(secretCipher.encrypt(dataKey, req.getWhatsappAccessToken(),
+                    tenantId, TenantSecrets.WHATSAPP_ACCESS_TOKEN));
+        } finally {
+            Arrays.fill(dataKey, (byte) 0);
+        }
+
+        TenantSettings saved = tenantSettingsRepository.save(s);
+        forget(tenantId);
+        return saved;
+    }
+
+    // Shared between callers: read only
+    private Optional<TenantSettings> load(UUID tenantId) {
+        return loads.get(tenantId, () -> tenantSettingsRepository.findById(tenantId));
+    }
+
+    // Now, and again once the write is visible to other transactions
+    private void forget(UUID tenantId) {
+        loads.forget(tenantId);
+        tenantSecrets.invalidate(tenantId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    loads.forget(tenantId);
+                    tenantSecrets.invalidate(tenantId);
+                }
+            });
+        }
     }
 }
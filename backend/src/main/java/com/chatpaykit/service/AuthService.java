@@ -1,8 +1,7 @@
 package com.chatpaykit.service;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.chatpaykit.dto.AuthLoginRequest;
 import com.chatpaykit.dto.AuthSignupRequest;
@@ -10,6 +9,9 @@ import com.chatpaykit.entity.Tenant;
 import com.chatpaykit.entity.User;
 import com.chatpaykit.repository.TenantRepository;
 import com.chatpaykit.repository.UserRepository;
+import com.chatpaykit.security.PasswordHasher;
+import com.chatpaykit.service.LoginLookup.Credentials;
+import com.chatpaykit.shard.TenantShards;
 
 import lombok.RequiredArgsConstructor;
 
@@ -19,43 +21,60 @@ public class AuthService {
 
     private final TenantRepository tenantRepository;
     private final UserRepository userRepository;
-    private final JwtService jwtService;
+    private final SessionService sessionService;
+    private final TenantShards tenantShards;
+    private final PasswordHasher passwordHasher;
+    private final LoginLookup loginLookup;
+    private final TransactionTemplate tx;
 
-    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    // Hashed before the transaction opens, so no connection is held while BCrypt runs
+    public SessionService.Tokens signup(AuthSignupRequest req) {
 
-    @Transactional
-    public String signup(AuthSignupRequest req) {
+        String email = req.getEmail().trim().toLowerCase();
+        String passwordHash = passwordHasher.encode(req.getPassword());
 
+        return tx.execute(status -> create(req, email, passwordHash));
+    }
+
+    private SessionService.Tokens create(AuthSignupRequest req, String email, String passwordHash) {
         // email unique
-        userRepository.findByEmail(req.getEmail().trim().toLowerCase())
+        userRepository.findByEmail(email)
                 .ifPresent(u -> { throw new IllegalStateException("Email already registered"); });
 
         Tenant tenant = Tenant.builder()
                 .name(req.getTenantName().trim())
                 .build();
         tenant = tenantRepository.save(tenant);
+        tenantShards.assignNew(tenant.getId());
 
         User user = User.builder()
                 .tenantId(tenant.getId())
-                .email(req.getEmail().trim().toLowerCase())
-                .passwordHash(encoder.encode(req.getPassword()))
+                .email(email)
+                .passwordHash(passwordHash)
                 .role("ADMIN")
                 .build();
         user = userRepository.save(user);
+        loginLookup.forget(email); // may be cached as unknown
 
-        return jwtService.generateToken(user.getId(), tenant.getId(), user.getRole());
+        return sessionService.open(user.getId(), tenant.getId(), user.getRole());
     }
 
-    @Transactional(readOnly = true)
-    public String login(AuthLoginRequest req) {
+    // No transaction: nothing here should hold a connection while BCrypt runs
+    public SessionService.Tokens login(AuthLoginRequest req) {
 
-        User user = userRepository.findByEmail(req.getEmail().trim().toLowerCase())
+        String email = req.getEmail().trim().toLowerCase();
+        Credentials user = loginLookup.find(email)
                 .orElseThrow(() -> new IllegalStateException("Invalid email or password"));
 
-        if (!encoder.matches(req.getPassword(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(req.getPassword(), user.passwordHash())) {
             throw new IllegalStateException("Invalid email or password");
         }
 
-        return jwtService.generateToken(user.getId(), user.getTenantId(), user.getRole());
+        // app.auth.bcrypt.cost changed since this hash was made
+        if (passwordHasher.needsRehash(user.passwordHash())) {
+            passwordHasher.rehash(req.getPassword(), hash -> loginLookup.replaceHash(email, user, hash));
+        }
+
+        return sessionService.open(user.userId(), user.tenantId(), user.role());
     }
 }
@@ -0,0 +1,134 @@
+package com.chatpaykit.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.entity.Customer;
+import com.chatpaykit.shard.TenantShards;
+import com.chatpaykit.workload.WorkloadClass;
+import com.chatpaykit.workload.WorkloadContext;
+
+/**
+ * Links orders created before customers existed to their Customer row.
+ *
+ * Walks orders with customer_id null in primary-key order, one shard at a
+ * time, batchSize rows per transaction, so only that batch's rows are locked
+ * and only briefly. Orders whose number has no digits are skipped and stay
+ * unlinked. Safe to re-run: the update only touches rows that are still null.
+ */
+@Component
+public class CustomerBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerBackfill.class);
+
+    private record Row(UUID id, UUID tenantId, String name, String whatsapp) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerService customerService;
+    private final TransactionTemplate tx;
+    private final TenantShards tenantShards;
+    private final OrderReadCache orderReadCache;
+
+    @Value("${app.customers.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.customers.backfill.batchSize:1000}")
+    private int batchSize;
+
+    // Pause between batches so the backfill doesn't crowd out live traffic
+    @Value("${app.customers.backfill.pauseMs:50}")
+    private long pauseMs;
+
+    public CustomerBackfill(JdbcTemplate jdbcTemplate, CustomerService customerService,
+                            PlatformTransactionManager transactionManager, TenantShards tenantShards,
+                            OrderReadCache orderReadCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.customerService = customerService;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tenantShards = tenantShards;
+        this.orderReadCache = orderReadCache;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+        Thread.ofVirtual().name("customer-backfill").start(this::backfill);
+    }
+
+    /** Returns the number of orders linked, over all shards. */
+    public long backfill() {
+        long[] linked = {0};
+        tenantShards.forEach(shard -> linked[0] += backfillShard(shard));
+        return linked[0];
+    }
+
+    private long backfillShard(String shard) {
+        boolean entered = WorkloadContext.enter(WorkloadClass.BACKGROUND);
+        long linked = 0;
+        try {
+            UUID after = null;
+            while (true) {
+                List<Row> batch = nextBatch(after);
+                if (batch.isEmpty()) break;
+                List<UUID> ids = tx.execute(status -> link(batch));
+                // After the commit, so a read in between can't cache the unlinked row again
+                ids.forEach(orderReadCache::evict);
+                linked += ids.size();
+                after = batch.get(batch.size() - 1).id();
+                if (batch.size() < batchSize) break;
+                if (pauseMs > 0) Thread.sleep(pauseMs);
+            }
+            if (linked > 0) log.info("Backfilled orders.customer_id shard={} rows={}", shard, linked);
+        } catch (DataAccessException e) {
+            log.warn("customer_id backfill stopped shard={} after rows={}: {}", shard, linked, e.getMostSpecificCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (entered) WorkloadContext.exit();
+        }
+        return linked;
+    }
+
+    private List<Row> nextBatch(UUID after) {
+        String sql = "SELECT id, tenant_id, customer_name, customer_whatsapp FROM orders WHERE customer_id IS NULL"
+                + (after == null ? "" : " AND id > ?") + " ORDER BY id LIMIT ?";
+        Object[] params = after == null ? new Object[]{batchSize} : new Object[]{after, batchSize};
+        return jdbcTemplate.query(sql, (rs, i) -> new Row(
+                rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getString(3), rs.getString(4)), params);
+    }
+
+    // Ids of the orders linked. updated_at stays: linking isn't a change to the order itself
+    private List<UUID> link(List<Row> batch) {
+        // A repeat customer usually shows up many times in one batch
+        Map<String, UUID> seen = new HashMap<>();
+        List<Object[]> updates = new ArrayList<>(batch.size());
+        for (Row r : batch) {
+            String key = r.tenantId() + ":" + Customer.normalizeWhatsapp(r.whatsapp());
+            UUID customerId = seen.computeIfAbsent(key,
+                    k -> customerService.resolve(r.tenantId(), r.name(), r.whatsapp(), false));
+            if (customerId != null) updates.add(new Object[]{customerId, r.id()});
+        }
+        if (updates.isEmpty()) return List.of();
+        int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE orders SET customer_id = ? WHERE id = ? AND customer_id IS NULL", updates);
+        List<UUID> linked = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) linked.add((UUID) updates.get(i)[1]);
+        }
+        return linked;
+    }
+}
@@ -0,0 +1,112 @@
+package com.chatpaykit.service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.chatpaykit.dto.CustomerOrdersResponse;
+import com.chatpaykit.dto.OrderResponse;
+import com.chatpaykit.entity.Customer;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.ArchivedOrderRepository;
+import com.chatpaykit.repository.CustomerRepository;
+import com.chatpaykit.repository.OrderRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class CustomerService {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt");
+
+    private final CustomerRepository customerRepository;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+
+    @Value("${app.customers.maxPageSize:100}")
+    private int maxPageSize;
+
+    // -------------------------
+    // Resolve (order create / backfill)
+    // -------------------------
+
+    /**
+     * Customer id for this tenant's WhatsApp number, creating the customer on
+     * first sight. rename = true moves the stored name to the latest one given.
+     * Null when the number has no digits.
+     */
+    @Transactional
+    public UUID resolve(UUID tenantId, String name, String whatsapp, boolean rename) {
+        String number = Customer.normalizeWhatsapp(whatsapp);
+        if (number == null || number.isEmpty()) return null;
+
+        Customer existing = customerRepository.findByTenantIdAndWhatsapp(tenantId, number).orElse(null);
+        if (existing != null) {
+            if (rename && name != null && !name.equals(existing.getName())) existing.setName(name);
+            return existing.getId();
+        }
+
+        customerRepository.insertIfAbsent(UUID.randomUUID(), tenantId, number, name, Instant.now());
+        return customerRepository.findByTenantIdAndWhatsapp(tenantId, number)
+                .map(Customer::getId)
+                .orElseThrow(() -> new IllegalStateException("Customer row missing after insert"));
+    }
+
+    // -------------------------
+    // History
+    // -------------------------
+
+    @Transactional(readOnly = true)
+    public CustomerOrdersResponse orders(UUID tenantId, UUID customerId, int page, int size) {
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "page must be >= 0 and size 1.." + maxPageSize);
+        }
+        Customer customer = customerRepository.findByIdAndTenantId(customerId, tenantId)
+                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Customer not found: " + customerId));
+
+        Slice<Order> slice = orderRepository.findByTenantIdAndCustomerId(
+                tenantId, customerId, PageRequest.of(page, size, NEWEST_FIRST));
+        OrderRepository.CustomerTotals totals = orderRepository.customerTotals(
+                tenantId, customerId, OrderStatus.PAID, OrderStatus.REFUNDED);
+        // Lifetime figures include archived orders; the item list is live orders only
+        OrderRepository.CustomerTotals archived = archivedOrderRepository.customerTotals(
+                tenantId, customerId, OrderStatus.PAID, OrderStatus.REFUNDED);
+
+        return CustomerOrdersResponse.builder()
+                .customerId(customer.getId())
+                .name(customer.getName())
+                .whatsapp(customer.getWhatsapp())
+                .customerSince(customer.getCreatedAt())
+                .orderCount(totals.getOrderCount() + archived.getOrderCount())
+                .paidOrderCount(totals.getPaidOrderCount() + archived.getPaidOrderCount())
+                .lifetimePaidPaise(totals.getPaidPaise() + archived.getPaidPaise())
+                .refundedPaise(totals.getRefundedPaise() + archived.getRefundedPaise())
+                .firstOrderAt(earliest(totals.getFirstOrderAt(), archived.getFirstOrderAt()))
+                .lastOrderAt(latest(totals.getLastOrderAt(), archived.getLastOrderAt()))
+                .items(slice.getContent().stream().map(OrderResponse::from).toList())
+                .page(page)
+                .size(size)
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    private static Instant earliest(Instant a, Instant b) {
+        if (a == null) return b;
+        return b == null || a.isBefore(b) ? a : b;
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        if (a == null) return b;
+        return b == null || a.isAfter(b) ? a : b;
+    }
+}
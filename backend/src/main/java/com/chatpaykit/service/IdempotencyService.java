@@ -0,0 +1,308 @@
+package com.chatpaykit.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.entity.IdempotencyKeyId;
+import com.chatpaykit.entity.IdempotencyRecord;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.IdempotencyRecordRepository;
+import com.chatpaykit.shard.TenantShards;
+import com.chatpaykit.workload.Workload;
+import com.chatpaykit.workload.WorkloadClass;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Idempotency-Key handling for order mutations (create, send-payment, retry, refund).
+ *
+ * The first request for a (tenant, key) claims a row in idempotency_keys, runs,
+ * and stores its JSON response there. Replays within ttlHours get that response
+ * back without running again, so Razorpay and WhatsApp are not called twice.
+ * Completed responses are cached in memory in front of the table.
+ *
+ * Duplicates that arrive while the first request is still running wait for it:
+ * on the same node through a shared future, on other nodes by polling the row.
+ * If the first request fails, the key is released and the error is passed to
+ * the waiters, so the client can retry with the same key. If the same key
+ * comes with a different request body, the request is rejected with 422.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    public record Outcome<T>(T value, boolean replayed) {}
+
+    private record Stored(String requestHash, String body) {}
+
+    // Marker from tryClaim: the key is held by a request on another node
+    private static final Stored RUNNING_ELSEWHERE = new Stored("", "");
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate tx;
+    private final TenantShards tenantShards;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Cache<IdempotencyKeyId, Stored> cache;
+    private final ConcurrentHashMap<IdempotencyKeyId, CompletableFuture<Stored>> inFlight = new ConcurrentHashMap<>();
+
+    private final Duration ttl;
+    private final Duration lockTimeout;
+    private final long pollMs;
+
+    public IdempotencyService(
+            IdempotencyRecordRepository repository,
+            PlatformTransactionManager transactionManager,
+            TenantShards tenantShards,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.idempotency.ttlHours:24}") long ttlHours,
+            @Value("${app.idempotency.cacheSize:10000}") long cacheSize,
+            @Value("${app.idempotency.lockTimeoutMs:30000}") long lockTimeoutMs,
+            @Value("${app.idempotency.pollMs:50}") long pollMs
+    ) {
+        this.repository = repository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tenantShards = tenantShards;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.lockTimeout = Duration.ofMillis(lockTimeoutMs);
+        this.pollMs = pollMs;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency");
+    }
+
+    // -------------------------
+    // Entry point
+    // -------------------------
+
+    /**
+     * Runs action once per (tenantId, key). Without a key the action just runs.
+     * operation + request make up the fingerprint a replay must match.
+     */
+    public <T> Outcome<T> execute(UUID tenantId, String key, String operation, Object request,
+                                  Class<T> type, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return new Outcome<>(action.get(), false);
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Idempotency-Key is longer than " + MAX_KEY_LENGTH);
+        }
+
+        IdempotencyKeyId id = new IdempotencyKeyId(tenantId, key);
+        String hash = fingerprint(operation, request);
+
+        Stored done = cache.getIfPresent(id);
+        if (done != null) return replay(done, hash, type);
+
+        CompletableFuture<Stored> mine = new CompletableFuture<>();
+        CompletableFuture<Stored> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            return replay(await(running), hash, type);
+        }
+
+        try {
+            Stored existing = claim(id, hash);
+            if (existing != null) {
+                cache.put(id, existing);
+                mine.complete(existing);
+                return replay(existing, hash, type);
+            }
+
+            T value;
+            try {
+                value = action.get();
+            } catch (RuntimeException e) {
+                release(id);
+                throw e;
+            }
+
+            Stored stored = new Stored(hash, toJson(value));
+            // If this fails after the action committed, the key stays locked until lockTimeoutMs and is then re-run
+            tx.executeWithoutResult(s -> repository.complete(id, stored.body(), Instant.now().plus(ttl)));
+            cache.put(id, stored);
+            mine.complete(stored);
+            count("executed");
+            return new Outcome<>(value, false);
+
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    // -------------------------
+    // Claim (table)
+    // -------------------------
+
+    // Returns the stored response if the key is already complete, null once this request owns it
+    private Stored claim(IdempotencyKeyId id, String hash) {
+        long deadline = System.nanoTime() + lockTimeout.toNanos();
+        while (true) {
+            try {
+                Stored s = tx.execute(status -> tryClaim(id, hash));
+                if (s != RUNNING_ELSEWHERE) return s;
+            } catch (DataIntegrityViolationException raced) {
+                // Another node inserted the key between our read and insert
+            }
+            if (System.nanoTime() > deadline) {
+                count("conflict");
+                throw new ApiException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+            }
+            sleep(pollMs);
+        }
+    }
+
+    private Stored tryClaim(IdempotencyKeyId id, String hash) {
+        Instant now = Instant.now();
+        Instant lockedUntil = now.plus(lockTimeout);
+
+        IdempotencyRecord row = repository.findById(id).orElse(null);
+        if (row != null && row.getExpiresAt().isBefore(now)) {
+            repository.deleteIfExpired(id, now);
+            repository.flush();
+            row = null;
+        }
+        if (row == null) {
+            repository.saveAndFlush(IdempotencyRecord.builder()
+                    .id(id)
+                    .requestHash(hash)
+                    .lockedUntil(lockedUntil)
+                    .createdAt(now)
+                    .expiresAt(now.plus(ttl))
+                    .build());
+            return null;
+        }
+        if (row.getResponseBody() != null) {
+            return new Stored(row.getRequestHash(), row.getResponseBody());
+        }
+        if (row.getLockedUntil() == null || row.getLockedUntil().isBefore(now)) {
+            if (repository.takeOver(id, hash, lockedUntil, now) == 1) {
+                log.warn("Idempotency key lock expired, re-running tenantId={} key={}", id.getTenantId(), id.getIdempotencyKey());
+                return null;
+            }
+        }
+        return RUNNING_ELSEWHERE;
+    }
+
+    private void release(IdempotencyKeyId id) {
+        try {
+            tx.executeWithoutResult(s -> repository.release(id));
+        } catch (Exception e) {
+            // Lock runs out after lockTimeoutMs
+            log.warn("Could not release idempotency key tenantId={} msg={}", id.getTenantId(), e.getMessage());
+        }
+    }
+
+    // -------------------------
+    // Cleanup
+    // -------------------------
+    @Scheduled(cron = "${app.idempotency.cleanupCron:0 15 * * * *}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void deleteExpired() {
+        tenantShards.forEach(shard -> {
+            Integer removed = tx.execute(s -> repository.deleteExpired(Instant.now()));
+            log.info("Deleted expired idempotency keys shard={} rows={}", shard, removed);
+        });
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private <T> Outcome<T> replay(Stored stored, String hash, Class<T> type) {
+        if (!stored.requestHash().equals(hash)) {
+            count("mismatch");
+            throw new ApiException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        }
+        count("replayed");
+        try {
+            return new Outcome<>(objectMapper.readValue(stored.body(), type), true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable stored idempotent response", e);
+        }
+    }
+
+    private Stored await(CompletableFuture<Stored> running) {
+        try {
+            return running.get(lockTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            count("conflict");
+            throw new ApiException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(operation.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) '\n');
+            if (request != null) sha.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store idempotent response", e);
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.chatpaykit.service;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 import java.util.UUID;
@@ -11,6 +12,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -18,36 +20,82 @@ import io.jsonwebtoken.security.Keys;
 @Service
 public class JwtService {
 
+    // scope claim of the tokens that only open GET /api/orders/stream
+    public static final String STREAM_SCOPE = "order-stream";
+
     private final SecretKey key;
+    private final JwtParser parser; // immutable, built once instead of per request
+    private final Duration accessTtl;
+    private final Duration streamTtl;
 
-    public JwtService(@Value("${app.jwt.secret}") String secret) {
+    public JwtService(@Value("${app.jwt.secret}") String secret,
+                      @Value("${app.jwt.accessTtlMinutes:15}") long accessTtlMinutes,
+                      @Value("${app.jwt.streamTtlSeconds:60}") long streamTtlSeconds) {
         if (secret == null || secret.trim().isEmpty()) {
             throw new IllegalStateException("Missing app.jwt.secret");
         }
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.accessTtl = Duration.ofMinutes(accessTtlMinutes);
+        this.streamTtl = Duration.ofSeconds(streamTtlSeconds);
+    }
+
+    public Duration accessTtl() {
+        return accessTtl;
+    }
+
+    public Duration streamTtl() {
+        return streamTtl;
     }
 
+    // A session of its own, with no refresh token
     public String generateToken(UUID userId, UUID tenantId, String role) {
+        return generateToken(userId, tenantId, role, UUID.randomUUID());
+    }
+
+    // sid is the session (refresh token family) that TokenDenyList can revoke
+    public String generateToken(UUID userId, UUID tenantId, String role, UUID sessionId) {
         Instant now = Instant.now();
-        Instant exp = now.plusSeconds(60L * 60L * 24L * 7L); // 7 days (MVP)
+        Instant exp = now.plus(accessTtl);
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userId.toString())
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(exp))
                 .claim("userId", userId.toString())
                 .claim("tenantId", tenantId.toString())
                 .claim("role", role)
+                .claim("sid", sessionId.toString())
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Short-lived token for the order stream, carried in the URL because a
+     * browser EventSource can't send an Authorization header. Same user, tenant
+     * and session as the access token it was issued for, so revoking the session
+     * also refuses it; JwtAuthFilter accepts it on the stream endpoint only.
+     */
+    public String generateStreamToken(Claims access) {
+        Instant now = Instant.now();
+
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(access.getSubject())
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(streamTtl)))
+                .claim("userId", access.get("userId"))
+                .claim("tenantId", access.get("tenantId"))
+                .claim("role", access.get("role"))
+                .claim("sid", access.get("sid"))
+                .claim("scope", STREAM_SCOPE)
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Claims parseClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public UUID extractTenantId(String token) {
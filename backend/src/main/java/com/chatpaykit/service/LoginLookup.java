@@ -0,0 +1,93 @@
+package com.chatpaykit.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.entity.User;
+import com.chatpaykit.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Login credentials by email, cached both ways: a known email for ttlSeconds,
+ * an unknown one for negativeTtlSeconds, so repeated attempts (a retrying
+ * client, a credential-stuffing list) don't each cost a users query.
+ *
+ * Signup and rehash forget the email on this node. Another node can keep a
+ * negative entry for up to negativeTtlSeconds after a signup, which only
+ * matters for a login from a second device in that window; hence the short
+ * default. A positive entry with an older hash of the same password still
+ * verifies.
+ */
+@Service
+public class LoginLookup {
+
+    // What login needs from users, nothing else
+    public record Credentials(UUID userId, UUID tenantId, String role, String passwordHash) {}
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate tx;
+    private final Cache<String, Optional<Credentials>> cache;
+
+    public LoginLookup(
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.auth.emailCache.maxSize:100000}") long maxSize,
+            @Value("${app.auth.emailCache.ttlSeconds:300}") long ttlSeconds,
+            @Value("${app.auth.emailCache.negativeTtlSeconds:30}") long negativeTtlSeconds
+    ) {
+        this.userRepository = userRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        Duration negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, Optional<Credentials>>creating(
+                        (email, found) -> found.isPresent() ? ttl : negativeTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "login-emails");
+    }
+
+    // email is already normalized (trimmed, lower case)
+    public Optional<Credentials> find(String email) {
+        return cache.get(email, e -> userRepository.findByEmail(e).map(LoginLookup::credentials));
+    }
+
+    // Now, and again once the write is visible to other transactions
+    public void forget(String email) {
+        cache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(email);
+                }
+            });
+        }
+    }
+
+    // Only if the hash is still the one login verified against
+    public void replaceHash(String email, Credentials verified, String newHash) {
+        Integer updated = tx.execute(status ->
+                userRepository.updatePasswordHash(verified.userId(), verified.passwordHash(), newHash));
+        if (updated != null && updated > 0) forget(email);
+    }
+
+    private static Credentials credentials(User u) {
+        return new Credentials(u.getId(), u.getTenantId(), u.getRole(), u.getPasswordHash());
+    }
+}
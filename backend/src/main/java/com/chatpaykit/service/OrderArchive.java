@@ -0,0 +1,273 @@
+package com.chatpaykit.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.entity.ArchivedOrder;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.repository.ArchivedOrderRepository;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.repository.OrderRepository.OrderVersion;
+import com.chatpaykit.shard.TenantShards;
+import com.chatpaykit.workload.Workload;
+import com.chatpaykit.workload.WorkloadClass;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cold storage for settled orders.
+ *
+ * Nightly, on every shard, orders that can no longer change are moved from
+ * orders to archived_orders: EXPIRED/REFUNDED untouched for afterDays, PAID
+ * untouched for paidAfterDays. Each batch is one transaction (rows locked,
+ * skipped if another node holds them): insert the archive rows, delete the
+ * originals. The cutoff also bounds created_at, so only old partitions are
+ * scanned (OrderPartitions).
+ *
+ * Reads by id fall back to the archive (OrderReadCache), so GET /api/orders/{id}
+ * and /status keep working; actions on an archived order answer 409. Stats,
+ * rollup and customer recounts add the archive in. Lists and search cover
+ * live orders only.
+ *
+ * The payload is the order as JSON (own mapper, so the format doesn't follow
+ * the API's Jackson settings), deflated against a fixed dictionary. Counted in
+ * app.archive.orders and app.archive.bytes{kind=json|stored}.
+ */
+@Service
+public class OrderArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchive.class);
+
+    private static final List<OrderStatus> TERMINAL = List.of(OrderStatus.EXPIRED, OrderStatus.REFUNDED);
+    private static final List<OrderStatus> SETTLED = List.of(OrderStatus.PAID);
+
+    private static final JsonMapper JSON = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    // Payloads are raw deflate primed with DICTIONARY: a row is one order, too short for
+    // deflate to find repeats of its own, but the keys and common values are in here.
+    // Never edit DICTIONARY in place; old rows need it. Add a new one under a new FORMAT.
+    private static final byte FORMAT = 1;
+    private static final byte[] DICTIONARY = ("""
+            "failedAt":"20","lastError":"","description":"","whatsappPaymentReferenceId":"",\
+            "failedMsgSentAt":"20","status":"EXPIRED","status":"FAILED","razorpayRefundId":"rfnd_",\
+            "refundedAt":"20","refundedMsgSentAt":"20","status":"REFUNDED","verifiedAt":"20",\
+            "paidMsgSentAt":"20","paidAt":"20","status":"PAID","attemptCount":1,\
+            {"id":"","tenantId":"","customerId":"","customerName":"","customerWhatsapp":"91",\
+            "customerWhatsappRev":"","amountPaise":,"currency":"INR","razorpayOrderId":"order_",\
+            "razorpayPaymentId":"pay_","createdAt":"20","updatedAt":"20\
+            """).getBytes(StandardCharsets.UTF_8);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final TransactionTemplate tx;
+    private final TenantShards tenantShards;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.afterDays:180}")
+    private long afterDays;
+
+    @Value("${app.archive.paidAfterDays:365}")
+    private long paidAfterDays;
+
+    @Value("${app.archive.batchSize:500}")
+    private int batchSize;
+
+    // Pause between batches so archiving doesn't crowd out live traffic
+    @Value("${app.archive.pauseMs:50}")
+    private long pauseMs;
+
+    public OrderArchive(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository,
+                        PlatformTransactionManager transactionManager, TenantShards tenantShards,
+                        MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tenantShards = tenantShards;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // -------------------------
+    // Read path
+    // -------------------------
+    public Optional<Order> find(UUID orderId) {
+        return archivedOrderRepository.findById(orderId).map(a -> decode(a.getPayload()));
+    }
+
+    public Optional<OrderVersion> findVersion(UUID orderId) {
+        return archivedOrderRepository.findVersionById(orderId);
+    }
+
+    public boolean contains(UUID orderId) {
+        return archivedOrderRepository.existsById(orderId);
+    }
+
+    // -------------------------
+    // Archiver
+    // -------------------------
+    @Scheduled(cron = "${app.archive.cron:0 45 2 * * *}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void archive() {
+        if (!enabled) return;
+        archiveAsOf(Instant.now());
+    }
+
+    /** Returns the number of orders archived, over all shards. */
+    public long archiveAsOf(Instant now) {
+        long[] archived = {0};
+        tenantShards.forEach(shard -> archived[0] += archiveShard(shard, now));
+        return archived[0];
+    }
+
+    private long archiveShard(String shard, Instant now) {
+        long t0 = System.nanoTime();
+        long[] totals = new long[3]; // orders, json bytes, stored bytes
+        try {
+            archiveInBatches(TERMINAL, now.minus(Duration.ofDays(afterDays)), totals);
+            archiveInBatches(SETTLED, now.minus(Duration.ofDays(paidAfterDays)), totals);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Order archive stopped shard={} after orders={}: {}", shard, totals[0], e.getMessage());
+        }
+        if (totals[0] > 0) {
+            long tookMs = Math.max(1, (System.nanoTime() - t0) / 1_000_000);
+            log.info("Archived orders shard={} orders={} tookMs={} perSecond={} jsonBytes={} storedBytes={}",
+                    shard, totals[0], tookMs, totals[0] * 1000 / tookMs, totals[1], totals[2]);
+        }
+        return totals[0];
+    }
+
+    private void archiveInBatches(List<OrderStatus> statuses, Instant before, long[] totals) throws InterruptedException {
+        while (true) {
+            Integer n = tx.execute(status -> moveBatch(statuses, before, totals));
+            if (n == null || n < batchSize) return;
+            if (pauseMs > 0) Thread.sleep(pauseMs);
+        }
+    }
+
+    private int moveBatch(List<OrderStatus> statuses, Instant before, long[] totals) {
+        List<Order> batch = orderRepository.findArchivable(statuses, before, Limit.of(batchSize));
+        if (batch.isEmpty()) return 0;
+
+        Instant archivedAt = Instant.now();
+        List<ArchivedOrder> rows = new ArrayList<>(batch.size());
+        List<UUID> ids = new ArrayList<>(batch.size());
+        long jsonBytes = 0, storedBytes = 0;
+        for (Order o : batch) {
+            byte[] json = json(o);
+            byte[] payload = compress(json);
+            jsonBytes += json.length;
+            storedBytes += payload.length;
+            ids.add(o.getId());
+            rows.add(ArchivedOrder.builder()
+                    .id(o.getId())
+                    .tenantId(o.getTenantId())
+                    .customerId(o.getCustomerId())
+                    .status(o.getStatus())
+                    .amountPaise(o.getAmountPaise())
+                    .createdAt(o.getCreatedAt())
+                    .updatedAt(o.getUpdatedAt())
+                    .archivedAt(archivedAt)
+                    .payload(payload)
+                    .build());
+        }
+        archivedOrderRepository.saveAll(rows);
+        orderRepository.deleteArchived(ids, before);
+
+        totals[0] += batch.size();
+        totals[1] += jsonBytes;
+        totals[2] += storedBytes;
+        meterRegistry.counter("app.archive.orders").increment(batch.size());
+        meterRegistry.counter("app.archive.bytes", "kind", "json").increment(jsonBytes);
+        meterRegistry.counter("app.archive.bytes", "kind", "stored").increment(storedBytes);
+        return batch.size();
+    }
+
+    // -------------------------
+    // Payload
+    // -------------------------
+    public static byte[] json(Order order) {
+        try {
+            return JSON.writeValueAsBytes(order);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static byte[] compress(byte[] json) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(json);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2 + 16);
+            out.write(FORMAT);
+            byte[] buf = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buf, 0, deflater.deflate(buf));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static Order decode(byte[] payload) {
+        if (payload.length == 0 || payload[0] != FORMAT) {
+            throw new IllegalStateException("Unknown archive payload format");
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setDictionary(DICTIONARY);
+            inflater.setInput(payload, 1, payload.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 3);
+            byte[] buf = new byte[1024];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buf);
+                if (n == 0 && inflater.needsInput()) throw new IllegalStateException("Truncated archive payload");
+                out.write(buf, 0, n);
+            }
+            return JSON.readValue(out.toByteArray(), Order.class);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt archive payload", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
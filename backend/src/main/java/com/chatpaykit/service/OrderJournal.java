@@ -0,0 +1,156 @@
+package com.chatpaykit.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.dto.OrderEventResponse;
+import com.chatpaykit.dto.OrderTimelineResponse;
+import com.chatpaykit.entity.OrderEvent;
+import com.chatpaykit.event.OrderStatusChangedEvent;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.OrderEventRepository;
+import com.chatpaykit.shard.TenantShards;
+import com.chatpaykit.workload.Workload;
+import com.chatpaykit.workload.WorkloadClass;
+
+/**
+ * Append-only order transition journal (order_events).
+ *
+ * Rows are written by a plain (synchronous) listener, so they join the
+ * transaction that changed the order and roll back with it. They are flushed
+ * with that transaction's other writes as one JDBC batch, with ids from a
+ * pooled sequence.
+ *
+ * Retention, nightly and in short batches:
+ *   compactAfterDays  older transitions are dropped except each order's latest
+ *   retentionDays     everything older is dropped
+ */
+@Service
+public class OrderJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderJournal.class);
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "occurredAt", "id");
+
+    // Superseded: a later event exists for the same order
+    private static final String COMPACT_SQL = """
+            DELETE FROM order_events WHERE id IN (
+              SELECT e.id FROM order_events e
+               WHERE e.occurred_at < ?
+                 AND EXISTS (SELECT 1 FROM order_events n
+                              WHERE n.order_id = e.order_id AND n.occurred_at > e.occurred_at)
+               LIMIT ?)
+            """;
+
+    private static final String EXPIRE_SQL = """
+            DELETE FROM order_events WHERE id IN (
+              SELECT id FROM order_events WHERE occurred_at < ? LIMIT ?)
+            """;
+
+    private final OrderEventRepository orderEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final TenantShards tenantShards;
+
+    private final Duration compactAfter;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxPageSize;
+
+    public OrderJournal(
+            OrderEventRepository orderEventRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            TenantShards tenantShards,
+            @Value("${app.orderEvents.compactAfterDays:90}") long compactAfterDays,
+            @Value("${app.orderEvents.retentionDays:730}") long retentionDays,
+            @Value("${app.orderEvents.batchSize:5000}") int batchSize,
+            @Value("${app.orderEvents.maxPageSize:100}") int maxPageSize
+    ) {
+        this.orderEventRepository = orderEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tenantShards = tenantShards;
+        this.compactAfter = Duration.ofDays(compactAfterDays);
+        this.retention = Duration.ofDays(retentionDays);
+        this.batchSize = batchSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    // -------------------------
+    // Write (same transaction as the transition)
+    // -------------------------
+    @EventListener
+    public void on(OrderStatusChangedEvent e) {
+        orderEventRepository.save(OrderEvent.builder()
+                .tenantId(e.order().getTenantId())
+                .orderId(e.order().getId())
+                .fromStatus(e.from())
+                .toStatus(e.to())
+                .source(e.source())
+                .eventId(e.eventId())
+                .occurredAt(e.occurredAt())
+                .build());
+    }
+
+    // -------------------------
+    // Timeline
+    // -------------------------
+
+    /** Newest first. tenantId must already be checked against the order (see OrderEventController). */
+    public OrderTimelineResponse timeline(UUID tenantId, UUID orderId, int page, int size) {
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "page must be >= 0 and size 1.." + maxPageSize);
+        }
+        Slice<OrderEvent> slice = orderEventRepository.findByTenantIdAndOrderId(
+                tenantId, orderId, PageRequest.of(page, size, NEWEST_FIRST));
+        return OrderTimelineResponse.builder()
+                .orderId(orderId)
+                .items(slice.getContent().stream().map(OrderEventResponse::from).toList())
+                .page(page)
+                .size(size)
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    // -------------------------
+    // Retention
+    // -------------------------
+    @Scheduled(cron = "${app.orderEvents.retentionCron:0 0 4 * * *}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void prune() {
+        Instant now = Instant.now();
+        tenantShards.forEach(shard -> {
+            long compacted = deleteInBatches(COMPACT_SQL, now.minus(compactAfter));
+            long expired = deleteInBatches(EXPIRE_SQL, now.minus(retention));
+            log.info("Pruned order events shard={} compacted={} expired={}", shard, compacted, expired);
+        });
+    }
+
+    // One short transaction per batch, so no long-held locks on a busy table
+    private long deleteInBatches(String sql, Instant cutoff) {
+        Timestamp before = Timestamp.from(cutoff);
+        long total = 0;
+        while (true) {
+            Integer n = tx.execute(status -> jdbcTemplate.update(sql, before, batchSize));
+            if (n == null || n == 0) return total;
+            total += n;
+        }
+    }
+}
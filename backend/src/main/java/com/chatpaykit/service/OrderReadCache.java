@@ -0,0 +1,215 @@
+package com.chatpaykit.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.dto.OrderResponse;
+import com.chatpaykit.dto.OrderStatusResponse;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderIdGenerator;
+import com.chatpaykit.entity.OrderIdGenerator.CreatedAtRange;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.OrderRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read cache for the polled GET /api/orders/{id} and /{id}/status.
+ * A /status miss reads only the status columns (see {@link #status}).
+ *
+ * Entries keep the owning tenant so callers can enforce tenant access without
+ * a DB hit. Every writer calls {@link #evict}: once immediately and again after
+ * its transaction completes. A load that overlaps an eviction is returned but
+ * not stored (a per-stripe generation is checked under the key's compute), so
+ * a read that saw pre-commit data cannot repopulate the cache.
+ *
+ * On other nodes, status changes are evicted from the order change bus; any
+ * other field change there is bounded by ttlSeconds.
+ *
+ * An id that is no longer in orders is looked up in the archive (OrderArchive),
+ * so archived orders read the same as live ones.
+ */
+@Service
+public class OrderReadCache {
+
+    public record Entry(UUID tenantId, OrderResponse order, OrderStatusResponse status) {
+        static Entry of(Order o) {
+            return new Entry(o.getTenantId(), OrderResponse.from(o), OrderStatusResponse.from(o));
+        }
+    }
+
+    // What a conditional GET needs: the tenant check and the ETag source
+    public record Version(UUID tenantId, Instant updatedAt) {}
+
+    private static final int STRIPES = 1024;
+
+    // Only the OrderStatusResponse columns, straight off the ResultSet: no entity, no
+    // persistence context, no JPQL query object. ~2x the entity read (OrderStatusProjectionBenchmark)
+    private static final String STATUS_SQL = """
+            SELECT id, status, razorpay_order_id, razorpay_payment_id, razorpay_refund_id,
+                   created_at, updated_at, verified_at, paid_at, failed_at, refunded_at,
+                   attempt_count, last_error
+              FROM orders
+             WHERE id = ? AND tenant_id = ? AND created_at BETWEEN ? AND ?
+            """;
+
+    private static final RowMapper<OrderStatusResponse> STATUS_ROW = (rs, i) -> OrderStatusResponse.builder()
+            .id(rs.getObject(1, UUID.class))
+            .status(OrderStatus.valueOf(rs.getString(2)))
+            .razorpayOrderId(rs.getString(3))
+            .razorpayPaymentId(rs.getString(4))
+            .razorpayRefundId(rs.getString(5))
+            .createdAt(instant(rs, 6))
+            .updatedAt(instant(rs, 7))
+            .verifiedAt(instant(rs, 8))
+            .paidAt(instant(rs, 9))
+            .failedAt(instant(rs, 10))
+            .refundedAt(instant(rs, 11))
+            .attemptCount(rs.getObject(12, Integer.class))
+            .lastError(rs.getString(13))
+            .build();
+
+    private final OrderRepository orderRepository;
+    private final OrderArchive orderArchive;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTx;
+    private final Cache<UUID, Entry> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final boolean enabled;
+
+    public OrderReadCache(
+            OrderRepository orderRepository,
+            OrderArchive orderArchive,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.orders.enabled:true}") boolean enabled,
+            @Value("${app.cache.orders.maxSize:10000}") long maxSize,
+            @Value("${app.cache.orders.ttlSeconds:300}") long ttlSeconds
+    ) {
+        this.orderRepository = orderRepository;
+        this.orderArchive = orderArchive;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orders");
+    }
+
+    public Entry get(UUID orderId) {
+        if (enabled) {
+            Entry hit = cache.getIfPresent(orderId);
+            if (hit != null && hit.order() != null) return hit;
+        }
+
+        // Read-only so misses can still be served by a replica
+        return load(orderId, () -> readTx.execute(s -> orderRepository.findOrder(orderId)
+                .or(() -> orderArchive.find(orderId))
+                .map(Entry::of)
+                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Order not found: " + orderId))));
+    }
+
+    /**
+     * For /status. A miss reads only the status columns, scoped to the tenant,
+     * and caches a status-only entry (order() is null until a full get).
+     * If the row belongs to another tenant the returned entry carries that
+     * tenant and no status, for the caller's tenant check to reject.
+     */
+    public Entry status(UUID orderId, UUID tenantId) {
+        if (enabled) {
+            Entry hit = cache.getIfPresent(orderId);
+            if (hit != null) return hit;
+        }
+
+        CreatedAtRange r = OrderIdGenerator.createdAtRange(orderId);
+        OrderStatusResponse row = readTx.execute(s -> jdbcTemplate.query(STATUS_SQL, STATUS_ROW, orderId, tenantId,
+                        Timestamp.from(r.from()), Timestamp.from(r.to()))
+                .stream().findFirst().orElse(null));
+        if (row == null) {
+            Order archived = readTx.execute(s -> orderArchive.find(orderId).orElse(null));
+            if (archived == null) return new Entry(version(orderId).tenantId(), null, null);
+            if (!tenantId.equals(archived.getTenantId())) return new Entry(archived.getTenantId(), null, null);
+            return load(orderId, () -> Entry.of(archived));
+        }
+        return load(orderId, () -> new Entry(tenantId, null, row));
+    }
+
+    // Stores what was loaded unless an eviction ran while it was loading
+    private Entry load(UUID orderId, Supplier<Entry> loader) {
+        int stripe = stripe(orderId);
+        long gen = generations.get(stripe);
+        Entry loaded = loader.get();
+        if (enabled) {
+            cache.asMap().compute(orderId, (k, current) -> generations.get(stripe) == gen ? loaded : current);
+        }
+        return loaded;
+    }
+
+    // From the cached entry when there is one, otherwise a two-column read of the row
+    public Version version(UUID orderId) {
+        if (enabled) {
+            Entry hit = cache.getIfPresent(orderId);
+            if (hit != null) return new Version(hit.tenantId(), hit.status().getUpdatedAt());
+        }
+        return readTx.execute(s -> orderRepository.findVersionById(orderId)
+                .or(() -> orderArchive.findVersion(orderId))
+                .map(v -> new Version(v.getTenantId(), v.getUpdatedAt()))
+                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Order not found: " + orderId)));
+    }
+
+    // Call from every code path that changes an order
+    public void evict(UUID orderId) {
+        if (orderId == null) return;
+        evictNow(orderId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(orderId);
+                }
+            });
+        }
+    }
+
+    private void evictNow(UUID orderId) {
+        cache.asMap().compute(orderId, (k, current) -> {
+            generations.incrementAndGet(stripe(k));
+            return null;
+        });
+    }
+
+    private static Instant instant(ResultSet rs, int column) throws SQLException {
+        OffsetDateTime t = rs.getObject(column, OffsetDateTime.class);
+        return t == null ? null : t.toInstant();
+    }
+
+    private static int stripe(UUID id) {
+        return (id.hashCode() & 0x7fffffff) % STRIPES;
+    }
+}
@@ -0,0 +1,358 @@
+package com.chatpaykit.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.dto.RevenueAnalyticsResponse;
+import com.chatpaykit.dto.RevenueBucket;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderRollup;
+import com.chatpaykit.entity.OrderRollupGeneration;
+import com.chatpaykit.entity.OrderRollupId;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.entity.RollupGranularity;
+import com.chatpaykit.event.OrderStatusChangedEvent;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.ArchivedOrderRepository;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.repository.OrderRollupGenerationRepository;
+import com.chatpaykit.repository.OrderRollupRepository;
+import com.chatpaykit.security.TenantContext;
+import com.chatpaykit.shard.TenantShards;
+import com.chatpaykit.util.DeltaAccumulator;
+import com.chatpaykit.workload.Workload;
+import com.chatpaykit.workload.WorkloadClass;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Hourly and daily order rollups for revenue / conversion / refund charts.
+ *
+ * Orders are bucketed by creation time, so every transition knows its bucket
+ * without a lookup: the old status row of that bucket is decremented and the new
+ * one incremented. A late PAID -> REFUNDED therefore corrects the original day
+ * instead of landing on the refund day. Deltas are buffered in memory and
+ * flushed with additive UPDATEs, same as the per-tenant counters.
+ *
+ * Rebuilds work like OrderStatsService's: a recount bumps the tenant's row in
+ * order_rollup_generations, every flush locks that row first, and a node whose
+ * deltas were buffered under an older generation drops them (the recount
+ * already has them). One rebuild per tenant at a time across nodes.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderRollupService.class);
+
+    private final OrderRollupRepository rollupRepository;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderRollupGenerationRepository generationRepository;
+    private final TransactionTemplate tx;
+    private final TenantShards tenantShards;
+
+    @Value("${app.stats.zone:UTC}")
+    private ZoneId zone;
+
+    @Value("${app.rollups.maxBuckets:1000}")
+    private int maxBuckets;
+
+    @Value("${app.rollups.hourRetentionDays:90}")
+    private int hourRetentionDays;
+
+    private final Map<UUID, TenantRollups> tenants = new ConcurrentHashMap<>();
+
+    // -------------------------
+    // Update path
+    // -------------------------
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent e) {
+        Order o = e.order();
+        if (e.from() == e.to()) return;
+
+        Instant createdAt = o.getCreatedAt() != null ? o.getCreatedAt() : e.occurredAt();
+        long amount = o.getAmountPaise() == null ? 0 : o.getAmountPaise();
+        DeltaAccumulator<OrderRollupId> acc = rollups(o.getTenantId()).pending;
+
+        for (RollupGranularity g : RollupGranularity.values()) {
+            Instant bucket = bucketStart(g, createdAt);
+            // Pruned hour rows must not come back as negative counts
+            if (g == RollupGranularity.HOUR && bucket.isBefore(hourCutoff())) continue;
+            if (e.from() != null) acc.add(new OrderRollupId(o.getTenantId(), g, bucket, e.from()), -1, -amount);
+            if (e.to() != null) acc.add(new OrderRollupId(o.getTenantId(), g, bucket, e.to()), 1, amount);
+        }
+    }
+
+    // -------------------------
+    // Read path (rollups only, never scans orders)
+    // -------------------------
+    public RevenueAnalyticsResponse revenue(UUID tenantId, LocalDate from, LocalDate to, RollupGranularity granularity) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid date range");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        long buckets = granularity == RollupGranularity.HOUR ? days * 24 : days;
+        if (buckets > maxBuckets) {
+            throw new ApiException(HttpStatus.BAD_REQUEST,
+                    "Range too large for " + granularity + " (max " + maxBuckets + " buckets)");
+        }
+
+        Instant start = from.atStartOfDay(zone).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(zone).toInstant();
+
+        Map<Instant, Map<OrderStatus, long[]>> byBucket = new TreeMap<>();
+        Map<OrderStatus, long[]> total = new EnumMap<>(OrderStatus.class);
+        for (OrderRollup r : rollupRepository.findRange(tenantId, granularity, start, end)) {
+            OrderStatus st = r.getId().getStatus();
+            addTo(byBucket.computeIfAbsent(r.getId().getBucketStart(), b -> new EnumMap<>(OrderStatus.class)),
+                    st, r.getOrderCount(), r.getAmountPaise());
+            addTo(total, st, r.getOrderCount(), r.getAmountPaise());
+        }
+
+        List<RevenueBucket> out = new ArrayList<>(byBucket.size());
+        byBucket.forEach((bucket, m) -> {
+            RevenueBucket b = toBucket(bucket, m);
+            if (b.getOrders() != 0) out.add(b);
+        });
+
+        return RevenueAnalyticsResponse.builder()
+                .granularity(granularity)
+                .zone(zone.getId())
+                .from(from)
+                .to(to)
+                .buckets(out)
+                .totals(toBucket(start, total))
+                .asOf(Instant.now())
+                .build();
+    }
+
+    // -------------------------
+    // Flush (deltas -> order_rollups)
+    // -------------------------
+    @Scheduled(fixedDelayString = "${app.rollups.flushMs:10000}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void flush() {
+        tenants.forEach((tenantId, tr) -> {
+            synchronized (tr) {
+                Map<OrderRollupId, long[]> drained = tr.pending.drain();
+                if (drained.isEmpty()) return;
+                try {
+                    Instant now = Instant.now();
+                    // As the tenant, so the rows land on its shard
+                    long generation = TenantContext.call(tenantId, () -> tx.execute(status -> {
+                        long current = generationRepository.lockGeneration(tenantId).orElse(0L);
+                        if (current != tr.generation) return current;
+                        drained.forEach((id, v) -> {
+                            if (rollupRepository.increment(id, v[0], v[1], now) == 0) {
+                                rollupRepository.save(OrderRollup.builder()
+                                        .id(id).orderCount(v[0]).amountPaise(v[1]).build());
+                            }
+                        });
+                        return current;
+                    }));
+                    if (generation != tr.generation) {
+                        // Rebuilt since these were buffered: the recount has them
+                        tr.generation = generation;
+                        log.info("Order rollups rebuilt elsewhere, dropped unflushed deltas tenantId={}", tenantId);
+                    }
+                } catch (Exception e) {
+                    // Put the deltas back; next flush retries
+                    drained.forEach((id, v) -> tr.pending.add(id, v[0], v[1]));
+                    log.warn("Order rollup flush failed tenantId={} msg={}", tenantId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    // -------------------------
+    // Backfill / drift repair (one pass over the tenant's orders)
+    // -------------------------
+    @Workload(WorkloadClass.BACKGROUND)
+    public int rebuild(UUID tenantId) {
+        TenantRollups tr = rollups(tenantId);
+        int[] rows = new int[1];
+        boolean ran = tenantShards.onOneNode(tenantShards.shardOf(tenantId), rebuildLock(tenantId), () -> {
+            synchronized (tr) {
+                ensureGeneration(tenantId);
+                Recount done = TenantContext.call(tenantId, () -> tx.execute(status -> recount(tenantId, tr)));
+                tr.generation = done.generation();
+                rows[0] = done.rows();
+            }
+        });
+        if (!ran) throw new ApiException(HttpStatus.CONFLICT, "Rollup rebuild already running");
+        log.info("Order rollups rebuilt tenantId={} rows={}", tenantId, rows[0]);
+        return rows[0];
+    }
+
+    private Recount recount(UUID tenantId, TenantRollups tr) {
+        // Waits for a flush in progress on any node; later ones see the new generation
+        long previous = generationRepository.lockGeneration(tenantId).orElse(0L);
+        Instant hourCutoff = hourCutoff();
+        rollupRepository.deleteByTenantId(tenantId);
+        // Transitions buffered up to here are in the rows streamed below, later ones are not
+        tr.pending.clear();
+
+        Map<OrderRollupId, long[]> m = new HashMap<>();
+        Consumer<OrderRepository.RollupSource> add = o -> {
+            long amount = o.getAmountPaise() == null ? 0 : o.getAmountPaise();
+            for (RollupGranularity g : RollupGranularity.values()) {
+                Instant bucket = bucketStart(g, o.getCreatedAt());
+                if (g == RollupGranularity.HOUR && bucket.isBefore(hourCutoff)) continue;
+                long[] v = m.computeIfAbsent(new OrderRollupId(tenantId, g, bucket, o.getStatus()),
+                        k -> new long[2]);
+                v[0] += 1;
+                v[1] += amount;
+            }
+        };
+        try (var orders = orderRepository.streamRollupSource(tenantId)) {
+            orders.forEach(add);
+        }
+        // Archived orders keep their daily buckets (OrderArchive)
+        try (var archived = archivedOrderRepository.streamRollupSource(tenantId)) {
+            archived.forEach(add);
+        }
+
+        List<OrderRollup> batch = new ArrayList<>(m.size());
+        m.forEach((id, v) -> batch.add(OrderRollup.builder()
+                .id(id).orderCount(v[0]).amountPaise(v[1]).build()));
+        rollupRepository.saveAll(batch);
+        long generation = Math.max(previous + 1, System.currentTimeMillis());
+        generationRepository.setGeneration(tenantId, generation, Instant.now());
+        return new Recount(batch.size(), generation);
+    }
+
+    // In its own transaction, so flushes lock the row from the first rebuild on
+    private void ensureGeneration(UUID tenantId) {
+        try {
+            TenantContext.run(tenantId, () -> tx.executeWithoutResult(status -> {
+                if (!generationRepository.existsById(tenantId)) {
+                    generationRepository.save(OrderRollupGeneration.builder().tenantId(tenantId).generation(0).build());
+                }
+            }));
+        } catch (DataIntegrityViolationException e) {
+            // created by a concurrent first rebuild
+        }
+    }
+
+    // Hourly rows are only for recent charts; daily rows are kept
+    @Scheduled(cron = "${app.rollups.retentionCron:0 45 3 * * *}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void pruneHourly() {
+        tenantShards.forEach(shard -> {
+            Integer removed = tx.execute(status ->
+                    rollupRepository.deleteOlderThan(RollupGranularity.HOUR, hourCutoff()));
+            log.info("Pruned hourly order rollups shard={} rows={}", shard, removed);
+        });
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    // A node starts counting under the tenant's current generation
+    private TenantRollups rollups(UUID tenantId) {
+        return tenants.computeIfAbsent(tenantId, id -> new TenantRollups(currentGeneration(id)));
+    }
+
+    private long currentGeneration(UUID tenantId) {
+        try {
+            return TenantContext.call(tenantId, () -> generationRepository.findGeneration(tenantId).orElse(0L));
+        } catch (Exception e) {
+            // Worst case the first flush sees a newer generation and drops what was buffered
+            log.warn("Order rollup generation lookup failed tenantId={} msg={}", tenantId, e.getMessage());
+            return 0;
+        }
+    }
+
+    // "ROLL" + tenant, pg advisory lock key for rebuild
+    private static long rebuildLock(UUID tenantId) {
+        return 0x524F4C4C00000000L | (tenantId.hashCode() & 0xFFFFFFFFL);
+    }
+
+    private Instant bucketStart(RollupGranularity g, Instant at) {
+        return switch (g) {
+            case HOUR -> at.atZone(zone).truncatedTo(ChronoUnit.HOURS).toInstant();
+            case DAY -> LocalDate.ofInstant(at, zone).atStartOfDay(zone).toInstant();
+        };
+    }
+
+    private Instant hourCutoff() {
+        return LocalDate.now(zone).minusDays(hourRetentionDays).atStartOfDay(zone).toInstant();
+    }
+
+    private static void addTo(Map<OrderStatus, long[]> m, OrderStatus st, long count, long amount) {
+        long[] v = m.computeIfAbsent(st, k -> new long[2]);
+        v[0] += count;
+        v[1] += amount;
+    }
+
+    private static RevenueBucket toBucket(Instant bucketStart, Map<OrderStatus, long[]> m) {
+        long orders = 0;
+        for (long[] v : m.values()) orders += v[0];
+
+        long created = count(m, OrderStatus.CREATED);
+        long refunded = count(m, OrderStatus.REFUNDED);
+        long paid = count(m, OrderStatus.PAID) + count(m, OrderStatus.REFUND_PENDING) + refunded;
+        long attempted = orders - created;
+
+        long gross = amount(m, OrderStatus.PAID) + amount(m, OrderStatus.REFUND_PENDING) + amount(m, OrderStatus.REFUNDED);
+        long refundedPaise = amount(m, OrderStatus.REFUNDED);
+
+        return RevenueBucket.builder()
+                .bucketStart(bucketStart)
+                .orders(orders)
+                .attempted(attempted)
+                .paid(paid)
+                .refunded(refunded)
+                .grossRevenuePaise(gross)
+                .refundedPaise(refundedPaise)
+                .netRevenuePaise(gross - refundedPaise)
+                .conversionRate(attempted == 0 ? 0 : (double) paid / attempted)
+                .refundRate(paid == 0 ? 0 : (double) refunded / paid)
+                .build();
+    }
+
+    private static long count(Map<OrderStatus, long[]> m, OrderStatus st) {
+        long[] v = m.get(st);
+        return v == null ? 0 : v[0];
+    }
+
+    private static long amount(Map<OrderStatus, long[]> m, OrderStatus st) {
+        long[] v = m.get(st);
+        return v == null ? 0 : v[1];
+    }
+
+    private record Recount(int rows, long generation) {}
+
+    private static final class TenantRollups {
+        final DeltaAccumulator<OrderRollupId> pending = new DeltaAccumulator<>();
+        // Generation the pending deltas count from; guarded by this
+        long generation;
+
+        TenantRollups(long generation) {
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.chatpaykit.service;
+
+import java.util.Locale;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.chatpaykit.dto.OrderResponse;
+import com.chatpaykit.dto.OrderSearchResponse;
+import com.chatpaykit.dto.OrderSearchResponse.MatchedBy;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.OrderRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Support lookup within a tenant. The query decides which index is used:
+ *
+ *   order_... / pay_... / rfnd_...   exact Razorpay id
+ *   digits (+, spaces, dashes ok)    WhatsApp number ending with those digits
+ *   anything else                    customer name contains (case-insensitive)
+ *
+ * Results are newest first and paged without a total count.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderSearchService {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt");
+
+    private final OrderRepository orderRepository;
+
+    @Value("${app.search.maxPageSize:100}")
+    private int maxPageSize;
+
+    @Value("${app.search.minPhoneDigits:4}")
+    private int minPhoneDigits;
+
+    // Shorter name fragments can't use the trigram index
+    @Value("${app.search.minNameLength:3}")
+    private int minNameLength;
+
+    @Transactional(readOnly = true)
+    public OrderSearchResponse search(UUID tenantId, String query, int page, int size) {
+        String q = query == null ? "" : query.trim();
+        if (q.isEmpty()) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Search query is required");
+        }
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "page must be >= 0 and size 1.." + maxPageSize);
+        }
+        Pageable pageable = PageRequest.of(page, size, NEWEST_FIRST);
+
+        MatchedBy matchedBy;
+        Slice<Order> slice;
+        String lower = q.toLowerCase(Locale.ROOT);
+        String digits = phoneDigits(q);
+
+        if (lower.startsWith("order_")) {
+            matchedBy = MatchedBy.RAZORPAY_ORDER_ID;
+            slice = orderRepository.findByTenantIdAndRazorpayOrderId(tenantId, q, pageable);
+        } else if (lower.startsWith("pay_")) {
+            matchedBy = MatchedBy.RAZORPAY_PAYMENT_ID;
+            slice = orderRepository.findByTenantIdAndRazorpayPaymentId(tenantId, q, pageable);
+        } else if (lower.startsWith("rfnd_")) {
+            matchedBy = MatchedBy.RAZORPAY_REFUND_ID;
+            slice = orderRepository.findByTenantIdAndRazorpayRefundId(tenantId, q, pageable);
+        } else if (digits != null) {
+            if (digits.length() < minPhoneDigits) {
+                throw new ApiException(HttpStatus.BAD_REQUEST,
+                        "Enter at least " + minPhoneDigits + " digits of the WhatsApp number");
+            }
+            matchedBy = MatchedBy.WHATSAPP;
+            slice = orderRepository.searchByWhatsappSuffix(tenantId, Order.reverse(digits) + "%", pageable);
+        } else {
+            if (q.length() < minNameLength) {
+                throw new ApiException(HttpStatus.BAD_REQUEST,
+                        "Enter at least " + minNameLength + " characters of the customer name");
+            }
+            matchedBy = MatchedBy.NAME;
+            slice = orderRepository.searchByName(tenantId, "%" + escapeLike(lower) + "%", pageable);
+        }
+
+        return OrderSearchResponse.builder()
+                .query(q)
+                .matchedBy(matchedBy)
+                .items(slice.getContent().stream().map(OrderResponse::from).toList())
+                .page(page)
+                .size(size)
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    // "+91 98765-43210" -> "919876543210"; null if it isn't a phone number
+    private static String phoneDigits(String q) {
+        StringBuilder sb = new StringBuilder(q.length());
+        for (int i = 0; i < q.length(); i++) {
+            char c = q.charAt(i);
+            if (c >= '0' && c <= '9') sb.append(c);
+            else if (c == '+' && i == 0) continue;
+            else if (c != ' ' && c != '-' && c != '(' && c != ')') return null;
+        }
+        return sb.isEmpty() ? null : sb.toString();
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
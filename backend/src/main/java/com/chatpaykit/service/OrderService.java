@@ -6,6 +6,7 @@ import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,10 +14,13 @@ import org.springframework.transaction.annotation.Transactional;
 import com.chatpaykit.dto.CreateOrderRequest;
 import com.chatpaykit.dto.VerifyPaymentRequest;
 import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderEventSource;
 import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.event.OrderStatusChangedEvent;
 import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.logging.LogSampler;
+import com.chatpaykit.logging.PiiMasker;
 import com.chatpaykit.repository.OrderRepository;
-import com.chatpaykit.util.RazorpayCheckoutSignatureUtil;
 
 import lombok.RequiredArgsConstructor;
 
@@ -27,8 +31,14 @@ public class OrderService {
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
 
     private final OrderRepository orderRepository;
+    private final CustomerService customerService;
     private final RazorpayPaymentService razorpayPaymentService;
     private final AppSettingsService appSettingsService;
+    private final TenantSecrets tenantSecrets;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderReadCache orderReadCache;
+    private final OrderArchive orderArchive;
+    private final LogSampler logSampler;
 
     // -------------------------
     // Create / Read / List
@@ -37,10 +47,14 @@ public class OrderService {
     @Transactional
     public Order create(CreateOrderRequest req, UUID tenantId) {
 
+        String name = req.getCustomerName().trim();
+        String whatsapp = req.getCustomerWhatsapp().trim();
+
         Order order = Order.builder()
                 .tenantId(tenantId) // ✅ IMPORTANT (Step 1)
-                .customerName(req.getCustomerName().trim())
-                .customerWhatsapp(req.getCustomerWhatsapp().trim())
+                .customerId(customerService.resolve(tenantId, name, whatsapp, true))
+                .customerName(name)
+                .customerWhatsapp(whatsapp)
                 .amountPaise(req.getAmountPaise())
                 .currency("INR")
                 .description(req.getDescription())
@@ -49,17 +63,20 @@ public class OrderService {
                 .build();
 
         Order saved = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(saved, null, saved.getStatus(), OrderEventSource.CREATE, null));
 
-        log.info("Order created id={} tenantId={} amountPaise={} whatsapp={}",
-                saved.getId(), saved.getTenantId(), saved.getAmountPaise(), maskWhatsapp(saved.getCustomerWhatsapp()));
+        logSampler.info(log, "order.created", "Order created id={} tenantId={} amountPaise={} whatsapp={}",
+                saved.getId(), saved.getTenantId(), saved.getAmountPaise(), PiiMasker.phone(saved.getCustomerWhatsapp()));
 
         return saved;
     }
 
+    // Live orders only: reads of archived orders go through OrderReadCache
     @Transactional(readOnly = true)
     public Order get(UUID id) {
-        return orderRepository.findById(id)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Order not found: " + id));
+        return orderRepository.findOrder(id).orElseThrow(() -> orderArchive.contains(id)
+                ? new ApiException(HttpStatus.CONFLICT, "Order is archived: " + id)
+                : new ApiException(HttpStatus.NOT_FOUND, "Order not found: " + id));
     }
 
     @Transactional(readOnly = true)
@@ -79,6 +96,7 @@ public class OrderService {
     @Transactional
     public Order sendPaymentRequest(UUID id) {
         Order order = get(id);
+        orderReadCache.evict(id);
 
         if (order.getStatus() != null && order.getStatus().isTerminal()) {
             throw new ApiException(HttpStatus.CONFLICT, "Order is terminal: " + order.getStatus());
@@ -90,29 +108,30 @@ public class OrderService {
         order.setRazorpayOrderId(rzpOrderId);
         order.setWhatsappPaymentReferenceId("pay_" + order.getId());
 
-        safeTransition(order, OrderStatus.PAYMENT_SENT, "sendPaymentRequest");
+        safeTransition(order, OrderStatus.PAYMENT_SENT, OrderEventSource.SEND_PAYMENT);
 
-        log.info("Payment request sent id={} razorpayOrderId={}",
+        logSampler.info(log, "order.payment-sent", "Payment request sent id={} razorpayOrderId={}",
                 order.getId(), order.getRazorpayOrderId());
 
-        return orderRepository.save(order);
+        return order;
     }
 
     // -------------------------
     // Verify Payment (checkout signature)
     // -------------------------
 
-    @Transactional
+    // Managed entity: changes are flushed as one UPDATE on commit. The invalid
+    // signature path throws but still commits lastError.
+    @Transactional(noRollbackFor = ApiException.class)
     public Order verifyPayment(UUID id, VerifyPaymentRequest req) {
 
         Order order = get(id);
+        orderReadCache.evict(id);
 
         // ✅ Get Razorpay keySecret from Admin Settings
         var settings = appSettingsService.getOrThrow(order.getTenantId());
 
-        String razorpayKeySecret = settings.getRazorpayKeySecret();
-
-        if (razorpayKeySecret == null || razorpayKeySecret.isBlank()) {
+        if (settings.getRazorpayKeySecret() == null || settings.getRazorpayKeySecret().isBlank()) {
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR,
                     "Razorpay keySecret missing (Admin settings not configured)");
         }
@@ -126,8 +145,6 @@ public class OrderService {
                 order.setRazorpayPaymentId(req.getRazorpayPaymentId());
                 if (order.getPaidAt() == null) order.setPaidAt(Instant.now());
                 if (order.getVerifiedAt() == null) order.setVerifiedAt(Instant.now());
-
-                return orderRepository.save(order);
             }
             return order;
         }
@@ -141,32 +158,31 @@ public class OrderService {
             throw new ApiException(HttpStatus.BAD_REQUEST, "OrderId mismatch");
         }
 
-        boolean ok = RazorpayCheckoutSignatureUtil.verify(
+        boolean ok = tenantSecrets.verifyCheckout(
+                settings,
                 req.getRazorpayOrderId(),
                 req.getRazorpayPaymentId(),
-                req.getRazorpaySignature(),
-                razorpayKeySecret
+                req.getRazorpaySignature()
         );
 
         if (!ok) {
             order.setLastError("Invalid checkout signature");
-            orderRepository.save(order);
             throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid checkout signature");
         }
 
         order.setRazorpayPaymentId(req.getRazorpayPaymentId());
         order.setVerifiedAt(Instant.now());
 
-        safeTransition(order, OrderStatus.PAID, "verifyPayment");
+        safeTransition(order, OrderStatus.PAID, OrderEventSource.VERIFY);
 
         if (order.getPaidAt() == null) order.setPaidAt(Instant.now());
         order.setFailedAt(null);
         order.setLastError(null);
 
-        log.info("Payment verified id={} paymentId={}",
+        logSampler.info(log, "order.verified", "Payment verified id={} paymentId={}",
                 order.getId(), order.getRazorpayPaymentId());
 
-        return orderRepository.save(order);
+        return order;
     }
 
     // -------------------------
@@ -176,6 +192,7 @@ public class OrderService {
     @Transactional
     public Order retry(UUID id) {
         Order order = get(id);
+        orderReadCache.evict(id);
 
         if (order.getStatus() != OrderStatus.FAILED) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Retry allowed only when status is FAILED.");
@@ -195,18 +212,23 @@ public class OrderService {
         order.setRazorpayOrderId(newRzpOrderId);
         order.setWhatsappPaymentReferenceId("pay_" + order.getId());
 
-        safeTransition(order, OrderStatus.PAYMENT_SENT, "retry");
+        safeTransition(order, OrderStatus.PAYMENT_SENT, OrderEventSource.RETRY);
 
-        log.info("Retry initiated id={} attemptCount={} newRzpOrderId={}",
+        logSampler.info(log, "order.retry", "Retry initiated id={} attemptCount={} newRzpOrderId={}",
                 order.getId(), order.getAttemptCount(), order.getRazorpayOrderId());
 
-        return orderRepository.save(order);
+        return order;
     }
 @Transactional(readOnly = true)
 public List<Order> listByTenant(UUID tenantId) {
     return orderRepository.findByTenantIdOrderByCreatedAtDesc(tenantId);
 }
 
+    @Transactional(readOnly = true)
+    public OrderRepository.ListVersion listVersion(UUID tenantId) {
+        return orderRepository.listVersion(tenantId);
+    }
+
     // -------------------------
     // Refund (ONLY if PAID)
     // -------------------------
@@ -214,6 +236,7 @@ public List<Order> listByTenant(UUID tenantId) {
     @Transactional
     public Order refund(UUID id) {
         Order order = get(id);
+        orderReadCache.evict(id);
 
         if (order.getStatus() != OrderStatus.PAID) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Refund allowed only when status is PAID.");
@@ -222,8 +245,7 @@ public List<Order> listByTenant(UUID tenantId) {
             throw new ApiException(HttpStatus.CONFLICT, "Cannot refund: razorpayPaymentId is missing.");
         }
 
-        safeTransition(order, OrderStatus.REFUND_PENDING, "refund");
-        orderRepository.save(order);
+        safeTransition(order, OrderStatus.REFUND_PENDING, OrderEventSource.REFUND);
 
         try {
             String refundId = razorpayPaymentService.refundPayment(order.getTenantId(), order.getRazorpayPaymentId());
@@ -231,15 +253,14 @@ public List<Order> listByTenant(UUID tenantId) {
 
             order.setRefundedAt(Instant.now());
 
-            log.info("Refund requested id={} paymentId={} refundId={}",
+            logSampler.info(log, "order.refund", "Refund requested id={} paymentId={} refundId={}",
                     order.getId(), order.getRazorpayPaymentId(), refundId);
 
-            return orderRepository.save(order);
+            return order;
 
         } catch (Exception e) {
-            order.setLastError("Refund failed: " + e.getMessage());
+            // Rolls back to PAID, so the refund can be retried
             log.error("Refund failed id={} msg={}", order.getId(), e.getMessage(), e);
-            orderRepository.save(order);
             throw new ApiException(HttpStatus.BAD_GATEWAY, "Refund failed. Check server logs.");
         }
     }
@@ -248,23 +269,16 @@ public List<Order> listByTenant(UUID tenantId) {
     // Helpers
     // -------------------------
 
-    private void safeTransition(Order order, OrderStatus next, String reason) {
+    private void safeTransition(Order order, OrderStatus next, OrderEventSource source) {
         OrderStatus current = order.getStatus();
-        if (current == null) {
-            order.setStatus(next);
-            return;
-        }
-        if (!current.canTransitionTo(next)) {
-            log.warn("Blocked invalid/downgrade transition id={} {} -> {} reason={}",
-                    order.getId(), current, next, reason);
+        if (current != null && !current.canTransitionTo(next)) {
+            logSampler.warn(log, "order.transition-blocked", "Blocked invalid/downgrade transition id={} {} -> {} source={}",
+                    order.getId(), current, next, source);
             return;
         }
         order.setStatus(next);
-    }
-
-    private String maskWhatsapp(String s) {
-        if (s == null) return null;
-        if (s.length() <= 4) return "****";
-        return "****" + s.substring(s.length() - 4);
+        if (current != next) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(order, current, next, source, null));
+        }
     }
 }
@@ -0,0 +1,320 @@
+package com.chatpaykit.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.dto.OrderStatsResponse;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.entity.Tenant;
+import com.chatpaykit.entity.TenantOrderStat;
+import com.chatpaykit.entity.TenantOrderStatId;
+import com.chatpaykit.event.OrderStatusChangedEvent;
+import com.chatpaykit.repository.ArchivedOrderRepository;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.repository.TenantOrderStatRepository;
+import com.chatpaykit.repository.TenantRepository;
+import com.chatpaykit.security.TenantContext;
+import com.chatpaykit.shard.TenantShards;
+import com.chatpaykit.util.DeltaAccumulator;
+import com.chatpaykit.workload.Workload;
+import com.chatpaykit.workload.WorkloadClass;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per-tenant order counters maintained on every status transition.
+ *
+ * Transitions only touch striped in-memory adders (no DB write on the request
+ * path). A scheduled flush adds the accumulated deltas to tenant_order_stats
+ * with additive UPDATEs, so several nodes can flush into the same rows.
+ * Reads are O(1): last loaded DB snapshot + this node's unflushed deltas.
+ * Other nodes' changes become visible when the snapshot expires.
+ *
+ * A rebuild recounts a tenant from the orders and stamps a new generation in
+ * its REBUILT row. Each node flushes against the generation its deltas were
+ * counted under; once that moves, the node's drained deltas are already part of
+ * the recount (or close enough), so they are dropped and its snapshot reloaded.
+ * The nightly rebuildAll runs on one node only (Postgres advisory lock).
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatsService.class);
+
+    private static final String PAID_DAY_PREFIX = "PAID_DAY:";
+    // orderCount holds the rebuild generation
+    private static final String REBUILT = "REBUILT";
+    private static final long REBUILD_LOCK = 0x5354415453L; // "STATS", pg advisory lock key for rebuildAll
+
+    private final TenantOrderStatRepository statRepository;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final TenantRepository tenantRepository;
+    private final TransactionTemplate tx;
+    private final TenantShards tenantShards;
+
+    @Value("${app.stats.zone:UTC}")
+    private ZoneId zone;
+
+    @Value("${app.stats.snapshotTtlMs:60000}")
+    private long snapshotTtlMs;
+
+    private final Map<UUID, TenantCounters> tenants = new ConcurrentHashMap<>();
+
+    // -------------------------
+    // Update path
+    // -------------------------
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent e) {
+        Order o = e.order();
+        long amount = o.getAmountPaise() == null ? 0 : o.getAmountPaise();
+        TenantCounters tc = counters(o.getTenantId());
+
+        if (e.from() != null) tc.add(e.from().name(), -1, -amount);
+        if (e.to() != null) tc.add(e.to().name(), 1, amount);
+        if (e.to() == OrderStatus.PAID) {
+            tc.add(paidDayKey(LocalDate.ofInstant(e.occurredAt(), zone)), 1, amount);
+        }
+    }
+
+    // -------------------------
+    // Read path
+    // -------------------------
+    public OrderStatsResponse get(UUID tenantId) {
+        TenantCounters tc = counters(tenantId);
+        Map<String, long[]> base = tc.snapshot(this::loadSnapshot, snapshotTtlMs);
+
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        Map<OrderStatus, Long> amounts = new EnumMap<>(OrderStatus.class);
+        long total = 0;
+        for (OrderStatus st : OrderStatus.values()) {
+            long[] v = tc.current(base, st.name());
+            counts.put(st, v[0]);
+            amounts.put(st, v[1]);
+            total += v[0];
+        }
+
+        LocalDate today = LocalDate.now(zone);
+        long[] paidToday = tc.current(base, paidDayKey(today));
+
+        return OrderStatsResponse.builder()
+                .totalOrders(total)
+                .countByStatus(counts)
+                .amountPaiseByStatus(amounts)
+                .day(today)
+                .paidTodayCount(paidToday[0])
+                .paidTodayAmountPaise(paidToday[1])
+                .refundedCount(counts.get(OrderStatus.REFUNDED))
+                .refundedAmountPaise(amounts.get(OrderStatus.REFUNDED))
+                .asOf(Instant.now())
+                .build();
+    }
+
+    // -------------------------
+    // Flush (deltas -> tenant_order_stats)
+    // -------------------------
+    @Scheduled(fixedDelayString = "${app.stats.flushMs:5000}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void flush() {
+        tenants.forEach((tenantId, tc) -> {
+            // Lock spans DB write + base update so a snapshot reload never double counts
+            synchronized (tc) {
+                Map<String, long[]> drained = tc.drain();
+                if (drained.isEmpty()) return;
+                try {
+                    Instant now = Instant.now();
+                    // As the tenant, so the rows land on its shard
+                    Long generation = TenantContext.call(tenantId, () -> tx.execute(status -> {
+                        long current = statRepository.lockCount(tenantId, REBUILT).orElse(0L);
+                        if (tc.generation != null && tc.generation != current) return current;
+                        drained.forEach((key, v) -> {
+                            TenantOrderStatId id = new TenantOrderStatId(tenantId, key);
+                            if (statRepository.increment(id, v[0], v[1], now) == 0) {
+                                statRepository.save(TenantOrderStat.builder()
+                                        .id(id).orderCount(v[0]).amountPaise(v[1]).build());
+                            }
+                        });
+                        return current;
+                    }));
+                    if (tc.generation != null && tc.generation != generation.longValue()) {
+                        // Rebuilt since these were counted: the recount has them
+                        tc.reset(generation);
+                        log.info("Order stats rebuilt elsewhere, dropped unflushed deltas tenantId={}", tenantId);
+                        return;
+                    }
+                    tc.generation = generation;
+                    drained.forEach((key, v) -> tc.applyToBase(key, v[0], v[1]));
+                } catch (Exception e) {
+                    // Put the deltas back; next flush retries
+                    drained.forEach((key, v) -> tc.add(key, v[0], v[1]));
+                    log.warn("Order stats flush failed tenantId={} msg={}", tenantId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    // -------------------------
+    // Rebuild from scratch (drift repair)
+    // -------------------------
+    @Workload(WorkloadClass.BACKGROUND)
+    public OrderStatsResponse rebuild(UUID tenantId) {
+        TenantCounters tc = counters(tenantId);
+        synchronized (tc) {
+            // Transitions already counted here are part of the recount below
+            tc.pending.clear();
+
+            Map<String, long[]> fresh = TenantContext.call(tenantId, () -> tx.execute(status -> {
+                // Waits for a flush in progress on any node, and makes later ones see the new generation
+                long previous = statRepository.lockCount(tenantId, REBUILT).orElse(0L);
+                statRepository.deleteByTenantId(tenantId);
+
+                Map<String, long[]> m = new HashMap<>();
+                for (var t : orderRepository.totalsByStatus(tenantId)) {
+                    m.put(t.getStatus().name(), new long[]{t.getOrderCount(), t.getAmountPaise()});
+                }
+                // Archived orders still count (OrderArchive)
+                for (var t : archivedOrderRepository.totalsByStatus(tenantId)) {
+                    long[] v = m.computeIfAbsent(t.getStatus().name(), k -> new long[2]);
+                    v[0] += t.getOrderCount();
+                    v[1] += t.getAmountPaise();
+                }
+
+                LocalDate today = LocalDate.now(zone);
+                Instant from = today.atStartOfDay(zone).toInstant();
+                Instant to = today.plusDays(1).atStartOfDay(zone).toInstant();
+                long[] paid = {0, 0};
+                for (var t : orderRepository.totalsPaidBetween(tenantId, from, to)) {
+                    paid[0] += t.getOrderCount();
+                    paid[1] += t.getAmountPaise();
+                }
+                m.put(paidDayKey(today), paid);
+                m.put(REBUILT, new long[]{Math.max(previous + 1, System.currentTimeMillis()), 0});
+
+                m.forEach((key, v) -> statRepository.save(TenantOrderStat.builder()
+                        .id(new TenantOrderStatId(tenantId, key))
+                        .orderCount(v[0])
+                        .amountPaise(v[1])
+                        .build()));
+                return m;
+            }));
+
+            tc.replaceBase(fresh);
+            tc.generation = fresh.get(REBUILT)[0];
+        }
+        log.info("Order stats rebuilt tenantId={}", tenantId);
+        return get(tenantId);
+    }
+
+    // Nightly drift repair for every tenant (also drops old PAID_DAY rows). Every node
+    // flushes first; one of them recounts, the others reset on their next flush
+    @Scheduled(cron = "${app.stats.rebuildCron:0 30 3 * * *}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void rebuildAll() {
+        flush();
+        boolean ran = tenantShards.onOneNode(TenantShards.HOME, REBUILD_LOCK, () -> {
+            for (Tenant t : tenantRepository.findAll()) {
+                try {
+                    rebuild(t.getId());
+                } catch (Exception e) {
+                    log.warn("Order stats rebuild failed tenantId={} msg={}", t.getId(), e.getMessage());
+                }
+            }
+        });
+        if (!ran) log.info("Order stats rebuild already running on another node");
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private TenantCounters counters(UUID tenantId) {
+        return tenants.computeIfAbsent(tenantId, TenantCounters::new);
+    }
+
+    private Map<String, long[]> loadSnapshot(UUID tenantId) {
+        Map<String, long[]> m = new HashMap<>();
+        for (TenantOrderStat s : statRepository.findByIdTenantId(tenantId)) {
+            m.put(s.getId().getStatKey(), new long[]{s.getOrderCount(), s.getAmountPaise()});
+        }
+        return m;
+    }
+
+    private static String paidDayKey(LocalDate day) {
+        return PAID_DAY_PREFIX + day;
+    }
+
+    private static final class TenantCounters {
+        final UUID tenantId;
+        final DeltaAccumulator<String> pending = new DeltaAccumulator<>();
+        volatile Map<String, long[]> base;
+        volatile long baseLoadedAt;
+        // Rebuild generation the pending deltas count from (null until the first flush or rebuild)
+        volatile Long generation;
+
+        TenantCounters(UUID tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        Map<String, long[]> drain() {
+            return pending.drain();
+        }
+
+        void add(String key, long count, long amount) {
+            pending.add(key, count, amount);
+        }
+
+        long[] current(Map<String, long[]> base, String key) {
+            long[] b = base.getOrDefault(key, new long[]{0, 0});
+            long[] p = pending.peek(key);
+            return new long[]{b[0] + p[0], b[1] + p[1]};
+        }
+
+        Map<String, long[]> snapshot(Function<UUID, Map<String, long[]>> loader, long ttlMs) {
+            Map<String, long[]> b = base;
+            if (b != null && System.currentTimeMillis() - baseLoadedAt < ttlMs) return b;
+            synchronized (this) {
+                if (base == null || System.currentTimeMillis() - baseLoadedAt >= ttlMs) {
+                    replaceBase(loader.apply(tenantId));
+                }
+                return base;
+            }
+        }
+
+        // Callers hold the monitor
+        void applyToBase(String key, long count, long amount) {
+            if (base == null) return; // loaded lazily on next read
+            Map<String, long[]> next = new HashMap<>(base);
+            long[] b = next.getOrDefault(key, new long[]{0, 0});
+            next.put(key, new long[]{b[0] + count, b[1] + amount});
+            base = next;
+        }
+
+        void replaceBase(Map<String, long[]> fresh) {
+            base = Map.copyOf(fresh);
+            baseLoadedAt = System.currentTimeMillis();
+        }
+
+        // Callers hold the monitor. Next read reloads the recounted rows
+        void reset(long rebuiltGeneration) {
+            generation = rebuiltGeneration;
+            base = null;
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package com.chatpaykit.service;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.chatpaykit.entity.Order;
+import com.chatpaykit.logging.LogSampler;
+import com.chatpaykit.logging.PiiMasker;
+import com.chatpaykit.util.SingleFlight;
 import com.razorpay.RazorpayClient;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -20,31 +27,65 @@ public class RazorpayPaymentService {
     private static final Logger log = LoggerFactory.getLogger(RazorpayPaymentService.class);
 
     private final AppSettingsService appSettingsService;
+    private final TenantSecrets tenantSecrets;
     private final WhatsappPaymentService whatsappPaymentService;
+    private final LogSampler logSampler;
+    private final RazorpayRestClient razorpayRestClient;
+    private final MeterRegistry meterRegistry;
 
-    // ✅ Multi-tenant: Razorpay client per tenant
-    private RazorpayClient clientOrThrow(UUID tenantId) {
+    @Value("${app.singleflight.razorpay.resultTtlMs:0}")
+    private long fetchResultTtlMs;
+
+    private record Keys(String keyId, String keySecret) {}
+
+    // Same fetch for the same tenant + Razorpay id while one is in flight (e.g. concurrent /sync calls)
+    private record FetchKey(String kind, UUID tenantId, String id) {}
+
+    private SingleFlight<FetchKey, JSONObject> entityFetches;
+    private SingleFlight<FetchKey, List<JSONObject>> listFetches;
+
+    @PostConstruct
+    void initSingleFlight() {
+        Duration ttl = Duration.ofMillis(fetchResultTtlMs);
+        entityFetches = new SingleFlight<>("razorpay", ttl, meterRegistry);
+        listFetches = new SingleFlight<>("razorpay", ttl, meterRegistry);
+    }
+
+    // ✅ Multi-tenant: Razorpay keys per tenant
+    private Keys keysOrThrow(UUID tenantId) {
         var s = appSettingsService.getOrThrow(tenantId);
 
         String keyId = s.getRazorpayKeyId();
-        String keySecret = s.getRazorpayKeySecret();
+        String keySecret = tenantSecrets.razorpayKeySecret(s);
 
         if (keyId == null || keyId.isBlank() || keySecret == null || keySecret.isBlank()) {
             throw new IllegalStateException("Razorpay keys missing for tenantId=" + tenantId);
         }
+        return new Keys(keyId, keySecret);
+    }
 
+    private RazorpayClient client(Keys keys) {
         try {
-            return new RazorpayClient(keyId, keySecret);
+            return new RazorpayClient(keys.keyId(), keys.keySecret());
         } catch (Exception e) {
             throw new IllegalStateException("Failed to init RazorpayClient: " + e.getMessage(), e);
         }
     }
 
+    // SDK by default; REST against app.razorpay.baseUrl when configured
+    private String createOrder(Keys keys, JSONObject req) throws Exception {
+        if (razorpayRestClient.enabled()) {
+            return razorpayRestClient.post(keys.keyId(), keys.keySecret(), "/orders", req).getString("id");
+        }
+        com.razorpay.Order rzpOrder = client(keys).orders.create(req);
+        return rzpOrder.get("id");
+    }
+
     // ---------------------------
     // Create Razorpay Order (base)
     // ---------------------------
     public String createRazorpayOrder(Order order) {
-        RazorpayClient razorpayClient = clientOrThrow(order.getTenantId());
+        Keys keys = keysOrThrow(order.getTenantId());
 
         try {
             JSONObject req = new JSONObject();
@@ -56,16 +97,15 @@ public class RazorpayPaymentService {
 
             JSONObject notes = new JSONObject();
             notes.put("customer", order.getCustomerName());
-            notes.put("whatsapp", order.getCustomerWhatsapp());
+            notes.put("whatsapp", PiiMasker.phone(order.getCustomerWhatsapp()));
             req.put("notes", notes);
 
-            log.info("Creating Razorpay order internalOrderId={} tenantId={} amountPaise={} currency={}",
+            logSampler.info(log, "razorpay.order.create", "Creating Razorpay order internalOrderId={} tenantId={} amountPaise={} currency={}",
                     order.getId(), order.getTenantId(), order.getAmountPaise(), order.getCurrency());
 
-            com.razorpay.Order rzpOrder = razorpayClient.orders.create(req);
-            String razorpayOrderId = rzpOrder.get("id");
+            String razorpayOrderId = createOrder(keys, req);
 
-            log.info("Razorpay order created internalOrderId={} tenantId={} razorpayOrderId={}",
+            logSampler.info(log, "razorpay.order.created", "Razorpay order created internalOrderId={} tenantId={} razorpayOrderId={}",
                     order.getId(), order.getTenantId(), razorpayOrderId);
 
             return razorpayOrderId;
@@ -81,7 +121,7 @@ public class RazorpayPaymentService {
     // Retry Razorpay Order
     // ---------------------------
     public String createRazorpayOrderForRetry(Order order) {
-        RazorpayClient razorpayClient = clientOrThrow(order.getTenantId());
+        Keys keys = keysOrThrow(order.getTenantId());
 
         try {
             JSONObject req = new JSONObject();
@@ -94,18 +134,17 @@ public class RazorpayPaymentService {
 
             JSONObject notes = new JSONObject();
             notes.put("customer", order.getCustomerName());
-            notes.put("whatsapp", order.getCustomerWhatsapp());
+            notes.put("whatsapp", PiiMasker.phone(order.getCustomerWhatsapp()));
             notes.put("retry", true);
             notes.put("internalOrderId", order.getId().toString());
             req.put("notes", notes);
 
-            log.info("Creating Razorpay retry order internalOrderId={} tenantId={} attemptCount={}",
+            logSampler.info(log, "razorpay.retry.create", "Creating Razorpay retry order internalOrderId={} tenantId={} attemptCount={}",
                     order.getId(), order.getTenantId(), order.getAttemptCount());
 
-            com.razorpay.Order rzpOrder = razorpayClient.orders.create(req);
-            String razorpayOrderId = rzpOrder.get("id");
+            String razorpayOrderId = createOrder(keys, req);
 
-            log.info("Razorpay retry order created internalOrderId={} tenantId={} razorpayOrderId={}",
+            logSampler.info(log, "razorpay.retry.created", "Razorpay retry order created internalOrderId={} tenantId={} razorpayOrderId={}",
                     order.getId(), order.getTenantId(), razorpayOrderId);
 
             return razorpayOrderId;
@@ -123,12 +162,8 @@ public class RazorpayPaymentService {
     public String sendPaymentRequestOnWhatsapp(Order order) {
         String razorpayOrderId = createRazorpayOrder(order);
 
-        try {
-            whatsappPaymentService.sendInChatPaymentRequest(order, razorpayOrderId);
-        } catch (Exception e) {
-            log.warn("WhatsApp payment request failed internalOrderId={} tenantId={} msg={}",
-                    order.getId(), order.getTenantId(), e.getMessage(), e);
-        }
+        // Fire and continue: the outcome is recorded in whatsapp_deliveries when the send completes
+        whatsappPaymentService.sendInChatPaymentRequestAsync(order, razorpayOrderId);
 
         return razorpayOrderId;
     }
@@ -139,12 +174,7 @@ public class RazorpayPaymentService {
     public String sendRetryPaymentRequestOnWhatsapp(Order order) {
         String razorpayOrderId = createRazorpayOrderForRetry(order);
 
-        try {
-            whatsappPaymentService.sendInChatPaymentRequest(order, razorpayOrderId);
-        } catch (Exception e) {
-            log.warn("WhatsApp retry payment request failed internalOrderId={} tenantId={} msg={}",
-                    order.getId(), order.getTenantId(), e.getMessage(), e);
-        }
+        whatsappPaymentService.sendInChatPaymentRequestAsync(order, razorpayOrderId);
 
         return razorpayOrderId;
     }
@@ -153,18 +183,23 @@ public class RazorpayPaymentService {
     // Refund helper (full refund)
     // ---------------------------
     public String refundPayment(UUID tenantId, String razorpayPaymentId) {
-        RazorpayClient razorpayClient = clientOrThrow(tenantId);
+        Keys keys = keysOrThrow(tenantId);
 
         try {
-            log.info("Creating Razorpay refund tenantId={} paymentId={}", tenantId, razorpayPaymentId);
+            logSampler.info(log, "razorpay.refund.create", "Creating Razorpay refund tenantId={} paymentId={}", tenantId, razorpayPaymentId);
 
             JSONObject req = new JSONObject();
             req.put("payment_id", razorpayPaymentId);
 
-            com.razorpay.Refund refund = razorpayClient.payments.refund(req);
-
-            String refundId = refund.get("id");
-            log.info("Refund created tenantId={} paymentId={} refundId={}", tenantId, razorpayPaymentId, refundId);
+            String refundId;
+            if (razorpayRestClient.enabled()) {
+                refundId = razorpayRestClient.post(keys.keyId(), keys.keySecret(),
+                        "/payments/" + razorpayPaymentId + "/refund", new JSONObject()).getString("id");
+            } else {
+                com.razorpay.Refund refund = client(keys).payments.refund(req);
+                refundId = refund.get("id");
+            }
+            logSampler.info(log, "razorpay.refund.created", "Refund created tenantId={} paymentId={} refundId={}", tenantId, razorpayPaymentId, refundId);
 
             return refundId;
 
@@ -176,29 +211,48 @@ public class RazorpayPaymentService {
 
     // ---------------------------
     // Sync helpers (used by OrderSyncController)
+    // Concurrent identical fetches share one upstream call; results are shared, do not modify them
     // ---------------------------
     public JSONObject fetchRefund(UUID tenantId, String refundId) {
-        try {
-            return clientOrThrow(tenantId).refunds.fetch(refundId).toJson();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch refund: " + e.getMessage(), e);
-        }
+        return entityFetches.get(new FetchKey("refund", tenantId, refundId), () -> {
+            try {
+                Keys keys = keysOrThrow(tenantId);
+                if (razorpayRestClient.enabled()) {
+                    return razorpayRestClient.get(keys.keyId(), keys.keySecret(), "/refunds/" + refundId);
+                }
+                return client(keys).refunds.fetch(refundId).toJson();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to fetch refund: " + e.getMessage(), e);
+            }
+        });
     }
 
     public JSONObject fetchPayment(UUID tenantId, String paymentId) {
-        try {
-            return clientOrThrow(tenantId).payments.fetch(paymentId).toJson();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch payment: " + e.getMessage(), e);
-        }
+        return entityFetches.get(new FetchKey("payment", tenantId, paymentId), () -> {
+            try {
+                Keys keys = keysOrThrow(tenantId);
+                if (razorpayRestClient.enabled()) {
+                    return razorpayRestClient.get(keys.keyId(), keys.keySecret(), "/payments/" + paymentId);
+                }
+                return client(keys).payments.fetch(paymentId).toJson();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to fetch payment: " + e.getMessage(), e);
+            }
+        });
     }
 
     public List<JSONObject> fetchPaymentsByOrderId(UUID tenantId, String razorpayOrderId) {
-        try {
-            var payments = clientOrThrow(tenantId).orders.fetchPayments(razorpayOrderId);
-            return payments.stream().map(p -> p.toJson()).toList();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch payments for order: " + e.getMessage(), e);
-        }
+        return listFetches.get(new FetchKey("order-payments", tenantId, razorpayOrderId), () -> {
+            try {
+                Keys keys = keysOrThrow(tenantId);
+                if (razorpayRestClient.enabled()) {
+                    return razorpayRestClient.getItems(keys.keyId(), keys.keySecret(), "/orders/" + razorpayOrderId + "/payments");
+                }
+                var payments = client(keys).orders.fetchPayments(razorpayOrderId);
+                return payments.stream().map(p -> p.toJson()).toList();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to fetch payments for order: " + e.getMessage(), e);
+            }
+        });
     }
 }
@@ -0,0 +1,63 @@
+package com.chatpaykit.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Plain REST calls to the Razorpay API at app.razorpay.baseUrl, used instead of
+ * the SDK when that is set. The SDK has its host hard-coded, so this is how the
+ * load test (and any non-production stub) points the backend elsewhere.
+ * Goes through the shared outbound pool (HttpClientConfig).
+ */
+@Component
+@RequiredArgsConstructor
+public class RazorpayRestClient {
+
+    private final RestClient restClient;
+
+    @Value("${app.razorpay.baseUrl:}")
+    private String baseUrl;
+
+    public boolean enabled() {
+        return baseUrl != null && !baseUrl.isBlank();
+    }
+
+    public JSONObject post(String keyId, String keySecret, String path, JSONObject body) {
+        String res = restClient.post()
+                .uri(baseUrl + path)
+                .headers(h -> h.setBasicAuth(keyId, keySecret))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.toString())
+                .retrieve()
+                .body(String.class);
+        return new JSONObject(res);
+    }
+
+    public JSONObject get(String keyId, String keySecret, String path) {
+        String res = restClient.get()
+                .uri(baseUrl + path)
+                .headers(h -> h.setBasicAuth(keyId, keySecret))
+                .retrieve()
+                .body(String.class);
+        return new JSONObject(res);
+    }
+
+    // Collection responses: {"entity":"collection","count":n,"items":[...]}
+    public List<JSONObject> getItems(String keyId, String keySecret, String path) {
+        JSONArray items = get(keyId, keySecret, path).optJSONArray("items");
+        List<JSONObject> out = new ArrayList<>();
+        if (items != null) {
+            for (int i = 0; i < items.length(); i++) out.add(items.getJSONObject(i));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,176 @@
+package com.chatpaykit.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.entity.RefreshToken;
+import com.chatpaykit.entity.RevokedSession;
+import com.chatpaykit.entity.User;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.RefreshTokenRepository;
+import com.chatpaykit.repository.RevokedSessionRepository;
+import com.chatpaykit.repository.UserRepository;
+import com.chatpaykit.security.TokenDenyList;
+import com.chatpaykit.workload.Workload;
+import com.chatpaykit.workload.WorkloadClass;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sessions: a short-lived access token (JwtService, app.jwt.accessTtlMinutes)
+ * plus a refresh token that rotates on every use (RefreshToken).
+ *
+ * Logout, or a refresh token used a second time, revokes the session: its
+ * refresh tokens stop working, and its access tokens are refused by
+ * JwtAuthFilter through TokenDenyList until they expire. A second use within
+ * reuseGraceSeconds of the rotation is let off with a 401 only, for two tabs
+ * refreshing at the same moment.
+ */
+@Service
+public class SessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    public record Tokens(String accessToken, String refreshToken, long expiresIn) {}
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RevokedSessionRepository revokedSessionRepository;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+    private final TokenDenyList tokenDenyList;
+    private final TransactionTemplate tx;
+    private final MeterRegistry meterRegistry;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${app.auth.refreshTtlDays:30}")
+    private long refreshTtlDays;
+
+    @Value("${app.auth.reuseGraceSeconds:10}")
+    private long reuseGraceSeconds;
+
+    public SessionService(RefreshTokenRepository refreshTokenRepository,
+                          RevokedSessionRepository revokedSessionRepository,
+                          UserRepository userRepository, JwtService jwtService,
+                          TokenDenyList tokenDenyList, PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revokedSessionRepository = revokedSessionRepository;
+        this.userRepository = userRepository;
+        this.jwtService = jwtService;
+        this.tokenDenyList = tokenDenyList;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Tokens open(UUID userId, UUID tenantId, String role) {
+        return tx.execute(status -> issue(userId, tenantId, role, UUID.randomUUID(), Instant.now()));
+    }
+
+    public Tokens refresh(String refreshToken) {
+        // Committed before the 401, so a reuse revocation sticks
+        Tokens tokens = tx.execute(status -> rotate(refreshToken));
+        if (tokens == null) throw new ApiException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        return tokens;
+    }
+
+    public void logout(String refreshToken) {
+        tx.executeWithoutResult(status -> refreshTokenRepository.findForUpdate(hash(refreshToken))
+                .ifPresent(t -> revoke(t.getFamilyId(), Instant.now())));
+    }
+
+    // -------------------------
+    // Rotation
+    // -------------------------
+    private Tokens rotate(String refreshToken) {
+        Instant now = Instant.now();
+        RefreshToken current = refreshTokenRepository.findForUpdate(hash(refreshToken)).orElse(null);
+        if (current == null || current.getExpiresAt().isBefore(now)) return null;
+
+        if (current.getRevokedAt() != null) {
+            if (current.getRevokedAt().isBefore(now.minusSeconds(reuseGraceSeconds))) {
+                log.warn("Refresh token reused, revoking session userId={} sessionId={}",
+                        current.getUserId(), current.getFamilyId());
+                meterRegistry.counter("app.auth.refresh.reused").increment();
+                revoke(current.getFamilyId(), now);
+            }
+            return null;
+        }
+
+        User user = userRepository.findById(current.getUserId()).orElse(null);
+        if (user == null) {
+            revoke(current.getFamilyId(), now);
+            return null;
+        }
+
+        current.setRevokedAt(now);
+        return issue(user.getId(), user.getTenantId(), user.getRole(), current.getFamilyId(), now);
+    }
+
+    private Tokens issue(UUID userId, UUID tenantId, String role, UUID sessionId, Instant now) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(refreshToken))
+                .familyId(sessionId)
+                .userId(userId)
+                .expiresAt(now.plus(Duration.ofDays(refreshTtlDays)))
+                .build());
+
+        String accessToken = jwtService.generateToken(userId, tenantId, role, sessionId);
+        return new Tokens(accessToken, refreshToken, jwtService.accessTtl().toSeconds());
+    }
+
+    // Access tokens of the session were all issued before now, so none outlives now + accessTtl
+    private void revoke(UUID sessionId, Instant now) {
+        refreshTokenRepository.revokeFamily(sessionId, now);
+        Instant expiresAt = now.plus(jwtService.accessTtl());
+        revokedSessionRepository.save(RevokedSession.builder()
+                .sessionId(sessionId)
+                .revokedAt(now)
+                .expiresAt(expiresAt)
+                .build());
+        tokenDenyList.add(sessionId, expiresAt);
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha.digest(refreshToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // -------------------------
+    // Cleanup
+    // -------------------------
+    @Scheduled(cron = "${app.auth.cleanupCron:0 20 * * * *}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void cleanup() {
+        Instant now = Instant.now();
+        Integer tokens = tx.execute(status -> refreshTokenRepository.deleteExpired(now));
+        Integer sessions = tx.execute(status -> revokedSessionRepository.deleteExpired(now));
+        if ((tokens != null && tokens > 0) || (sessions != null && sessions > 0)) {
+            log.info("Auth cleanup refreshTokens={} revokedSessions={}", tokens, sessions);
+        }
+    }
+}
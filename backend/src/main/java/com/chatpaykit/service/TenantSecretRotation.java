@@ -0,0 +1,130 @@
+package com.chatpaykit.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.entity.TenantSettings;
+import com.chatpaykit.repository.TenantSettingsRepository;
+import com.chatpaykit.security.SecretCipher;
+import com.chatpaykit.shard.TenantShards;
+import com.chatpaykit.workload.Workload;
+import com.chatpaykit.workload.WorkloadClass;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Brings tenant_settings under the active master key, on every shard, in
+ * batches of batchSize (one transaction each, pauseMs between):
+ *   - rows under an older key get their data key re-wrapped; the secret
+ *     columns are not rewritten
+ *   - rows from before encryption get a data key and their secrets encrypted
+ *
+ * To rotate, add the new key to app.secrets.keys and make it activeKeyId; once
+ * app.secrets.rotated stops counting, the old key can be removed. Rows an
+ * upsert holds are skipped until the next run. Each rewritten row gets a new
+ * updatedAt, which rebuilds its TenantSecrets entry on every node.
+ */
+@Service
+public class TenantSecretRotation {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantSecretRotation.class);
+
+    private final TenantSettingsRepository tenantSettingsRepository;
+    private final SecretCipher cipher;
+    private final TransactionTemplate tx;
+    private final TenantShards tenantShards;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.secrets.rotation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.secrets.rotation.batchSize:100}")
+    private int batchSize;
+
+    @Value("${app.secrets.rotation.pauseMs:50}")
+    private long pauseMs;
+
+    public TenantSecretRotation(TenantSettingsRepository tenantSettingsRepository, SecretCipher cipher,
+                                PlatformTransactionManager transactionManager, TenantShards tenantShards,
+                                MeterRegistry meterRegistry) {
+        this.tenantSettingsRepository = tenantSettingsRepository;
+        this.cipher = cipher;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tenantShards = tenantShards;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(cron = "${app.secrets.rotation.cron:0 */10 * * * *}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void rotate() {
+        if (!enabled) return;
+        rotateAll();
+    }
+
+    /** Returns the number of rows rewritten, over all shards. */
+    public long rotateAll() {
+        long[] rotated = {0};
+        tenantShards.forEach(shard -> rotated[0] += rotateShard(shard));
+        return rotated[0];
+    }
+
+    private long rotateShard(String shard) {
+        long rotated = 0;
+        try {
+            while (true) {
+                Integer n = tx.execute(status -> rotateBatch());
+                rotated += n == null ? 0 : n;
+                if (n == null || n < batchSize) break;
+                if (pauseMs > 0) Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Tenant secret rotation stopped shard={} after rows={}: {}", shard, rotated, e.getMessage());
+        }
+        if (rotated > 0) {
+            log.info("Tenant secrets rotated shard={} rows={} keyId={}", shard, rotated, cipher.activeKeyId());
+        }
+        return rotated;
+    }
+
+    private int rotateBatch() {
+        List<TenantSettings> batch = tenantSettingsRepository.findToRotate(
+                cipher.activeKeyId(), cipher.keyIds(), Limit.of(batchSize));
+        for (TenantSettings s : batch) {
+            rewrap(s);
+        }
+        meterRegistry.counter("app.secrets.rotated").increment(batch.size());
+        return batch.size();
+    }
+
+    private void rewrap(TenantSettings s) {
+        UUID tenantId = s.getTenantId();
+        boolean plaintext = s.getKeyId() == null;
+        byte[] dataKey = plaintext ? cipher.newDataKey() : cipher.unwrap(s.getKeyId(), s.getDataKey(), tenantId);
+        try {
+            if (plaintext) {
+                s.setRazorpayKeySecret(cipher.encrypt(dataKey, s.getRazorpayKeySecret(),
+                        tenantId, TenantSecrets.RAZORPAY_KEY_SECRET));
+                s.setRazorpayWebhookSecret(cipher.encrypt(dataKey, s.getRazorpayWebhookSecret(),
+                        tenantId, TenantSecrets.RAZORPAY_WEBHOOK_SECRET));
+                s.setWhatsappAccessToken(cipher.encrypt(dataKey, s.getWhatsappAccessToken(),
+                        tenantId, TenantSecrets.WHATSAPP_ACCESS_TOKEN));
+            }
+            s.setDataKey(cipher.wrap(dataKey, tenantId));
+            s.setKeyId(cipher.activeKeyId());
+        } finally {
+            Arrays.fill(dataKey, (byte) 0);
+        }
+    }
+}
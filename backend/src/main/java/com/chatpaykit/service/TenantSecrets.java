@@ -0,0 +1,242 @@
+package com.chatpaykit.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.chatpaykit.entity.TenantSettings;
+import com.chatpaykit.security.SecretCipher;
+import com.chatpaykit.util.RazorpayCheckoutSignatureUtil;
+import com.chatpaykit.util.RazorpaySignatureUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * The only way to read a tenant's secrets (TenantSettings stores them encrypted,
+ * see SecretCipher).
+ *
+ * Webhook and checkout verification run on every call, so decrypted secrets and
+ * HMAC keys are cached per tenant: verifying clones an already-keyed Mac, with
+ * no decryption and no re-keying. An entry belongs to the settings row version
+ * it was built from (updatedAt, keyId), so a row changed on any node rebuilds
+ * it; AppSettingsService.upsert also invalidates it. Bounded by maxSize and
+ * idleMinutes.
+ *
+ * A removed entry is wiped (secret bytes zeroed, Macs re-keyed with zeros) once
+ * the last caller using it is done. Strings handed to the Razorpay SDK and the
+ * WhatsApp API are copies and can't be wiped.
+ */
+@Service
+public class TenantSecrets {
+
+    static final String RAZORPAY_KEY_SECRET = "razorpayKeySecret";
+    static final String RAZORPAY_WEBHOOK_SECRET = "razorpayWebhookSecret";
+    static final String WHATSAPP_ACCESS_TOKEN = "whatsappAccessToken";
+
+    private static final String HMAC = "HmacSHA256";
+
+    // Decrypted, for the settings API (not cached)
+    public record Plain(String razorpayKeySecret, String razorpayWebhookSecret, String whatsappAccessToken) {}
+
+    private final SecretCipher cipher;
+    private final Cache<UUID, Entry> cache;
+
+    public TenantSecrets(
+            SecretCipher cipher,
+            MeterRegistry meterRegistry,
+            @Value("${app.secrets.cache.maxSize:10000}") long maxSize,
+            @Value("${app.secrets.cache.idleMinutes:30}") long idleMinutes
+    ) {
+        this.cipher = cipher;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .removalListener((UUID tenantId, Entry e, RemovalCause cause) -> {
+                    if (e != null) e.release();
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tenant-secrets");
+    }
+
+    // -------------------------
+    // Hot path
+    // -------------------------
+    public boolean verifyWebhook(TenantSettings s, String payload, String signature) {
+        return use(s, e -> e.webhookMac != null && RazorpaySignatureUtil.verify(payload, signature, e.mac(e.webhookMac)));
+    }
+
+    public boolean verifyCheckout(TenantSettings s, String orderId, String paymentId, String signature) {
+        return use(s, e -> e.checkoutMac != null
+                && RazorpayCheckoutSignatureUtil.verify(orderId, paymentId, signature, e.mac(e.checkoutMac)));
+    }
+
+    // -------------------------
+    // Plaintext copies, for API clients that take strings
+    // -------------------------
+    public String razorpayKeySecret(TenantSettings s) {
+        return use(s, e -> text(e.keySecret));
+    }
+
+    public String whatsappAccessToken(TenantSettings s) {
+        return use(s, e -> text(e.accessToken));
+    }
+
+    public Plain decrypt(TenantSettings s) {
+        byte[] dataKey = dataKey(s);
+        try {
+            return new Plain(
+                    text(reveal(dataKey, s, s.getRazorpayKeySecret(), RAZORPAY_KEY_SECRET)),
+                    text(reveal(dataKey, s, s.getRazorpayWebhookSecret(), RAZORPAY_WEBHOOK_SECRET)),
+                    text(reveal(dataKey, s, s.getWhatsappAccessToken(), WHATSAPP_ACCESS_TOKEN)));
+        } finally {
+            wipe(dataKey);
+        }
+    }
+
+    public void invalidate(UUID tenantId) {
+        cache.invalidate(tenantId);
+    }
+
+    // -------------------------
+    // Cache
+    // -------------------------
+    private <T> T use(TenantSettings s, Function<Entry, T> fn) {
+        while (true) {
+            Entry e = entry(s);
+            // Lost a race with removal: the next lookup builds a fresh entry
+            if (!e.acquire()) continue;
+            try {
+                return fn.apply(e);
+            } finally {
+                e.release();
+            }
+        }
+    }
+
+    private Entry entry(TenantSettings s) {
+        Entry hit = cache.getIfPresent(s.getTenantId());
+        if (hit != null && hit.builtFrom(s)) return hit;
+        // The entry this replaces is released by the removal listener
+        Entry fresh = build(s);
+        cache.put(s.getTenantId(), fresh);
+        return fresh;
+    }
+
+    private Entry build(TenantSettings s) {
+        byte[] dataKey = dataKey(s);
+        try {
+            return new Entry(s.getUpdatedAt(), s.getKeyId(),
+                    reveal(dataKey, s, s.getRazorpayKeySecret(), RAZORPAY_KEY_SECRET),
+                    reveal(dataKey, s, s.getRazorpayWebhookSecret(), RAZORPAY_WEBHOOK_SECRET),
+                    reveal(dataKey, s, s.getWhatsappAccessToken(), WHATSAPP_ACCESS_TOKEN));
+        } finally {
+            wipe(dataKey);
+        }
+    }
+
+    // Null for rows written before encryption: their columns are still plaintext
+    private byte[] dataKey(TenantSettings s) {
+        return s.getKeyId() == null ? null : cipher.unwrap(s.getKeyId(), s.getDataKey(), s.getTenantId());
+    }
+
+    private byte[] reveal(byte[] dataKey, TenantSettings s, String stored, String field) {
+        if (dataKey != null) return cipher.decrypt(dataKey, stored, s.getTenantId(), field);
+        return stored == null || stored.isBlank() ? null : stored.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] secret) {
+        return secret == null ? null : new String(secret, StandardCharsets.UTF_8);
+    }
+
+    private static void wipe(byte[] bytes) {
+        if (bytes != null) Arrays.fill(bytes, (byte) 0);
+    }
+
+    private static Mac keyed(byte[] secret) {
+        if (secret == null) return null;
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(secret, HMAC));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC key setup failed", e);
+        }
+    }
+
+    // Decrypted secrets of one settings row version. Starts with one reference (the cache's)
+    private static final class Entry {
+        private final Instant updatedAt;
+        private final String keyId;
+        private final byte[] keySecret;
+        private final byte[] webhookSecret;
+        private final byte[] accessToken;
+        private final Mac checkoutMac;
+        private final Mac webhookMac;
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        Entry(Instant updatedAt, String keyId, byte[] keySecret, byte[] webhookSecret, byte[] accessToken) {
+            this.updatedAt = updatedAt;
+            this.keyId = keyId;
+            this.keySecret = keySecret;
+            this.webhookSecret = webhookSecret;
+            this.accessToken = accessToken;
+            this.checkoutMac = keyed(keySecret);
+            this.webhookMac = keyed(webhookSecret);
+        }
+
+        boolean builtFrom(TenantSettings s) {
+            return Objects.equals(updatedAt, s.getUpdatedAt()) && Objects.equals(keyId, s.getKeyId());
+        }
+
+        // Macs aren't thread-safe: each use gets a copy of the keyed prototype
+        Mac mac(Mac prototype) {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException("HMAC provider can't clone", e);
+            }
+        }
+
+        boolean acquire() {
+            while (true) {
+                int r = refs.get();
+                if (r == 0) return false;
+                if (refs.compareAndSet(r, r + 1)) return true;
+            }
+        }
+
+        void release() {
+            if (refs.decrementAndGet() == 0) wipeAll();
+        }
+
+        private void wipeAll() {
+            wipe(keySecret);
+            wipe(webhookSecret);
+            wipe(accessToken);
+            byte[] zeros = new byte[32];
+            try {
+                if (checkoutMac != null) checkoutMac.init(new SecretKeySpec(zeros, HMAC));
+                if (webhookMac != null) webhookMac.init(new SecretKeySpec(zeros, HMAC));
+            } catch (GeneralSecurityException ignored) {
+                // Nothing else holds these Macs; they are garbage either way
+            }
+        }
+    }
+}
@@ -1,16 +1,41 @@
 package com.chatpaykit.service;
 
+import java.net.URI;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 
 import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.WhatsappDelivery;
+import com.chatpaykit.repository.WhatsappDeliveryRepository;
+import com.chatpaykit.security.TenantContext;
+import com.chatpaykit.util.BoundedFanOut;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -19,17 +44,64 @@ public class WhatsappPaymentService {
 
     private static final Logger log = LoggerFactory.getLogger(WhatsappPaymentService.class);
 
-    private final RestClient restClient;
+    private final CloseableHttpAsyncClient outboundHttpClient;
+    private final ObjectMapper objectMapper;
     private final AppSettingsService appSettingsService;
+    private final TenantSecrets tenantSecrets;
+    private final WhatsappDeliveryRepository whatsappDeliveryRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.whatsapp.baseUrl:https://graph.facebook.com/v19.0}")
+    private String graphBaseUrl;
+
+    @Value("${app.whatsapp.recordThreads:4}")
+    private int recordThreads;
+
+    @Value("${app.whatsapp.recordQueueSize:1000}")
+    private int recordQueueSize;
+
+    // Saves delivery rows off the HTTP client's threads. When the queue is full (or
+    // after shutdown) the completing thread saves it itself: slower, but every
+    // delivery is recorded and every future completes
+    private ThreadPoolExecutor recordExecutor;
+
+    // Sends waiting on Graph API (with HTTP/2 several share one pooled connection)
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger n = new AtomicInteger();
+        recordExecutor = new ThreadPoolExecutor(recordThreads, recordThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, recordQueueSize)), r -> {
+                    Thread t = new Thread(r, "wa-record-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, (r, e) -> r.run());
+        meterRegistry.gauge("app.whatsapp.record.queued", recordExecutor, e -> e.getQueue().size());
+        meterRegistry.gauge("app.whatsapp.inflight", inFlight);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        recordExecutor.shutdown();
+    }
 
     private record WaConfig(String phoneNumberId, String accessToken) {}
 
+    // Outcome of one send (messageId from Graph API, or error). The *Async methods
+    // never throw and their futures never fail: callers need no try/catch
+    public record DeliveryResult(UUID orderId, String kind, String messageId, String error) {
+        public boolean ok() {
+            return error == null;
+        }
+    }
+
     // ✅ Multi-tenant: config per tenant
     private WaConfig configOrNull(UUID tenantId) {
         try {
             var s = appSettingsService.getOrThrow(tenantId);
             String phoneNumberId = s.getWhatsappPhoneNumberId();
-            String accessToken = s.getWhatsappAccessToken();
+            String accessToken = tenantSecrets.whatsappAccessToken(s);
 
             if (phoneNumberId == null || phoneNumberId.isBlank()
                     || accessToken == null || accessToken.isBlank()) {
@@ -43,19 +115,19 @@ public class WhatsappPaymentService {
     }
 
     private String baseUrl(String phoneNumberId) {
-        return "https://graph.facebook.com/v19.0/" + phoneNumberId + "/messages";
+        return graphBaseUrl + "/" + phoneNumberId + "/messages";
     }
 
     // -------- PAYMENT REQUEST --------
     public void sendInChatPaymentRequest(Order order, String razorpayOrderId) {
+        sendInChatPaymentRequestAsync(order, razorpayOrderId).join();
+    }
+
+    public CompletableFuture<DeliveryResult> sendInChatPaymentRequestAsync(Order order, String razorpayOrderId) {
         WaConfig cfg = configOrNull(order.getTenantId());
-        if (cfg == null) {
-            log.warn("WhatsApp not configured for tenantId={}. Skipping send for orderId={}",
-                    order.getTenantId(), order.getId());
-            return;
-        }
+        if (cfg == null) return skipped(order, "PAYMENT_REQUEST");
 
-        Map<String, Object> payload = Map.of(
+        return sendAsync(cfg, order, "PAYMENT_REQUEST", () -> Map.of(
                 "messaging_product", "whatsapp",
                 "to", order.getCustomerWhatsapp(),
                 "type", "interactive",
@@ -75,40 +147,60 @@ public class WhatsappPaymentService {
                                 )
                         )
                 )
-        );
-
-        send(cfg, payload);
+        ));
     }
 
     // -------- SUCCESS --------
     public void sendPaymentSuccess(Order order) {
+        sendPaymentSuccessAsync(order).join();
+    }
+
+    public CompletableFuture<DeliveryResult> sendPaymentSuccessAsync(Order order) {
         WaConfig cfg = configOrNull(order.getTenantId());
-        if (cfg == null) return;
+        if (cfg == null) return skipped(order, "PAYMENT_SUCCESS");
 
-        send(cfg, textPayload(order.getCustomerWhatsapp(),
+        return sendAsync(cfg, order, "PAYMENT_SUCCESS", () -> textPayload(order.getCustomerWhatsapp(),
                 "✅ Payment received!\nOrder: " + order.getId()
                         + "\nAmount: ₹" + (order.getAmountPaise() / 100.0)));
     }
 
     // -------- FAILED --------
     public void sendPaymentFailed(Order order) {
+        sendPaymentFailedAsync(order).join();
+    }
+
+    public CompletableFuture<DeliveryResult> sendPaymentFailedAsync(Order order) {
         WaConfig cfg = configOrNull(order.getTenantId());
-        if (cfg == null) return;
+        if (cfg == null) return skipped(order, "PAYMENT_FAILED");
 
-        send(cfg, textPayload(order.getCustomerWhatsapp(),
+        return sendAsync(cfg, order, "PAYMENT_FAILED", () -> textPayload(order.getCustomerWhatsapp(),
                 "❌ Payment failed.\nOrder: " + order.getId()
                         + "\nPlease retry."));
     }
 
     // -------- REFUNDED --------
     public void sendRefunded(Order order) {
+        sendRefundedAsync(order).join();
+    }
+
+    public CompletableFuture<DeliveryResult> sendRefundedAsync(Order order) {
         WaConfig cfg = configOrNull(order.getTenantId());
-        if (cfg == null) return;
+        if (cfg == null) return skipped(order, "REFUNDED");
 
-        send(cfg, textPayload(order.getCustomerWhatsapp(),
+        return sendAsync(cfg, order, "REFUNDED", () -> textPayload(order.getCustomerWhatsapp(),
                 "💸 Refund processed.\nOrder: " + order.getId()));
     }
 
+    // -------- FAN-OUT --------
+    // e.g. sendAll(orders, 8, whatsappPaymentService::sendPaymentSuccessAsync)
+    public CompletableFuture<List<DeliveryResult>> sendAll(
+            List<Order> orders,
+            int maxInFlight,
+            Function<Order, CompletableFuture<DeliveryResult>> send
+    ) {
+        return BoundedFanOut.run(orders, maxInFlight, send);
+    }
+
     private Map<String, Object> textPayload(String to, String msg) {
         return Map.of(
                 "messaging_product", "whatsapp",
@@ -118,18 +210,115 @@ public class WhatsappPaymentService {
         );
     }
 
-    private void send(WaConfig cfg, Map<String, Object> payload) {
+    // Never throws and never completes exceptionally: failures (including a payload
+    // that can't be built) are reported in DeliveryResult and whatsapp_deliveries
+    private CompletableFuture<DeliveryResult> sendAsync(
+            WaConfig cfg, Order order, String kind, Supplier<Map<String, Object>> payload
+    ) {
+        UUID tenantId = order.getTenantId();
+        UUID orderId = order.getId();
+
+        SimpleHttpRequest req;
         try {
-            restClient.post()
-                    .uri(baseUrl(cfg.phoneNumberId()))
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .header("Authorization", "Bearer " + cfg.accessToken())
-                    .body(payload)
-                    .retrieve()
-                    .toBodilessEntity();
+            req = SimpleRequestBuilder.post(URI.create(baseUrl(cfg.phoneNumberId())))
+                    .setHeader("Authorization", "Bearer " + cfg.accessToken())
+                    .setBody(objectMapper.writeValueAsBytes(payload.get()), ContentType.APPLICATION_JSON)
+                    .build();
         } catch (Exception e) {
-            // Keep behavior: don't crash business flow
-            log.warn("WhatsApp send failed msg={}", e.getMessage());
+            return CompletableFuture.completedFuture(
+                    record(tenantId, new DeliveryResult(orderId, kind, null, errorOf(e)), null));
         }
+
+        return execute(req)
+                .handleAsync((res, ex) -> {
+                    if (ex != null) {
+                        log.warn("WhatsApp send failed orderId={} kind={} msg={}", orderId, kind, errorOf(ex));
+                        return record(tenantId, new DeliveryResult(orderId, kind, null, errorOf(ex)), null);
+                    }
+                    if (res.getCode() / 100 != 2) {
+                        String err = "HTTP " + res.getCode() + ": " + truncate(res.getBodyText(), 500);
+                        log.warn("WhatsApp send failed orderId={} kind={} msg={}", orderId, kind, err);
+                        return record(tenantId, new DeliveryResult(orderId, kind, null, err), res.getCode());
+                    }
+                    return record(tenantId, new DeliveryResult(orderId, kind, messageId(res.getBodyText()), null),
+                            res.getCode());
+                }, recordExecutor);
+    }
+
+    // Response timeout is the client's default (app.http.readTimeoutMs)
+    private CompletableFuture<SimpleHttpResponse> execute(SimpleHttpRequest req) {
+        CompletableFuture<SimpleHttpResponse> f = new CompletableFuture<>();
+        inFlight.incrementAndGet();
+        f.whenComplete((res, ex) -> inFlight.decrementAndGet());
+        try {
+            outboundHttpClient.execute(req, new FutureCallback<>() {
+                @Override
+                public void completed(SimpleHttpResponse res) {
+                    f.complete(res);
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    f.completeExceptionally(ex);
+                }
+
+                @Override
+                public void cancelled() {
+                    f.completeExceptionally(new CancellationException("WhatsApp send cancelled"));
+                }
+            });
+        } catch (Exception e) {
+            // e.g. the client was already closed on shutdown
+            f.completeExceptionally(e);
+        }
+        return f;
+    }
+
+    private CompletableFuture<DeliveryResult> skipped(Order order, String kind) {
+        log.warn("WhatsApp not configured for tenantId={}. Skipping {} for orderId={}",
+                order.getTenantId(), kind, order.getId());
+        meterRegistry.counter("app.whatsapp.deliveries", "kind", kind, "outcome", "skipped").increment();
+        return CompletableFuture.completedFuture(
+                new DeliveryResult(order.getId(), kind, null, "WhatsApp not configured"));
+    }
+
+    // Runs on recordExecutor, so the tenant (and with it the shard) is set explicitly
+    private DeliveryResult record(UUID tenantId, DeliveryResult r, Integer httpStatus) {
+        meterRegistry.counter("app.whatsapp.deliveries",
+                "kind", r.kind(), "outcome", r.ok() ? "sent" : "failed").increment();
+        try {
+            TenantContext.run(tenantId, () -> whatsappDeliveryRepository.save(WhatsappDelivery.builder()
+                    .tenantId(tenantId)
+                    .orderId(r.orderId())
+                    .kind(r.kind())
+                    .messageId(r.messageId())
+                    .httpStatus(httpStatus)
+                    .error(truncate(r.error(), 1000))
+                    .build()));
+        } catch (Exception e) {
+            log.warn("Failed to record WhatsApp delivery orderId={} kind={} msg={}",
+                    r.orderId(), r.kind(), e.getMessage());
+        }
+        return r;
+    }
+
+    private String messageId(String body) {
+        try {
+            JsonNode id = objectMapper.readTree(body).path("messages").path(0).path("id");
+            return id.isMissingNode() ? null : id.asText();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Never null: a null error would read as ok()
+    private static String errorOf(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) e = e.getCause();
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private static String truncate(String s, int max) {
+        if (s == null || s.length() <= max) return s;
+        return s.substring(0, max);
     }
 }
@@ -0,0 +1,38 @@
+package com.chatpaykit.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard pinned on the current thread. Wins over the tenant directory, so jobs
+ * that work table-wide (retention, backfills) and the tenant mover can address
+ * one shard explicitly. Pinned work is never refused for a frozen tenant.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> PINNED = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String pinned() {
+        return PINNED.get();
+    }
+
+    public static <T> T call(String shard, Supplier<T> body) {
+        String previous = PINNED.get();
+        PINNED.set(shard);
+        try {
+            return body.get();
+        } finally {
+            if (previous == null) PINNED.remove();
+            else PINNED.set(previous);
+        }
+    }
+
+    public static void run(String shard, Runnable body) {
+        call(shard, () -> {
+            body.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package com.chatpaykit.shard;
+
+import java.util.List;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Hibernate applies spring.jpa.hibernate.ddl-auto to one connection: home.
+ * Once the context is up (before runners and web traffic) this repeats the same
+ * schema action on every other shard, pinned to it.
+ *
+ * It also gives each shard its own id range for sequence-generated keys
+ * (order_events): shard N's sequences start at N << 48, so rows keep their ids
+ * when a tenant moves. Append new shards to app.datasource.shards.urls; never
+ * reorder them.
+ */
+public class ShardSchema implements Integrator, SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardSchema.class);
+
+    private static final int SEQUENCE_SHIFT = 48;
+
+    private final TenantShards tenantShards;
+
+    private volatile Metadata metadata;
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    public ShardSchema(TenantShards tenantShards) {
+        this.tenantShards = tenantShards;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (metadata == null) {
+            throw new IllegalStateException("Hibernate metadata not captured; is the shard schema integrator registered?");
+        }
+        List<String> names = tenantShards.names();
+        for (int i = 1; i < names.size(); i++) {
+            String shard = names.get(i);
+            long floor = (long) i << SEQUENCE_SHIFT;
+            ShardContext.run(shard, () -> SchemaManagementToolCoordinator.process(
+                    metadata, sessionFactory.getServiceRegistry(), sessionFactory.getProperties(), action -> {}));
+            separateSequences(new JdbcTemplate(tenantShards.dataSource(shard)), floor);
+            log.info("Shard schema ready shard={}", shard);
+        }
+    }
+
+    private void separateSequences(JdbcTemplate jdbc, long floor) {
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        for (Namespace ns : metadata.getDatabase().getNamespaces()) {
+            for (Sequence seq : ns.getSequences()) {
+                String name = seq.getName().getSequenceName().render(dialect);
+                Long next = jdbc.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(name), Long.class);
+                if (next != null && next < floor) {
+                    jdbc.execute("ALTER SEQUENCE " + name + " RESTART WITH " + floor);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.chatpaykit.shard;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.chatpaykit.entity.TenantShard.State;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * tenant_shards on the home shard's primary, behind a small cache.
+ *
+ * Looked up on every connection checkout, so a placement is cached for ttl and
+ * a change on another node is seen at most ttl later. The mover relies on that
+ * bound: it waits ttl after freezing and after switching a tenant.
+ */
+public class TenantShardDirectory {
+
+    public record Placement(String shard, State state) {
+        public boolean frozen() {
+            return state == State.FROZEN;
+        }
+    }
+
+    private static final String SELECT_SQL = "SELECT shard, state FROM tenant_shards WHERE tenant_id = ?";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO tenant_shards (tenant_id, shard, state, updated_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String UPDATE_SQL = "UPDATE tenant_shards SET shard = ?, state = ?, updated_at = ? WHERE tenant_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String homeShard;
+    private final Duration ttl;
+    private final LoadingCache<UUID, Placement> cache;
+
+    public TenantShardDirectory(DataSource home, String homeShard, Duration ttl, long maxSize, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(home);
+        this.homeShard = homeShard;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tenant-shards");
+    }
+
+    public Placement placement(UUID tenantId) {
+        return cache.get(tenantId);
+    }
+
+    // Bypasses the cache (the mover's view must be current)
+    public Placement fresh(UUID tenantId) {
+        cache.invalidate(tenantId);
+        return cache.get(tenantId);
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    // New tenants: an existing row is left alone
+    public void assign(UUID tenantId, String shard) {
+        jdbcTemplate.update(INSERT_SQL, tenantId, shard, State.ACTIVE.name(), Timestamp.from(Instant.now()));
+        cache.invalidate(tenantId);
+    }
+
+    public void freeze(UUID tenantId) {
+        set(tenantId, fresh(tenantId).shard(), State.FROZEN);
+    }
+
+    public void activate(UUID tenantId, String shard) {
+        set(tenantId, shard, State.ACTIVE);
+    }
+
+    private void set(UUID tenantId, String shard, State state) {
+        Timestamp now = Timestamp.from(Instant.now());
+        // Tenants on home may have no row yet
+        jdbcTemplate.update(INSERT_SQL, tenantId, homeShard, State.ACTIVE.name(), now);
+        jdbcTemplate.update(UPDATE_SQL, shard, state.name(), now, tenantId);
+        cache.invalidate(tenantId);
+    }
+
+    private Placement load(UUID tenantId) {
+        return jdbcTemplate.query(SELECT_SQL,
+                        (rs, i) -> new Placement(rs.getString(1), State.valueOf(rs.getString(2))), tenantId)
+                .stream()
+                .findFirst()
+                .orElseGet(() -> new Placement(homeShard, State.ACTIVE));
+    }
+}
@@ -0,0 +1,305 @@
+package com.chatpaykit.shard;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.dto.TenantMoveResponse;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.shard.TenantShardDirectory.Placement;
+
+/**
+ * Moves one tenant's rows to another shard while the tenant keeps working.
+ *
+ *   1. copy    every tenant row, batch by batch in key order (tenant live)
+ *   2. freeze  tenant_shards says FROZEN; wait one directory ttl + settleMs so
+ *              every node sees it and in-flight writes finish
+ *   3. catch up re-copy rows changed since step 1 began (minus clockSkewMs);
+ *              small tables are copied whole
+ *   4. switch  tenant_shards points at the new shard, ACTIVE again
+ *   5. clean   after another ttl + settleMs, delete the rows on the old shard
+ *
+ * Only step 3 refuses writes, so the freeze lasts seconds whatever the tenant's
+ * size. A failure before step 4 puts the tenant back where it was; re-running
+ * clears the target's partial copy first. Rows that retention deleted on the
+ * source during step 1 (expired idempotency keys, compacted journal rows) can
+ * survive on the target until its next retention run.
+ *
+ * One move per tenant per node at a time; run moves from one node.
+ */
+@Service
+@ConditionalOnProperty(name = "app.datasource.shards.enabled", havingValue = "true")
+public class TenantShardMover {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantShardMover.class);
+
+    // Everything keyed by tenant_id. Global tables (users, tenants, webhook_events) stay on home
+    private record Table(String name, List<String> key, String changedAt, boolean small) {}
+
+    private static final List<Table> TABLES = List.of(
+            new Table("tenant_settings", List.of("tenant_id"), "updated_at", true),
+            new Table("tenant_order_stats", List.of("tenant_id", "stat_key"), "updated_at", true),
+            new Table("order_rollups", List.of("tenant_id", "granularity", "bucket_start", "status"), "updated_at", true),
+            new Table("customers", List.of("id"), "updated_at", false),
+            new Table("orders", List.of("id"), "updated_at", false),
+            new Table("archived_orders", List.of("id"), "archived_at", false),
+            new Table("order_events", List.of("id"), "occurred_at", false),
+            new Table("whatsapp_deliveries", List.of("id"), "created_at", false),
+            new Table("idempotency_keys", List.of("tenant_id", "idempotency_key"), "created_at", false));
+
+    // Only the archiver deletes from these (see dropArchivedOrders), so both sides must match exactly before the switch
+    private static final Set<String> VERIFIED = Set.of("tenant_settings", "customers", "orders", "archived_orders");
+
+    private record Rows(List<String> columns, List<Object[]> values) {}
+
+    private final TenantShards tenantShards;
+    private final TenantShardDirectory directory;
+    private final Set<UUID> moving = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.datasource.shards.move.batchSize:2000}")
+    private int batchSize;
+
+    @Value("${app.datasource.shards.move.settleMs:2000}")
+    private long settleMs;
+
+    @Value("${app.datasource.shards.move.clockSkewMs:60000}")
+    private long clockSkewMs;
+
+    public TenantShardMover(TenantShards tenantShards, TenantShardDirectory directory) {
+        this.tenantShards = tenantShards;
+        this.directory = directory;
+    }
+
+    public TenantMoveResponse move(UUID tenantId, String to) {
+        if (!tenantShards.names().contains(to)) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Unknown shard: " + to);
+        }
+        if (!moving.add(tenantId)) {
+            throw new ApiException(HttpStatus.CONFLICT, "A move is already running for tenant " + tenantId);
+        }
+        try {
+            // FROZEN here means an earlier move died mid-way; its source is still the authoritative copy
+            Placement from = directory.fresh(tenantId);
+            if (from.shard().equals(to)) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "Tenant " + tenantId + " is already on " + to);
+            }
+            return move(tenantId, from.shard(), to);
+        } finally {
+            moving.remove(tenantId);
+        }
+    }
+
+    private TenantMoveResponse move(UUID tenantId, String from, String to) {
+        long started = System.nanoTime();
+        JdbcTemplate source = new JdbcTemplate(tenantShards.dataSource(from));
+        JdbcTemplate target = new JdbcTemplate(tenantShards.dataSource(to));
+        TransactionTemplate targetTx = tx(tenantShards.dataSource(to));
+        Timestamp since = Timestamp.from(Instant.now().minusMillis(clockSkewMs));
+        log.info("Tenant move started tenantId={} from={} to={}", tenantId, from, to);
+
+        for (Table t : TABLES) delete(target, targetTx, t, tenantId);
+        Map<String, Long> copied = new LinkedHashMap<>();
+        for (Table t : TABLES) copied.put(t.name(), copy(source, target, targetTx, t, tenantId, null));
+        log.info("Tenant move copied tenantId={} rows={}", tenantId, copied);
+
+        directory.freeze(tenantId);
+        long frozenAt = System.nanoTime();
+        Map<String, Long> recopied = new LinkedHashMap<>();
+        boolean switched = false;
+        try {
+            pause(directory.ttl().toMillis() + settleMs);
+            for (Table t : TABLES) {
+                if (t.small()) {
+                    delete(target, targetTx, t, tenantId);
+                    recopied.put(t.name(), copy(source, target, targetTx, t, tenantId, null));
+                } else {
+                    recopied.put(t.name(), copy(source, target, targetTx, t, tenantId, since));
+                }
+            }
+            dropArchivedOrders(target, targetTx, tenantId, since);
+            verify(source, target, tenantId);
+            directory.activate(tenantId, to);
+            switched = true;
+        } finally {
+            if (!switched) {
+                directory.activate(tenantId, from);
+                log.warn("Tenant move aborted tenantId={} from={} to={}; tenant stays on {}", tenantId, from, to, from);
+            }
+        }
+        long frozenMs = Duration.ofNanos(System.nanoTime() - frozenAt).toMillis();
+        log.info("Tenant move switched tenantId={} to={} frozenMs={} recopied={}", tenantId, to, frozenMs, recopied);
+
+        // Nodes still holding the old placement read the old shard until their entry expires
+        pause(directory.ttl().toMillis() + settleMs);
+        Map<String, Long> removed = new LinkedHashMap<>();
+        TransactionTemplate sourceTx = tx(tenantShards.dataSource(from));
+        for (Table t : TABLES) removed.put(t.name(), delete(source, sourceTx, t, tenantId));
+
+        long tookMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        log.info("Tenant move finished tenantId={} from={} to={} tookMs={}", tenantId, from, to, tookMs);
+        return TenantMoveResponse.builder()
+                .tenantId(tenantId)
+                .from(from)
+                .to(to)
+                .copied(copied)
+                .recopied(recopied)
+                .removed(removed)
+                .frozenMs(frozenMs)
+                .tookMs(tookMs)
+                .build();
+    }
+
+    // -------------------------
+    // Copy / delete in key order, one target transaction per batch
+    // -------------------------
+
+    // changedSince null: plain inserts (target is empty for this tenant); otherwise replace by key
+    private long copy(JdbcTemplate source, JdbcTemplate target, TransactionTemplate targetTx,
+                      Table t, UUID tenantId, Timestamp changedSince) {
+        long total = 0;
+        Object[] after = null;
+        while (true) {
+            Rows rows = read(source, t, tenantId, changedSince, after);
+            if (rows.values().isEmpty()) return total;
+
+            int[] keyAt = keyPositions(t, rows.columns());
+            targetTx.executeWithoutResult(s -> {
+                if (changedSince != null) {
+                    target.batchUpdate(deleteByKeySql(t), rows.values().stream().map(v -> keyOf(v, keyAt)).toList());
+                }
+                target.batchUpdate(insertSql(t, rows.columns()), rows.values());
+            });
+            total += rows.values().size();
+            if (rows.values().size() < batchSize) return total;
+            after = keyOf(rows.values().get(rows.values().size() - 1), keyAt);
+        }
+    }
+
+    private long delete(JdbcTemplate db, TransactionTemplate dbTx, Table t, UUID tenantId) {
+        String keys = String.join(", ", t.key());
+        String select = "SELECT " + keys + " FROM " + t.name() + " WHERE tenant_id = ? LIMIT ?";
+        long total = 0;
+        while (true) {
+            List<Object[]> batch = db.query(select, (rs, i) -> {
+                Object[] k = new Object[t.key().size()];
+                for (int c = 0; c < k.length; c++) k[c] = rs.getObject(c + 1);
+                return k;
+            }, tenantId, batchSize);
+            if (batch.isEmpty()) return total;
+            dbTx.executeWithoutResult(s -> db.batchUpdate(deleteByKeySql(t), batch));
+            total += batch.size();
+        }
+    }
+
+    private Rows read(JdbcTemplate db, Table t, UUID tenantId, Timestamp changedSince, Object[] after) {
+        String keys = String.join(", ", t.key());
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(t.name()).append(" WHERE tenant_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(tenantId);
+        if (changedSince != null) {
+            sql.append(" AND ").append(t.changedAt()).append(" >= ?");
+            args.add(changedSince);
+        }
+        if (after != null) {
+            sql.append(" AND (").append(keys).append(") > (").append(placeholders(after.length)).append(")");
+            args.addAll(List.of(after));
+        }
+        sql.append(" ORDER BY ").append(keys).append(" LIMIT ?");
+        args.add(batchSize);
+
+        return db.query(sql.toString(), (ResultSet rs) -> {
+            ResultSetMetaData md = rs.getMetaData();
+            List<String> columns = new ArrayList<>(md.getColumnCount());
+            for (int c = 1; c <= md.getColumnCount(); c++) columns.add(md.getColumnLabel(c).toLowerCase(Locale.ROOT));
+            List<Object[]> values = new ArrayList<>();
+            while (rs.next()) {
+                Object[] row = new Object[columns.size()];
+                for (int c = 0; c < row.length; c++) row[c] = rs.getObject(c + 1);
+                values.add(row);
+            }
+            return new Rows(columns, values);
+        }, args.toArray());
+    }
+
+    // Orders archived on the source since the first copy (OrderArchive) are on the target twice
+    private static void dropArchivedOrders(JdbcTemplate target, TransactionTemplate targetTx, UUID tenantId, Timestamp since) {
+        targetTx.executeWithoutResult(s -> target.update("""
+                DELETE FROM orders
+                 WHERE tenant_id = ?
+                   AND id IN (SELECT id FROM archived_orders WHERE tenant_id = ? AND archived_at >= ?)
+                """, tenantId, tenantId, since));
+    }
+
+    private void verify(JdbcTemplate source, JdbcTemplate target, UUID tenantId) {
+        for (Table t : TABLES) {
+            if (!VERIFIED.contains(t.name())) continue;
+            String sql = "SELECT count(*) FROM " + t.name() + " WHERE tenant_id = ?";
+            Long a = source.queryForObject(sql, Long.class, tenantId);
+            Long b = target.queryForObject(sql, Long.class, tenantId);
+            if (!a.equals(b)) {
+                throw new IllegalStateException("Row count mismatch in " + t.name() + ": source=" + a + " target=" + b);
+            }
+        }
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private static TransactionTemplate tx(DataSource ds) {
+        return new TransactionTemplate(new DataSourceTransactionManager(ds));
+    }
+
+    private static String insertSql(Table t, List<String> columns) {
+        return "INSERT INTO " + t.name() + " (" + String.join(", ", columns) + ") VALUES (" + placeholders(columns.size()) + ")";
+    }
+
+    private static String deleteByKeySql(Table t) {
+        return "DELETE FROM " + t.name() + " WHERE " + String.join(" AND ", t.key().stream().map(k -> k + " = ?").toList());
+    }
+
+    private static int[] keyPositions(Table t, List<String> columns) {
+        return t.key().stream().mapToInt(columns::indexOf).toArray();
+    }
+
+    private static Object[] keyOf(Object[] row, int[] keyAt) {
+        Object[] k = new Object[keyAt.length];
+        for (int i = 0; i < k.length; i++) k[i] = row[keyAt[i]];
+        return k;
+    }
+
+    private static String placeholders(int n) {
+        return String.join(", ", Collections.nCopies(n, "?"));
+    }
+
+    private static void pause(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tenant move interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.chatpaykit.shard;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.chatpaykit.config.ShardRoutingDataSource;
+
+/**
+ * What the rest of the app needs to know about shards. With sharding off there
+ * is exactly one shard and every method degrades to running the work once.
+ *
+ *   forEach    table-wide jobs (retention, backfills): once per shard, pinned
+ *   findFirst  lookups by a key that doesn't name the tenant (webhook ids).
+ *              Plain JDBC per shard: under open-in-view the request's JPA
+ *              session keeps the first connection it touches, so a JPA lookup
+ *              on the wrong shard would pin the rest of the request there
+ *   assignNew  placement for a tenant created at signup
+ *   onOneNode  work only one app node may run at a time (Postgres advisory
+ *              lock on the given shard; on H2 there is only one node)
+ */
+@Component
+public class TenantShards {
+
+    public static final String HOME = "shard-0";
+
+    private final ShardRoutingDataSource routing;
+    private final TenantShardDirectory directory;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate homeJdbcTemplate;
+    private final Map<String, JdbcTemplate> shardJdbcTemplates = new LinkedHashMap<>();
+    private final List<String> newTenantShards;
+
+    public TenantShards(
+            ObjectProvider<ShardRoutingDataSource> routing,
+            ObjectProvider<TenantShardDirectory> directory,
+            JdbcTemplate jdbcTemplate,
+            // Shards that take new tenants; empty = all. Drop a full shard from this list to stop its growth
+            @Value("${app.datasource.shards.newTenants:}") List<String> newTenantShards
+    ) {
+        this.routing = routing.getIfAvailable();
+        this.directory = directory.getIfAvailable();
+        this.jdbcTemplate = jdbcTemplate;
+        if (this.routing == null) {
+            shardJdbcTemplates.put(HOME, jdbcTemplate);
+        } else {
+            this.routing.shards().forEach(s -> shardJdbcTemplates.put(s.name(), new JdbcTemplate(s.dataSource())));
+        }
+        this.homeJdbcTemplate = shardJdbcTemplates.get(HOME);
+        this.newTenantShards = newTenantShards.stream().map(String::trim).filter(s -> !s.isEmpty()).toList();
+        for (String shard : this.newTenantShards) {
+            if (!names().contains(shard)) throw new IllegalStateException("app.datasource.shards.newTenants: unknown shard " + shard);
+        }
+    }
+
+    public boolean enabled() {
+        return routing != null;
+    }
+
+    public List<String> names() {
+        if (routing == null) return List.of(HOME);
+        return routing.shards().stream().map(ShardRoutingDataSource.Shard::name).toList();
+    }
+
+    public DataSource dataSource(String shard) {
+        if (routing == null) return jdbcTemplate.getDataSource();
+        return routing.shard(shard);
+    }
+
+    // Bypasses tenant routing: for work that must happen on home whatever the current tenant
+    public JdbcTemplate home() {
+        return homeJdbcTemplate;
+    }
+
+    public void forEach(Consumer<String> body) {
+        if (routing == null) {
+            body.accept(HOME);
+            return;
+        }
+        for (String shard : names()) {
+            ShardContext.run(shard, () -> body.accept(shard));
+        }
+    }
+
+    public <T> T findFirst(Function<JdbcTemplate, T> lookup) {
+        for (JdbcTemplate jdbc : shardJdbcTemplates.values()) {
+            T found = lookup.apply(jdbc);
+            if (found != null) return found;
+        }
+        return null;
+    }
+
+    // Session-level advisory lock, released in finally (or with the connection if the node dies).
+    // False when another node holds it
+    public boolean onOneNode(String shard, long lockKey, Runnable job) {
+        try (Connection c = dataSource(shard).getConnection()) {
+            if (!"PostgreSQL".equals(c.getMetaData().getDatabaseProductName())) {
+                job.run();
+                return true;
+            }
+            if (!advisoryLock(c, "SELECT pg_try_advisory_lock(?)", lockKey)) return false;
+            try {
+                job.run();
+                return true;
+            } finally {
+                advisoryLock(c, "SELECT pg_advisory_unlock(?)", lockKey);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Advisory lock failed on " + shard + ": " + e.getMessage(), e);
+        }
+    }
+
+    public String shardOf(UUID tenantId) {
+        if (directory == null) return HOME;
+        return directory.placement(tenantId).shard();
+    }
+
+    public void assignNew(UUID tenantId) {
+        if (directory == null) return;
+        List<String> candidates = newTenantShards.isEmpty() ? names() : newTenantShards;
+        directory.assign(tenantId, candidates.get(Math.floorMod(tenantId.hashCode(), candidates.size())));
+    }
+
+    private static boolean advisoryLock(Connection c, String sql, long lockKey) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, lockKey);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.chatpaykit.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs an async call per item with at most {@code maxInFlight} calls outstanding.
+ * No thread is blocked while waiting: the next call is started from the
+ * completion of a previous one. Results keep the order of {@code items};
+ * the first failure fails the returned future.
+ */
+public final class BoundedFanOut<T, R> {
+
+    private final List<T> items;
+    private final Function<T, CompletableFuture<R>> call;
+    private final Object[] results;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final CompletableFuture<List<R>> done = new CompletableFuture<>();
+
+    private BoundedFanOut(List<T> items, Function<T, CompletableFuture<R>> call) {
+        this.items = items;
+        this.call = call;
+        this.results = new Object[items.size()];
+        this.remaining = new AtomicInteger(items.size());
+    }
+
+    public static <T, R> CompletableFuture<List<R>> run(
+            List<T> items,
+            int maxInFlight,
+            Function<T, CompletableFuture<R>> call
+    ) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be >= 1");
+        if (items.isEmpty()) return CompletableFuture.completedFuture(List.of());
+
+        BoundedFanOut<T, R> fanOut = new BoundedFanOut<>(List.copyOf(items), call);
+        for (int k = 0; k < Math.min(maxInFlight, items.size()); k++) {
+            fanOut.pump();
+        }
+        return fanOut.done;
+    }
+
+    // One "slot": keeps starting calls until one is really async, then
+    // continues from that call's completion (fresh stack, no deep recursion).
+    private void pump() {
+        while (!done.isDone()) {
+            int i = next.getAndIncrement();
+            if (i >= items.size()) return;
+
+            CompletableFuture<R> f;
+            try {
+                f = call.apply(items.get(i));
+            } catch (Exception e) {
+                f = CompletableFuture.failedFuture(e);
+            }
+
+            if (!f.isDone()) {
+                f.whenComplete((r, ex) -> {
+                    if (complete(i, r, ex)) pump();
+                });
+                return;
+            }
+
+            try {
+                if (!complete(i, f.join(), null)) return;
+            } catch (CompletionException e) {
+                complete(i, null, e.getCause());
+                return;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean complete(int i, R r, Throwable ex) {
+        if (ex != null) {
+            done.completeExceptionally(ex);
+            return false;
+        }
+        results[i] = r;
+        if (remaining.decrementAndGet() == 0) {
+            done.complete(new ArrayList<>((List<R>) Arrays.asList(results)));
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,83 @@
+package com.chatpaykit.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Striped (count, amount) deltas per key, for counters that are updated on the
+ * request path and written to the DB in batches. {@link #drain()} hands out and
+ * resets what has accumulated; {@link #add} can put it back if the write fails.
+ *
+ * Keys come and go (hour buckets, days), so a key that saw nothing for a whole
+ * drain interval is removed. An add racing that removal sees the cell retired
+ * and moves what is left in it to a fresh cell.
+ */
+public class DeltaAccumulator<K> {
+
+    private static final class Cell {
+        final LongAdder count = new LongAdder();
+        final LongAdder amount = new LongAdder();
+        volatile boolean retired;
+
+        // Called under the map's lock for the key; false if an add got in first
+        boolean retire() {
+            retired = true;
+            if (count.sum() != 0 || amount.sum() != 0) {
+                retired = false;
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private final Map<K, Cell> cells = new ConcurrentHashMap<>();
+
+    public void add(K key, long count, long amount) {
+        Cell c = cells.computeIfAbsent(key, k -> new Cell());
+        c.count.add(count);
+        c.amount.add(amount);
+        while (c.retired) {
+            // Removed by drain() under us: move what it did not see to the live cell
+            long movedCount = c.count.sumThenReset();
+            long movedAmount = c.amount.sumThenReset();
+            c = cells.computeIfAbsent(key, k -> new Cell());
+            c.count.add(movedCount);
+            c.amount.add(movedAmount);
+        }
+    }
+
+    // Unflushed {count, amount} for a key (zeros if none)
+    public long[] peek(K key) {
+        Cell c = cells.get(key);
+        if (c == null) return new long[]{0, 0};
+        return new long[]{c.count.sum(), c.amount.sum()};
+    }
+
+    public Map<K, long[]> drain() {
+        Map<K, long[]> out = new HashMap<>();
+        cells.forEach((key, cell) -> {
+            long c = cell.count.sumThenReset();
+            long a = cell.amount.sumThenReset();
+            if (c != 0 || a != 0) {
+                out.put(key, new long[]{c, a});
+            } else {
+                cells.computeIfPresent(key, (k, current) -> current == cell && cell.retire() ? null : current);
+            }
+        });
+        return out;
+    }
+
+    public void clear() {
+        cells.clear();
+    }
+
+    public boolean isEmpty() {
+        return cells.isEmpty();
+    }
+
+    public int size() {
+        return cells.size();
+    }
+}
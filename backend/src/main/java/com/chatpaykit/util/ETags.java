@@ -0,0 +1,59 @@
+package com.chatpaykit.util;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * ETags for order reads, built from updatedAt so they can be computed from a
+ * version query without loading or serializing the order.
+ *
+ * Weak (W/): the tag names the order's state, not the bytes, and the same
+ * state goes out gzipped or plain (server.compression; Tomcat does not
+ * compress responses with a strong ETag). CustomerBackfill linking a customer
+ * leaves updatedAt alone, so a client may keep the unlinked copy until the
+ * order next changes.
+ *
+ * Timestamps are cut to microseconds, the precision the database keeps, so a
+ * just-saved entity and the row read back give the same tag.
+ */
+public final class ETags {
+
+    private ETags() {}
+
+    public static String order(Instant updatedAt) {
+        return weak(micros(updatedAt));
+    }
+
+    // Row count catches deletes, which don't move max(updatedAt)
+    public static String list(UUID tenantId, long count, Instant lastUpdatedAt) {
+        return weak(Long.toString(tenantId.getMostSignificantBits() ^ tenantId.getLeastSignificantBits(), 36)
+                + "-" + Long.toString(count, 36) + "-" + micros(lastUpdatedAt));
+    }
+
+    /** If-None-Match uses the weak comparison: W/ prefixes are ignored, "*" matches anything. */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) return false;
+        String tag = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*")) return true;
+            if (opaque(c).equals(tag)) return true;
+        }
+        return false;
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String micros(Instant t) {
+        if (t == null) return "0";
+        Instant m = t.truncatedTo(ChronoUnit.MICROS);
+        return Long.toString(m.getEpochSecond() * 1_000_000L + m.getNano() / 1_000, 36);
+    }
+
+    private static String weak(String s) {
+        return "W/\"" + s + "\"";
+    }
+}
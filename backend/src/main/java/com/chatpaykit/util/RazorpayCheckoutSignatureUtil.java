@@ -1,6 +1,7 @@
 package com.chatpaykit.util;
 
 import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
@@ -19,6 +20,14 @@ public final class RazorpayCheckoutSignatureUtil {
         return constantTimeEquals(expected, providedSignature);
     }
 
+    // With a Mac already keyed with keySecret (TenantSecrets); the Mac is used up
+    public static boolean verify(String orderId, String paymentId, String providedSignature, Mac keyedSha256) {
+        if (orderId == null || paymentId == null || providedSignature == null) return false;
+
+        byte[] hash = keyedSha256.doFinal((orderId + "|" + paymentId).getBytes(StandardCharsets.UTF_8));
+        return constantTimeEquals(HexFormat.of().formatHex(hash), providedSignature);
+    }
+
     private static String hmacSha256Hex(String data, String secret) {
         try {
             Mac sha256 = Mac.getInstance("HmacSHA256");
@@ -1,6 +1,8 @@
 package com.chatpaykit.util;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
@@ -12,17 +14,22 @@ public class RazorpaySignatureUtil {
             Mac sha256Hmac = Mac.getInstance("HmacSHA256");
             SecretKeySpec keySpec = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
             sha256Hmac.init(keySpec);
-            byte[] hash = sha256Hmac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-            String computed = bytesToHex(hash);
-            return computed.equals(receivedSignature);
+            return verify(payload, receivedSignature, sha256Hmac);
         } catch (Exception e) {
             return false;
         }
     }
 
-    private static String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) sb.append(String.format("%02x", b));
-        return sb.toString();
+    // With a Mac already keyed with the webhook secret (TenantSecrets); the Mac is used up
+    public static boolean verify(String payload, String receivedSignature, Mac sha256Hmac) {
+        if (payload == null || receivedSignature == null) return false;
+        byte[] received;
+        try {
+            received = HexFormat.of().parseHex(receivedSignature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        byte[] hash = sha256Hmac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return MessageDigest.isEqual(hash, received);
     }
 }
@@ -0,0 +1,114 @@
+package com.chatpaykit.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller runs
+ * the loader, callers arriving while it runs wait and get the same result (or
+ * the same exception). With a resultTtl > 0, a successful result is also reused
+ * for that long after it completes; failures are never kept.
+ *
+ * Results are shared between callers and must be treated as read-only.
+ * Counted in singleflight.calls{name, result=leader|coalesced|cached}.
+ */
+public final class SingleFlight<K, V> {
+
+    private static final int SWEEP_EVERY = 1024;
+
+    private static final class Call<V> {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        volatile long completedAt;
+    }
+
+    private final ConcurrentHashMap<K, Call<V>> calls = new ConcurrentHashMap<>();
+    private final long resultTtlNanos;
+    private final AtomicInteger sinceSweep = new AtomicInteger();
+
+    private final Counter leaders;
+    private final Counter coalesced;
+    private final Counter cached;
+
+    public SingleFlight(String name, Duration resultTtl, MeterRegistry meterRegistry) {
+        this.resultTtlNanos = resultTtl.toNanos();
+        this.leaders = counter(meterRegistry, name, "leader");
+        this.coalesced = counter(meterRegistry, name, "coalesced");
+        this.cached = counter(meterRegistry, name, "cached");
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        while (true) {
+            Call<V> existing = calls.get(key);
+            if (existing != null) {
+                if (!existing.future.isDone()) {
+                    coalesced.increment();
+                    return join(existing.future);
+                }
+                if (isFresh(existing)) {
+                    cached.increment();
+                    return join(existing.future);
+                }
+                calls.remove(key, existing);
+                continue;
+            }
+
+            Call<V> mine = new Call<>();
+            if (calls.putIfAbsent(key, mine) != null) continue;
+
+            leaders.increment();
+            try {
+                V value = loader.get();
+                mine.completedAt = System.nanoTime();
+                mine.future.complete(value);
+                if (resultTtlNanos <= 0) calls.remove(key, mine);
+                else maybeSweep();
+                return value;
+            } catch (RuntimeException | Error e) {
+                calls.remove(key, mine);
+                mine.future.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    // Drops a kept result after the underlying data changed; callers already waiting still get theirs
+    public void forget(K key) {
+        calls.remove(key);
+    }
+
+    private boolean isFresh(Call<V> c) {
+        return resultTtlNanos > 0
+                && !c.future.isCompletedExceptionally()
+                && System.nanoTime() - c.completedAt < resultTtlNanos;
+    }
+
+    private void maybeSweep() {
+        if (sinceSweep.incrementAndGet() < SWEEP_EVERY) return;
+        sinceSweep.set(0);
+        calls.values().removeIf(c -> c.future.isDone() && !isFresh(c));
+    }
+
+    private static <V> V join(CompletableFuture<V> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String name, String result) {
+        return Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("result", result)
+                .register(registry);
+    }
+}
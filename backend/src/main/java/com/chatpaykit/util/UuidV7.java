@@ -0,0 +1,37 @@
+package com.chatpaykit.util;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * RFC 9562 version 7 UUIDs: 48 bits of Unix milliseconds, then 74 random bits.
+ * Ids sort by creation time and the time can be read back from the id, which
+ * is what lets an id lookup name the partition it lives in.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private UuidV7() {}
+
+    public static UUID at(Instant t) {
+        byte[] rand = new byte[10];
+        RANDOM.nextBytes(rand);
+
+        long msb = (t.toEpochMilli() & 0xFFFF_FFFF_FFFFL) << 16
+                | 0x7000L
+                | (rand[0] & 0x0FL) << 8 | (rand[1] & 0xFFL);
+        long lsb = 0x8000_0000_0000_0000L | (rand[2] & 0x3FL) << 56;
+        for (int i = 3; i < 10; i++) {
+            lsb |= (rand[i] & 0xFFL) << (8 * (9 - i));
+        }
+        return new UUID(msb, lsb);
+    }
+
+    /** Millisecond the id was made at, or null for any other UUID version. */
+    public static Instant timestamp(UUID id) {
+        if (id == null || id.version() != 7) return null;
+        return Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16);
+    }
+}
@@ -0,0 +1,20 @@
+package com.chatpaykit.workload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the workload class of a controller or bean (type level) or a single
+ * handler/method. Method level wins over type level. When work is already
+ * running under a class (e.g. a CRITICAL webhook calling an API-annotated
+ * service) the outer class is kept.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Workload {
+    WorkloadClass value();
+}
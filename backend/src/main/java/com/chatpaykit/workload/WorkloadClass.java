@@ -0,0 +1,13 @@
+package com.chatpaykit.workload;
+
+/**
+ * Which DB pool a unit of work draws connections from (bulkheads).
+ */
+public enum WorkloadClass {
+    // Payment confirmation: webhooks, verify, sync
+    CRITICAL,
+    // Dashboard / user APIs (default)
+    API,
+    // Schedulers, rebuilds, retention
+    BACKGROUND
+}
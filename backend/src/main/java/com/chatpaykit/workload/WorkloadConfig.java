@@ -0,0 +1,43 @@
+package com.chatpaykit.workload;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+@Configuration
+public class WorkloadConfig {
+
+    // @Workload on controllers, services and scheduled jobs. Runs before the
+    // transaction interceptor so the connection is taken from the right pool.
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor workloadAdvisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Workload.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(Workload.class));
+
+        MethodInterceptor interceptor = invocation -> {
+            Workload w = AnnotatedElementUtils.findMergedAnnotation(invocation.getMethod(), Workload.class);
+            if (w == null && invocation.getThis() != null) {
+                w = AnnotatedElementUtils.findMergedAnnotation(invocation.getThis().getClass(), Workload.class);
+            }
+            if (w == null || !WorkloadContext.enter(w.value())) return invocation.proceed();
+            try {
+                return invocation.proceed();
+            } finally {
+                WorkloadContext.exit();
+            }
+        };
+
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
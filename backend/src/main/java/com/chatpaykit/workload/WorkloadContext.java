@@ -0,0 +1,28 @@
+package com.chatpaykit.workload;
+
+/**
+ * Workload class of the current thread. Unset means API.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<WorkloadClass> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static WorkloadClass current() {
+        WorkloadClass c = CURRENT.get();
+        return c == null ? WorkloadClass.API : c;
+    }
+
+    // Returns true if this call set the class (and must clear it)
+    public static boolean enter(WorkloadClass workloadClass) {
+        if (CURRENT.get() != null) return false;
+        CURRENT.set(workloadClass);
+        return true;
+    }
+
+    public static void exit() {
+        CURRENT.remove();
+    }
+}
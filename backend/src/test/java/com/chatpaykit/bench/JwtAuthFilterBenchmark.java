@@ -0,0 +1,83 @@
+package com.chatpaykit.bench;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.chatpaykit.security.JwtAuthFilter;
+import com.chatpaykit.security.TokenDenyList;
+import com.chatpaykit.service.JwtService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * What the revocation check adds to every authenticated request.
+ *
+ *   parse       JwtService.parseClaims alone (signature + JSON)
+ *   filter      JwtAuthFilter.doFilter with an empty deny-list
+ *   filter-R    same with R revoked sessions in TokenDenyList
+ *   lookup-R    TokenDenyList.isRevoked alone, R entries
+ *
+ * Single thread, N iterations after a warm-up; reported is the mean ns per
+ * call. The deny-list is filled in memory, no database is involved.
+ *
+ * Run (from backend/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.chatpaykit.bench.JwtAuthFilterBenchmark [iterations] [revoked]
+ */
+public class JwtAuthFilterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int revokedCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        JwtService jwt = new JwtService("bench_secret_key_please_change_1234567890abcd", 15, 60);
+        String token = jwt.generateToken(UUID.randomUUID(), UUID.randomUUID(), "ADMIN");
+
+        TokenDenyList empty = new TokenDenyList(null, new SimpleMeterRegistry(), 5000);
+        TokenDenyList full = new TokenDenyList(null, new SimpleMeterRegistry(), 5000);
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        for (int i = 0; i < revokedCount; i++) full.add(UUID.randomUUID(), expiresAt);
+
+        UUID probe = UUID.randomUUID();
+        System.out.printf("%-16s %10s%n", "case", "ns/call");
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1; // first round warms up
+            report(print, "parse", time(iterations, () -> jwt.parseClaims(token)));
+            report(print, "filter", time(iterations, filterCall(new JwtAuthFilter(jwt, empty), token)));
+            report(print, "filter-" + revokedCount, time(iterations, filterCall(new JwtAuthFilter(jwt, full), token)));
+            report(print, "lookup-" + revokedCount, time(iterations * 10, () -> full.isRevoked(probe)));
+        }
+    }
+
+    private static Runnable filterCall(JwtAuthFilter filter, String token) {
+        return () -> {
+            MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/orders");
+            req.addHeader("Authorization", "Bearer " + token);
+            try {
+                filter.doFilter(req, new MockHttpServletResponse(), new MockFilterChain());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                throw new IllegalStateException("Token refused");
+            }
+            SecurityContextHolder.clearContext();
+        };
+    }
+
+    private static double time(int n, Runnable call) {
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++) call.run();
+        return (System.nanoTime() - t0) / (double) n;
+    }
+
+    private static void report(boolean print, String name, double ns) {
+        if (print) System.out.printf("%-16s %10.0f%n", name, ns);
+    }
+}
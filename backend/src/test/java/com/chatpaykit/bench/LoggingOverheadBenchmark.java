@@ -0,0 +1,163 @@
+package com.chatpaykit.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import org.slf4j.Logger;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import com.chatpaykit.logging.LogSampler;
+import com.chatpaykit.logging.PiiMaskingJsonCustomizer;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+
+/**
+ * Cost of a hot-path INFO line on the request thread, per logging setup:
+ *
+ *   sync-text           Boot's default pattern, written on the caller (dev default)
+ *   sync-json           logstash JSON + PII masking, written on the caller
+ *   async-json          same, handed to an AsyncAppender (application-prod.yml)
+ *   async-json-sampled  same, behind LogSampler at 20 lines/s (app.logging.sample.perSecond)
+ *
+ * T threads each log N "Order created ..." lines to a file; reported are caller
+ * latency percentiles, throughput and how many lines reached the file (async
+ * with neverBlock discards INFO under pressure instead of blocking).
+ *
+ * Run (from backend/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.chatpaykit.bench.LoggingOverheadBenchmark [threads] [linesPerThread]
+ */
+public class LoggingOverheadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        System.out.printf("%-20s %10s %10s %10s %12s %12s%n",
+                "setup", "p50 ns", "p99 ns", "p99.9 ns", "calls/s", "lines kept");
+        for (String setup : new String[]{"sync-text", "sync-json", "async-json", "async-json-sampled"}) {
+            run(setup, threads, Math.min(perThread, 10_000)); // warm up
+            run(setup, threads, perThread).print(setup);
+        }
+    }
+
+    record Result(long[] sortedNs, double callsPerSec, long lines, long calls) {
+        void print(String setup) {
+            int n = sortedNs.length;
+            System.out.printf("%-20s %10d %10d %10d %12.0f %7d/%d%n", setup,
+                    sortedNs[n / 2], sortedNs[(int) (n * 0.99)], sortedNs[(int) (n * 0.999)],
+                    callsPerSec, lines, calls);
+        }
+    }
+
+    private static Result run(String setup, int threads, int perThread) throws Exception {
+        Path file = Files.createTempFile("log-bench", ".log");
+        LoggerContext ctx = new LoggerContext();
+        ctx.setMDCAdapter(new LogbackMDCAdapter());
+        ctx.putObject(Environment.class.getName(), environment());
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(ctx);
+        fileAppender.setFile(file.toString());
+        fileAppender.setEncoder(setup.equals("sync-text") ? textEncoder(ctx) : jsonEncoder(ctx));
+        fileAppender.start();
+
+        Appender<ILoggingEvent> appender = fileAppender;
+        if (setup.startsWith("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(ctx);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(1638);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.setMaxFlushTime(30_000);
+            async.addAppender(fileAppender);
+            async.start();
+            appender = async;
+        }
+
+        ch.qos.logback.classic.Logger root = ctx.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        Logger log = ctx.getLogger("com.chatpaykit.service.OrderService");
+        LogSampler sampler = new LogSampler(setup.endsWith("sampled") ? 20 : 0);
+
+        UUID tenantId = UUID.randomUUID();
+        long[][] latencies = new long[threads][perThread];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long[] lat = latencies[t];
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    UUID id = UUID.randomUUID();
+                    long t0 = System.nanoTime();
+                    sampler.info(log, "order.created", "Order created id={} tenantId={} amountPaise={} whatsapp={}",
+                            id, tenantId, 1000 + i, "****3210");
+                    lat[i] = System.nanoTime() - t0;
+                }
+            });
+            workers[t].start();
+        }
+
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) w.join();
+        double seconds = (System.nanoTime() - t0) / 1e9;
+
+        ctx.stop(); // drains the async queue
+        long lines;
+        try (var stream = Files.lines(file)) {
+            lines = stream.count();
+        }
+        Files.deleteIfExists(file);
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        long calls = (long) threads * perThread;
+        return new Result(all, calls / seconds, lines, calls);
+    }
+
+    private static Encoder<ILoggingEvent> textEncoder(LoggerContext ctx) {
+        PatternLayoutEncoder enc = new PatternLayoutEncoder();
+        enc.setContext(ctx);
+        enc.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%15.15t] %-40.40logger{39} : %m%n");
+        enc.start();
+        return enc;
+    }
+
+    private static Encoder<ILoggingEvent> jsonEncoder(LoggerContext ctx) {
+        StructuredLogEncoder enc = new StructuredLogEncoder();
+        enc.setContext(ctx);
+        enc.setFormat("logstash");
+        enc.start();
+        return enc;
+    }
+
+    private static StandardEnvironment environment() {
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("bench", Map.of(
+                "logging.structured.json.customizer", PiiMaskingJsonCustomizer.class.getName())));
+        return env;
+    }
+}
@@ -0,0 +1,175 @@
+package com.chatpaykit.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.security.PasswordHasher;
+import com.chatpaykit.util.RazorpaySignatureUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A login storm next to webhook traffic, with BCrypt on the request threads
+ * vs on PasswordHasher's pool:
+ *
+ *   inline     BCryptPasswordEncoder.matches on each of C caller threads
+ *              (AuthService before: every Tomcat thread can be in BCrypt)
+ *   offloaded  PasswordHasher.matches (half the cores, queue 64); callers
+ *              that don't fit get 503 at once and retry after 50 ms
+ *
+ * For S seconds, C threads log in back to back while W threads verify
+ * ~1 KB webhook signatures. Reported: successful logins/s, 503s/s, login
+ * latency, and webhook latency and throughput, which is what the storm should
+ * not take away.
+ *
+ * Run (from backend/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.chatpaykit.bench.LoginThroughputBenchmark [callers] [seconds] [cost] [webhookThreads]
+ */
+public class LoginThroughputBenchmark {
+
+    private static final String WEBHOOK_SECRET = "whsec_bench";
+    private static final long BACKOFF_MS = 50;
+
+    public static void main(String[] args) throws Exception {
+        int callers = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int cost = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int webhookThreads = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+        String hash = new BCryptPasswordEncoder(cost).encode("secret123");
+        BCryptPasswordEncoder inline = new BCryptPasswordEncoder(cost);
+        PasswordHasher offloaded = new PasswordHasher(new SimpleMeterRegistry(), cost, 0, 64, 5000);
+
+        System.out.printf("cores=%d callers=%d cost=%d webhookThreads=%d%n",
+                Runtime.getRuntime().availableProcessors(), callers, cost, webhookThreads);
+        System.out.printf("%-10s %10s %8s %10s %10s %12s %12s %12s%n",
+                "setup", "logins/s", "503/s", "login p50", "login p99", "webhook p50", "webhook p99", "webhooks/s");
+        for (String setup : new String[]{"inline", "offloaded"}) {
+            Login login = setup.equals("inline")
+                    ? () -> inline.matches("secret123", hash)
+                    : () -> offloaded.matches("secret123", hash);
+            run(login, callers, Math.min(seconds, 3), webhookThreads); // warm up
+            run(login, callers, seconds, webhookThreads).print(setup, seconds);
+        }
+        System.exit(0);
+    }
+
+    interface Login {
+        boolean attempt();
+    }
+
+    record Result(long[] loginMs, long ok, long busy, long[] webhookUs) {
+        void print(String setup, int seconds) {
+            System.out.printf("%-10s %10.1f %8.1f %8d ms %8d ms %9d us %9d us %12.0f%n", setup,
+                    ok / (double) seconds, busy / (double) seconds,
+                    pct(loginMs, 0.5), pct(loginMs, 0.99),
+                    pct(webhookUs, 0.5), pct(webhookUs, 0.99), webhookUs.length / (double) seconds);
+        }
+
+        private static long pct(long[] sorted, double p) {
+            return sorted.length == 0 ? 0 : sorted[(int) (sorted.length * p)];
+        }
+    }
+
+    private static Result run(Login login, int callers, int seconds, int webhookThreads) throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder ok = new LongAdder();
+        LongAdder busy = new LongAdder();
+        long[][] loginMs = new long[callers][];
+        long[][] webhookUs = new long[webhookThreads][];
+        CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] threads = new Thread[callers + webhookThreads];
+        for (int t = 0; t < callers; t++) {
+            int slot = t;
+            threads[t] = new Thread(() -> {
+                long[] lat = new long[1024];
+                int n = 0;
+                await(start);
+                while (!stop.get()) {
+                    long t0 = System.nanoTime();
+                    try {
+                        if (login.attempt()) ok.increment();
+                    } catch (ApiException e) {
+                        // A client that got 503 backs off before retrying
+                        busy.increment();
+                        pause(BACKOFF_MS);
+                        continue;
+                    }
+                    if (n == lat.length) lat = Arrays.copyOf(lat, n * 2);
+                    lat[n++] = (System.nanoTime() - t0) / 1_000_000;
+                }
+                loginMs[slot] = Arrays.copyOf(lat, n);
+            });
+        }
+
+        String payload = "{\"event\":\"payment.captured\",\"notes\":\"" + "x".repeat(950) + "\"}";
+        String signature = hmac(payload);
+        for (int t = 0; t < webhookThreads; t++) {
+            int slot = t;
+            threads[callers + t] = new Thread(() -> {
+                long[] lat = new long[1 << 16];
+                int n = 0;
+                await(start);
+                while (!stop.get()) {
+                    long t0 = System.nanoTime();
+                    if (!RazorpaySignatureUtil.verify(payload, signature, WEBHOOK_SECRET)) {
+                        throw new IllegalStateException("Webhook signature rejected");
+                    }
+                    if (n == lat.length) lat = Arrays.copyOf(lat, n * 2);
+                    lat[n++] = (System.nanoTime() - t0) / 1_000;
+                }
+                webhookUs[slot] = Arrays.copyOf(lat, n);
+            });
+        }
+
+        for (Thread t : threads) t.start();
+        start.countDown();
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        for (Thread t : threads) t.join();
+
+        return new Result(
+                Arrays.stream(loginMs).flatMapToLong(Arrays::stream).sorted().toArray(),
+                ok.sum(), busy.sum(),
+                Arrays.stream(webhookUs).flatMapToLong(Arrays::stream).sorted().toArray());
+    }
+
+    private static void pause(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String hmac(String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(WEBHOOK_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.chatpaykit.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.service.OrderArchive;
+
+/**
+ * Cold archive: how fast settled orders move, and what it does to orders.
+ *
+ * Loads N synthetic orders over D days into a file-backed H2 database in
+ * PostgreSQL mode, then runs OrderArchive's batch loop by hand (lock a batch
+ * of EXPIRED/REFUNDED older than 180 days and PAID older than 365, insert the
+ * compressed payloads into archived_orders, delete the originals, commit) and
+ * reports rows/s, the size of orders before and after, the size of the
+ * archive, and by-id read latency from orders vs from the archive (PK read +
+ * inflate + JSON).
+ *
+ * Run (from backend/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -Xmx1g -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.chatpaykit.bench.OrderArchiveBenchmark [orders] [days] [batchSize]
+ */
+public class OrderArchiveBenchmark {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static final String SELECT_BATCH = """
+            SELECT id, tenant_id, customer_name, customer_whatsapp, amount_paise, currency, description, status,
+                   razorpay_order_id, razorpay_payment_id, attempt_count, created_at, updated_at, paid_at
+              FROM orders
+             WHERE status IN (%s) AND created_at < ? AND updated_at < ?
+             LIMIT ?
+               FOR UPDATE
+            """;
+
+    public static void main(String[] args) throws Exception {
+        long orders = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 730;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        Path dir = Files.createTempDirectory("archive-bench");
+        String url = "jdbc:h2:file:" + dir.resolve("bench") + ";MODE=PostgreSQL;DB_CLOSE_ON_EXIT=FALSE";
+
+        try (Connection c = DriverManager.getConnection(url, "sa", "")) {
+            load(c, orders, days);
+            long ordersBefore = size(c, "ORDERS");
+
+            c.setAutoCommit(false);
+            long t0 = System.nanoTime();
+            long[] totals = new long[3]; // rows, json bytes, stored bytes
+            archive(c, "'EXPIRED', 'REFUNDED'", NOW.minus(180, ChronoUnit.DAYS), batchSize, totals);
+            archive(c, "'PAID'", NOW.minus(365, ChronoUnit.DAYS), batchSize, totals);
+            double secs = (System.nanoTime() - t0) / 1e9;
+            c.setAutoCommit(true);
+
+            try (Statement st = c.createStatement()) {
+                st.execute("CHECKPOINT SYNC");
+            }
+            long ordersAfter = size(c, "ORDERS");
+            long archive = size(c, "ARCHIVED_ORDERS");
+            System.out.printf("archived %,d orders in %.1f s: %,.0f rows/s (batch %d)%n",
+                    totals[0], secs, totals[0] / secs, batchSize);
+            System.out.printf("payload: json %,d bytes -> stored %,d bytes (%.1fx)%n",
+                    totals[1], totals[2], totals[1] / (double) Math.max(1, totals[2]));
+            System.out.printf("orders table: %,d KB -> %,d KB (%d rows left)%n",
+                    ordersBefore / 1024, ordersAfter / 1024, count(c, "orders"));
+            System.out.printf("archived_orders table: %,d KB%n", archive / 1024);
+
+            List<UUID> live = sampleIds(c, "orders", 1000);
+            List<UUID> cold = sampleIds(c, "archived_orders", 1000);
+            read("live by id", c, "SELECT status, amount_paise FROM orders WHERE id = ?", live, false);
+            read("archive by id", c, "SELECT payload FROM archived_orders WHERE id = ?", cold, true);
+        } finally {
+            try (var files = Files.walk(dir)) {
+                files.sorted((x, y) -> y.compareTo(x)).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static void load(Connection c, long orders, int days) throws Exception {
+        try (Statement st = c.createStatement()) {
+            st.execute("""
+                    CREATE TABLE orders (
+                        id UUID PRIMARY KEY,
+                        tenant_id UUID NOT NULL,
+                        customer_id UUID,
+                        customer_name VARCHAR(120) NOT NULL,
+                        customer_whatsapp VARCHAR(20) NOT NULL,
+                        amount_paise BIGINT NOT NULL,
+                        currency VARCHAR(3) NOT NULL,
+                        description VARCHAR(255),
+                        status VARCHAR(20) NOT NULL,
+                        razorpay_order_id VARCHAR(64),
+                        razorpay_payment_id VARCHAR(64),
+                        attempt_count INT NOT NULL,
+                        created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                        updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                        paid_at TIMESTAMP WITH TIME ZONE
+                    )""");
+            st.execute("""
+                    CREATE TABLE archived_orders (
+                        id UUID PRIMARY KEY,
+                        tenant_id UUID NOT NULL,
+                        customer_id UUID,
+                        status VARCHAR(20) NOT NULL,
+                        amount_paise BIGINT NOT NULL,
+                        created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                        updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                        archived_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                        payload VARBINARY(65535) NOT NULL
+                    )""");
+        }
+
+        long t0 = System.nanoTime();
+        try (Statement st = c.createStatement()) {
+            // Same status mix as OrderRollupBenchmark; updated_at a few minutes after created_at
+            st.execute("""
+                    INSERT INTO orders
+                    SELECT RANDOM_UUID(), CAST('00000000-0000-0000-0000-0000000000' || LPAD(MOD(r.X, 20), 2, '0') AS UUID),
+                           NULL, 'Customer ' || MOD(r.X, 5000), '9198' || LPAD(MOD(r.X * 7, 100000000), 8, '0'),
+                           100 + MOD(r.X * 31, 500000), 'INR', 'Order #' || r.X,
+                           CASE WHEN MOD(r.X * 7919, 100) < 55 THEN 'PAID'
+                                WHEN MOD(r.X * 7919, 100) < 65 THEN 'PAYMENT_SENT'
+                                WHEN MOD(r.X * 7919, 100) < 75 THEN 'CREATED'
+                                WHEN MOD(r.X * 7919, 100) < 85 THEN 'FAILED'
+                                WHEN MOD(r.X * 7919, 100) < 92 THEN 'EXPIRED'
+                                WHEN MOD(r.X * 7919, 100) < 94 THEN 'REFUND_PENDING'
+                                ELSE 'REFUNDED' END,
+                           'order_' || LPAD(r.X, 14, '0'), 'pay_' || LPAD(r.X, 14, '0'), 1,
+                           DATEADD('SECOND', -MOD(r.X * 104729, %d), TIMESTAMP WITH TIME ZONE '2026-01-01 00:00:00Z'),
+                           DATEADD('SECOND', 300 - MOD(r.X * 104729, %d), TIMESTAMP WITH TIME ZONE '2026-01-01 00:00:00Z'),
+                           NULL
+                      FROM SYSTEM_RANGE(1, %d) r
+                    """.formatted(days * 86_400L, days * 86_400L, orders));
+            st.execute("CREATE INDEX idx_orders_status_created ON orders (status, created_at)");
+            st.execute("CHECKPOINT SYNC");
+        }
+        System.out.printf("loaded %,d orders (%d days): %.1f s%n", orders, days, (System.nanoTime() - t0) / 1e9);
+    }
+
+    // One transaction per batch, as OrderArchive does it
+    private static void archive(Connection c, String statuses, Instant before, int batchSize, long[] totals) throws Exception {
+        String select = SELECT_BATCH.formatted(statuses);
+        Timestamp cutoff = Timestamp.from(before);
+        try (PreparedStatement ins = c.prepareStatement("INSERT INTO archived_orders VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement del = c.prepareStatement("DELETE FROM orders WHERE id = ? AND created_at < ?")) {
+            while (true) {
+                int n = 0;
+                Timestamp archivedAt = Timestamp.from(Instant.now());
+                // Prepared per batch: H2 can hand a re-executed statement its cached result
+                try (PreparedStatement sel = c.prepareStatement(select)) {
+                    sel.setTimestamp(1, cutoff);
+                    sel.setTimestamp(2, cutoff);
+                    sel.setInt(3, batchSize);
+                    ResultSet rs = sel.executeQuery();
+                    while (rs.next()) {
+                        Order o = order(rs);
+                        byte[] json = OrderArchive.json(o);
+                        byte[] payload = OrderArchive.compress(json);
+                        totals[1] += json.length;
+                        totals[2] += payload.length;
+
+                        ins.setObject(1, o.getId());
+                        ins.setObject(2, o.getTenantId());
+                        ins.setObject(3, o.getCustomerId());
+                        ins.setString(4, o.getStatus().name());
+                        ins.setLong(5, o.getAmountPaise());
+                        ins.setTimestamp(6, Timestamp.from(o.getCreatedAt()));
+                        ins.setTimestamp(7, Timestamp.from(o.getUpdatedAt()));
+                        ins.setTimestamp(8, archivedAt);
+                        ins.setBytes(9, payload);
+                        ins.addBatch();
+                        del.setObject(1, o.getId());
+                        del.setTimestamp(2, cutoff);
+                        del.addBatch();
+                        n++;
+                    }
+                }
+                ins.executeBatch();
+                del.executeBatch();
+                c.commit();
+                totals[0] += n;
+                if (n < batchSize) return;
+            }
+        }
+    }
+
+    private static Order order(ResultSet rs) throws Exception {
+        return Order.builder()
+                .id(rs.getObject(1, UUID.class))
+                .tenantId(rs.getObject(2, UUID.class))
+                .customerName(rs.getString(3))
+                .customerWhatsapp(rs.getString(4))
+                .amountPaise(rs.getLong(5))
+                .currency(rs.getString(6))
+                .description(rs.getString(7))
+                .status(OrderStatus.valueOf(rs.getString(8)))
+                .razorpayOrderId(rs.getString(9))
+                .razorpayPaymentId(rs.getString(10))
+                .attemptCount(rs.getInt(11))
+                .createdAt(rs.getObject(12, OffsetDateTime.class).toInstant())
+                .updatedAt(rs.getObject(13, OffsetDateTime.class).toInstant())
+                .build();
+    }
+
+    private static void read(String name, Connection c, String sql, List<UUID> ids, boolean decode) throws Exception {
+        long[] ns = new long[ids.size()];
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                long t0 = System.nanoTime();
+                ps.setObject(1, ids.get(i));
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) throw new IllegalStateException("Missing " + ids.get(i));
+                    if (decode) OrderArchive.decode(rs.getBytes(1));
+                }
+                ns[i] = System.nanoTime() - t0;
+            }
+        }
+        Arrays.sort(ns);
+        System.out.printf("%-14s p50 %7.3f ms   p99 %7.3f ms%n", name,
+                ns[ns.length / 2] / 1e6, ns[(int) (ns.length * 0.99)] / 1e6);
+    }
+
+    private static List<UUID> sampleIds(Connection c, String table, int n) throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id FROM " + table + " ORDER BY RAND() LIMIT " + n)) {
+            while (rs.next()) ids.add(rs.getObject(1, UUID.class));
+        }
+        return ids;
+    }
+
+    private static long size(Connection c, String table) throws Exception {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT DISK_SPACE_USED('" + table + "')")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static long count(Connection c, String table) throws Exception {
+        try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery("SELECT count(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.chatpaykit.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Revenue chart query: raw aggregation over orders vs reading order_rollups.
+ *
+ * Loads N synthetic orders (spread over T tenants and D days) into a file-backed
+ * H2 database in PostgreSQL mode, builds DAY rollups with one GROUP BY (what
+ * POST /api/analytics/rebuild produces), then runs the same "last 180 days per
+ * day and status" question both ways for random tenants. The raw query is given
+ * a (tenant_id, created_at) index, which the real orders table does not have.
+ *
+ * Run (from backend/; 10M rows need ~2 GB of disk and a few minutes to load):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -Xmx2g -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.chatpaykit.bench.OrderRollupBenchmark [orders] [tenants] [days] [queries]
+ */
+public class OrderRollupBenchmark {
+
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    public static void main(String[] args) throws Exception {
+        long orders = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int tenants = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : 730;
+        int queries = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+
+        Path dir = Files.createTempDirectory("rollup-bench");
+        String url = "jdbc:h2:file:" + dir.resolve("bench") + ";MODE=PostgreSQL;DB_CLOSE_ON_EXIT=FALSE";
+
+        try (Connection c = DriverManager.getConnection(url, "sa", "")) {
+            List<UUID> tenantIds = load(c, orders, tenants, days);
+
+            long t0 = System.nanoTime();
+            try (Statement st = c.createStatement()) {
+                st.execute("""
+                        INSERT INTO order_rollups (tenant_id, granularity, bucket_start, status, order_count, amount_paise)
+                        SELECT tenant_id, 'DAY', DATE_TRUNC('DAY', created_at), status, COUNT(*), SUM(amount_paise)
+                          FROM orders
+                         GROUP BY tenant_id, DATE_TRUNC('DAY', created_at), status
+                        """);
+            }
+            System.out.printf("rollup build: %.1f s%n", (System.nanoTime() - t0) / 1e9);
+
+            Instant to = EPOCH.plus(days, ChronoUnit.DAYS);
+            Instant from = to.minus(180, ChronoUnit.DAYS);
+
+            String raw = """
+                    SELECT DATE_TRUNC('DAY', created_at) AS bucket, status, COUNT(*), SUM(amount_paise)
+                      FROM orders
+                     WHERE tenant_id = ? AND created_at >= ? AND created_at < ?
+                     GROUP BY DATE_TRUNC('DAY', created_at), status
+                    """;
+            String rollup = """
+                    SELECT bucket_start, status, order_count, amount_paise
+                      FROM order_rollups
+                     WHERE tenant_id = ? AND granularity = 'DAY' AND bucket_start >= ? AND bucket_start < ?
+                     ORDER BY bucket_start
+                    """;
+
+            // Warm up both paths, and check they agree
+            long[] a = run(c, raw, tenantIds.get(0), from, to);
+            long[] b = run(c, rollup, tenantIds.get(0), from, to);
+            if (!Arrays.equals(a, b)) {
+                throw new IllegalStateException("Mismatch raw=" + Arrays.toString(a) + " rollup=" + Arrays.toString(b));
+            }
+
+            report("raw aggregation", c, raw, tenantIds, from, to, queries);
+            report("rollups", c, rollup, tenantIds, from, to, queries);
+        } finally {
+            try (var files = Files.walk(dir)) {
+                files.sorted((x, y) -> y.compareTo(x)).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static List<UUID> load(Connection c, long orders, int tenants, int days) throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        try (Statement st = c.createStatement()) {
+            st.execute("CREATE TABLE tenants_bench (no INT PRIMARY KEY, id UUID NOT NULL)");
+            st.execute("""
+                    CREATE TABLE orders (
+                        id BIGINT PRIMARY KEY,
+                        tenant_id UUID NOT NULL,
+                        status VARCHAR(20) NOT NULL,
+                        amount_paise BIGINT NOT NULL,
+                        created_at TIMESTAMP WITH TIME ZONE NOT NULL
+                    )""");
+            st.execute("""
+                    CREATE TABLE order_rollups (
+                        tenant_id UUID NOT NULL,
+                        granularity VARCHAR(8) NOT NULL,
+                        bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+                        status VARCHAR(20) NOT NULL,
+                        order_count BIGINT NOT NULL,
+                        amount_paise BIGINT NOT NULL,
+                        PRIMARY KEY (tenant_id, granularity, bucket_start, status)
+                    )""");
+        }
+        try (PreparedStatement ps = c.prepareStatement("INSERT INTO tenants_bench VALUES (?, ?)")) {
+            for (int i = 0; i < tenants; i++) {
+                UUID id = UUID.randomUUID();
+                ids.add(id);
+                ps.setInt(1, i);
+                ps.setObject(2, id);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        long t0 = System.nanoTime();
+        try (Statement st = c.createStatement()) {
+            // Status mix: mostly paid, some abandoned/failed, a few refunds
+            st.execute("""
+                    INSERT INTO orders
+                    SELECT r.X, t.id,
+                           CASE WHEN MOD(r.X * 7919, 100) < 55 THEN 'PAID'
+                                WHEN MOD(r.X * 7919, 100) < 65 THEN 'PAYMENT_SENT'
+                                WHEN MOD(r.X * 7919, 100) < 75 THEN 'CREATED'
+                                WHEN MOD(r.X * 7919, 100) < 85 THEN 'FAILED'
+                                WHEN MOD(r.X * 7919, 100) < 92 THEN 'EXPIRED'
+                                WHEN MOD(r.X * 7919, 100) < 94 THEN 'REFUND_PENDING'
+                                ELSE 'REFUNDED' END,
+                           100 + MOD(r.X * 31, 500000),
+                           DATEADD('SECOND', MOD(r.X * 104729, %d), TIMESTAMP WITH TIME ZONE '2024-01-01 00:00:00Z')
+                      FROM SYSTEM_RANGE(1, %d) r
+                      JOIN tenants_bench t ON t.no = MOD(r.X, %d)
+                    """.formatted(days * 86_400L, orders, tenants));
+            st.execute("CREATE INDEX idx_orders_tenant_created ON orders (tenant_id, created_at)");
+        }
+        System.out.printf("loaded %,d orders (%d tenants, %d days): %.1f s%n",
+                orders, tenants, days, (System.nanoTime() - t0) / 1e9);
+        return ids;
+    }
+
+    private static void report(String name, Connection c, String sql, List<UUID> tenantIds,
+                               Instant from, Instant to, int queries) throws Exception {
+        Random rnd = new Random(42);
+        long[] ns = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            UUID tenant = tenantIds.get(rnd.nextInt(tenantIds.size()));
+            long t0 = System.nanoTime();
+            run(c, sql, tenant, from, to);
+            ns[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(ns);
+        System.out.printf("%-16s p50 %8.2f ms   p99 %8.2f ms   max %8.2f ms%n", name,
+                ns[queries / 2] / 1e6, ns[Math.min(queries - 1, (int) (queries * 0.99))] / 1e6, ns[queries - 1] / 1e6);
+    }
+
+    // Returns {rows, orders, amount} so both paths can be compared
+    private static long[] run(Connection c, String sql, UUID tenant, Instant from, Instant to) throws Exception {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setObject(1, tenant);
+            ps.setObject(2, from.atOffset(ZoneOffset.UTC));
+            ps.setObject(3, to.atOffset(ZoneOffset.UTC));
+            long rows = 0, count = 0, amount = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                    count += rs.getLong(3);
+                    amount += rs.getLong(4);
+                }
+            }
+            return new long[]{rows, count, amount};
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.chatpaykit.bench;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.chatpaykit.ChatpaykitBackendApplication;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.service.OrderSearchService;
+import com.chatpaykit.workload.WorkloadClass;
+import com.chatpaykit.workload.WorkloadContext;
+
+/**
+ * GET /api/orders/search against a large orders table, per query kind, next to
+ * what the dashboard did before: load the tenant's whole list and filter it.
+ *
+ * Orders are spread evenly over the tenants, with generated names, Indian
+ * numbers and Razorpay ids. A file database is reused when it already has the
+ * requested row count, so the load runs once.
+ *
+ * Run (from backend/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -Xmx6g -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.chatpaykit.bench.OrderSearchBenchmark [orders=5000000] [tenants=1000] [queries=2000] \
+ *        [url=jdbc:postgresql://localhost:5432/chatpaykit user=... password=...]
+ */
+public class OrderSearchBenchmark {
+
+    private static final String[] FIRST = {"Asha", "Rahul", "Priya", "Amit", "Neha", "Vikram", "Sneha", "Arjun",
+            "Kavya", "Rohan", "Ananya", "Karan", "Isha", "Aditya", "Meera", "Sanjay", "Pooja", "Nikhil", "Divya", "Varun"};
+    private static final String[] LAST = {"Sharma", "Verma", "Patel", "Mehta", "Iyer", "Reddy", "Nair", "Gupta",
+            "Singh", "Kapoor", "Joshi", "Rao", "Das", "Menon", "Bose", "Kulkarni", "Chopra", "Malhotra", "Pillai", "Saxena"};
+
+    public static void main(String[] args) {
+        var opt = new java.util.HashMap<String, String>();
+        for (String a : args) opt.put(a.substring(0, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+        int orders = Integer.parseInt(opt.getOrDefault("orders", "5000000"));
+        int tenants = Integer.parseInt(opt.getOrDefault("tenants", "1000"));
+        int queries = Integer.parseInt(opt.getOrDefault("queries", "2000"));
+        String url = opt.getOrDefault("url", "jdbc:h2:file:./target/search-bench-" + orders + ";MODE=PostgreSQL");
+
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(ChatpaykitBackendApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + opt.getOrDefault("user", "sa"),
+                        "--spring.datasource.password=" + opt.getOrDefault("password", ""),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN")) {
+
+            JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+            UUID[] tenantIds = new UUID[tenants];
+            Random seeded = new Random(42);
+            for (int t = 0; t < tenants; t++) tenantIds[t] = new UUID(seeded.nextLong(), seeded.nextLong());
+
+            Long existing = jdbc.queryForObject("SELECT count(*) FROM orders", Long.class);
+            if (existing == null || existing != orders) {
+                jdbc.update("DELETE FROM orders");
+                load(jdbc, tenantIds, orders);
+                if (url.startsWith("jdbc:postgresql:")) jdbc.execute("ANALYZE orders");
+            }
+            System.out.printf("%,d orders, %,d tenants (%,d per tenant), %s%n%n", orders, tenants, orders / tenants, url);
+
+            OrderSearchService search = ctx.getBean(OrderSearchService.class);
+            OrderRepository repo = ctx.getBean(OrderRepository.class);
+            WorkloadContext.enter(WorkloadClass.API);
+
+            System.out.printf("%-24s %10s %10s %10s %12s%n", "query", "p50 ms", "p99 ms", "max ms", "avg hits");
+            Random r = new Random(7);
+            run("razorpay order id", queries, i -> {
+                int n = r.nextInt(orders);
+                return search.search(tenantIds[n % tenants], "order_" + id(n), 0, 20).getItems().size();
+            });
+            run("razorpay payment id", queries, i -> {
+                int n = r.nextInt(orders);
+                return search.search(tenantIds[n % tenants], "pay_" + id(n), 0, 20).getItems().size();
+            });
+            run("whatsapp last 4", queries, i -> {
+                int n = r.nextInt(orders);
+                return search.search(tenantIds[n % tenants], phone(n).substring(8), 0, 20).getItems().size();
+            });
+            run("whatsapp last 10", queries, i -> {
+                int n = r.nextInt(orders);
+                return search.search(tenantIds[n % tenants], phone(n).substring(2), 0, 20).getItems().size();
+            });
+            run("name fragment", queries, i -> {
+                int n = r.nextInt(orders);
+                String last = LAST[n % LAST.length].toLowerCase(Locale.ROOT);
+                return search.search(tenantIds[n % tenants], last.substring(0, Math.min(4, last.length())), 0, 20).getItems().size();
+            });
+            run("full name, rare", queries, i -> {
+                int n = r.nextInt(orders);
+                return search.search(tenantIds[n % tenants], name(n), 0, 20).getItems().size();
+            });
+            // Before: GET /api/orders and filter in the browser
+            run("list + filter (before)", Math.max(20, queries / 50), i -> {
+                int n = r.nextInt(orders);
+                String suffix = phone(n).substring(8);
+                return (int) repo.findByTenantIdOrderByCreatedAtDesc(tenantIds[n % tenants]).stream()
+                        .filter(o -> o.getCustomerWhatsapp().endsWith(suffix)).limit(20).count();
+            });
+        }
+    }
+
+    private static void run(String label, int n, IntFunction<Integer> query) {
+        for (int i = 0; i < Math.min(200, n); i++) query.apply(i);
+
+        long[] ns = new long[n];
+        long hits = 0;
+        for (int i = 0; i < n; i++) {
+            long t0 = System.nanoTime();
+            hits += query.apply(i);
+            ns[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(ns);
+        System.out.printf("%-24s %10.2f %10.2f %10.2f %12.1f%n", label,
+                ns[n / 2] / 1e6, ns[(int) (n * 0.99)] / 1e6, ns[n - 1] / 1e6, (double) hits / n);
+    }
+
+    // -------------------------
+    // Data (deterministic per row number, so queries can target real rows)
+    // -------------------------
+    private static void load(JdbcTemplate jdbc, UUID[] tenantIds, int orders) {
+        String sql = """
+                INSERT INTO orders (id, tenant_id, customer_name, customer_whatsapp, customer_whatsapp_rev,
+                    amount_paise, currency, status, razorpay_order_id, razorpay_payment_id, razorpay_refund_id,
+                    attempt_count, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, 'INR', ?, ?, ?, ?, 0, ?, ?)
+                """;
+        long start = System.nanoTime();
+        Instant base = Instant.now().minusSeconds(orders);
+        int batchSize = 5000;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int n = 0; n < orders; n++) {
+            String phone = phone(n);
+            boolean refunded = n % 20 == 0;
+            Timestamp at = Timestamp.from(base.plusSeconds(n));
+            batch.add(new Object[]{UUID.randomUUID(), tenantIds[n % tenantIds.length], name(n), phone, Order.reverse(phone),
+                    100 + (n % 100_000), refunded ? "REFUNDED" : "PAID", "order_" + id(n), "pay_" + id(n),
+                    refunded ? "rfnd_" + id(n) : null, at, at});
+            if (batch.size() == batchSize) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+                if ((n + 1) % 500_000 == 0) {
+                    System.out.printf("  loaded %,d (%.0f s)%n", n + 1, (System.nanoTime() - start) / 1e9);
+                }
+            }
+        }
+        if (!batch.isEmpty()) jdbc.batchUpdate(sql, batch);
+        System.out.printf("Loaded %,d orders in %.0f s%n", orders, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static String name(int n) {
+        Random r = new Random(n * 31L + 1);
+        return FIRST[r.nextInt(FIRST.length)] + " " + LAST[n % LAST.length] + " " + (char) ('A' + r.nextInt(26));
+    }
+
+    private static String phone(int n) {
+        Random r = new Random(n * 17L + 3);
+        return "91" + (6 + r.nextInt(4)) + String.format("%09d", r.nextInt(1_000_000_000));
+    }
+
+    private static String id(int n) {
+        return Long.toString(0x1000_0000_0000L + n * 7919L, 36);
+    }
+}
@@ -0,0 +1,128 @@
+package com.chatpaykit.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.ChatpaykitBackendApplication;
+import com.chatpaykit.dto.OrderStatusResponse;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.service.OrderReadCache;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * The /status cache-miss read, with the read cache disabled:
+ *
+ *   entity (before)   OrderReadCache.get: findById + OrderResponse/OrderStatusResponse.from
+ *   jpql projection   select new OrderStatusResponse(...) through Hibernate
+ *   sql projection    OrderReadCache.status: the status columns via JdbcTemplate
+ *
+ * Orders carry a 500-char description and a 1000-char lastError so the
+ * entity is as wide as a real failed-and-retried one. Each read runs in its
+ * own read-only transaction, like OrderReadCache. Reported per read: latency
+ * percentiles and bytes allocated on the calling thread.
+ *
+ * Run (from backend/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.chatpaykit.bench.OrderStatusProjectionBenchmark [orders=20000] [reads=200000]
+ */
+public class OrderStatusProjectionBenchmark {
+
+    // For comparison only: same columns through a JPQL constructor expression
+    private static final String JPQL = """
+            select new com.chatpaykit.dto.OrderStatusResponse(
+                   o.id, o.status, o.razorpayOrderId, o.razorpayPaymentId, o.razorpayRefundId,
+                   o.createdAt, o.updatedAt, o.verifiedAt, o.paidAt, o.failedAt, o.refundedAt,
+                   o.attemptCount, o.lastError)
+              from Order o
+             where o.id = :id and o.tenantId = :tenantId
+            """;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        var opt = new java.util.HashMap<String, String>();
+        for (String a : args) opt.put(a.substring(0, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+        int orders = Integer.parseInt(opt.getOrDefault("orders", "20000"));
+        int reads = Integer.parseInt(opt.getOrDefault("reads", "200000"));
+
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(ChatpaykitBackendApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:statusbench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--app.customers.backfill.enabled=false",
+                        "--app.cache.orders.enabled=false", // every read is a miss
+                        "--logging.level.root=WARN")) {
+
+            OrderRepository repo = ctx.getBean(OrderRepository.class);
+            OrderReadCache cache = ctx.getBean(OrderReadCache.class);
+            EntityManager em = ctx.getBean(EntityManager.class);
+            TransactionTemplate readTx = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class));
+            readTx.setReadOnly(true);
+
+            UUID tenantId = UUID.randomUUID();
+            UUID[] ids = new UUID[orders];
+            String description = "x".repeat(500);
+            String lastError = "Razorpay 502 Bad Gateway ".repeat(40);
+            for (int i = 0; i < orders; i++) {
+                ids[i] = repo.save(Order.builder()
+                        .tenantId(tenantId)
+                        .customerName("Customer " + i)
+                        .customerWhatsapp("9198" + String.format("%08d", i))
+                        .amountPaise(1000L + i)
+                        .currency("INR")
+                        .description(description)
+                        .lastError(lastError)
+                        .status(OrderStatus.PAYMENT_SENT)
+                        .razorpayOrderId("order_" + i)
+                        .attemptCount(2)
+                        .build()).getId();
+            }
+            System.out.printf("%,d orders, %,d reads each%n%n", orders, reads);
+            System.out.printf("%-20s %10s %10s %10s %14s%n", "read", "p50 us", "p99 us", "ops/s", "alloc B/op");
+
+            Random r = new Random(1);
+            Supplier<UUID> next = () -> ids[r.nextInt(orders)];
+            for (int round = 0; round < 2; round++) { // first round is warm-up
+                boolean print = round == 1;
+                run("entity (before)", reads, print, () -> cache.get(next.get()).status());
+                run("jpql projection", reads, print, () -> readTx.execute(s -> em
+                        .createQuery(JPQL, OrderStatusResponse.class)
+                        .setParameter("id", next.get())
+                        .setParameter("tenantId", tenantId)
+                        .getSingleResult()));
+                run("sql projection", reads, print, () -> cache.status(next.get(), tenantId).status());
+            }
+        }
+    }
+
+    private static void run(String label, int n, boolean print, Supplier<OrderStatusResponse> read) {
+        long[] ns = new long[n];
+        long tid = Thread.currentThread().threadId();
+        long alloc0 = THREADS.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            long t0 = System.nanoTime();
+            if (read.get().getStatus() == null) throw new IllegalStateException();
+            ns[i] = System.nanoTime() - t0;
+        }
+        long elapsed = System.nanoTime() - start;
+        long alloc = THREADS.getThreadAllocatedBytes(tid) - alloc0;
+        if (!print) return;
+        Arrays.sort(ns);
+        System.out.printf("%-20s %10.1f %10.1f %10.0f %14d%n", label,
+                ns[n / 2] / 1e3, ns[(int) (n * 0.99)] / 1e3, n / (elapsed / 1e9), alloc / n);
+    }
+}
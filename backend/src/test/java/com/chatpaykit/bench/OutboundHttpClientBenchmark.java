@@ -0,0 +1,152 @@
+package com.chatpaykit.bench;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.Timeout;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Connection reuse benchmark for the outbound WhatsApp client.
+ *
+ * Starts a local stub of the Graph API messages endpoint and sends the same
+ * POST through (a) a fresh client per request, as a client without pooling
+ * behaves, and (b) one shared pooled client as configured in HttpClientConfig.
+ *
+ * Run (from backend/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.chatpaykit.bench.OutboundHttpClientBenchmark [requests] [concurrency] [stubLatencyMs]
+ */
+public class OutboundHttpClientBenchmark {
+
+    private static final String BODY =
+            "{\"messaging_product\":\"whatsapp\",\"to\":\"919999999999\",\"type\":\"text\",\"text\":{\"body\":\"hi\"}}";
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int stubLatencyMs = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        // Without TCP_NODELAY the stub's keep-alive responses hit delayed-ACK stalls
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+        HttpServer stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        stub.createContext("/v19.0/", ex -> {
+            clientPorts.add(ex.getRemoteAddress().getPort());
+            ex.getRequestBody().readAllBytes();
+            sleep(stubLatencyMs);
+            byte[] res = "{\"messages\":[{\"id\":\"wamid.stub\"}]}".getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().add("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, res.length);
+            ex.getResponseBody().write(res);
+            ex.close();
+        });
+        stub.setExecutor(Executors.newFixedThreadPool(concurrency * 2));
+        stub.start();
+
+        URI uri = URI.create("http://127.0.0.1:" + stub.getAddress().getPort() + "/v19.0/123/messages");
+        System.out.printf("requests=%d concurrency=%d stubLatencyMs=%d%n", requests, concurrency, stubLatencyMs);
+
+        // warm up JIT on both paths
+        Supplier<CloseableHttpAsyncClient> factory = () -> newClient(concurrency);
+        run("warmup", uri, requests / 10, concurrency, factory, true, clientPorts);
+        run("warmup", uri, requests / 10, concurrency, factory, false, clientPorts);
+
+        run("no-reuse (client per request)", uri, requests, concurrency, factory, true, clientPorts);
+        run("pooled (shared client)", uri, requests, concurrency, factory, false, clientPorts);
+
+        stub.stop(0);
+        System.exit(0);
+    }
+
+    private static void run(String name, URI uri, int requests, int concurrency,
+                            Supplier<CloseableHttpAsyncClient> factory, boolean clientPerRequest,
+                            Set<Integer> clientPorts) throws Exception {
+        clientPorts.clear();
+        CloseableHttpAsyncClient shared = clientPerRequest ? null : factory.get();
+        AtomicLong totalNanos = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            pool.execute(() -> {
+                CloseableHttpAsyncClient c = clientPerRequest ? factory.get() : shared;
+                long t0 = System.nanoTime();
+                try {
+                    SimpleHttpResponse res = c.execute(request(uri), null).get();
+                    if (res.getCode() != 200) errors.incrementAndGet();
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                } finally {
+                    totalNanos.addAndGet(System.nanoTime() - t0);
+                    if (clientPerRequest) c.close(CloseMode.IMMEDIATE);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+        if (shared != null) shared.close(CloseMode.IMMEDIATE);
+
+        if (name.equals("warmup")) return;
+        System.out.printf("%-32s %8.0f req/s  avg=%6.3f ms  connections=%d  errors=%d%n",
+                name,
+                requests / (elapsed / 1e9),
+                totalNanos.get() / 1e6 / requests,
+                clientPorts.size(),
+                errors.get());
+    }
+
+    // Pooled like HttpClientConfig.outboundHttpClient (plain http, so HTTP/1.1)
+    private static CloseableHttpAsyncClient newClient(int poolSize) {
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(poolSize)
+                        .setMaxConnPerRoute(poolSize)
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.ofSeconds(3))
+                                .build())
+                        .build())
+                .disableRedirectHandling()
+                .build();
+        client.start();
+        return client;
+    }
+
+    private static SimpleHttpRequest request(URI uri) {
+        return SimpleRequestBuilder.post(uri)
+                .setHeader("Authorization", "Bearer stub")
+                .setBody(BODY, ContentType.APPLICATION_JSON)
+                .build();
+    }
+
+    private static void sleep(int ms) {
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.chatpaykit.bench;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cold start of the backend in each packaging mode:
+ *
+ *   jar        java -jar on the fat jar (what the Dockerfile runs today)
+ *   extracted  unpacked jar + lib/, no CDS
+ *   cds        extracted + AppCDS archive
+ *   aot-cds    extracted + AppCDS + Spring AOT (-Pfast-start deployment)
+ *   native     GraalVM image, if target/backend exists
+ *
+ * For every run two numbers are taken: "started" is Spring's own "process running
+ * for" at context refresh, "first request" is wall time from launch until
+ * POST /api/auth/login (unknown user: security filter chain, validation, one
+ * Hibernate query) gets an HTTP response. Each run uses an in-memory H2 database.
+ *
+ * Run (from backend/):
+ *   mvn -Pfast-start -DskipTests package            # optionally: mvn -Pnative -DskipTests native:compile
+ *   mvn -q test-compile
+ *   java -cp target/test-classes com.chatpaykit.bench.StartupBenchmark [runs] [modes]
+ */
+public class StartupBenchmark {
+
+    private static final String JAR = "backend-0.0.1-SNAPSHOT.jar";
+    private static final Pattern STARTED = Pattern.compile("process running for ([0-9.]+)\\)");
+
+    record Mode(String name, Path workDir, List<String> command) {}
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        List<String> only = args.length > 1 ? Arrays.asList(args[1].split(",")) : List.of();
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Path target = Path.of("target").toAbsolutePath();
+        Path fastStart = target.resolve("fast-start");
+
+        List<Mode> modes = new ArrayList<>();
+        modes.add(new Mode("jar", target, List.of(java, "-jar", JAR)));
+        if (Files.exists(fastStart.resolve(JAR))) {
+            modes.add(new Mode("extracted", fastStart, List.of(java, "-jar", JAR)));
+            if (Files.exists(fastStart.resolve("application.jsa"))) {
+                // Same relative class path as the training run, or the archive is rejected
+                modes.add(new Mode("cds", fastStart,
+                        List.of(java, "-XX:SharedArchiveFile=application.jsa", "-jar", JAR)));
+                modes.add(new Mode("aot-cds", fastStart,
+                        List.of(java, "-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true", "-jar", JAR)));
+            }
+        }
+        if (Files.isExecutable(target.resolve("backend"))) {
+            modes.add(new Mode("native", target, List.of(target.resolve("backend").toString())));
+        }
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+        System.out.printf("%-10s %14s %14s %18s%n", "mode", "started p50", "started min", "first request p50");
+        for (Mode mode : modes) {
+            if (!only.isEmpty() && !only.contains(mode.name())) continue;
+
+            run(mode, http); // warm the page cache
+            long[] started = new long[runs];
+            long[] first = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                long[] r = run(mode, http);
+                started[i] = r[0];
+                first[i] = r[1];
+            }
+            Arrays.sort(started);
+            Arrays.sort(first);
+            System.out.printf("%-10s %11d ms %11d ms %15d ms%n",
+                    mode.name(), started[runs / 2], started[0], first[runs / 2]);
+        }
+    }
+
+    // Returns {started ms, first request ms}
+    private static long[] run(Mode mode, HttpClient http) throws Exception {
+        int port;
+        try (ServerSocket s = new ServerSocket(0)) {
+            port = s.getLocalPort();
+        }
+
+        List<String> cmd = new ArrayList<>(mode.command());
+        cmd.add("--server.port=" + port);
+        cmd.add("--spring.datasource.url=jdbc:h2:mem:startup;MODE=PostgreSQL");
+        cmd.add("--spring.jpa.show-sql=false");
+
+        HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(5))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"bench@example.com\",\"password\":\"x\"}"))
+                .build();
+
+        long t0 = System.nanoTime();
+        Process p = new ProcessBuilder(cmd).directory(mode.workDir().toFile()).redirectErrorStream(true).start();
+        CompletableFuture<Long> started = new CompletableFuture<>();
+        Thread drain = new Thread(() -> drain(p, started));
+        drain.setDaemon(true);
+        drain.start();
+        try {
+            long deadline = t0 + TimeUnit.SECONDS.toNanos(120);
+            while (true) {
+                if (!p.isAlive()) throw new IllegalStateException(mode.name() + " exited with " + p.exitValue());
+                if (System.nanoTime() > deadline) throw new IllegalStateException(mode.name() + " did not start");
+                try {
+                    http.send(login, HttpResponse.BodyHandlers.discarding());
+                    break;
+                } catch (java.io.IOException notYet) {
+                    Thread.sleep(5);
+                }
+            }
+            long firstMs = (System.nanoTime() - t0) / 1_000_000;
+            return new long[]{started.get(10, TimeUnit.SECONDS), firstMs};
+        } finally {
+            p.destroy();
+            if (!p.waitFor(10, TimeUnit.SECONDS)) p.destroyForcibly().waitFor();
+        }
+    }
+
+    // Picks up Spring's startup line, and keeps draining so the child never blocks on stdout
+    private static void drain(Process p, CompletableFuture<Long> started) {
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                Matcher m = STARTED.matcher(line);
+                if (!started.isDone() && m.find()) {
+                    started.complete(Math.round(Double.parseDouble(m.group(1)) * 1000));
+                }
+            }
+        } catch (Exception ignored) {
+            // process killed
+        }
+        started.complete(-1L);
+    }
+}
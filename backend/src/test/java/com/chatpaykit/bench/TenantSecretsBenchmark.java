@@ -0,0 +1,156 @@
+package com.chatpaykit.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.chatpaykit.entity.TenantSettings;
+import com.chatpaykit.security.SecretCipher;
+import com.chatpaykit.service.TenantSecrets;
+import com.chatpaykit.util.RazorpaySignatureUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Webhook signature check, before and after encrypted tenant secrets:
+ *
+ *   plaintext  RazorpaySignatureUtil.verify with the secret string (the old
+ *              path: new Mac and key setup on every call)
+ *   cached     TenantSecrets.verifyWebhook on a warm entry (clone of the keyed
+ *              Mac, no decryption)
+ *   miss       TenantSecrets.verifyWebhook where every call sees a new row
+ *              version (unwrap data key + AES-GCM decrypt + Mac setup)
+ *
+ * T threads each verify N signatures of a ~1 KB payload across K tenants;
+ * reported are per-call latency percentiles and throughput. The settings rows
+ * are built in memory, no database is involved.
+ *
+ * Run (from backend/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.chatpaykit.bench.TenantSecretsBenchmark [threads] [callsPerThread] [tenants]
+ */
+public class TenantSecretsBenchmark {
+
+    private static final String WEBHOOK_FIELD = "razorpayWebhookSecret";
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int tenants = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        byte[] master = new byte[32];
+        Arrays.fill(master, (byte) 7);
+        SecretCipher cipher = new SecretCipher(List.of("bench:" + Base64.getEncoder().encodeToString(master)), "bench");
+        TenantSecrets secrets = new TenantSecrets(cipher, new SimpleMeterRegistry(), 10_000, 30);
+
+        String payload = payload();
+        Tenant[] all = new Tenant[tenants];
+        for (int i = 0; i < tenants; i++) {
+            all[i] = new Tenant(cipher, "whsec_" + UUID.randomUUID(), payload);
+        }
+
+        System.out.printf("%-10s %10s %10s %10s %12s%n", "setup", "p50 ns", "p99 ns", "p99.9 ns", "calls/s");
+        for (String setup : new String[]{"plaintext", "cached", "miss"}) {
+            run(setup, secrets, all, payload, threads, Math.min(perThread, 20_000)); // warm up
+            run(setup, secrets, all, payload, threads, perThread).print(setup);
+        }
+    }
+
+    record Result(long[] sortedNs, double callsPerSec) {
+        void print(String setup) {
+            int n = sortedNs.length;
+            System.out.printf("%-10s %10d %10d %10d %12.0f%n", setup,
+                    sortedNs[n / 2], sortedNs[(int) (n * 0.99)], sortedNs[(int) (n * 0.999)], callsPerSec);
+        }
+    }
+
+    // One tenant's encrypted settings row, plus the plaintext secret for the old path
+    static final class Tenant {
+        final String secret;
+        final String signature;
+        final TenantSettings settings;
+        long version;
+
+        Tenant(SecretCipher cipher, String secret, String payload) {
+            UUID tenantId = UUID.randomUUID();
+            byte[] dataKey = cipher.newDataKey();
+            this.secret = secret;
+            this.signature = hmac(secret, payload);
+            this.settings = TenantSettings.builder()
+                    .tenantId(tenantId)
+                    .razorpayWebhookSecret(cipher.encrypt(dataKey, secret, tenantId, WEBHOOK_FIELD))
+                    .dataKey(cipher.wrap(dataKey, tenantId))
+                    .keyId(cipher.activeKeyId())
+                    .updatedAt(Instant.EPOCH)
+                    .build();
+        }
+    }
+
+    private static Result run(String setup, TenantSecrets secrets, Tenant[] all, String payload,
+                              int threads, int perThread) throws Exception {
+        long[][] latencies = new long[threads][perThread];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long[] lat = latencies[t];
+            // Each thread gets its own tenants, so "miss" never shares a row version
+            int offset = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    Tenant tenant = all[(offset + i * threads) % all.length];
+                    long t0 = System.nanoTime();
+                    boolean ok = switch (setup) {
+                        case "plaintext" -> RazorpaySignatureUtil.verify(payload, tenant.signature, tenant.secret);
+                        case "cached" -> secrets.verifyWebhook(tenant.settings, payload, tenant.signature);
+                        default -> {
+                            tenant.settings.setUpdatedAt(Instant.ofEpochMilli(++tenant.version));
+                            yield secrets.verifyWebhook(tenant.settings, payload, tenant.signature);
+                        }
+                    };
+                    lat[i] = System.nanoTime() - t0;
+                    if (!ok) throw new IllegalStateException("Signature rejected in " + setup);
+                }
+            });
+            workers[t].start();
+        }
+
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) w.join();
+        double seconds = (System.nanoTime() - t0) / 1e9;
+
+        long[] sorted = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(sorted, (long) threads * perThread / seconds);
+    }
+
+    // Roughly the size of a payment.captured event
+    private static String payload() {
+        StringBuilder sb = new StringBuilder("{\"entity\":\"event\",\"event\":\"payment.captured\",\"payload\":{");
+        while (sb.length() < 1000) sb.append("\"notes_").append(sb.length()).append("\":\"x\",");
+        return sb.append("\"id\":\"pay_1\"}}").toString();
+    }
+
+    private static String hmac(String secret, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
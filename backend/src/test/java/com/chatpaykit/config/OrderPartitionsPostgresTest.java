@@ -0,0 +1,122 @@
+package com.chatpaykit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.repository.OrderRepository;
+
+/**
+ * OrderPartitions.convert against a real Postgres. Needs an empty, throwaway
+ * database (Hibernate creates the plain orders table on startup), e.g.
+ *
+ *   createdb chatpaykit_it
+ *   APP_TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/chatpaykit_it \
+ *       mvn test -Dtest=OrderPartitionsPostgresTest
+ *
+ * Skipped when APP_TEST_POSTGRES_URL is not set.
+ */
+@EnabledIfEnvironmentVariable(named = "APP_TEST_POSTGRES_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${APP_TEST_POSTGRES_URL}",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.datasource.username=${APP_TEST_POSTGRES_USER:postgres}",
+        "spring.datasource.password=${APP_TEST_POSTGRES_PASSWORD:}",
+        "spring.jpa.show-sql=false"
+})
+class OrderPartitionsPostgresTest {
+
+    @Autowired OrderPartitions orderPartitions;
+    @Autowired OrderRepository orderRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    void convertsThePlainTableInPlace() {
+        assertEquals("r", relkind("orders"));
+
+        UUID legacyId = UUID.randomUUID();
+        Instant legacyCreated = Instant.parse("2024-03-05T10:00:00Z");
+        jdbcTemplate.update("""
+                INSERT INTO orders (id, tenant_id, customer_name, customer_whatsapp, amount_paise, currency, status,
+                                    attempt_count, created_at, updated_at)
+                VALUES (?, ?, 'Legacy', '919999999999', 1000, 'INR', 'CREATED', 0, ?, ?)
+                """, legacyId, UUID.randomUUID(), Timestamp.from(legacyCreated), Timestamp.from(legacyCreated));
+        Order before = orderRepository.save(order(null));
+
+        ReflectionTestUtils.setField(orderPartitions, "enabled", true);
+        orderPartitions.createAhead();
+
+        // Parent is partitioned, the old table is its first partition and kept its rows
+        assertEquals("p", relkind("orders"));
+        assertEquals(List.of(OrderPartitions.LEGACY), jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                 WHERE i.inhparent = 'orders'::regclass AND c.relname NOT LIKE 'orders_p%'
+                """, String.class));
+        assertEquals("Legacy", orderRepository.findOrder(legacyId).orElseThrow().getCustomerName());
+        assertEquals(before.getId(), orderRepository.findOrder(before.getId()).orElseThrow().getId());
+
+        // Monthly partitions from the legacy bound on, and the JPA indexes on the parent
+        YearMonth first = OrderPartitions.firstPartitionMonth(Instant.now());
+        assertTrue(partitions().contains(OrderPartitions.partitionName(first)), partitions().toString());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_indexes WHERE tablename = 'orders' AND indexname = 'idx_orders_tenant_created'",
+                Integer.class));
+
+        // New rows route by created_at; entity update and delete still find them
+        Instant later = first.atDay(2).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Order after = orderRepository.save(order(later));
+        assertEquals(OrderPartitions.partitionName(first), tableOf(after.getId()));
+        assertEquals(OrderPartitions.LEGACY, tableOf(before.getId()));
+
+        after.setStatus(OrderStatus.PAYMENT_SENT);
+        orderRepository.save(after);
+        assertEquals(OrderStatus.PAYMENT_SENT, orderRepository.findOrder(after.getId()).orElseThrow().getStatus());
+        orderRepository.delete(after);
+        assertTrue(orderRepository.findOrder(after.getId()).isEmpty());
+
+        // Second run only tops up partitions
+        int count = partitions().size();
+        orderPartitions.createAhead();
+        assertEquals(count, partitions().size());
+    }
+
+    private static Order order(Instant createdAt) {
+        return Order.builder()
+                .tenantId(UUID.randomUUID())
+                .customerName("Partitioned")
+                .customerWhatsapp("919999999999")
+                .amountPaise(1000L)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private String relkind(String table) {
+        return jdbcTemplate.queryForObject("SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, table);
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                 WHERE i.inhparent = 'orders'::regclass ORDER BY 1
+                """, String.class);
+    }
+
+    private String tableOf(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM orders WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,117 @@
+package com.chatpaykit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.util.UuidV7;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderpartitions;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.chatpaykit.config.OrderPartitionsTest$Statements"
+})
+class OrderPartitionsTest {
+
+    // Every statement Hibernate sends, for the partition-key checks
+    public static class Statements implements StatementInspector {
+        static final List<String> SEEN = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SEEN.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired OrderRepository orderRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    void monthsRunFromCoverageThroughMonthsAhead() {
+        Instant now = Instant.parse("2026-10-19T12:00:00Z");
+
+        assertEquals(List.of(YearMonth.of(2026, 10), YearMonth.of(2026, 11), YearMonth.of(2026, 12), YearMonth.of(2027, 1)),
+                OrderPartitions.monthsToCreate(null, now, 3));
+        // Legacy partition covers up to December: only what's left
+        assertEquals(List.of(YearMonth.of(2026, 12), YearMonth.of(2027, 1)),
+                OrderPartitions.monthsToCreate(Instant.parse("2026-12-01T00:00:00Z"), now, 3));
+        // Job missed months: fill the gap too
+        assertEquals(List.of(YearMonth.of(2026, 8), YearMonth.of(2026, 9), YearMonth.of(2026, 10)),
+                OrderPartitions.monthsToCreate(Instant.parse("2026-08-01T00:00:00Z"), now, 0));
+        assertEquals(List.of(), OrderPartitions.monthsToCreate(Instant.parse("2027-02-01T00:00:00Z"), now, 3));
+
+        assertEquals("orders_p2027_01", OrderPartitions.partitionName(YearMonth.of(2027, 1)));
+    }
+
+    @Test
+    void legacyBoundIsAtLeastAMonthOut() {
+        assertEquals(YearMonth.of(2026, 11), OrderPartitions.firstPartitionMonth(Instant.parse("2026-10-19T12:00:00Z")));
+        assertEquals(YearMonth.of(2026, 12), OrderPartitions.firstPartitionMonth(Instant.parse("2026-10-31T12:00:00Z")));
+    }
+
+    @Test
+    void orderIdCarriesCreatedAt() {
+        Order o = orderRepository.save(Order.builder()
+                .tenantId(UUID.randomUUID())
+                .customerName("Partitioned")
+                .customerWhatsapp("919999999999")
+                .amountPaise(1000L)
+                .build());
+
+        assertEquals(7, o.getId().version());
+        assertEquals(o.getCreatedAt().truncatedTo(ChronoUnit.MILLIS), UuidV7.timestamp(o.getId()));
+        assertTrue(orderRepository.findOrder(o.getId()).isPresent());
+        assertEquals(o.getTenantId(), orderRepository.findVersionById(o.getId()).orElseThrow().getTenantId());
+    }
+
+    @Test
+    void entityWritesCarryThePartitionKey() {
+        Order o = orderRepository.save(Order.builder()
+                .tenantId(UUID.randomUUID())
+                .customerName("Pruned")
+                .customerWhatsapp("919999999999")
+                .amountPaise(1000L)
+                .build());
+
+        Statements.SEEN.clear();
+        o.setStatus(OrderStatus.PAYMENT_SENT);
+        orderRepository.save(o);
+        orderRepository.delete(o);
+
+        List<String> writes = Statements.SEEN.stream()
+                .filter(sql -> sql.startsWith("update orders") || sql.startsWith("delete from orders"))
+                .toList();
+        assertEquals(2, writes.size(), writes.toString());
+        writes.forEach(sql -> assertTrue(sql.endsWith("where id=? and created_at=?"), sql));
+    }
+
+    @Test
+    void legacyRandomIdsAreStillFound() {
+        UUID id = UUID.randomUUID();
+        Instant createdAt = Instant.parse("2024-03-05T10:00:00Z");
+        jdbcTemplate.update("""
+                INSERT INTO orders (id, tenant_id, customer_name, customer_whatsapp, amount_paise, currency, status,
+                                    attempt_count, created_at, updated_at)
+                VALUES (?, ?, 'Legacy', '919999999999', 1000, 'INR', 'CREATED', 0, ?, ?)
+                """, id, UUID.randomUUID(), Timestamp.from(createdAt), Timestamp.from(createdAt));
+
+        assertEquals("Legacy", orderRepository.findOrder(id).orElseThrow().getCustomerName());
+    }
+}
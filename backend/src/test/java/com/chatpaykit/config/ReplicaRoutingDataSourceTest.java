@@ -0,0 +1,126 @@
+package com.chatpaykit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.security.TenantContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Two in-memory H2 databases stand in for primary and replica; each holds a
+ * marker row so a query shows where it was routed.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate primaryDb;
+    private JdbcTemplate replicaDb;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readTx;
+    private TransactionTemplate writeTx;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        primaryDb = new JdbcTemplate(h2("primary"));
+        replicaDb = new JdbcTemplate(h2("replica"));
+        for (JdbcTemplate db : List.of(primaryDb, replicaDb)) {
+            db.execute("CREATE TABLE marker (name VARCHAR(20))");
+            db.execute("CREATE TABLE lag (ms BIGINT)");
+            db.execute("INSERT INTO lag VALUES (0)");
+        }
+        primaryDb.update("INSERT INTO marker VALUES ('primary')");
+        replicaDb.update("INSERT INTO marker VALUES ('replica')");
+
+        meterRegistry = new SimpleMeterRegistry();
+        routing = new ReplicaRoutingDataSource(
+                primaryDb.getDataSource(),
+                List.of(new ReplicaRoutingDataSource.Target("replica-1", replicaDb.getDataSource(), "SELECT ms FROM lag")),
+                1_000, 60_000, meterRegistry);
+        routing.checkLag();
+
+        LazyConnectionDataSourceProxy ds = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(ds);
+        DataSourceTransactionManager tm = new DataSourceTransactionManager(ds);
+        readTx = new TransactionTemplate(tm);
+        readTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(tm);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        primaryDb.execute("DROP ALL OBJECTS");
+        replicaDb.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        TenantContext.set(UUID.randomUUID());
+
+        assertEquals("replica", readTx.execute(s -> marker()));
+        assertEquals("primary", writeTx.execute(s -> marker()));
+    }
+
+    @Test
+    void readsWithoutTenantOrTransactionStayOnPrimary() {
+        assertEquals("primary", readTx.execute(s -> marker()));
+
+        TenantContext.set(UUID.randomUUID());
+        assertEquals("primary", marker());
+    }
+
+    @Test
+    void tenantReadsItsOwnWritesFromPrimary() {
+        UUID writer = UUID.randomUUID();
+        TenantContext.set(writer);
+        writeTx.executeWithoutResult(s -> jdbc.update("INSERT INTO marker VALUES ('written')"));
+
+        assertEquals("primary", readTx.execute(s -> marker()));
+
+        // Other tenants are not affected
+        TenantContext.set(UUID.randomUUID());
+        assertEquals("replica", readTx.execute(s -> marker()));
+    }
+
+    @Test
+    void laggingReplicaIsTakenOutOfRotationAndBack() {
+        TenantContext.set(UUID.randomUUID());
+
+        replicaDb.update("UPDATE lag SET ms = 5000");
+        routing.checkLag();
+        assertEquals("primary", readTx.execute(s -> marker()));
+
+        replicaDb.update("UPDATE lag SET ms = 10");
+        routing.checkLag();
+        assertEquals("replica", readTx.execute(s -> marker()));
+
+        assertEquals(1.0, meterRegistry.get("app.datasource.route")
+                .tags("target", "primary", "reason", "fallback").counter().count());
+        assertEquals(10.0, meterRegistry.get("app.datasource.replica.lag.ms")
+                .tag("replica", "replica-1").gauge().value());
+    }
+
+    private String marker() {
+        return jdbc.queryForObject("SELECT name FROM marker ORDER BY name LIMIT 1", String.class);
+    }
+
+    private static JdbcDataSource h2(String name) {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        ds.setUser("sa");
+        return ds;
+    }
+}
@@ -0,0 +1,160 @@
+package com.chatpaykit.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.chatpaykit.entity.RevokedSession;
+import com.chatpaykit.repository.RevokedSessionRepository;
+import com.chatpaykit.security.TokenDenyList;
+import com.chatpaykit.service.RazorpayPaymentService;
+import com.chatpaykit.service.WhatsappPaymentService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Short-lived access tokens, rotating refresh tokens, and revocation through
+ * TokenDenyList.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:authsession;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "app.auth.bcrypt.cost=4",
+        "app.auth.reuseGraceSeconds=0",
+        "app.jwt.secret=" + AuthSessionTest.SECRET
+})
+@AutoConfigureMockMvc
+class AuthSessionTest {
+
+    static final String SECRET = "test_secret_key_for_auth_sessions_0123456789";
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired TokenDenyList tokenDenyList;
+    @Autowired RevokedSessionRepository revokedSessionRepository;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+    @MockitoBean WhatsappPaymentService whatsappPaymentService;
+
+    @Test
+    void refreshRotatesAndReuseRevokesTheSession() throws Exception {
+        JsonNode first = signup();
+        orders(first, status().isOk());
+
+        JsonNode second = refresh(first.get("refreshToken").asText(), status().isOk());
+        assertNotEquals(first.get("refreshToken").asText(), second.get("refreshToken").asText());
+        assertEquals(15 * 60, second.get("expiresIn").asLong());
+        orders(second, status().isOk());
+
+        // The first refresh token again: someone else has it, the whole session goes
+        refresh(first.get("refreshToken").asText(), status().isUnauthorized());
+        orders(second, status().isForbidden());
+        orders(first, status().isForbidden());
+        refresh(second.get("refreshToken").asText(), status().isUnauthorized());
+    }
+
+    @Test
+    void logoutRevokesAccessAndRefreshTokens() throws Exception {
+        JsonNode tokens = signup();
+        orders(tokens, status().isOk());
+
+        mvc.perform(post("/api/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("refreshToken", tokens.get("refreshToken").asText()))))
+                .andExpect(status().isNoContent());
+
+        orders(tokens, status().isForbidden());
+        refresh(tokens.get("refreshToken").asText(), status().isUnauthorized());
+    }
+
+    @Test
+    void revocationFromAnotherNodeArrivesBySync() throws Exception {
+        JsonNode tokens = signup();
+        orders(tokens, status().isOk());
+
+        // What another node's logout leaves behind
+        UUID sid = UUID.fromString(claims(tokens.get("token").asText()).get("sid", String.class));
+        revokedSessionRepository.save(RevokedSession.builder()
+                .sessionId(sid)
+                .revokedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(900))
+                .build());
+        orders(tokens, status().isOk());
+
+        tokenDenyList.sync();
+        orders(tokens, status().isForbidden());
+    }
+
+    @Test
+    void tokensWithoutSessionAreRefused() throws Exception {
+        String legacy = Jwts.builder()
+                .setSubject(UUID.randomUUID().toString())
+                .setIssuedAt(new Date())
+                .setExpiration(Date.from(Instant.now().plusSeconds(3600)))
+                .claim("userId", UUID.randomUUID().toString())
+                .claim("tenantId", UUID.randomUUID().toString())
+                .claim("role", "ADMIN")
+                .signWith(key(), SignatureAlgorithm.HS256)
+                .compact();
+        mvc.perform(get("/api/orders").header("Authorization", "Bearer " + legacy))
+                .andExpect(status().isForbidden());
+    }
+
+    private JsonNode signup() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "tenantName", "Shop",
+                "email", "owner-" + UUID.randomUUID() + "@example.com",
+                "password", "secret123"));
+        String json = mvc.perform(post("/api/auth/signup").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json);
+    }
+
+    private JsonNode refresh(String refreshToken, ResultMatcher expected) throws Exception {
+        String json = mvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken))))
+                .andExpect(expected)
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json);
+    }
+
+    private void orders(JsonNode tokens, ResultMatcher expected) throws Exception {
+        mvc.perform(get("/api/orders").header("Authorization", "Bearer " + tokens.get("token").asText()))
+                .andExpect(expected);
+    }
+
+    private static Claims claims(String token) {
+        return Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(token).getBody();
+    }
+
+    private static SecretKey key() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+}
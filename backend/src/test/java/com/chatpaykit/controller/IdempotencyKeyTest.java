@@ -0,0 +1,150 @@
+package com.chatpaykit.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.service.JwtService;
+import com.chatpaykit.service.RazorpayPaymentService;
+import com.chatpaykit.service.WhatsappPaymentService;
+
+/**
+ * Retried mutations with the same Idempotency-Key run once: replays and
+ * concurrent duplicates get the first response and Razorpay is called once.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class IdempotencyKeyTest {
+
+    @Autowired MockMvc mvc;
+    @Autowired OrderRepository orderRepository;
+    @Autowired JwtService jwtService;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+    @MockitoBean WhatsappPaymentService whatsappPaymentService;
+
+    private UUID tenantId;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+        bearer = "Bearer " + jwtService.generateToken(UUID.randomUUID(), tenantId, "ADMIN");
+    }
+
+    @Test
+    void replayedCreateReturnsSameOrder() throws Exception {
+        String body = """
+                {"customerName":"Asha","customerWhatsapp":"919876543210","amountPaise":5000,"description":"Tee"}
+                """;
+
+        String first = create("key-create", body)
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(OrderController.IDEMPOTENT_REPLAYED))
+                .andReturn().getResponse().getContentAsString();
+        String second = create("key-create", body)
+                .andExpect(status().isOk())
+                .andExpect(header().string(OrderController.IDEMPOTENT_REPLAYED, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(new JSONObject(first).getString("id"), new JSONObject(second).getString("id"));
+        assertEquals(1, orderRepository.findByTenantIdOrderByCreatedAtDesc(tenantId).size());
+
+        create("key-other", body).andExpect(status().isOk());
+        assertEquals(2, orderRepository.findByTenantIdOrderByCreatedAtDesc(tenantId).size());
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyIsRejected() throws Exception {
+        create("key-reuse", """
+                {"customerName":"Asha","customerWhatsapp":"919876543210","amountPaise":5000}
+                """).andExpect(status().isOk());
+
+        create("key-reuse", """
+                {"customerName":"Asha","customerWhatsapp":"919876543210","amountPaise":9000}
+                """).andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.status").value(422));
+
+        assertEquals(1, orderRepository.findByTenantIdOrderByCreatedAtDesc(tenantId).size());
+
+        create("k".repeat(256), """
+                {"customerName":"Asha","customerWhatsapp":"919876543210","amountPaise":5000}
+                """).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void concurrentSendPaymentCallsRazorpayOnce() throws Exception {
+        Order order = orderRepository.save(Order.builder()
+                .tenantId(tenantId)
+                .customerName("Test")
+                .customerWhatsapp("919999999999")
+                .amountPaise(1000L)
+                .currency("INR")
+                .status(OrderStatus.CREATED)
+                .attemptCount(0)
+                .build());
+        when(razorpayPaymentService.sendPaymentRequestOnWhatsapp(any())).thenAnswer(inv -> {
+            Thread.sleep(300);
+            return "order_rzp_1";
+        });
+
+        int clients = 8;
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(clients)) {
+            for (int i = 0; i < clients; i++) {
+                results.add(pool.submit(() -> {
+                    go.await();
+                    return mvc.perform(post("/api/orders/{id}/send-payment", order.getId())
+                                    .header("Authorization", bearer)
+                                    .header(OrderController.IDEMPOTENCY_KEY, "key-send"))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            go.countDown();
+            for (Future<Integer> r : results) assertEquals(200, r.get());
+        }
+
+        verify(razorpayPaymentService, times(1)).sendPaymentRequestOnWhatsapp(any());
+        assertEquals(OrderStatus.PAYMENT_SENT, orderRepository.findById(order.getId()).orElseThrow().getStatus());
+    }
+
+    private ResultActions create(String key, String body) throws Exception {
+        return mvc.perform(post("/api/orders")
+                .header("Authorization", bearer)
+                .header(OrderController.IDEMPOTENCY_KEY, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+}
@@ -0,0 +1,185 @@
+package com.chatpaykit.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.service.JwtService;
+import com.chatpaykit.service.OrderReadCache;
+import com.chatpaykit.service.RazorpayPaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * ETag / If-None-Match on order reads, and gzip above the size threshold.
+ * Compression is Tomcat's (server.compression), so that part goes over a real port.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditionalget;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class OrderConditionalGetTest {
+
+    @Autowired MockMvc mvc;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderReadCache orderReadCache;
+    @Autowired JwtService jwtService;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired ObjectMapper objectMapper;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+
+    @LocalServerPort int port;
+
+    private UUID tenantId;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+        bearer = "Bearer " + jwtService.generateToken(UUID.randomUUID(), tenantId, "ADMIN");
+    }
+
+    @Test
+    void unchangedOrderIsNotModifiedUntilItChanges() throws Exception {
+        Order o = newOrder();
+
+        String etag = mvc.perform(get("/api/orders/{id}", o.getId()).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/\""), etag);
+
+        double before = count("order", "not_modified");
+        MvcResult notModified = mvc.perform(get("/api/orders/{id}", o.getId())
+                        .header("Authorization", bearer)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+        assertEquals(0, notModified.getResponse().getContentLength());
+        assertEquals(etag, notModified.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(1.0, count("order", "not_modified") - before);
+
+        // /status shares the version; a status change moves it
+        mvc.perform(get("/api/orders/{id}/status", o.getId())
+                        .header("Authorization", bearer)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        o.setStatus(OrderStatus.PAID);
+        orderRepository.saveAndFlush(o);
+        orderReadCache.evict(o.getId());
+
+        mvc.perform(get("/api/orders/{id}/status", o.getId())
+                        .header("Authorization", bearer)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PAID"));
+    }
+
+    @Test
+    void listIsNotModifiedUntilAnOrderIsAddedOrChanged() throws Exception {
+        newOrder();
+        String etag = mvc.perform(get("/api/orders").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/api/orders").header("Authorization", bearer).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Same data, other tenant: never the same tag
+        String otherTenant = "Bearer " + jwtService.generateToken(UUID.randomUUID(), UUID.randomUUID(), "ADMIN");
+        mvc.perform(get("/api/orders").header("Authorization", otherTenant).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        newOrder();
+        String next = mvc.perform(get("/api/orders").header("Authorization", bearer).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, next);
+    }
+
+    @Test
+    void largeListsAreGzippedSmallOnesAreNot() throws Exception {
+        newOrder();
+        HttpResponse<byte[]> small = fetchList("gzip, br");
+        assertEquals(200, small.statusCode());
+        assertTrue(small.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isEmpty());
+
+        double bodiesBefore = meterRegistry.get("http.response.body").summary().count();
+        for (int i = 0; i < 20; i++) newOrder();
+        HttpResponse<byte[]> large = fetchList("gzip, br");
+        assertEquals("gzip", large.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+        assertTrue(large.headers().allValues(HttpHeaders.VARY).toString().toLowerCase().contains("accept-encoding"),
+                large.headers().allValues(HttpHeaders.VARY).toString());
+        assertTrue(large.headers().firstValue(HttpHeaders.ETAG).orElse("").startsWith("W/"));
+
+        byte[] wire = large.body();
+        String json = new String(new GZIPInputStream(new ByteArrayInputStream(wire)).readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(21, objectMapper.readTree(json).size());
+        assertTrue(wire.length < json.length() / 3, "compressed " + wire.length + " of " + json.length());
+        assertEquals(1.0, meterRegistry.get("http.response.body").summary().count() - bodiesBefore);
+
+        // Without Accept-Encoding the same list goes out plain
+        HttpResponse<byte[]> plain = fetchList(null);
+        assertTrue(plain.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isEmpty());
+        assertEquals(21, objectMapper.readTree(plain.body()).size());
+    }
+
+    // java.net.http leaves Content-Encoding alone, so the test sees what Tomcat sent
+    private HttpResponse<byte[]> fetchList(String acceptEncoding) throws Exception {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                .header("Authorization", bearer);
+        if (acceptEncoding != null) req.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            return client.send(req.build(), HttpResponse.BodyHandlers.ofByteArray());
+        }
+    }
+
+    private Order newOrder() {
+        return orderRepository.saveAndFlush(Order.builder()
+                .tenantId(tenantId)
+                .customerName("Test Customer")
+                .customerWhatsapp("919999999999")
+                .amountPaise(1000L)
+                .currency("INR")
+                .description("Conditional GET test order")
+                .status(OrderStatus.PAYMENT_SENT)
+                .build());
+    }
+
+    private double count(String endpoint, String result) {
+        var c = meterRegistry.find("http.conditional.requests").tags("endpoint", endpoint, "result", result).counter();
+        return c == null ? 0 : c.count();
+    }
+}
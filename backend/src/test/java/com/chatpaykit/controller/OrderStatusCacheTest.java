@@ -0,0 +1,164 @@
+package com.chatpaykit.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.entity.TenantSettings;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.repository.TenantSettingsRepository;
+import com.chatpaykit.service.JwtService;
+import com.chatpaykit.service.RazorpayPaymentService;
+import com.chatpaykit.service.WhatsappPaymentService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Status polling is served from the read cache, and a webhook transition must
+ * be visible on the very next poll.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statuscache;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class OrderStatusCacheTest {
+
+    private static final String WEBHOOK_SECRET = "test_webhook_secret";
+
+    @Autowired MockMvc mvc;
+    @Autowired OrderRepository orderRepository;
+    @Autowired TenantSettingsRepository tenantSettingsRepository;
+    @Autowired JwtService jwtService;
+    @Autowired MeterRegistry meterRegistry;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+    @MockitoBean WhatsappPaymentService whatsappPaymentService;
+
+    private UUID tenantId;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+        tenantSettingsRepository.save(TenantSettings.builder()
+                .tenantId(tenantId)
+                .razorpayWebhookSecret(WEBHOOK_SECRET)
+                .build());
+        bearer = "Bearer " + jwtService.generateToken(UUID.randomUUID(), tenantId, "ADMIN");
+    }
+
+    @Test
+    void webhookTransitionIsVisibleOnNextPoll() throws Exception {
+        String rzpOrderId = "order_" + UUID.randomUUID().toString().substring(0, 8);
+        Order o = newOrder(rzpOrderId);
+
+        double hitsBefore = hits();
+        pollStatus(o.getId(), OrderStatus.PAYMENT_SENT);
+        pollStatus(o.getId(), OrderStatus.PAYMENT_SENT);
+        assertEquals(1.0, hits() - hitsBefore, "second poll should be a cache hit");
+
+        String payload = """
+                {"id":"evt_%s","event":"payment.captured","created_at":1,
+                 "payload":{"payment":{"entity":{"id":"pay_1","order_id":"%s","status":"captured"}},"refund":{}}}
+                """.formatted(UUID.randomUUID(), rzpOrderId);
+        mvc.perform(post("/webhooks/razorpay")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Razorpay-Signature", hmac(payload, WEBHOOK_SECRET))
+                        .content(payload))
+                .andExpect(status().isOk());
+
+        pollStatus(o.getId(), OrderStatus.PAID);
+        mvc.perform(get("/api/orders/{id}", o.getId()).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PAID"))
+                .andExpect(jsonPath("$.razorpayPaymentId").value("pay_1"));
+    }
+
+    @Test
+    void cachedOrderStillEnforcesTenant() throws Exception {
+        Order o = newOrder("order_other");
+        pollStatus(o.getId(), OrderStatus.PAYMENT_SENT);
+
+        String otherTenant = "Bearer " + jwtService.generateToken(UUID.randomUUID(), UUID.randomUUID(), "ADMIN");
+        mvc.perform(get("/api/orders/{id}/status", o.getId()).header("Authorization", otherTenant))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void uncachedStatusIsProjectedAndTenantScoped() throws Exception {
+        Order o = newOrder("order_cold");
+        String otherTenant = "Bearer " + jwtService.generateToken(UUID.randomUUID(), UUID.randomUUID(), "ADMIN");
+
+        // Not cached yet: the tenant-scoped projection finds nothing, and that is a 403, not a 404
+        mvc.perform(get("/api/orders/{id}/status", o.getId()).header("Authorization", otherTenant))
+                .andExpect(status().isForbidden());
+
+        mvc.perform(get("/api/orders/{id}/status", o.getId()).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(o.getId().toString()))
+                .andExpect(jsonPath("$.razorpayOrderId").value("order_cold"))
+                .andExpect(jsonPath("$.attemptCount").value(0));
+
+        // A status-only cache entry doesn't stand in for the full order
+        mvc.perform(get("/api/orders/{id}", o.getId()).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerName").value("Test"));
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private void pollStatus(UUID id, OrderStatus expected) throws Exception {
+        mvc.perform(get("/api/orders/{id}/status", id).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(expected.name()));
+    }
+
+    private Order newOrder(String rzpOrderId) {
+        return orderRepository.save(Order.builder()
+                .tenantId(tenantId)
+                .customerName("Test")
+                .customerWhatsapp("919999999999")
+                .amountPaise(1000L)
+                .currency("INR")
+                .status(OrderStatus.PAYMENT_SENT)
+                .razorpayOrderId(rzpOrderId)
+                .build());
+    }
+
+    private double hits() {
+        var c = meterRegistry.find("cache.gets").tags("cache", "orders", "result", "hit").functionCounter();
+        return c == null ? 0 : c.count();
+    }
+
+    private static String hmac(String data, String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
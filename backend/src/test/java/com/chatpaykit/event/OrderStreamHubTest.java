@@ -0,0 +1,204 @@
+package com.chatpaykit.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.chatpaykit.dto.OrderStatusResponse;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.service.JwtService;
+import com.chatpaykit.service.RazorpayPaymentService;
+import com.chatpaykit.service.WhatsappPaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Order status stream: per-tenant fan-out, Last-Event-ID replay and resync,
+ * and a slow subscriber being cut off without holding up the others.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderstream;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "app.stream.connectionBuffer=4"
+})
+@AutoConfigureMockMvc
+class OrderStreamHubTest {
+
+    private static final int BUFFER = 4;
+
+    @Autowired MockMvc mvc;
+    @Autowired OrderStreamHub orderStreamHub;
+    @Autowired JwtService jwtService;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired ObjectMapper objectMapper;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+    @MockitoBean WhatsappPaymentService whatsappPaymentService;
+
+    private UUID tenantA;
+    private UUID tenantB;
+
+    @BeforeEach
+    void setUp() {
+        tenantA = UUID.randomUUID();
+        tenantB = UUID.randomUUID();
+    }
+
+    @Test
+    void changesReachEveryConnectionOfTheirTenantOnly() throws Exception {
+        MvcResult a1 = open(stream().header("Authorization", bearer(tenantA)));
+        MvcResult a2 = open(stream().param("token", streamToken(tenantA)));
+        MvcResult b = open(stream().header("Authorization", bearer(tenantB)));
+
+        UUID forA = deliver(tenantA);
+        UUID forB = deliver(tenantB);
+
+        for (MvcResult r : new MvcResult[]{a1, a2}) {
+            awaitContent(r, forA.toString());
+            assertFalse(content(r).contains(forB.toString()));
+        }
+        awaitContent(b, forB.toString());
+        assertFalse(content(b).contains(forA.toString()));
+    }
+
+    @Test
+    void streamTokenOnlyOpensTheStream() throws Exception {
+        String token = streamToken(tenantA);
+
+        mvc.perform(get("/api/orders").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+        mvc.perform(stream().param("token", jwtService.generateToken(UUID.randomUUID(), tenantA, "ADMIN")))
+                .andExpect(status().isForbidden());
+        mvc.perform(stream()).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void reconnectReplaysWhatWasMissed() throws Exception {
+        MvcResult live = open(stream().header("Authorization", bearer(tenantA)));
+        UUID first = deliver(tenantA);
+        UUID second = deliver(tenantA);
+        UUID third = deliver(tenantA);
+        awaitContent(live, third.toString());
+        String epoch = epoch(live);
+
+        MvcResult resumed = open(stream().header("Authorization", bearer(tenantA)).header("Last-Event-ID", epoch + ":1"));
+        awaitContent(resumed, third.toString());
+        String replay = content(resumed);
+        assertFalse(replay.contains(first.toString()), replay);
+        assertTrue(replay.indexOf("id:" + epoch + ":2") < replay.indexOf(second.toString()), replay);
+        assertTrue(replay.indexOf(second.toString()) < replay.indexOf("id:" + epoch + ":3"), replay);
+
+        // A fresh EventSource (new stream token) passes the id as a parameter
+        MvcResult reopened = open(stream().param("token", streamToken(tenantA)).param("lastEventId", epoch + ":2"));
+        awaitContent(reopened, third.toString());
+        assertFalse(content(reopened).contains(second.toString()));
+    }
+
+    @Test
+    void unknownOrTooOldIdGetsResync() throws Exception {
+        MvcResult live = open(stream().header("Authorization", bearer(tenantA)));
+        awaitContent(live, deliver(tenantA).toString());
+        String epoch = epoch(live);
+        for (int i = 1; i < BUFFER + 2; i++) deliver(tenantA);
+
+        // Ahead of the hub, garbage, more behind than the buffer holds, or a seq this
+        // node has too but from another node / an earlier stream (other epoch, or none)
+        for (String lastId : new String[]{epoch + ":99", "abc", epoch + ":1", "othernode:5", "5"}) {
+            MvcResult r = open(stream().header("Authorization", bearer(tenantA)).header("Last-Event-ID", lastId));
+            awaitContent(r, "event:resync");
+            assertFalse(content(r).contains("event:order-status"), lastId);
+        }
+    }
+
+    @Test
+    void slowSubscriberIsClosedWithoutHoldingUpOthers() throws Exception {
+        MvcResult fast = open(stream().header("Authorization", bearer(tenantA)));
+        SseEmitter slow = orderStreamHub.subscribe(tenantA, null);
+        double overflowBefore = meterRegistry.counter("app.orders.stream.overflow").count();
+
+        // Hold the slow emitter's write lock: its drain thread blocks, its buffer fills up
+        Lock writeLock = (Lock) ReflectionTestUtils.getField(slow, "writeLock");
+        writeLock.lock();
+        try {
+            // The other connection keeps up with each change meanwhile
+            for (int i = 0; i < BUFFER + 2; i++) awaitContent(fast, deliver(tenantA).toString());
+        } finally {
+            writeLock.unlock();
+        }
+        assertEquals(1.0, meterRegistry.counter("app.orders.stream.overflow").count() - overflowBefore);
+
+        // The closed connection takes no more events, so it can't overflow twice
+        deliver(tenantA);
+        assertEquals(1.0, meterRegistry.counter("app.orders.stream.overflow").count() - overflowBefore);
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private static MockHttpServletRequestBuilder stream() {
+        return get("/api/orders/stream");
+    }
+
+    private MvcResult open(MockHttpServletRequestBuilder request) throws Exception {
+        return mvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private String bearer(UUID tenantId) {
+        return "Bearer " + jwtService.generateToken(UUID.randomUUID(), tenantId, "ADMIN");
+    }
+
+    private String streamToken(UUID tenantId) throws Exception {
+        String body = mvc.perform(post("/api/orders/stream/token").header("Authorization", bearer(tenantId)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("token").asText();
+    }
+
+    private UUID deliver(UUID tenantId) {
+        UUID orderId = UUID.randomUUID();
+        orderStreamHub.deliver(new OrderChange(tenantId,
+                OrderStatusResponse.builder().id(orderId).status(OrderStatus.PAID).build()));
+        return orderId;
+    }
+
+    // From the first "id:<epoch>:<seq>" line the stream sent
+    private static String epoch(MvcResult r) throws Exception {
+        String c = content(r);
+        int start = c.indexOf("id:") + 3;
+        return c.substring(start, c.indexOf(':', start));
+    }
+
+    private static String content(MvcResult r) throws Exception {
+        return r.getResponse().getContentAsString();
+    }
+
+    private static void awaitContent(MvcResult r, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!content(r).contains(expected)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Stream never sent " + expected + ", got: " + content(r));
+            }
+            Thread.sleep(10);
+        }
+    }
+}
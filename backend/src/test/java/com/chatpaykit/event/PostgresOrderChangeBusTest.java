@@ -0,0 +1,58 @@
+package com.chatpaykit.event;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.chatpaykit.dto.CreateOrderRequest;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.service.OrderService;
+import com.chatpaykit.service.RazorpayPaymentService;
+import com.chatpaykit.service.WhatsappPaymentService;
+
+/**
+ * A committed status change goes out over NOTIFY and comes back through this
+ * node's LISTEN connection to the hub. Needs a real Postgres, e.g.
+ *
+ *   APP_TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/chatpaykit_it \
+ *       mvn test -Dtest=PostgresOrderChangeBusTest
+ *
+ * Skipped when APP_TEST_POSTGRES_URL is not set.
+ */
+@EnabledIfEnvironmentVariable(named = "APP_TEST_POSTGRES_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${APP_TEST_POSTGRES_URL}",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.datasource.username=${APP_TEST_POSTGRES_USER:postgres}",
+        "spring.datasource.password=${APP_TEST_POSTGRES_PASSWORD:}",
+        "spring.jpa.show-sql=false",
+        "app.events.bus=postgres"
+})
+class PostgresOrderChangeBusTest {
+
+    @Autowired OrderService orderService;
+
+    @MockitoSpyBean OrderStreamHub orderStreamHub;
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+    @MockitoBean WhatsappPaymentService whatsappPaymentService;
+
+    @Test
+    void committedChangeComesBackThroughListen() {
+        CreateOrderRequest req = new CreateOrderRequest();
+        req.setCustomerName("Streamed");
+        req.setCustomerWhatsapp("919999999999");
+        req.setAmountPaise(1000L);
+        Order order = orderService.create(req, UUID.randomUUID());
+
+        verify(orderStreamHub, timeout(10_000)).deliver(argThat(c -> c.status().getId().equals(order.getId())));
+    }
+}
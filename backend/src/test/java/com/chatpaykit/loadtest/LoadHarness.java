@@ -0,0 +1,342 @@
+package com.chatpaykit.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.json.JSONObject;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.chatpaykit.ChatpaykitBackendApplication;
+
+/**
+ * Closed-loop load harness for the full order lifecycle. Run from main(), not by
+ * surefire (hence not *Test).
+ *
+ * Each virtual user signs up its own tenant, saves settings and logs in, then
+ * loops: create order -> send-payment -> signed payment.captured webhook ->
+ * poll status until PAID. Razorpay and the Graph API are StubServers with
+ * configurable latency and error rate. The backend is started in this JVM
+ * (in-memory H2, stub base URLs), unless target= points at a running one.
+ *
+ * Every step gets an HdrHistogram. Warm-up samples are thrown away, and the
+ * report gives throughput and percentiles for the measured window. "paid-visible"
+ * is the time from sending the webhook until a poll returns PAID. "lifecycle"
+ * is one full iteration.
+ *
+ * Run (from backend/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.chatpaykit.loadtest.LoadHarness \
+ *        users=32 duration=60 rzpLatencyMs=80 waErrorRate=0.01 [--app.datasource.workloads.enabled=true ...]
+ *
+ * Options (key=value): users, duration, warmup (seconds), pollIntervalMs, pollTimeoutMs,
+ * rzpLatencyMs, rzpJitterMs, rzpErrorRate, waLatencyMs, waJitterMs, waErrorRate,
+ * target (external backend URL; it must itself be configured with the printed stub URLs).
+ * Arguments starting with -- are passed to the in-process backend.
+ */
+public class LoadHarness {
+
+    private static final String WEBHOOK_SECRET = "load_webhook_secret";
+    private static final long MAX_US = Duration.ofMinutes(2).toNanos() / 1000;
+
+    private static final List<String> STEPS = List.of(
+            "signup", "settings", "login", "create", "send-payment", "webhook", "status-poll", "paid-visible", "lifecycle");
+
+    private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> errors = new LinkedHashMap<>();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String baseUrl;
+    private final long pollIntervalMs;
+    private final long pollTimeoutMs;
+    private volatile boolean running = true;
+
+    LoadHarness(String baseUrl, long pollIntervalMs, long pollTimeoutMs) {
+        this.baseUrl = baseUrl;
+        this.pollIntervalMs = pollIntervalMs;
+        this.pollTimeoutMs = pollTimeoutMs;
+        for (String s : STEPS) {
+            recorders.put(s, new Recorder(MAX_US, 3));
+            errors.put(s, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opt = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String a : args) {
+            if (a.startsWith("--")) appArgs.add(a);
+            else if (a.contains("=")) opt.put(a.substring(0, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+        }
+        int users = Integer.parseInt(opt.getOrDefault("users", "16"));
+        int duration = Integer.parseInt(opt.getOrDefault("duration", "30"));
+        int warmup = Integer.parseInt(opt.getOrDefault("warmup", "5"));
+
+        StubServer.Profile rzp = new StubServer.Profile(
+                Long.parseLong(opt.getOrDefault("rzpLatencyMs", "80")),
+                Long.parseLong(opt.getOrDefault("rzpJitterMs", "40")),
+                Double.parseDouble(opt.getOrDefault("rzpErrorRate", "0")));
+        StubServer.Profile wa = new StubServer.Profile(
+                Long.parseLong(opt.getOrDefault("waLatencyMs", "120")),
+                Long.parseLong(opt.getOrDefault("waJitterMs", "60")),
+                Double.parseDouble(opt.getOrDefault("waErrorRate", "0")));
+
+        try (StubServer razorpay = StubServer.razorpay(rzp);
+             StubServer graph = StubServer.graphApi(wa)) {
+
+            String target = opt.get("target");
+            ConfigurableApplicationContext app = null;
+            if (target == null) {
+                List<String> a = new ArrayList<>(List.of(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--app.razorpay.baseUrl=" + razorpay.baseUrl("/v1"),
+                        "--app.whatsapp.baseUrl=" + graph.baseUrl("/v19.0")));
+                a.addAll(appArgs);
+                app = new SpringApplicationBuilder(ChatpaykitBackendApplication.class).run(a.toArray(String[]::new));
+                target = "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port");
+            } else {
+                System.out.println("External backend: set app.razorpay.baseUrl=" + razorpay.baseUrl("/v1")
+                        + " app.whatsapp.baseUrl=" + graph.baseUrl("/v19.0"));
+            }
+
+            try {
+                new LoadHarness(target, Long.parseLong(opt.getOrDefault("pollIntervalMs", "50")),
+                        Long.parseLong(opt.getOrDefault("pollTimeoutMs", "5000")))
+                        .run(users, warmup, duration);
+                System.out.println(razorpay.stats());
+                System.out.println(graph.stats());
+            } finally {
+                if (app != null) app.close();
+            }
+        }
+    }
+
+    // -------------------------
+    // Driver
+    // -------------------------
+    void run(int users, int warmupSec, int durationSec) throws Exception {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        CountDownLatch ready = new CountDownLatch(users);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int u = 0; u < users; u++) {
+            int n = u;
+            Thread t = new Thread(() -> {
+                String token;
+                try {
+                    token = setUp("load-" + runId + "-" + n);
+                } catch (Exception e) {
+                    System.err.println("user " + n + " setup failed: " + e.getMessage());
+                    return;
+                } finally {
+                    ready.countDown();
+                }
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (running) iteration(token);
+            }, "vu-" + n);
+            threads.add(t);
+            t.start();
+        }
+
+        ready.await();
+        System.out.printf("%d users ready, warming up %d s, measuring %d s against %s%n",
+                users, warmupSec, durationSec, baseUrl);
+        go.countDown();
+
+        Thread.sleep(warmupSec * 1000L);
+        recorders.forEach((k, r) -> {
+            if (!k.equals("signup") && !k.equals("settings") && !k.equals("login")) r.reset();
+        });
+        errors.forEach((k, e) -> {
+            if (!k.equals("signup") && !k.equals("settings") && !k.equals("login")) e.set(0);
+        });
+        long t0 = System.nanoTime();
+        Thread.sleep(durationSec * 1000L);
+        running = false;
+        for (Thread t : threads) t.join();
+        double seconds = (System.nanoTime() - t0) / 1e9;
+
+        report(seconds);
+    }
+
+    private String setUp(String name) throws Exception {
+        String email = name + "@example.com";
+        String password = "loadtest123";
+
+        JSONObject signup = new JSONObject().put("tenantName", name).put("email", email).put("password", password);
+        String token = new JSONObject(call("signup", post("/api/auth/signup", null, signup))).getString("token");
+
+        JSONObject settings = new JSONObject()
+                .put("razorpayKeyId", "rzp_test_" + name)
+                .put("razorpayKeySecret", "secret_" + name)
+                .put("razorpayWebhookSecret", WEBHOOK_SECRET)
+                .put("whatsappAccessToken", "token_" + name)
+                .put("whatsappPhoneNumberId", "1000" + Math.abs(name.hashCode()));
+        call("settings", post("/api/admin/settings", token, settings));
+
+        JSONObject login = new JSONObject().put("email", email).put("password", password);
+        return new JSONObject(call("login", post("/api/auth/login", null, login))).getString("token");
+    }
+
+    private void iteration(String token) {
+        long start = System.nanoTime();
+        try {
+            JSONObject create = new JSONObject()
+                    .put("customerName", "Load Test")
+                    .put("customerWhatsapp", "91" + (9_000_000_000L + ThreadLocalRandom.current().nextLong(999_999_999L)))
+                    .put("amountPaise", 100 + ThreadLocalRandom.current().nextInt(100_000))
+                    .put("description", "load test");
+            String orderId = new JSONObject(call("create", post("/api/orders", token, create))).getString("id");
+
+            JSONObject sent = new JSONObject(call("send-payment",
+                    post("/api/orders/" + orderId + "/send-payment", token, new JSONObject())));
+            String rzpOrderId = sent.getString("razorpayOrderId");
+
+            String payload = new JSONObject()
+                    .put("id", "evt_" + UUID.randomUUID())
+                    .put("event", "payment.captured")
+                    .put("created_at", System.currentTimeMillis() / 1000)
+                    .put("payload", new JSONObject()
+                            .put("payment", new JSONObject().put("entity", new JSONObject()
+                                    .put("id", "pay_" + UUID.randomUUID().toString().substring(0, 14))
+                                    .put("order_id", rzpOrderId)
+                                    .put("status", "captured")))
+                            .put("refund", new JSONObject()))
+                    .toString();
+            HttpRequest webhook = HttpRequest.newBuilder(URI.create(baseUrl + "/webhooks/razorpay"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .header("X-Razorpay-Signature", hmac(payload))
+                    .POST(HttpRequest.BodyPublishers.ofString(payload))
+                    .build();
+            long sentAt = System.nanoTime();
+            String processed = call("webhook", webhook);
+            if (!processed.startsWith("Processed")) {
+                throw new StepFailed("webhook", processed);
+            }
+
+            HttpRequest poll = HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders/" + orderId + "/status"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+            long deadline = sentAt + pollTimeoutMs * 1_000_000;
+            while (true) {
+                String status = new JSONObject(call("status-poll", poll)).getString("status");
+                if (status.equals("PAID")) break;
+                if (System.nanoTime() > deadline) throw new StepFailed("paid-visible", "still " + status);
+                Thread.sleep(pollIntervalMs);
+            }
+            record("paid-visible", sentAt);
+            record("lifecycle", start);
+
+        } catch (StepFailed e) {
+            errors.get(e.step).incrementAndGet();
+            errors.get("lifecycle").incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        } catch (Exception e) {
+            errors.get("lifecycle").incrementAndGet();
+        }
+    }
+
+    // -------------------------
+    // HTTP + recording
+    // -------------------------
+    private static final class StepFailed extends RuntimeException {
+        final String step;
+
+        StepFailed(String step, String msg) {
+            super(step + ": " + msg, null, false, false);
+            this.step = step;
+        }
+    }
+
+    private HttpRequest post(String path, String token, JSONObject body) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return b.build();
+    }
+
+    // Records latency for successful (2xx) calls; anything else counts as an error for the step
+    private String call(String step, HttpRequest req) {
+        long t0 = System.nanoTime();
+        HttpResponse<String> res;
+        try {
+            res = http.send(req, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            throw new StepFailed(step, e.toString());
+        }
+        if (res.statusCode() / 100 != 2) {
+            throw new StepFailed(step, res.statusCode() + " " + res.body());
+        }
+        record(step, t0);
+        return res.body();
+    }
+
+    private void record(String step, long startNanos) {
+        long us = (System.nanoTime() - startNanos) / 1000;
+        recorders.get(step).recordValue(Math.min(us, MAX_US));
+    }
+
+    private void report(double seconds) {
+        System.out.printf("%n%-13s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "step", "count", "errors", "per sec", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (String step : STEPS) {
+            Histogram h = recorders.get(step).getIntervalHistogram();
+            boolean setup = step.equals("signup") || step.equals("settings") || step.equals("login");
+            System.out.printf("%-13s %9d %8d %9s %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    step, h.getTotalCount(), errors.get(step).get(),
+                    setup ? "-" : "%.1f".formatted(h.getTotalCount() / seconds),
+                    ms(h, 50), ms(h, 90), ms(h, 99), ms(h, 99.9), h.getMaxValue() / 1000.0);
+        }
+    }
+
+    private static double ms(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static String hmac(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(WEBHOOK_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.chatpaykit.loadtest;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for Razorpay or the WhatsApp Graph API. Every request waits
+ * latencyMs +/- jitterMs, then fails with a 5xx with probability errorRate,
+ * otherwise gets a canned response shaped like the real API. Requests are
+ * handled on virtual threads, so injected latency never queues requests.
+ */
+public class StubServer implements AutoCloseable {
+
+    public record Profile(long latencyMs, long jitterMs, double errorRate) {}
+
+    private record Reply(int status, String body) {}
+
+    private final String name;
+    private final Profile profile;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    private StubServer(String name, Profile profile, Function<HttpExchange, Reply> handler) throws IOException {
+        this.name = name;
+        this.profile = profile;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", ex -> handle(ex, handler));
+        this.server.start();
+    }
+
+    public String baseUrl(String prefix) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + prefix;
+    }
+
+    public String stats() {
+        return "%s: %,d requests, %,d injected errors (latency %d+/-%d ms, errorRate %.3f)".formatted(
+                name, requests.get(), injectedErrors.get(), profile.latencyMs(), profile.jitterMs(), profile.errorRate());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange ex, Function<HttpExchange, Reply> handler) throws IOException {
+        requests.incrementAndGet();
+        try (ex) {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            long sleep = profile.latencyMs() + (profile.jitterMs() > 0 ? rnd.nextLong(-profile.jitterMs(), profile.jitterMs() + 1) : 0);
+            if (sleep > 0) Thread.sleep(sleep);
+
+            Reply reply;
+            if (rnd.nextDouble() < profile.errorRate()) {
+                injectedErrors.incrementAndGet();
+                reply = new Reply(502, new JSONObject().put("error", new JSONObject()
+                        .put("code", "SERVER_ERROR").put("description", "Injected by stub")).toString());
+            } else {
+                reply = handler.apply(ex);
+            }
+
+            byte[] body = reply.body().getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json");
+            ex.sendResponseHeaders(reply.status(), body.length);
+            ex.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // -------------------------
+    // Razorpay (mount at /v1, point app.razorpay.baseUrl here)
+    // -------------------------
+    public static StubServer razorpay(Profile profile) throws IOException {
+        return new StubServer("razorpay", profile, ex -> {
+            String method = ex.getRequestMethod();
+            String[] p = ex.getRequestURI().getPath().split("/"); // "", "v1", ...
+
+            if (method.equals("POST") && p.length == 3 && p[2].equals("orders")) {
+                JSONObject req = new JSONObject(readBody(ex));
+                return new Reply(200, new JSONObject()
+                        .put("id", "order_" + shortId())
+                        .put("entity", "order")
+                        .put("amount", req.optLong("amount"))
+                        .put("currency", req.optString("currency", "INR"))
+                        .put("receipt", req.optString("receipt"))
+                        .put("status", "created")
+                        .toString());
+            }
+            if (method.equals("POST") && p.length == 5 && p[2].equals("payments") && p[4].equals("refund")) {
+                return new Reply(200, new JSONObject()
+                        .put("id", "rfnd_" + shortId()).put("entity", "refund")
+                        .put("payment_id", p[3]).put("status", "processed").toString());
+            }
+            if (method.equals("GET") && p.length == 4 && p[2].equals("payments")) {
+                return new Reply(200, new JSONObject().put("id", p[3]).put("entity", "payment")
+                        .put("status", "captured").toString());
+            }
+            if (method.equals("GET") && p.length == 4 && p[2].equals("refunds")) {
+                return new Reply(200, new JSONObject().put("id", p[3]).put("entity", "refund")
+                        .put("status", "processed").toString());
+            }
+            if (method.equals("GET") && p.length == 5 && p[2].equals("orders") && p[4].equals("payments")) {
+                return new Reply(200, new JSONObject().put("entity", "collection").put("count", 0)
+                        .put("items", new JSONArray()).toString());
+            }
+            return new Reply(404, new JSONObject().put("error", new JSONObject()
+                    .put("code", "BAD_REQUEST_ERROR").put("description", "No stub for " + method + " " + ex.getRequestURI()))
+                    .toString());
+        });
+    }
+
+    // -------------------------
+    // WhatsApp Graph API (mount at /v19.0, point app.whatsapp.baseUrl here)
+    // -------------------------
+    public static StubServer graphApi(Profile profile) throws IOException {
+        return new StubServer("whatsapp", profile, ex -> {
+            if (ex.getRequestMethod().equals("POST") && ex.getRequestURI().getPath().endsWith("/messages")) {
+                readBody(ex);
+                return new Reply(200, new JSONObject()
+                        .put("messaging_product", "whatsapp")
+                        .put("messages", new JSONArray().put(new JSONObject().put("id", "wamid." + shortId())))
+                        .toString());
+            }
+            return new Reply(404, "{\"error\":{\"message\":\"Unsupported request\"}}");
+        });
+    }
+
+    private static String readBody(HttpExchange ex) {
+        try {
+            return new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String shortId() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 14);
+    }
+}
@@ -0,0 +1,75 @@
+package com.chatpaykit.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+class LogSamplerTest {
+
+    @Test
+    void allowsPerSecondThenCountsTheRest() throws Exception {
+        LogSampler sampler = new LogSampler(3);
+        startOfSecond();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, sampler.tryAcquire("webhook"));
+        }
+        for (int i = 0; i < 7; i++) {
+            assertEquals(-1, sampler.tryAcquire("webhook"));
+        }
+        // Other keys have their own limit
+        assertEquals(0, sampler.tryAcquire("login"));
+
+        // Next second: the first line through reports what was dropped, once
+        nextSecond();
+        assertEquals(7, sampler.tryAcquire("webhook"));
+        assertEquals(0, sampler.tryAcquire("webhook"));
+    }
+
+    @Test
+    void droppedCountIsAppendedToTheNextLine() throws Exception {
+        LogSampler sampler = new LogSampler(1);
+        Logger log = mock(Logger.class);
+        when(log.isInfoEnabled()).thenReturn(true);
+        startOfSecond();
+
+        sampler.info(log, "k", "Order created id={}", 1);
+        sampler.info(log, "k", "Order created id={}", 2);
+        sampler.info(log, "k", "Order created id={}", 3);
+        nextSecond();
+        sampler.info(log, "k", "Order created id={}", 4);
+
+        verify(log).info("Order created id={}", new Object[]{1});
+        verify(log).info("Order created id={} (+2 similar dropped)", new Object[]{4});
+        verify(log, times(2)).info(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void zeroDisablesSampling() {
+        LogSampler sampler = new LogSampler(0);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, sampler.tryAcquire("k"));
+        }
+    }
+
+    // Keeps a burst of calls inside one wall-clock second
+    private static void startOfSecond() throws InterruptedException {
+        while (System.currentTimeMillis() % 1000 > 500) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void nextSecond() throws InterruptedException {
+        long second = System.currentTimeMillis() / 1000;
+        while (System.currentTimeMillis() / 1000 == second) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.chatpaykit.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class PiiMaskerTest {
+
+    @Test
+    void masksNumbersInTheFormsCustomersTypeThem() {
+        assertEquals("to=****3210", PiiMasker.text("to=+919876543210"));
+        assertEquals("to=****3210", PiiMasker.text("to=919876543210"));
+        assertEquals("to=****3210", PiiMasker.text("to=9876543210"));
+        assertEquals("to=****3210", PiiMasker.text("to=09876543210"));
+        assertEquals("to ****3210 ok", PiiMasker.text("to +91 98765 43210 ok"));
+        assertEquals("to ****3210.", PiiMasker.text("to +91-98765-43210."));
+        assertEquals("to ****3210", PiiMasker.text("to 98765 43210"));
+        assertEquals("to ****3210", PiiMasker.text("to 098765-43210"));
+        assertEquals("to ****0123", PiiMasker.text("to +1 415-555-0123"));
+        assertEquals("to ****0123", PiiMasker.text("to +1.415.555.0123"));
+    }
+
+    @Test
+    void masksAnythingCreateOrderRequestAccepts() {
+        // ^[0-9]{10,20}$, any country
+        assertEquals("****5678", PiiMasker.text("4412345678"));
+        assertEquals("****5678", PiiMasker.text("447911345678"));
+        assertEquals("****7890", PiiMasker.text("12345678901234567890"));
+        assertEquals("a ****5678, b ****3210", PiiMasker.text("a 4915112345678, b 919876543210"));
+    }
+
+    @Test
+    void leavesIdsTimestampsAndShortNumbersAlone() {
+        String[] untouched = {
+                "order_9876543210",
+                "pay_Abc9876543210x",
+                "ts=1760000000 at=1760000000123",
+                "amount=123456789",
+                "took 12345 ms",
+                "2026-10-19 12:34:56",
+                "pi=3.14159265358979",
+                "ref=9876543210-retry",
+                "123456789012345678901",
+        };
+        for (String s : untouched) {
+            assertEquals(s, PiiMasker.text(s));
+        }
+    }
+
+    @Test
+    void masksEmails() {
+        assertEquals("user a***@example.com signed up", PiiMasker.text("user alice.smith@example.com signed up"));
+        assertEquals("b***@shop.co.in, c***@x.io", PiiMasker.text("bob+test@shop.co.in, c@x.io"));
+        assertEquals("a***@example.com ****3210", PiiMasker.text("alice@example.com +91 98765 43210"));
+    }
+
+    @Test
+    void skipsLinesWithoutCandidates() {
+        String s = "Order created id=7f1c tenant=42";
+        assertSame(s, PiiMasker.text(s));
+        assertNull(PiiMasker.text(null));
+    }
+
+    @Test
+    void phoneKeepsTheLastFourDigits() {
+        assertEquals("****3210", PiiMasker.phone("919876543210"));
+        assertEquals("****", PiiMasker.phone("123"));
+        assertNull(PiiMasker.phone(null));
+    }
+}
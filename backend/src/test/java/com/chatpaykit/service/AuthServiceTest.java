@@ -0,0 +1,173 @@
+package com.chatpaykit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.chatpaykit.dto.AuthLoginRequest;
+import com.chatpaykit.dto.AuthSignupRequest;
+import com.chatpaykit.entity.User;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.UserRepository;
+import com.chatpaykit.security.PasswordHasher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:auth;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "app.auth.bcrypt.cost=5"
+})
+@AutoConfigureMockMvc
+class AuthServiceTest {
+
+    @Autowired AuthService authService;
+    @Autowired UserRepository userRepository;
+    @Autowired MockMvc mvc;
+
+    @MockitoSpyBean PasswordHasher passwordHasher;
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+    @MockitoBean WhatsappPaymentService whatsappPaymentService;
+
+    @Test
+    void unknownEmailIsCachedUntilSignup() {
+        String email = "new-" + UUID.randomUUID() + "@example.com";
+        assertThrows(IllegalStateException.class, () -> authService.login(login(email, "secret123")));
+
+        AuthSignupRequest signup = new AuthSignupRequest();
+        signup.setTenantName("Shop");
+        signup.setEmail(email);
+        signup.setPassword("secret123");
+        authService.signup(signup);
+
+        assertNotNull(authService.login(login(email, "secret123")));
+        assertThrows(IllegalStateException.class, () -> authService.login(login(email, "wrong")));
+    }
+
+    @Test
+    void signupHashesOutsideTheTransaction() {
+        AtomicBoolean inTransaction = new AtomicBoolean(true);
+        doAnswer(inv -> {
+            inTransaction.set(TransactionSynchronizationManager.isActualTransactionActive());
+            return inv.callRealMethod();
+        }).when(passwordHasher).encode(anyString());
+
+        String email = "tx-" + UUID.randomUUID() + "@example.com";
+        AuthSignupRequest signup = new AuthSignupRequest();
+        signup.setTenantName("Shop");
+        signup.setEmail(email);
+        signup.setPassword("secret123");
+        authService.signup(signup);
+
+        assertFalse(inTransaction.get());
+        assertTrue(userRepository.findByEmail(email).orElseThrow().getPasswordHash().startsWith("$2a$05$"));
+    }
+
+    @Test
+    void loginRehashesWhenCostChanged() throws Exception {
+        String email = "old-" + UUID.randomUUID() + "@example.com";
+        userRepository.save(User.builder()
+                .tenantId(UUID.randomUUID())
+                .email(email)
+                .passwordHash(new BCryptPasswordEncoder(4).encode("secret123"))
+                .role("ADMIN")
+                .build());
+
+        assertNotNull(authService.login(login(email, "secret123")));
+
+        // Rehash runs after the response, on the BCrypt pool
+        String hash = null;
+        for (int i = 0; i < 100; i++) {
+            hash = userRepository.findByEmail(email).orElseThrow().getPasswordHash();
+            if (hash.startsWith("$2a$05$")) break;
+            Thread.sleep(50);
+        }
+        assertTrue(hash.startsWith("$2a$05$"), hash);
+        assertNotNull(authService.login(login(email, "secret123")));
+    }
+
+    @Test
+    void fullPoolRejectsWith503() throws Exception {
+        PasswordHasher hasher = new PasswordHasher(new SimpleMeterRegistry(), 4, 1, 1, 10_000);
+        String hash = new BCryptPasswordEncoder(12).encode("secret123");
+        assertFalse(hasher.needsRehash(new BCryptPasswordEncoder(4).encode("x")));
+        assertTrue(hasher.needsRehash(hash));
+
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                results.add(callers.submit(() -> hasher.matches("secret123", hash)));
+            }
+            int ok = 0, busy = 0;
+            for (Future<Boolean> f : results) {
+                try {
+                    if (f.get()) ok++;
+                } catch (ExecutionException e) {
+                    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((ApiException) e.getCause()).getStatus());
+                    busy++;
+                }
+            }
+            // One running, one queued, the rest turned away
+            assertTrue(ok >= 1 && ok <= 2, "ok=" + ok);
+            assertEquals(6, ok + busy);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void busyHasherAnswers503() throws Exception {
+        String email = "busy-" + UUID.randomUUID() + "@example.com";
+        userRepository.save(User.builder()
+                .tenantId(UUID.randomUUID())
+                .email(email)
+                .passwordHash(new BCryptPasswordEncoder(5).encode("secret123"))
+                .role("ADMIN")
+                .build());
+        doThrow(new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Too many sign-in attempts, try again shortly"))
+                .when(passwordHasher).matches(anyString(), anyString());
+
+        mvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"secret123\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Too many sign-in attempts, try again shortly"));
+    }
+
+    private static AuthLoginRequest login(String email, String password) {
+        AuthLoginRequest req = new AuthLoginRequest();
+        req.setEmail(email);
+        req.setPassword(password);
+        return req;
+    }
+}
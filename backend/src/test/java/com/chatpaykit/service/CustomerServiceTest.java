@@ -0,0 +1,156 @@
+package com.chatpaykit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.chatpaykit.dto.CreateOrderRequest;
+import com.chatpaykit.dto.CustomerOrdersResponse;
+import com.chatpaykit.dto.OrderResponse;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.OrderRepository;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:customers;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "app.customers.backfill.enabled=false"
+})
+@AutoConfigureMockMvc
+class CustomerServiceTest {
+
+    @Autowired CustomerService customerService;
+    @Autowired CustomerBackfill customerBackfill;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderReadCache orderReadCache;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired JwtService jwtService;
+    @Autowired MockMvc mvc;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+    }
+
+    @Test
+    void ordersForTheSameNumberShareOneCustomer() {
+        Order first = create(tenantId, "Asha", "919876543210", 1000);
+        Order second = create(tenantId, "Asha Verma", "919876543210", 2500);
+        Order other = create(tenantId, "Rahul", "918800143210", 500);
+        Order otherTenant = create(UUID.randomUUID(), "Asha", "919876543210", 1000);
+
+        assertNotNull(first.getCustomerId());
+        assertEquals(first.getCustomerId(), second.getCustomerId());
+        assertNotEquals(first.getCustomerId(), other.getCustomerId());
+        assertNotEquals(first.getCustomerId(), otherTenant.getCustomerId());
+
+        // Formatting doesn't make a new customer
+        assertEquals(first.getCustomerId(), customerService.resolve(tenantId, "x", "+91 98765-43210", false));
+        assertNull(customerService.resolve(tenantId, "x", "n/a", false));
+    }
+
+    @Test
+    void historyIsNewestFirstWithLifetimeTotals() {
+        Order a = create(tenantId, "Asha", "919876543210", 1000);
+        Order b = create(tenantId, "Asha Verma", "919876543210", 2500);
+        Order c = create(tenantId, "Asha Verma", "919876543210", 4000);
+        setStatus(a, OrderStatus.PAID);
+        setStatus(b, OrderStatus.REFUNDED);
+        setStatus(c, OrderStatus.PAID);
+
+        CustomerOrdersResponse page0 = customerService.orders(tenantId, a.getCustomerId(), 0, 2);
+        assertEquals("Asha Verma", page0.getName(), "latest name wins");
+        assertEquals(List.of(c.getId(), b.getId()), ids(page0));
+        assertTrue(page0.isHasNext());
+        assertEquals(3, page0.getOrderCount());
+        assertEquals(2, page0.getPaidOrderCount());
+        assertEquals(5000, page0.getLifetimePaidPaise());
+        assertEquals(2500, page0.getRefundedPaise());
+
+        assertEquals(List.of(a.getId()), ids(customerService.orders(tenantId, a.getCustomerId(), 1, 2)));
+    }
+
+    @Test
+    void otherTenantsCustomerIsNotFound() throws Exception {
+        Order a = create(tenantId, "Asha", "919876543210", 1000);
+        assertThrows(ApiException.class, () -> customerService.orders(UUID.randomUUID(), a.getCustomerId(), 0, 20));
+
+        String otherTenant = "Bearer " + jwtService.generateToken(UUID.randomUUID(), UUID.randomUUID(), "ADMIN");
+        mvc.perform(get("/api/customers/{id}/orders", a.getCustomerId()).header("Authorization", otherTenant))
+                .andExpect(status().isNotFound());
+        String owner = "Bearer " + jwtService.generateToken(UUID.randomUUID(), tenantId, "ADMIN");
+        mvc.perform(get("/api/customers/{id}/orders", a.getCustomerId()).param("size", "0").header("Authorization", owner))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void backfillLinksOlderOrders() {
+        Order a = create(tenantId, "Asha", "919876543210", 1000);
+        Order b = create(tenantId, "Asha", "919876543210", 1000);
+        Order c = create(tenantId, "Rahul", "918800143210", 1000);
+        UUID asha = a.getCustomerId();
+        // As if written before the customers table existed
+        jdbcTemplate.update("UPDATE orders SET customer_id = NULL WHERE tenant_id = ?", tenantId);
+        jdbcTemplate.update("DELETE FROM customers WHERE tenant_id = ? AND id <> ?", tenantId, asha);
+        OrderResponse cached = orderReadCache.get(a.getId()).order();
+        assertNull(cached.getCustomerId());
+
+        assertTrue(customerBackfill.backfill() >= 3);
+
+        // Linking leaves updated_at alone and drops the cached unlinked copy
+        OrderResponse reread = orderReadCache.get(a.getId()).order();
+        assertEquals(asha, reread.getCustomerId());
+        assertEquals(cached.getUpdatedAt(), reread.getUpdatedAt());
+        assertEquals(asha, orderRepository.findById(a.getId()).orElseThrow().getCustomerId());
+        assertEquals(asha, orderRepository.findById(b.getId()).orElseThrow().getCustomerId());
+        UUID rahul = orderRepository.findById(c.getId()).orElseThrow().getCustomerId();
+        assertNotNull(rahul);
+        assertNotEquals(asha, rahul);
+        assertEquals(0, customerBackfill.backfill(), "nothing left to link");
+    }
+
+    private Order create(UUID tenant, String name, String whatsapp, long amountPaise) {
+        CreateOrderRequest req = new CreateOrderRequest();
+        req.setCustomerName(name);
+        req.setCustomerWhatsapp(whatsapp);
+        req.setAmountPaise(amountPaise);
+        Order o = orderService.create(req, tenant);
+        try {
+            Thread.sleep(2); // distinct createdAt for the newest-first order
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return o;
+    }
+
+    private void setStatus(Order o, OrderStatus status) {
+        jdbcTemplate.update("UPDATE orders SET status = ? WHERE id = ?", status.name(), o.getId());
+    }
+
+    private static List<UUID> ids(CustomerOrdersResponse r) {
+        return r.getItems().stream().map(OrderResponse::getId).toList();
+    }
+}
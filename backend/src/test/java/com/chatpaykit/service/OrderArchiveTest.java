@@ -0,0 +1,138 @@
+package com.chatpaykit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.chatpaykit.dto.OrderStatsResponse;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.ArchivedOrderRepository;
+import com.chatpaykit.repository.OrderRepository;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderarchive;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "app.archive.afterDays=180",
+        "app.archive.paidAfterDays=365",
+        "app.archive.batchSize=2",
+        "app.archive.pauseMs=0"
+})
+@AutoConfigureMockMvc
+class OrderArchiveTest {
+
+    @Autowired MockMvc mvc;
+    @Autowired OrderArchive orderArchive;
+    @Autowired OrderService orderService;
+    @Autowired OrderStatsService orderStatsService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired ArchivedOrderRepository archivedOrderRepository;
+    @Autowired JwtService jwtService;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+    @MockitoBean WhatsappPaymentService whatsappPaymentService;
+
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+    }
+
+    @Test
+    void settledOrdersMoveAndStillRead() throws Exception {
+        Order refunded = order(OrderStatus.REFUNDED, 200);
+        Order expired = order(OrderStatus.EXPIRED, 190);
+        Order oldPaid = order(OrderStatus.PAID, 400);
+        Order recentPaid = order(OrderStatus.PAID, 200);
+        Order recentRefund = order(OrderStatus.REFUNDED, 10);
+        Order oldOpen = order(OrderStatus.PAYMENT_SENT, 400);
+
+        assertEquals(3, orderArchive.archiveAsOf(Instant.now()));
+
+        for (Order o : new Order[]{refunded, expired, oldPaid}) {
+            assertFalse(orderRepository.existsById(o.getId()));
+            assertTrue(archivedOrderRepository.existsById(o.getId()));
+        }
+        for (Order o : new Order[]{recentPaid, recentRefund, oldOpen}) {
+            assertTrue(orderRepository.existsById(o.getId()));
+        }
+
+        Order restored = orderArchive.find(refunded.getId()).orElseThrow();
+        assertEquals(refunded.getCustomerName(), restored.getCustomerName());
+        assertEquals(refunded.getRazorpayPaymentId(), restored.getRazorpayPaymentId());
+        assertEquals(refunded.getId(), restored.getId());
+        // Payload was serialized from the row as read back, so it agrees with the columns
+        assertEquals(archivedOrderRepository.findById(refunded.getId()).orElseThrow().getCreatedAt(), restored.getCreatedAt());
+
+        String bearer = "Bearer " + jwtService.generateToken(UUID.randomUUID(), tenantId, "ADMIN");
+        mvc.perform(get("/api/orders/{id}", refunded.getId()).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REFUNDED"))
+                .andExpect(jsonPath("$.customerName").value("Archive Test"));
+        mvc.perform(get("/api/orders/{id}/status", expired.getId()).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("EXPIRED"));
+
+        String otherTenant = "Bearer " + jwtService.generateToken(UUID.randomUUID(), UUID.randomUUID(), "ADMIN");
+        mvc.perform(get("/api/orders/{id}/status", expired.getId()).header("Authorization", otherTenant))
+                .andExpect(status().isForbidden());
+
+        ApiException e = assertThrows(ApiException.class, () -> orderService.refund(oldPaid.getId()));
+        assertEquals(HttpStatus.CONFLICT, e.getStatus());
+        mvc.perform(post("/api/orders/{id}/refund", oldPaid.getId()).header("Authorization", bearer))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Order is archived: " + oldPaid.getId()));
+
+        // Second run finds nothing left to move
+        assertEquals(0, orderArchive.archiveAsOf(Instant.now()));
+    }
+
+    @Test
+    void statsRebuildCountsArchivedOrders() {
+        order(OrderStatus.REFUNDED, 200);
+        order(OrderStatus.REFUNDED, 5);
+        order(OrderStatus.PAID, 5);
+
+        orderArchive.archiveAsOf(Instant.now());
+        OrderStatsResponse stats = orderStatsService.rebuild(tenantId);
+
+        assertEquals(3, stats.getTotalOrders());
+        assertEquals(2, stats.getRefundedCount());
+        assertEquals(2000L, stats.getRefundedAmountPaise());
+    }
+
+    // createdAt in the past; the id carries it (OrderIdGenerator) and updatedAt starts equal to it
+    private Order order(OrderStatus status, int daysAgo) {
+        return orderRepository.save(Order.builder()
+                .tenantId(tenantId)
+                .customerName("Archive Test")
+                .customerWhatsapp("919999999999")
+                .amountPaise(1000L)
+                .currency("INR")
+                .status(status)
+                .attemptCount(0)
+                .razorpayPaymentId("pay_" + UUID.randomUUID().toString().substring(0, 8))
+                .createdAt(Instant.now().minus(Duration.ofDays(daysAgo)))
+                .build());
+    }
+}
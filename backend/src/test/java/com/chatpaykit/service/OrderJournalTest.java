@@ -0,0 +1,187 @@
+package com.chatpaykit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.chatpaykit.dto.CreateOrderRequest;
+import com.chatpaykit.dto.OrderEventResponse;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderEventSource;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.entity.TenantSettings;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.repository.TenantSettingsRepository;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderjournal;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "app.orderEvents.compactAfterDays=30",
+        "app.orderEvents.retentionDays=365",
+        "app.orderEvents.batchSize=2"
+})
+@AutoConfigureMockMvc
+class OrderJournalTest {
+
+    private static final String WEBHOOK_SECRET = "test_webhook_secret";
+
+    @Autowired MockMvc mvc;
+    @Autowired OrderJournal orderJournal;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired TenantSettingsRepository tenantSettingsRepository;
+    @Autowired JwtService jwtService;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+    @MockitoBean WhatsappPaymentService whatsappPaymentService;
+
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+        tenantSettingsRepository.save(TenantSettings.builder()
+                .tenantId(tenantId)
+                .razorpayWebhookSecret(WEBHOOK_SECRET)
+                .build());
+    }
+
+    @Test
+    void eachTransitionIsJournaledWithItsSource() throws Exception {
+        String rzpOrderId = "order_" + UUID.randomUUID().toString().substring(0, 8);
+        when(razorpayPaymentService.sendPaymentRequestOnWhatsapp(any())).thenReturn(rzpOrderId);
+        Order o = create();
+        orderService.sendPaymentRequest(o.getId());
+
+        String eventId = "evt_" + UUID.randomUUID();
+        String payload = """
+                {"id":"%s","event":"payment.captured","created_at":1,
+                 "payload":{"payment":{"entity":{"id":"pay_1","order_id":"%s","status":"captured"}},"refund":{}}}
+                """.formatted(eventId, rzpOrderId);
+        mvc.perform(post("/webhooks/razorpay")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Razorpay-Signature", hmac(payload))
+                        .content(payload))
+                .andExpect(status().isOk());
+
+        List<OrderEventResponse> events = orderJournal.timeline(tenantId, o.getId(), 0, 20).getItems();
+        assertEquals(List.of(OrderStatus.PAID, OrderStatus.PAYMENT_SENT, OrderStatus.CREATED),
+                events.stream().map(OrderEventResponse::getTo).toList());
+        assertEquals(List.of(OrderEventSource.WEBHOOK, OrderEventSource.SEND_PAYMENT, OrderEventSource.CREATE),
+                events.stream().map(OrderEventResponse::getSource).toList());
+        assertEquals(OrderStatus.PAYMENT_SENT, events.get(0).getFrom());
+        assertEquals(eventId, events.get(0).getEventId());
+        assertNull(events.get(2).getFrom());
+
+        String bearer = "Bearer " + jwtService.generateToken(UUID.randomUUID(), tenantId, "ADMIN");
+        mvc.perform(get("/api/orders/{id}/events", o.getId()).param("size", "2").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].to").value("PAID"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        String otherTenant = "Bearer " + jwtService.generateToken(UUID.randomUUID(), UUID.randomUUID(), "ADMIN");
+        mvc.perform(get("/api/orders/{id}/events", o.getId()).header("Authorization", otherTenant))
+                .andExpect(status().isForbidden());
+        mvc.perform(get("/api/orders/{id}/events", o.getId()).param("size", "0").header("Authorization", bearer))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void rolledBackTransitionLeavesNoEvent() {
+        when(razorpayPaymentService.refundPayment(any(), anyString())).thenThrow(new IllegalStateException("502"));
+        Order o = create();
+        o.setStatus(OrderStatus.PAID);
+        o.setRazorpayPaymentId("pay_1");
+        orderRepository.save(o);
+
+        assertThrows(ApiException.class, () -> orderService.refund(o.getId()));
+
+        assertEquals(OrderStatus.PAID, orderRepository.findById(o.getId()).orElseThrow().getStatus());
+        assertEquals(List.of(OrderStatus.CREATED), orderJournal.timeline(tenantId, o.getId(), 0, 20).getItems()
+                .stream().map(OrderEventResponse::getTo).toList());
+    }
+
+    @Test
+    void pruneKeepsEachOrdersLatestUntilRetention() {
+        UUID old = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        UUID ancient = UUID.randomUUID();
+        insert(old, OrderStatus.CREATED, 60);
+        insert(old, OrderStatus.PAYMENT_SENT, 50);
+        insert(old, OrderStatus.PAID, 40);
+        insert(active, OrderStatus.CREATED, 45);
+        insert(active, OrderStatus.PAYMENT_SENT, 1);
+        insert(ancient, OrderStatus.CREATED, 400);
+
+        orderJournal.prune();
+
+        assertEquals(List.of(OrderStatus.PAID), statuses(old));
+        assertEquals(List.of(OrderStatus.PAYMENT_SENT), statuses(active));
+        assertEquals(List.of(), statuses(ancient));
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private Order create() {
+        CreateOrderRequest req = new CreateOrderRequest();
+        req.setCustomerName("Journal Test");
+        req.setCustomerWhatsapp("919999999999");
+        req.setAmountPaise(1000L);
+        Order o = orderService.create(req, tenantId);
+        return o;
+    }
+
+    private void insert(UUID orderId, OrderStatus to, int daysAgo) {
+        jdbcTemplate.update("""
+                INSERT INTO order_events (id, tenant_id, order_id, to_status, source, occurred_at)
+                VALUES (NEXT VALUE FOR order_events_seq, ?, ?, ?, 'SYNC', ?)
+                """, tenantId, orderId, to.name(), Timestamp.from(Instant.now().minus(Duration.ofDays(daysAgo))));
+    }
+
+    private List<OrderStatus> statuses(UUID orderId) {
+        return orderJournal.timeline(tenantId, orderId, 0, 20).getItems().stream().map(OrderEventResponse::getTo).toList();
+    }
+
+    private static String hmac(String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(WEBHOOK_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.chatpaykit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.dto.CreateOrderRequest;
+import com.chatpaykit.dto.RevenueAnalyticsResponse;
+import com.chatpaykit.dto.RevenueBucket;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderEventSource;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.entity.RollupGranularity;
+import com.chatpaykit.event.OrderStatusChangedEvent;
+import com.chatpaykit.repository.ArchivedOrderRepository;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.repository.OrderRollupGenerationRepository;
+import com.chatpaykit.repository.OrderRollupRepository;
+import com.chatpaykit.shard.TenantShards;
+
+/**
+ * Order rollups: a late status change corrects the bucket the order was
+ * created in, and a rebuild is not double-counted by deltas another node
+ * buffered before it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderrollups;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        // Flushed by the tests only
+        "app.rollups.flushMs=3600000"
+})
+class OrderRollupServiceTest {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    @Autowired OrderRollupService orderRollupService;
+    @Autowired OrderService orderService;
+    @Autowired OrderRollupRepository rollupRepository;
+    @Autowired OrderRepository orderRepository;
+    @Autowired ArchivedOrderRepository archivedOrderRepository;
+    @Autowired OrderRollupGenerationRepository generationRepository;
+    @Autowired TenantShards tenantShards;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+    @MockitoBean WhatsappPaymentService whatsappPaymentService;
+
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+    }
+
+    @Test
+    void lateRefundCorrectsTheDayTheOrderWasCreated() {
+        LocalDate today = LocalDate.now(UTC);
+        LocalDate created = today.minusDays(3);
+        Order a = createOn(created, 1000);
+        createOn(created, 2000);
+        orderRollupService.rebuild(tenantId);
+
+        setStatus(a, OrderStatus.PAID);
+        transition(orderRollupService, a, OrderStatus.CREATED, OrderStatus.PAID);
+        orderRollupService.flush();
+
+        RevenueBucket day = bucket(created);
+        assertEquals(2, day.getOrders());
+        assertEquals(1, day.getPaid());
+        assertEquals(1000, day.getNetRevenuePaise());
+
+        // Refunded today: moves between the status rows of the creation day
+        setStatus(a, OrderStatus.REFUNDED);
+        transition(orderRollupService, a, OrderStatus.PAID, OrderStatus.REFUNDED);
+        orderRollupService.flush();
+
+        RevenueAnalyticsResponse r = orderRollupService.revenue(tenantId, created, today, RollupGranularity.DAY);
+        assertEquals(1, r.getBuckets().size());
+        day = r.getBuckets().get(0);
+        assertEquals(created.atStartOfDay(UTC).toInstant(), day.getBucketStart());
+        assertEquals(2, day.getOrders());
+        assertEquals(1, day.getPaid());
+        assertEquals(1, day.getRefunded());
+        assertEquals(0, day.getNetRevenuePaise());
+        assertEquals(0, dayRows(created).get(OrderStatus.PAID));
+        assertEquals(1, dayRows(created).get(OrderStatus.REFUNDED));
+        assertNull(bucketOrNull(today));
+
+        // A recount agrees with what the deltas built (it writes no zero rows)
+        Map<OrderStatus, Long> before = dayRows(created);
+        before.values().removeIf(v -> v == 0);
+        orderRollupService.rebuild(tenantId);
+        assertEquals(before, dayRows(created));
+    }
+
+    @Test
+    void rebuildIsNotDoubleCountedByAnotherNodesPendingDeltas() {
+        LocalDate created = LocalDate.now(UTC).minusDays(1);
+        Order a = createOn(created, 1000);
+        Order b = createOn(created, 2000);
+        createOn(created, 3000);
+        orderRollupService.rebuild(tenantId);
+
+        // Another node buffers a transition it has not flushed yet
+        OrderRollupService other = otherNode();
+        setStatus(a, OrderStatus.PAID);
+        transition(other, a, OrderStatus.CREATED, OrderStatus.PAID);
+
+        // Drift, then the rebuild recounts (a is PAID in the orders table)
+        jdbcTemplate.update("UPDATE order_rollups SET order_count = 99 WHERE tenant_id = ?", tenantId);
+        orderRollupService.rebuild(tenantId);
+        assertEquals(Map.of(OrderStatus.CREATED, 2L, OrderStatus.PAID, 1L), dayRows(created));
+
+        // The other node's flush sees the new generation and drops what the recount has
+        other.flush();
+        assertEquals(Map.of(OrderStatus.CREATED, 2L, OrderStatus.PAID, 1L), dayRows(created));
+
+        // ...and counts normally from there on
+        setStatus(b, OrderStatus.FAILED);
+        transition(other, b, OrderStatus.CREATED, OrderStatus.FAILED);
+        other.flush();
+        assertEquals(Map.of(OrderStatus.CREATED, 1L, OrderStatus.PAID, 1L, OrderStatus.FAILED, 1L), dayRows(created));
+    }
+
+    @Test
+    void nodeStartedAfterARebuildCountsUnderItsGeneration() {
+        LocalDate created = LocalDate.now(UTC).minusDays(1);
+        Order a = createOn(created, 1000);
+        orderRollupService.rebuild(tenantId);
+
+        // First seen by this node after the rebuild: nothing to drop
+        OrderRollupService other = otherNode();
+        setStatus(a, OrderStatus.PAID);
+        transition(other, a, OrderStatus.CREATED, OrderStatus.PAID);
+        other.flush();
+        assertEquals(Map.of(OrderStatus.CREATED, 0L, OrderStatus.PAID, 1L), dayRows(created));
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private Order createOn(LocalDate day, long amountPaise) {
+        CreateOrderRequest req = new CreateOrderRequest();
+        req.setCustomerName("Rollup");
+        req.setCustomerWhatsapp("919999999999");
+        req.setAmountPaise(amountPaise);
+        Order o = orderService.create(req, tenantId);
+
+        Instant createdAt = day.atTime(12, 0).toInstant(ZoneOffset.UTC);
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?", Timestamp.from(createdAt), o.getId());
+        o.setCreatedAt(createdAt);
+        return o;
+    }
+
+    private static void transition(OrderRollupService node, Order o, OrderStatus from, OrderStatus to) {
+        node.onStatusChanged(new OrderStatusChangedEvent(o, from, to, OrderEventSource.WEBHOOK, null));
+    }
+
+    private void setStatus(Order o, OrderStatus status) {
+        jdbcTemplate.update("UPDATE orders SET status = ? WHERE id = ?", status.name(), o.getId());
+        o.setStatus(status);
+    }
+
+    private OrderRollupService otherNode() {
+        OrderRollupService node = new OrderRollupService(rollupRepository, orderRepository, archivedOrderRepository,
+                generationRepository, transactionTemplate, tenantShards);
+        ReflectionTestUtils.setField(node, "zone", UTC);
+        ReflectionTestUtils.setField(node, "maxBuckets", 1000);
+        ReflectionTestUtils.setField(node, "hourRetentionDays", 90);
+        return node;
+    }
+
+    private RevenueBucket bucket(LocalDate day) {
+        RevenueBucket b = bucketOrNull(day);
+        if (b == null) throw new AssertionError("No rollup bucket for " + day);
+        return b;
+    }
+
+    private RevenueBucket bucketOrNull(LocalDate day) {
+        var buckets = orderRollupService.revenue(tenantId, day, day, RollupGranularity.DAY).getBuckets();
+        return buckets.isEmpty() ? null : buckets.get(0);
+    }
+
+    private Map<OrderStatus, Long> dayRows(LocalDate day) {
+        Map<OrderStatus, Long> m = new HashMap<>();
+        jdbcTemplate.query("""
+                        SELECT status, order_count FROM order_rollups
+                         WHERE tenant_id = ? AND granularity = 'DAY' AND bucket_start = ?
+                        """,
+                rs -> {
+                    m.put(OrderStatus.valueOf(rs.getString(1)), rs.getLong(2));
+                }, tenantId, Timestamp.from(day.atStartOfDay(UTC).toInstant()));
+        return m;
+    }
+}
@@ -0,0 +1,119 @@
+package com.chatpaykit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.chatpaykit.dto.OrderResponse;
+import com.chatpaykit.dto.OrderSearchResponse;
+import com.chatpaykit.dto.OrderSearchResponse.MatchedBy;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.OrderRepository;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ordersearch;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class OrderSearchServiceTest {
+
+    @Autowired OrderSearchService orderSearchService;
+    @Autowired OrderRepository orderRepository;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+        save(tenantId, "Asha Verma", "919876543210", "order_A1", "pay_A1", null);
+        save(tenantId, "Rahul Mehta", "918800143210", "order_B2", "pay_B2", "rfnd_B2");
+        save(tenantId, "asha_k 100%", "447700900123", null, null, null);
+        // Same name and number under another tenant must never show up
+        save(UUID.randomUUID(), "Asha Verma", "919876543210", "order_X9", "pay_X9", null);
+    }
+
+    @Test
+    void phoneDigitsMatchNumberSuffix() {
+        OrderSearchResponse r = orderSearchService.search(tenantId, "+91 98765-43210", 0, 20);
+        assertEquals(MatchedBy.WHATSAPP, r.getMatchedBy());
+        assertEquals(List.of("Asha Verma"), names(r));
+
+        assertEquals(List.of("Rahul Mehta", "Asha Verma"), names(orderSearchService.search(tenantId, "43210", 0, 20)));
+        assertEquals(List.of(), names(orderSearchService.search(tenantId, "98765", 0, 20)), "prefix is not a suffix");
+    }
+
+    @Test
+    void nameMatchesCaseInsensitiveFragmentWithLiteralWildcards() {
+        OrderSearchResponse r = orderSearchService.search(tenantId, "ASHA", 0, 20);
+        assertEquals(MatchedBy.NAME, r.getMatchedBy());
+        assertEquals(List.of("asha_k 100%", "Asha Verma"), names(r));
+
+        assertEquals(List.of("asha_k 100%"), names(orderSearchService.search(tenantId, "a_k", 0, 20)));
+        assertEquals(List.of("asha_k 100%"), names(orderSearchService.search(tenantId, "00%", 0, 20)));
+    }
+
+    @Test
+    void razorpayIdsAreExactTenantScopedMatches() {
+        assertEquals(MatchedBy.RAZORPAY_ORDER_ID, orderSearchService.search(tenantId, "order_A1", 0, 20).getMatchedBy());
+        assertEquals(List.of("Asha Verma"), names(orderSearchService.search(tenantId, "order_A1", 0, 20)));
+        assertEquals(List.of("Rahul Mehta"), names(orderSearchService.search(tenantId, "pay_B2", 0, 20)));
+        assertEquals(List.of("Rahul Mehta"), names(orderSearchService.search(tenantId, "rfnd_B2", 0, 20)));
+        assertEquals(List.of(), names(orderSearchService.search(tenantId, "order_X9", 0, 20)));
+        assertEquals(List.of(), names(orderSearchService.search(tenantId, "order_A", 0, 20)));
+    }
+
+    @Test
+    void pagesNewestFirst() {
+        OrderSearchResponse first = orderSearchService.search(tenantId, "43210", 0, 1);
+        assertEquals(List.of("Rahul Mehta"), names(first));
+        assertTrue(first.isHasNext());
+
+        OrderSearchResponse second = orderSearchService.search(tenantId, "43210", 1, 1);
+        assertEquals(List.of("Asha Verma"), names(second));
+        assertFalse(second.isHasNext());
+    }
+
+    @Test
+    void rejectsQueriesThatCannotUseAnIndex() {
+        assertThrows(ApiException.class, () -> orderSearchService.search(tenantId, "  ", 0, 20));
+        assertThrows(ApiException.class, () -> orderSearchService.search(tenantId, "321", 0, 20));
+        assertThrows(ApiException.class, () -> orderSearchService.search(tenantId, "as", 0, 20));
+        assertThrows(ApiException.class, () -> orderSearchService.search(tenantId, "asha", 0, 1000));
+    }
+
+    private void save(UUID tenant, String name, String whatsapp, String rzpOrderId, String rzpPaymentId, String refundId) {
+        orderRepository.saveAndFlush(Order.builder()
+                .tenantId(tenant)
+                .customerName(name)
+                .customerWhatsapp(whatsapp)
+                .amountPaise(1000L)
+                .currency("INR")
+                .status(OrderStatus.PAID)
+                .razorpayOrderId(rzpOrderId)
+                .razorpayPaymentId(rzpPaymentId)
+                .razorpayRefundId(refundId)
+                .build());
+        try {
+            Thread.sleep(2); // distinct createdAt for the newest-first order
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<String> names(OrderSearchResponse r) {
+        return r.getItems().stream().map(OrderResponse::getCustomerName).toList();
+    }
+}
@@ -0,0 +1,195 @@
+package com.chatpaykit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.dto.CreateOrderRequest;
+import com.chatpaykit.dto.OrderStatsResponse;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderEventSource;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.event.OrderStatusChangedEvent;
+import com.chatpaykit.repository.ArchivedOrderRepository;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.repository.TenantOrderStatRepository;
+import com.chatpaykit.repository.TenantRepository;
+import com.chatpaykit.shard.TenantShards;
+
+/**
+ * Order counters: in-memory deltas, the flush into tenant_order_stats, a
+ * failed flush being retried, and a rebuild that other nodes pick up.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderstats;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        // Flushed by the tests only
+        "app.stats.flushMs=3600000"
+})
+class OrderStatsServiceTest {
+
+    @Autowired OrderStatsService orderStatsService;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired ArchivedOrderRepository archivedOrderRepository;
+    @Autowired TenantRepository tenantRepository;
+    @Autowired TenantShards tenantShards;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean TenantOrderStatRepository statRepository;
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+    @MockitoBean WhatsappPaymentService whatsappPaymentService;
+
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+    }
+
+    @Test
+    void transitionsCountBeforeAndAfterTheFlush() {
+        Order a = create(1000);
+        create(2500);
+
+        // Unflushed: served from this node's deltas
+        OrderStatsResponse before = orderStatsService.get(tenantId);
+        assertEquals(2, before.getCountByStatus().get(OrderStatus.CREATED));
+        assertEquals(3500, before.getAmountPaiseByStatus().get(OrderStatus.CREATED));
+        assertTrue(rows().isEmpty());
+
+        orderStatsService.flush();
+        assertEquals(2, rows().get("CREATED")[0]);
+        assertEquals(2, orderStatsService.get(tenantId).getCountByStatus().get(OrderStatus.CREATED));
+
+        transition(orderStatsService, a, OrderStatus.CREATED, OrderStatus.PAID);
+        OrderStatsResponse after = orderStatsService.get(tenantId);
+        assertEquals(1, after.getCountByStatus().get(OrderStatus.CREATED));
+        assertEquals(1, after.getCountByStatus().get(OrderStatus.PAID));
+        assertEquals(1, after.getPaidTodayCount());
+        assertEquals(1000, after.getPaidTodayAmountPaise());
+        assertEquals(2, after.getTotalOrders());
+
+        orderStatsService.flush();
+        assertEquals(1, rows().get("CREATED")[0]);
+        assertEquals(1, rows().get("PAID")[0]);
+        assertEquals(1000, rows().get("PAID_DAY:" + LocalDate.now(ZoneId.of("UTC")))[1]);
+    }
+
+    @Test
+    void failedFlushIsRetriedWithoutLossOrDoubleCount() {
+        create(1000);
+        create(1000);
+        doThrow(new IllegalStateException("database unavailable"))
+                .when(statRepository).lockCount(eq(tenantId), anyString());
+
+        orderStatsService.flush();
+        reset(statRepository);
+        assertTrue(rows().isEmpty());
+        // The deltas went back: reads still see them
+        assertEquals(2, orderStatsService.get(tenantId).getCountByStatus().get(OrderStatus.CREATED));
+
+        orderStatsService.flush();
+        assertEquals(2, rows().get("CREATED")[0]);
+        assertEquals(2000, rows().get("CREATED")[1]);
+
+        orderStatsService.flush();
+        assertEquals(2, rows().get("CREATED")[0]);
+    }
+
+    @Test
+    void rebuildRepairsDriftAndOtherNodesDropWhatItRecounted() {
+        Order a = create(1000);
+        Order b = create(2000);
+        create(3000);
+        orderStatsService.flush();
+
+        // A second node with deltas flushed before the rebuild
+        OrderStatsService other = otherNode();
+        setStatus(a, OrderStatus.PAID);
+        transition(other, a, OrderStatus.CREATED, OrderStatus.PAID);
+        other.flush();
+
+        // ...and one still unflushed when the rebuild recounts it
+        setStatus(b, OrderStatus.FAILED);
+        transition(other, b, OrderStatus.CREATED, OrderStatus.FAILED);
+
+        // Drift
+        jdbcTemplate.update("UPDATE tenant_order_stats SET order_count = 99 WHERE tenant_id = ? AND stat_key = 'CREATED'",
+                tenantId);
+
+        OrderStatsResponse rebuilt = orderStatsService.rebuild(tenantId);
+        assertEquals(1, rebuilt.getCountByStatus().get(OrderStatus.CREATED));
+        assertEquals(1, rebuilt.getCountByStatus().get(OrderStatus.PAID));
+        assertEquals(1, rebuilt.getCountByStatus().get(OrderStatus.FAILED));
+
+        // The other node sees the new generation: its FAILED delta is not added twice
+        other.flush();
+        assertEquals(1, rows().get("FAILED")[0]);
+        assertEquals(1, rows().get("CREATED")[0]);
+        assertEquals(1, other.get(tenantId).getCountByStatus().get(OrderStatus.FAILED));
+
+        // And counts normally from there on
+        setStatus(a, OrderStatus.REFUNDED);
+        transition(other, a, OrderStatus.PAID, OrderStatus.REFUNDED);
+        other.flush();
+        assertEquals(0, rows().get("PAID")[0]);
+        assertEquals(1, rows().get("REFUNDED")[0]);
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private Order create(long amountPaise) {
+        CreateOrderRequest req = new CreateOrderRequest();
+        req.setCustomerName("Stats");
+        req.setCustomerWhatsapp("919999999999");
+        req.setAmountPaise(amountPaise);
+        return orderService.create(req, tenantId);
+    }
+
+    private static void transition(OrderStatsService node, Order o, OrderStatus from, OrderStatus to) {
+        node.onStatusChanged(new OrderStatusChangedEvent(o, from, to, OrderEventSource.WEBHOOK, null));
+    }
+
+    private void setStatus(Order o, OrderStatus status) {
+        jdbcTemplate.update("UPDATE orders SET status = ? WHERE id = ?", status.name(), o.getId());
+    }
+
+    private OrderStatsService otherNode() {
+        OrderStatsService node = new OrderStatsService(statRepository, orderRepository, archivedOrderRepository,
+                tenantRepository, transactionTemplate, tenantShards);
+        ReflectionTestUtils.setField(node, "zone", ZoneId.of("UTC"));
+        ReflectionTestUtils.setField(node, "snapshotTtlMs", 60_000L);
+        return node;
+    }
+
+    private Map<String, long[]> rows() {
+        Map<String, long[]> m = new HashMap<>();
+        jdbcTemplate.query("SELECT stat_key, order_count, amount_paise FROM tenant_order_stats WHERE tenant_id = ?",
+                rs -> {
+                    m.put(rs.getString(1), new long[]{rs.getLong(2), rs.getLong(3)});
+                }, tenantId);
+        return m;
+    }
+}
@@ -0,0 +1,199 @@
+package com.chatpaykit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.chatpaykit.dto.VerifyPaymentRequest;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.entity.TenantSettings;
+import com.chatpaykit.exception.ApiException;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.repository.TenantSettingsRepository;
+
+/**
+ * Each business operation on an order must issue exactly one UPDATE, and only
+ * for the columns it changed. SQL is captured per thread so scheduled flushes
+ * running in the background don't count.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writepath;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.chatpaykit.service.OrderWritePathTest$SqlCapture"
+})
+class OrderWritePathTest {
+
+    private static final String KEY_SECRET = "test_key_secret";
+
+    public static class SqlCapture implements StatementInspector {
+        static final ThreadLocal<List<String>> SQL = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            SQL.get().add(sql.toLowerCase());
+            return sql;
+        }
+    }
+
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired TenantSettingsRepository tenantSettingsRepository;
+    @Autowired OrderRollupService orderRollupService;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+        tenantSettingsRepository.save(TenantSettings.builder()
+                .tenantId(tenantId)
+                .razorpayKeySecret(KEY_SECRET)
+                .build());
+    }
+
+    @Test
+    void sendPaymentRequestIsOneUpdate() {
+        when(razorpayPaymentService.sendPaymentRequestOnWhatsapp(any())).thenReturn("order_rzp_1");
+        Order o = newOrder(OrderStatus.CREATED);
+
+        SqlCapture.SQL.get().clear();
+        orderService.sendPaymentRequest(o.getId());
+
+        List<String> updates = orderUpdates();
+        assertEquals(1, updates.size(), updates::toString);
+        assertTrue(updates.get(0).contains("status"));
+        assertTrue(updates.get(0).contains("razorpay_order_id"));
+        assertUntouched(updates.get(0));
+    }
+
+    @Test
+    void verifyPaymentIsOneMinimalUpdate() {
+        Order o = newOrder(OrderStatus.PAYMENT_SENT);
+
+        SqlCapture.SQL.get().clear();
+        orderService.verifyPayment(o.getId(), verifyRequest("order_rzp_1", "pay_1", KEY_SECRET));
+
+        List<String> updates = orderUpdates();
+        assertEquals(1, updates.size(), updates::toString);
+        assertTrue(updates.get(0).contains("razorpay_payment_id"));
+        assertFalse(updates.get(0).contains("last_error"), "lastError was null already");
+        assertUntouched(updates.get(0));
+        assertEquals(OrderStatus.PAID, orderRepository.findById(o.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void invalidSignatureStillRecordsLastError() {
+        Order o = newOrder(OrderStatus.PAYMENT_SENT);
+
+        SqlCapture.SQL.get().clear();
+        assertThrows(ApiException.class, () ->
+                orderService.verifyPayment(o.getId(), verifyRequest("order_rzp_1", "pay_1", "wrong_secret")));
+
+        List<String> updates = orderUpdates();
+        assertEquals(1, updates.size(), updates::toString);
+        assertTrue(updates.get(0).contains("last_error"));
+        assertFalse(updates.get(0).contains("status"));
+        assertEquals("Invalid checkout signature",
+                orderRepository.findById(o.getId()).orElseThrow().getLastError());
+    }
+
+    @Test
+    void refundIsOneUpdate() {
+        when(razorpayPaymentService.refundPayment(any(), anyString())).thenReturn("rfnd_1");
+        Order o = newOrder(OrderStatus.PAID);
+        o.setRazorpayPaymentId("pay_1");
+        orderRepository.save(o);
+
+        SqlCapture.SQL.get().clear();
+        orderService.refund(o.getId());
+
+        List<String> updates = orderUpdates();
+        assertEquals(1, updates.size(), updates::toString);
+        assertTrue(updates.get(0).contains("razorpay_refund_id"));
+        assertUntouched(updates.get(0));
+        assertEquals(OrderStatus.REFUND_PENDING, orderRepository.findById(o.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void rollupRebuildInsertsInOneBatch() {
+        for (OrderStatus st : List.of(OrderStatus.CREATED, OrderStatus.PAID, OrderStatus.FAILED)) {
+            newOrder(st);
+        }
+
+        SqlCapture.SQL.get().clear();
+        int rows = orderRollupService.rebuild(tenantId);
+
+        assertEquals(6, rows); // 3 statuses x (HOUR, DAY)
+        List<String> sql = SqlCapture.SQL.get();
+        assertEquals(1, sql.stream().filter(s -> s.startsWith("insert into order_rollups")).count(), sql::toString);
+        assertEquals(0, sql.stream().filter(s -> s.startsWith("select") && s.contains("from order_rollups")).count(),
+                sql::toString);
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private Order newOrder(OrderStatus status) {
+        return orderRepository.save(Order.builder()
+                .tenantId(tenantId)
+                .customerName("Test")
+                .customerWhatsapp("919999999999")
+                .amountPaise(1000L)
+                .currency("INR")
+                .status(status)
+                .razorpayOrderId(status == OrderStatus.CREATED ? null : "order_rzp_1")
+                .build());
+    }
+
+    private static List<String> orderUpdates() {
+        return SqlCapture.SQL.get().stream().filter(s -> s.startsWith("update orders ")).toList();
+    }
+
+    // Columns no operation here changes
+    private static void assertUntouched(String update) {
+        for (String col : List.of("customer_name", "customer_whatsapp", "amount_paise", "description", "tenant_id")) {
+            assertFalse(update.contains(col), col + " rewritten: " + update);
+        }
+    }
+
+    private static VerifyPaymentRequest verifyRequest(String orderId, String paymentId, String secret) {
+        VerifyPaymentRequest req = new VerifyPaymentRequest();
+        req.setRazorpayOrderId(orderId);
+        req.setRazorpayPaymentId(paymentId);
+        req.setRazorpaySignature(hmac(orderId + "|" + paymentId, secret));
+        return req;
+    }
+
+    private static String hmac(String data, String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
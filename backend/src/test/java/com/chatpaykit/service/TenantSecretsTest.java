@@ -0,0 +1,153 @@
+package com.chatpaykit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.chatpaykit.dto.TenantSettingsRequest;
+import com.chatpaykit.entity.TenantSettings;
+import com.chatpaykit.repository.TenantSettingsRepository;
+import com.chatpaykit.security.SecretCipher;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tenantsecrets;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "app.secrets.keys=" + TenantSecretsTest.OLD_KEY + "," + TenantSecretsTest.NEW_KEY,
+        "app.secrets.activeKeyId=k2",
+        "app.secrets.rotation.pauseMs=0"
+})
+class TenantSecretsTest {
+
+    static final String OLD_KEY = "k1:MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=";
+    static final String NEW_KEY = "k2:ZmVkY2JhOTg3NjU0MzIxMGZlZGNiYTk4NzY1NDMyMTA=";
+
+    private static final String PAYLOAD = "{\"event\":\"payment.captured\"}";
+
+    @Autowired AppSettingsService appSettingsService;
+    @Autowired TenantSecrets tenantSecrets;
+    @Autowired TenantSecretRotation tenantSecretRotation;
+    @Autowired TenantSettingsRepository tenantSettingsRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+    @MockitoBean WhatsappPaymentService whatsappPaymentService;
+
+    @Test
+    void upsertStoresCiphertextAndVerifiesFromCache() {
+        UUID tenantId = UUID.randomUUID();
+        appSettingsService.upsert(tenantId, request("whsec_one", "key_secret"));
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT razorpay_webhook_secret, razorpay_key_secret, key_id FROM tenant_settings WHERE tenant_id = ?",
+                tenantId);
+        assertEquals("k2", row.get("KEY_ID"));
+        assertFalse(row.get("RAZORPAY_WEBHOOK_SECRET").toString().contains("whsec_one"));
+
+        TenantSettings settings = appSettingsService.getOrThrow(tenantId);
+        assertTrue(tenantSecrets.verifyWebhook(settings, PAYLOAD, hmac("whsec_one", PAYLOAD)));
+        assertFalse(tenantSecrets.verifyWebhook(settings, PAYLOAD, hmac("whsec_other", PAYLOAD)));
+        assertTrue(tenantSecrets.verifyCheckout(settings, "order_1", "pay_1", hmac("key_secret", "order_1|pay_1")));
+        assertEquals("key_secret", tenantSecrets.razorpayKeySecret(settings));
+        assertNull(tenantSecrets.whatsappAccessToken(settings));
+
+        // Upsert invalidates: the old secret stops verifying at once
+        appSettingsService.upsert(tenantId, request("whsec_two", "key_secret"));
+        TenantSettings updated = appSettingsService.getOrThrow(tenantId);
+        assertFalse(tenantSecrets.verifyWebhook(updated, PAYLOAD, hmac("whsec_one", PAYLOAD)));
+        assertTrue(tenantSecrets.verifyWebhook(updated, PAYLOAD, hmac("whsec_two", PAYLOAD)));
+        assertEquals("whsec_two", tenantSecrets.decrypt(updated).razorpayWebhookSecret());
+    }
+
+    @Test
+    void prodProfileHasNoMasterKeyFallback() throws Exception {
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().remove(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME);
+        YamlPropertySourceLoader yaml = new YamlPropertySourceLoader();
+        yaml.load("prod", new ClassPathResource("application-prod.yml")).forEach(env.getPropertySources()::addLast);
+        yaml.load("default", new ClassPathResource("application.yml")).forEach(env.getPropertySources()::addLast);
+
+        assertEquals("", env.getProperty("app.secrets.keys"));
+        assertEquals("", env.getProperty("app.secrets.activeKeyId"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new SecretCipher(List.of(), ""));
+        assertTrue(e.getMessage().contains("APP_SECRETS_KEYS"), e.getMessage());
+    }
+
+    @Test
+    void rotationEncryptsPlaintextRowsAndRewrapsOldKeys() {
+        UUID legacy = UUID.randomUUID();
+        tenantSettingsRepository.save(TenantSettings.builder()
+                .tenantId(legacy)
+                .razorpayWebhookSecret("whsec_legacy")
+                .build());
+
+        UUID underOldKey = UUID.randomUUID();
+        SecretCipher oldCipher = new SecretCipher(List.of(OLD_KEY), "k1");
+        byte[] dataKey = oldCipher.newDataKey();
+        String ciphertext = oldCipher.encrypt(dataKey, "whsec_old", underOldKey, TenantSecrets.RAZORPAY_WEBHOOK_SECRET);
+        tenantSettingsRepository.save(TenantSettings.builder()
+                .tenantId(underOldKey)
+                .razorpayWebhookSecret(ciphertext)
+                .dataKey(oldCipher.wrap(dataKey, underOldKey))
+                .keyId("k1")
+                .build());
+
+        // Both readable before rotation
+        assertTrue(tenantSecrets.verifyWebhook(appSettingsService.getOrThrow(legacy), PAYLOAD, hmac("whsec_legacy", PAYLOAD)));
+        assertTrue(tenantSecrets.verifyWebhook(appSettingsService.getOrThrow(underOldKey), PAYLOAD, hmac("whsec_old", PAYLOAD)));
+
+        assertTrue(tenantSecretRotation.rotateAll() >= 2);
+
+        TenantSettings encrypted = tenantSettingsRepository.findById(legacy).orElseThrow();
+        assertEquals("k2", encrypted.getKeyId());
+        assertNotEquals("whsec_legacy", encrypted.getRazorpayWebhookSecret());
+        assertTrue(tenantSecrets.verifyWebhook(encrypted, PAYLOAD, hmac("whsec_legacy", PAYLOAD)));
+
+        // Re-wrapped only: same ciphertext, new master key
+        TenantSettings rewrapped = tenantSettingsRepository.findById(underOldKey).orElseThrow();
+        assertEquals("k2", rewrapped.getKeyId());
+        assertEquals(ciphertext, rewrapped.getRazorpayWebhookSecret());
+        assertTrue(tenantSecrets.verifyWebhook(rewrapped, PAYLOAD, hmac("whsec_old", PAYLOAD)));
+
+        assertEquals(0, tenantSecretRotation.rotateAll());
+    }
+
+    private static TenantSettingsRequest request(String webhookSecret, String keySecret) {
+        TenantSettingsRequest req = new TenantSettingsRequest();
+        req.setRazorpayKeyId("rzp_test_1");
+        req.setRazorpayKeySecret(keySecret);
+        req.setRazorpayWebhookSecret(webhookSecret);
+        return req;
+    }
+
+    private static String hmac(String secret, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.chatpaykit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.chatpaykit.dto.TenantSettingsRequest;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.entity.WhatsappDelivery;
+import com.chatpaykit.repository.WhatsappDeliveryRepository;
+import com.chatpaykit.service.WhatsappPaymentService.DeliveryResult;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.RequiredSearch;
+
+/**
+ * Async sends against a local Graph API stand-in: the caller gets a future
+ * before the response, the delivery row is saved on the record pool, sends
+ * show up in the client's pool and timing metrics, and an unconfigured tenant
+ * is skipped (logged and counted, nothing sent).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:whatsappsend;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@ExtendWith(OutputCaptureExtension.class)
+class WhatsappPaymentServiceTest {
+
+    // /{phoneNumberId}/messages: OK answers after the gate opens, FAIL answers 500
+    private static final HttpServer graph;
+    private static final AtomicReference<CountDownLatch> gate = new AtomicReference<>(new CountDownLatch(0));
+    private static final AtomicInteger requests = new AtomicInteger();
+
+    static {
+        try {
+            graph = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        graph.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        graph.createContext("/", ex -> {
+            requests.incrementAndGet();
+            try (ex) {
+                boolean fail = ex.getRequestURI().getPath().startsWith("/FAIL/");
+                if (!fail) gate.get().await(10, TimeUnit.SECONDS);
+                byte[] body = (fail ? "{\"error\":{\"message\":\"down\"}}"
+                        : "{\"messages\":[{\"id\":\"wamid.1\"}]}").getBytes(StandardCharsets.UTF_8);
+                ex.getResponseHeaders().set("Content-Type", "application/json");
+                ex.sendResponseHeaders(fail ? 500 : 200, body.length);
+                ex.getResponseBody().write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        graph.start();
+    }
+
+    @DynamicPropertySource
+    static void graphUrl(DynamicPropertyRegistry registry) {
+        registry.add("app.whatsapp.baseUrl", () -> "http://127.0.0.1:" + graph.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopGraph() {
+        graph.stop(0);
+    }
+
+    @Autowired WhatsappPaymentService whatsappPaymentService;
+    @Autowired AppSettingsService appSettingsService;
+    @Autowired MeterRegistry meterRegistry;
+
+    @MockitoSpyBean WhatsappDeliveryRepository deliveryRepository;
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+
+    @Test
+    void returnsBeforeGraphAnswersAndRecordsTheDelivery() {
+        Order order = order(configuredTenant("OK"));
+        double sentBefore = count("PAYMENT_SUCCESS", "sent");
+
+        gate.set(new CountDownLatch(1));
+        CompletableFuture<DeliveryResult> f = whatsappPaymentService.sendPaymentSuccessAsync(order);
+        assertFalse(f.isDone());
+        assertEquals(1.0, meterRegistry.get("app.whatsapp.inflight").gauge().value());
+
+        gate.get().countDown();
+        DeliveryResult r = f.orTimeout(10, TimeUnit.SECONDS).join();
+        assertTrue(r.ok());
+        assertEquals("wamid.1", r.messageId());
+
+        List<WhatsappDelivery> rows = deliveryRepository.findByOrderIdOrderByCreatedAtDesc(order.getId());
+        assertEquals(1, rows.size());
+        assertEquals("PAYMENT_SUCCESS", rows.get(0).getKind());
+        assertEquals(200, rows.get(0).getHttpStatus());
+        assertEquals("wamid.1", rows.get(0).getMessageId());
+        assertEquals(1.0, count("PAYMENT_SUCCESS", "sent") - sentBefore);
+        assertEquals(0.0, meterRegistry.get("app.whatsapp.inflight").gauge().value());
+    }
+
+    @Test
+    void unbuildablePayloadIsARecordedFailureNotAThrow() {
+        Order order = order(configuredTenant("OK"));
+        order.setCustomerWhatsapp(null);
+        int requestsBefore = requests.get();
+        double failedBefore = count("PAYMENT_SUCCESS", "failed");
+
+        DeliveryResult r = whatsappPaymentService.sendPaymentSuccessAsync(order).join();
+
+        assertFalse(r.ok());
+        assertEquals(1.0, count("PAYMENT_SUCCESS", "failed") - failedBefore);
+        assertEquals(1, deliveryRepository.findByOrderIdOrderByCreatedAtDesc(order.getId()).size());
+        assertEquals(requestsBefore, requests.get());
+    }
+
+    @Test
+    void sendsAreTimedAndThePoolIsMetered() {
+        Order order = order(configuredTenant("OK"));
+        long timedBefore = timed("200");
+
+        whatsappPaymentService.sendRefundedAsync(order).orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertEquals(1, timed("200") - timedBefore);
+        // Sized from app.http.poolSize; the connection went back to the pool
+        assertEquals(50.0, pool("httpcomponents.httpclient.pool.total.max").gauge().value());
+        assertEquals(0.0, pool("httpcomponents.httpclient.pool.total.connections").tag("state", "leased")
+                .gauge().value());
+        assertTrue(pool("httpcomponents.httpclient.pool.total.connections").tag("state", "available")
+                .gauge().value() >= 1);
+    }
+
+    @Test
+    void failuresAreRecordedOnTheRecordPool() {
+        AtomicReference<String> savedOn = new AtomicReference<>();
+        doAnswer(inv -> {
+            savedOn.set(Thread.currentThread().getName());
+            return inv.getArgument(0);
+        }).when(deliveryRepository).save(any());
+
+        Order order = order(configuredTenant("FAIL"));
+        double failedBefore = count("PAYMENT_FAILED", "failed");
+
+        DeliveryResult r = whatsappPaymentService.sendPaymentFailedAsync(order).orTimeout(10, TimeUnit.SECONDS).join();
+        assertFalse(r.ok());
+        assertTrue(r.error().startsWith("HTTP 500"), r.error());
+        assertTrue(savedOn.get().startsWith("wa-record-"), savedOn.get());
+        assertEquals(1.0, count("PAYMENT_FAILED", "failed") - failedBefore);
+    }
+
+    @Test
+    void unconfiguredTenantIsSkippedLoggedAndCounted(CapturedOutput output) {
+        Order order = order(UUID.randomUUID());
+        int requestsBefore = requests.get();
+        double skippedBefore = count("REFUNDED", "skipped");
+
+        DeliveryResult r = whatsappPaymentService.sendRefundedAsync(order).join();
+
+        assertEquals("WhatsApp not configured", r.error());
+        assertNull(r.messageId());
+        assertEquals(1.0, count("REFUNDED", "skipped") - skippedBefore);
+        assertTrue(output.getOut().contains("WhatsApp not configured for tenantId=" + order.getTenantId()));
+        assertEquals(requestsBefore, requests.get());
+        verify(deliveryRepository, never()).save(any());
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private UUID configuredTenant(String phoneNumberId) {
+        UUID tenantId = UUID.randomUUID();
+        TenantSettingsRequest req = new TenantSettingsRequest();
+        req.setWhatsappPhoneNumberId(phoneNumberId);
+        req.setWhatsappAccessToken("wa_token");
+        appSettingsService.upsert(tenantId, req);
+        return tenantId;
+    }
+
+    private static Order order(UUID tenantId) {
+        return Order.builder()
+                .id(UUID.randomUUID())
+                .tenantId(tenantId)
+                .customerName("Test Customer")
+                .customerWhatsapp("919999999999")
+                .amountPaise(1000L)
+                .currency("INR")
+                .status(OrderStatus.PAID)
+                .build();
+    }
+
+    private long timed(String status) {
+        var t = meterRegistry.find("httpcomponents.httpclient.request").tags("method", "POST", "status", status).timer();
+        return t == null ? 0 : t.count();
+    }
+
+    private RequiredSearch pool(String name) {
+        return meterRegistry.get(name).tag("httpclient", "outbound-async");
+    }
+
+    private double count(String kind, String outcome) {
+        var c = meterRegistry.find("app.whatsapp.deliveries").tags("kind", kind, "outcome", outcome).counter();
+        return c == null ? 0 : c.count();
+    }
+}
@@ -0,0 +1,204 @@
+package com.chatpaykit.shard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatpaykit.dto.CreateOrderRequest;
+import com.chatpaykit.dto.TenantMoveResponse;
+import com.chatpaykit.entity.Order;
+import com.chatpaykit.entity.OrderStatus;
+import com.chatpaykit.entity.TenantSettings;
+import com.chatpaykit.entity.TenantShard;
+import com.chatpaykit.repository.OrderRepository;
+import com.chatpaykit.repository.TenantSettingsRepository;
+import com.chatpaykit.security.TenantContext;
+import com.chatpaykit.service.OrderService;
+import com.chatpaykit.service.RazorpayPaymentService;
+import com.chatpaykit.service.WhatsappPaymentService;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shardhome;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "app.datasource.shards.enabled=true",
+        "app.datasource.shards.urls=jdbc:h2:mem:shard1;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.shards.newTenants=shard-0",
+        "app.datasource.shards.directoryTtlMs=100",
+        "app.datasource.shards.move.settleMs=50",
+        "app.datasource.shards.move.batchSize=2"
+})
+@AutoConfigureMockMvc
+class TenantShardingTest {
+
+    private static final String WEBHOOK_SECRET = "test_webhook_secret";
+
+    @Autowired MockMvc mvc;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired TenantSettingsRepository tenantSettingsRepository;
+    @Autowired TenantShardDirectory directory;
+    @Autowired TenantShardMover mover;
+    @Autowired TransactionTemplate tx;
+
+    @MockitoBean RazorpayPaymentService razorpayPaymentService;
+    @MockitoBean WhatsappPaymentService whatsappPaymentService;
+
+    private final JdbcTemplate home = jdbc("shardhome");
+    private final JdbcTemplate shard1 = jdbc("shard1");
+
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+    }
+
+    @Test
+    void tenantWorkLandsOnItsShard() {
+        directory.assign(tenantId, "shard-1");
+        Order o = TenantContext.call(tenantId, () -> {
+            saveSettings();
+            return create("Shard One");
+        });
+
+        assertEquals(1, count(shard1, "orders", o.getId()));
+        assertEquals(0, count(home, "orders", o.getId()));
+        assertEquals(1, count(shard1, "tenant_settings", tenantId));
+        assertEquals(0, count(home, "tenant_settings", tenantId));
+    }
+
+    @Test
+    void webhookFindsOrderOnAnyShard() throws Exception {
+        directory.assign(tenantId, "shard-1");
+        String rzpOrderId = "order_" + UUID.randomUUID().toString().substring(0, 8);
+        Order o = TenantContext.call(tenantId, () -> {
+            saveSettings();
+            Order created = create("Webhook Shard");
+            created.setRazorpayOrderId(rzpOrderId);
+            created.setStatus(OrderStatus.PAYMENT_SENT);
+            return orderRepository.save(created);
+        });
+
+        String eventId = "evt_" + UUID.randomUUID();
+        String payload = """
+                {"id":"%s","event":"payment.captured","created_at":1,
+                 "payload":{"payment":{"entity":{"id":"pay_1","order_id":"%s","status":"captured"}},"refund":{}}}
+                """.formatted(eventId, rzpOrderId);
+        mvc.perform(post("/webhooks/razorpay")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Razorpay-Signature", hmac(payload))
+                        .content(payload))
+                .andExpect(status().isOk());
+
+        assertEquals("PAID", shard1.queryForObject("SELECT status FROM orders WHERE id = ?", String.class, o.getId()));
+        assertEquals(1, shard1.queryForObject("SELECT COUNT(*) FROM webhook_events WHERE event_id = ?", Integer.class, eventId));
+    }
+
+    @Test
+    void moveCopiesTenantThenRemovesItFromSource() {
+        UUID bystander = UUID.randomUUID();
+        Order other = TenantContext.call(bystander, () -> create("Bystander"));
+        Order[] mine = TenantContext.call(tenantId, () -> {
+            saveSettings();
+            return new Order[]{create("Mover 1"), create("Mover 2"), create("Mover 3")};
+        });
+
+        TenantMoveResponse res = mover.move(tenantId, "shard-1");
+
+        assertEquals("shard-0", res.getFrom());
+        assertEquals(3L, res.getCopied().get("orders"));
+        for (Order o : mine) {
+            assertEquals(1, count(shard1, "orders", o.getId()));
+            assertEquals(0, count(home, "orders", o.getId()));
+        }
+        assertEquals(0, count(home, "tenant_settings", tenantId));
+        assertEquals(1, count(home, "orders", other.getId()));
+        assertEquals(new TenantShardDirectory.Placement("shard-1", TenantShard.State.ACTIVE), directory.fresh(tenantId));
+
+        // Reads through the app follow the new placement
+        assertEquals("Mover 1", TenantContext.call(tenantId,
+                () -> orderRepository.findById(mine[0].getId()).orElseThrow().getCustomerName()));
+    }
+
+    @Test
+    void frozenTenantReadsButCannotWrite() {
+        Order o = TenantContext.call(tenantId, () -> create("Frozen"));
+        directory.freeze(tenantId);
+        try {
+            TransactionTemplate readOnly = new TransactionTemplate(tx.getTransactionManager());
+            readOnly.setReadOnly(true);
+            Boolean found = TenantContext.call(tenantId,
+                    () -> readOnly.execute(s -> orderRepository.findById(o.getId()).isPresent()));
+            assertTrue(found);
+
+            assertThrows(RuntimeException.class, () -> TenantContext.run(tenantId, () -> create("Blocked")));
+        } finally {
+            directory.activate(tenantId, TenantShards.HOME);
+        }
+    }
+
+    @Test
+    void shardSequencesStartInTheirOwnRange() {
+        Long next = shard1.queryForObject("SELECT NEXT VALUE FOR order_events_seq", Long.class);
+        assertTrue(next >= 1L << 48, "shard-1 sequence starts at " + next);
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private Order create(String name) {
+        CreateOrderRequest req = new CreateOrderRequest();
+        req.setCustomerName(name);
+        req.setCustomerWhatsapp("919999999999");
+        req.setAmountPaise(1000L);
+        return orderService.create(req, TenantContext.get());
+    }
+
+    private void saveSettings() {
+        tenantSettingsRepository.save(TenantSettings.builder()
+                .tenantId(tenantId)
+                .razorpayWebhookSecret(WEBHOOK_SECRET)
+                .build());
+    }
+
+    private static int count(JdbcTemplate jdbc, String table, UUID id) {
+        String column = table.equals("tenant_settings") ? "tenant_id" : "id";
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?", Integer.class, id);
+    }
+
+    private static JdbcTemplate jdbc(String db) {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + db + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+
+    private static String hmac(String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(WEBHOOK_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.chatpaykit.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedFanOutTest {
+
+    @Test
+    void neverMoreThanMaxInFlightOutstanding() {
+        List<Integer> items = IntStream.range(0, 200).boxed().toList();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<Integer> results = BoundedFanOut.run(items, 8, i -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            // Completes later on another thread, like an HTTP response
+            return CompletableFuture.supplyAsync(() -> {
+                inFlight.decrementAndGet();
+                return i * 2;
+            }, CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS));
+        }).orTimeout(30, TimeUnit.SECONDS).join();
+
+        assertEquals(IntStream.range(0, 200).map(i -> i * 2).boxed().toList(), results);
+        assertTrue(peak.get() <= 8, "peak=" + peak.get());
+        assertEquals(8, peak.get());
+    }
+
+    @Test
+    void waitingCallsStartOnlyWhenOneCompletes() {
+        ConcurrentLinkedQueue<CompletableFuture<String>> pending = new ConcurrentLinkedQueue<>();
+        AtomicInteger started = new AtomicInteger();
+
+        CompletableFuture<List<String>> done = BoundedFanOut.run(List.of("a", "b", "c", "d", "e"), 2, s -> {
+            started.incrementAndGet();
+            CompletableFuture<String> f = new CompletableFuture<>();
+            pending.add(f);
+            return f.thenApply(String::toUpperCase);
+        });
+        assertEquals(2, started.get());
+
+        pending.poll().complete("a");
+        assertEquals(3, started.get());
+        pending.poll().complete("b");
+        pending.poll().complete("c");
+        assertEquals(5, started.get());
+        assertFalse(done.isDone());
+
+        pending.poll().complete("d");
+        pending.poll().complete("e");
+        assertEquals(List.of("A", "B", "C", "D", "E"), done.join());
+    }
+
+    @Test
+    void callsThatCompleteAtOnceDoNotRecurse() {
+        List<Integer> items = IntStream.range(0, 100_000).boxed().toList();
+        List<Integer> results = BoundedFanOut.run(items, 4, CompletableFuture::completedFuture).join();
+        assertEquals(items, results);
+    }
+
+    @Test
+    void firstFailureFailsTheWholeAndStopsStartingCalls() {
+        IllegalStateException boom = new IllegalStateException("boom");
+        AtomicInteger started = new AtomicInteger();
+
+        CompletableFuture<List<Integer>> done = BoundedFanOut.run(List.of(1, 2, 3, 4, 5), 1, i -> {
+            started.incrementAndGet();
+            return i == 2 ? CompletableFuture.failedFuture(boom) : CompletableFuture.completedFuture(i);
+        });
+
+        CompletionException e = assertThrows(CompletionException.class, done::join);
+        assertSame(boom, e.getCause());
+        assertEquals(2, started.get());
+    }
+
+    @Test
+    void rejectsNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BoundedFanOut.run(List.of(1), 0, CompletableFuture::completedFuture));
+    }
+}
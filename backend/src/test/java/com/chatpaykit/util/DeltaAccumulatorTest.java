@@ -0,0 +1,86 @@
+package com.chatpaykit.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class DeltaAccumulatorTest {
+
+    @Test
+    void oldBucketKeysGoAwayOnceIdle() {
+        DeltaAccumulator<String> acc = new DeltaAccumulator<>();
+        for (int hour = 0; hour < 48; hour++) {
+            acc.add("HOUR:" + hour, 1, 500);
+            Map<String, long[]> drained = acc.drain();
+            assertArrayEquals(new long[]{1, 500}, drained.get("HOUR:" + hour));
+            // Only the bucket just written (and at most the one before it) is still held
+            assertTrue(acc.size() <= 2, "size=" + acc.size());
+        }
+
+        assertTrue(acc.drain().isEmpty());
+        assertTrue(acc.drain().isEmpty());
+        assertTrue(acc.isEmpty());
+    }
+
+    @Test
+    void activeKeyIsKeptAndReAddedAfterRemoval() {
+        DeltaAccumulator<String> acc = new DeltaAccumulator<>();
+        acc.add("DAY:1", 2, 100);
+        acc.drain();
+        acc.add("DAY:1", -1, -50);
+        assertArrayEquals(new long[]{-1, -50}, acc.drain().get("DAY:1"));
+
+        acc.drain();
+        assertTrue(acc.isEmpty());
+        acc.add("DAY:1", 1, 10);
+        assertArrayEquals(new long[]{1, 10}, acc.peek("DAY:1"));
+        assertArrayEquals(new long[]{1, 10}, acc.drain().get("DAY:1"));
+    }
+
+    @Test
+    void concurrentAddsSurviveRemoval() throws Exception {
+        DeltaAccumulator<String> acc = new DeltaAccumulator<>();
+        int writers = 4;
+        int perWriter = 50_000;
+        AtomicBoolean done = new AtomicBoolean();
+        long[] total = new long[2];
+
+        List<Future<?>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(writers + 1)) {
+            results.add(pool.submit(() -> {
+                while (!done.get()) drainInto(acc, total);
+            }));
+            List<Future<?>> adds = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                adds.add(pool.submit(() -> {
+                    // Few keys, so the drainer keeps retiring cells the writers are using
+                    for (int i = 0; i < perWriter; i++) acc.add("k" + (i % 3), 1, 7);
+                }));
+            }
+            for (Future<?> f : adds) f.get();
+            done.set(true);
+            for (Future<?> f : results) f.get();
+        }
+        drainInto(acc, total);
+
+        assertEquals((long) writers * perWriter, total[0]);
+        assertEquals(7L * writers * perWriter, total[1]);
+    }
+
+    private static void drainInto(DeltaAccumulator<String> acc, long[] total) {
+        acc.drain().values().forEach(v -> {
+            total[0] += v[0];
+            total[1] += v[1];
+        });
+    }
+}
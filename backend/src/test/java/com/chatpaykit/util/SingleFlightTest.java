@@ -0,0 +1,102 @@
+package com.chatpaykit.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentCallsShareOneLoad() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ZERO, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> flight.get("pay_1", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "captured";
+                })));
+            }
+            while (count("leader") + count("coalesced") < callers) Thread.sleep(5);
+            release.countDown();
+            for (Future<String> r : results) assertEquals("captured", r.get());
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, count("leader"));
+        assertEquals(callers - 1, count("coalesced"));
+
+        // No TTL: the next call loads again
+        flight.get("pay_1", () -> "refunded");
+        assertEquals(2, count("leader"));
+    }
+
+    @Test
+    void waitersGetTheLeadersException() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofMinutes(1), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException boom = new IllegalStateException("upstream 502");
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            Future<String> leader = pool.submit(() -> flight.get("k", () -> {
+                await(release);
+                throw boom;
+            }));
+            while (count("leader") < 1) Thread.sleep(5);
+            Future<String> waiter = pool.submit(() -> flight.get("k", () -> "unused"));
+            while (count("coalesced") < 1) Thread.sleep(5);
+            release.countDown();
+
+            assertSame(boom, assertThrows(ExecutionException.class, leader::get).getCause());
+            assertSame(boom, assertThrows(ExecutionException.class, waiter::get).getCause());
+        }
+
+        // Failures are not kept
+        assertEquals("ok", flight.get("k", () -> "ok"));
+    }
+
+    @Test
+    void resultIsReusedWithinTtlUntilForgotten() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", Duration.ofMinutes(1), meterRegistry);
+
+        assertEquals(1, flight.get("k", () -> 1));
+        assertEquals(1, flight.get("k", () -> 2));
+        assertEquals(1, count("cached"));
+
+        flight.forget("k");
+        assertEquals(3, flight.get("k", () -> 3));
+    }
+
+    private long count(String result) {
+        return (long) meterRegistry.get("singleflight.calls").tags("name", "test", "result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 import { Link, useLocation, useNavigate } from "react-router-dom";
-import { getUser, logout } from "../../lib/auth";
+import { getUser } from "../../lib/auth";
+import { signOut } from "../../lib/http";
 
 export default function AppShell({ children }: { children: React.ReactNode }) {
   const user = getUser();
@@ -37,7 +38,7 @@ export default function AppShell({ children }: { children: React.ReactNode }) {
 
             <button
               onClick={() => {
-                logout();
+                void signOut();
                 nav("/login");
               }}
               className="ml-2 px-3 py-2 rounded-md bg-zinc-800 hover:bg-zinc-700"
@@ -34,7 +34,7 @@ export default function AuthPage() {
         password: signupForm.password,
       });
 
-      setToken(res.data.token);
+      setToken(res.data.token, res.data.refreshToken);
       navigate("/", { replace: true });
     } catch (err: any) {
       const serverMsg =
@@ -57,7 +57,7 @@ export default function AuthPage() {
         password: loginForm.password,
       });
 
-      setToken(res.data.token);
+      setToken(res.data.token, res.data.refreshToken);
       navigate("/", { replace: true });
     } catch (err: any) {
       const serverMsg =
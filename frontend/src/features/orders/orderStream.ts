@@ -0,0 +1,82 @@
+import { http } from "../../lib/http";
+import { OrdersAPI } from "./orders.api";
+
+export type OrderStatusEvent = {
+  id: string;
+  status: string;
+  [key: string]: any;
+};
+
+type Handlers = {
+  onStatus: (s: OrderStatusEvent) => void;
+  // Changes were missed that the server can't replay: refetch the list
+  onResync: () => void;
+  // true once connected, false while reconnecting
+  onLive?: (live: boolean) => void;
+};
+
+// ✅ Live order statuses over SSE (GET /api/orders/stream).
+// Every (re)connect fetches a fresh stream token first, and resumes after the
+// last event id seen. Returns a function that closes the stream.
+export function openOrderStream(handlers: Handlers): () => void {
+  let source: EventSource | null = null;
+  let lastEventId = "";
+  let retryTimer: number | null = null;
+  let attempt = 0;
+  let closed = false;
+
+  const track = (ev: Event) => {
+    const id = (ev as MessageEvent).lastEventId;
+    if (id) lastEventId = id;
+  };
+
+  const retry = () => {
+    if (closed) return;
+    handlers.onLive?.(false);
+    const delay = Math.min(30000, 1000 * 2 ** attempt++);
+    retryTimer = window.setTimeout(connect, delay);
+  };
+
+  async function connect() {
+    try {
+      const { token } = await OrdersAPI.streamToken();
+      if (closed) return;
+
+      const url = new URL("/api/orders/stream", http.defaults.baseURL);
+      url.searchParams.set("token", token);
+      if (lastEventId) url.searchParams.set("lastEventId", lastEventId);
+
+      const es = new EventSource(url.toString());
+      source = es;
+      es.onopen = () => {
+        attempt = 0;
+        handlers.onLive?.(true);
+      };
+      es.addEventListener("order-status", (ev) => {
+        track(ev);
+        handlers.onStatus(JSON.parse((ev as MessageEvent).data));
+      });
+      es.addEventListener("resync", (ev) => {
+        track(ev);
+        handlers.onResync();
+      });
+      // The browser would retry with the same URL, whose token has expired by then
+      es.onerror = () => {
+        es.close();
+        if (source === es) source = null;
+        retry();
+      };
+    } catch {
+      retry();
+    }
+  }
+
+  connect();
+
+  return () => {
+    closed = true;
+    if (retryTimer) window.clearTimeout(retryTimer);
+    source?.close();
+    source = null;
+  };
+}
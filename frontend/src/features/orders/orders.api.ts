@@ -2,6 +2,9 @@ import { http } from "../../lib/http";
 
 export const OrdersAPI = {
   list: async () => (await http.get("/api/orders")).data,
+  // Server-side lookup: name fragment, WhatsApp digits (suffix) or order_/pay_/rfnd_ id
+  search: async (q: string, page = 0, size = 20) =>
+    (await http.get("/api/orders/search", { params: { q, page, size } })).data,
   get: async (id: string) => (await http.get(`/api/orders/${id}`)).data,
   sync: (id: string) => http.get(`/api/orders/${id}/sync`).then(r => r.data),
   create: async (payload: any) => (await http.post("/api/orders", payload)).data,
@@ -15,4 +18,7 @@ export const OrdersAPI = {
     (await http.get(`/api/orders/${id}/status`)).data,
   checkoutUrl: async (id: string) =>
     (await http.get(`/api/orders/${id}/checkout`)).data,
+  // Short-lived token for GET /api/orders/stream (EventSource can't send the Bearer header)
+  streamToken: async () =>
+    (await http.post("/api/orders/stream/token")).data as { token: string; expiresIn: number },
 };
@@ -1,5 +1,6 @@
 import { useEffect, useMemo, useRef, useState } from "react";
 import { OrdersAPI } from "../orders.api";
+import { openOrderStream } from "../orderStream";
 import { useNavigate } from "react-router-dom";
 
 type Order = {
@@ -111,12 +112,18 @@ export default function OrdersPage() {
 
   // UI helpers
   const [search, setSearch] = useState("");
+  // Matches from /api/orders/search (null = filter the loaded list locally)
+  const [serverHits, setServerHits] = useState<Order[] | null>(null);
   const [statusFilter, setStatusFilter] = useState<"ALL" | string>("ALL");
 
   // Auto refresh live statuses
   const [autoRefresh, setAutoRefresh] = useState(true);
   const [lastUpdated, setLastUpdated] = useState<string>("-");
   const timerRef = useRef<number | null>(null);
+  // Status changes are pushed over SSE; polling only runs while the stream is down
+  const [streamLive, setStreamLive] = useState(false);
+  const ordersRef = useRef<Order[]>([]);
+  ordersRef.current = orders;
 
   const total = useMemo(() => orders.length, [orders]);
 
@@ -129,10 +136,39 @@ export default function OrdersPage() {
     return ["ALL", ...Array.from(set)];
   }, [orders]);
 
+  // Debounced server search; short queries (and failures) fall back to local filtering
+  useEffect(() => {
+    const q = search.trim();
+    if (q.length < 3) {
+      setServerHits(null);
+      return;
+    }
+    let cancelled = false;
+    const t = window.setTimeout(async () => {
+      try {
+        const data = await OrdersAPI.search(q);
+        if (!cancelled) setServerHits(Array.isArray(data?.items) ? data.items : null);
+      } catch {
+        if (!cancelled) setServerHits(null);
+      }
+    }, 300);
+    return () => {
+      cancelled = true;
+      window.clearTimeout(t);
+    };
+  }, [search]);
+
   const filteredOrders = useMemo(() => {
     const q = search.trim().toLowerCase();
-    return orders.filter((o) => {
+    const source = serverHits
+      ? serverHits.map((h) => {
+          const known = orders.find((o) => o.id === h.id);
+          return { ...h, liveStatus: known?.liveStatus || h.status };
+        })
+      : orders;
+    return source.filter((o) => {
       const matchQ =
+        !!serverHits ||
         !q ||
         (o.customerName || "").toLowerCase().includes(q) ||
         (o.customerWhatsapp || "").toLowerCase().includes(q) ||
@@ -144,7 +180,7 @@ export default function OrdersPage() {
 
       return matchQ && matchStatus;
     });
-  }, [orders, search, statusFilter]);
+  }, [orders, serverHits, search, statusFilter]);
 
   const loadList = async (silent = false) => {
     if (!silent) {
@@ -235,7 +271,31 @@ export default function OrdersPage() {
   }, []);
 
   useEffect(() => {
-    if (!autoRefresh) {
+    if (!autoRefresh) return;
+    const close = openOrderStream({
+      onStatus: (s) => {
+        // Created elsewhere (another tab, the API): pick it up with the list
+        if (!ordersRef.current.some((o) => o.id === s.id)) {
+          loadList(true);
+          return;
+        }
+        setOrders((prev) =>
+          prev.map((o) => (o.id === s.id ? { ...o, ...s, liveStatus: s.status } : o))
+        );
+        setLastUpdated(new Date().toLocaleTimeString());
+      },
+      onResync: () => loadList(true),
+      onLive: setStreamLive,
+    });
+    return () => {
+      close();
+      setStreamLive(false);
+    };
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [autoRefresh]);
+
+  useEffect(() => {
+    if (!autoRefresh || streamLive) {
       if (timerRef.current) window.clearInterval(timerRef.current);
       timerRef.current = null;
       return;
@@ -250,7 +310,7 @@ export default function OrdersPage() {
       timerRef.current = null;
     };
     // eslint-disable-next-line react-hooks/exhaustive-deps
-  }, [autoRefresh, orders.length]);
+  }, [autoRefresh, streamLive, orders.length]);
 
   const onCreate = async (e: React.FormEvent) => {
     e.preventDefault();
@@ -387,7 +447,7 @@ export default function OrdersPage() {
           <input
             value={search}
             onChange={(e) => setSearch(e.target.value)}
-            placeholder="Search name / whatsapp / id"
+            placeholder="Search name / whatsapp / order_ / pay_ id"
             className="w-full md:w-64 p-2 bg-zinc-900 border border-zinc-700 rounded"
           />
           <select
@@ -408,7 +468,7 @@ export default function OrdersPage() {
               checked={autoRefresh}
               onChange={(e) => setAutoRefresh(e.target.checked)}
             />
-            Auto live refresh
+            Auto live refresh{autoRefresh && (streamLive ? " (live)" : " (polling)")}
           </label>
 
           <button
@@ -29,8 +29,10 @@ export function decodeJwt(token: string): AuthUser | null {
   }
 }
 
-export function setToken(token: string) {
+// token: short-lived access token; refreshToken renews it (see lib/http.ts)
+export function setToken(token: string, refreshToken?: string) {
   localStorage.setItem("token", token);
+  if (refreshToken) localStorage.setItem("refreshToken", refreshToken);
   const user = decodeJwt(token);
   if (user) localStorage.setItem("user", JSON.stringify(user));
 }
@@ -39,6 +41,10 @@ export function getToken() {
   return localStorage.getItem("token");
 }
 
+export function getRefreshToken() {
+  return localStorage.getItem("refreshToken");
+}
+
 export function getUser(): AuthUser | null {
   const raw = localStorage.getItem("user");
   if (!raw) return null;
@@ -47,5 +53,6 @@ export function getUser(): AuthUser | null {
 
 export function logout() {
   localStorage.removeItem("token");
+  localStorage.removeItem("refreshToken");
   localStorage.removeItem("user");
 }
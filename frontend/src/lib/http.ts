@@ -1,4 +1,5 @@
-import axios from "axios";
+import axios, { type AxiosError, type InternalAxiosRequestConfig } from "axios";
+import { getRefreshToken, logout, setToken } from "./auth";
 
 const baseURL =
   import.meta.env.VITE_API_BASE?.trim() ||
@@ -18,3 +19,61 @@ http.interceptors.request.use((config) => {
   }
   return config;
 });
+
+// ✅ Access tokens are short-lived: on 401/403, refresh once and retry.
+// One refresh at a time; requests failing meanwhile wait for it.
+let refreshing: Promise<boolean> | null = null;
+
+async function refreshTokens(): Promise<boolean> {
+  const sent = getRefreshToken();
+  if (!sent) return false;
+  try {
+    // plain axios: no interceptors, no retry loop
+    const res = await axios.post(`${baseURL}/api/auth/refresh`, { refreshToken: sent }, { withCredentials: true });
+    setToken(res.data.token, res.data.refreshToken);
+    return true;
+  } catch {
+    // another tab rotated it first: use what it stored
+    if (getRefreshToken() !== sent) return true;
+    logout();
+    return false;
+  }
+}
+
+type RetriableConfig = InternalAxiosRequestConfig & { _retried?: boolean };
+
+http.interceptors.response.use(
+  (res) => res,
+  async (error: AxiosError) => {
+    const config = error.config as RetriableConfig | undefined;
+    const status = error.response?.status;
+    if (
+      !config ||
+      config._retried ||
+      (status !== 401 && status !== 403) ||
+      config.url?.startsWith("/api/auth/")
+    ) {
+      throw error;
+    }
+
+    refreshing = refreshing ?? refreshTokens().finally(() => { refreshing = null; });
+    if (!(await refreshing)) throw error;
+
+    config._retried = true;
+    config.headers.Authorization = `Bearer ${localStorage.getItem("token")}`;
+    return http(config);
+  }
+);
+
+// ✅ Ends the session on the server too (its access tokens stop working)
+export async function signOut() {
+  const refreshToken = getRefreshToken();
+  logout();
+  if (refreshToken) {
+    try {
+      await http.post("/api/auth/logout", { refreshToken });
+    } catch {
+      // already signed out locally; the server session expires on its own
+    }
+  }
+}